@@ -0,0 +1,62 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.benchmark;
+
+/**
+ * A single named benchmark which is executed repeatedly by the {@link BenchmarkRunner}.
+ */
+public class Benchmark {
+  private final String name;
+  private final Operation operation;
+
+  /**
+   * Creates a new benchmark.
+   *
+   * @param name      Unique name of the benchmark, in the form {@code group.name}.
+   * @param operation The operation to measure.
+   */
+  public Benchmark(String name, Operation operation) {
+    if (name == null || operation == null) {
+      throw new NullPointerException();
+    }
+    this.name = name;
+    this.operation = operation;
+  }
+
+  /** Returns the name of the benchmark. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Executes the operation a single time.
+   *
+   * @return An arbitrary value derived from the result of the operation. It is consumed by the runner to prevent dead
+   *         code elimination.
+   * @throws Exception if the operation fails.
+   */
+  public long run() throws Exception {
+    return operation.run();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** The operation measured by a benchmark. */
+  @FunctionalInterface
+  public interface Operation {
+    /**
+     * Executes the operation.
+     *
+     * @return An arbitrary value derived from the result of the operation.
+     * @throws Exception if the operation fails.
+     */
+    long run() throws Exception;
+  }
+}
@@ -0,0 +1,340 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.infinity.NearInfinity;
+import org.infinity.gui.menu.BrowserMenuBar;
+import org.infinity.resource.Profile;
+import org.infinity.util.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Executes benchmarks on synthetic fixtures and reports throughput and allocation rate of each benchmark.
+ * <p>
+ * Each benchmark is run for a number of warmup iterations, followed by the measured iterations. An iteration executes
+ * the benchmark operation repeatedly for a fixed amount of time. Allocated memory is determined per thread, which
+ * excludes allocations by worker threads spawned by the measured operation.
+ * </p>
+ * <p>
+ * Usage: {@code BenchmarkRunner [-w iterations] [-i iterations] [-t millis] [-o results.json] [-l] [-c] [filter ...]}
+ * </p>
+ * <p>
+ * Option {@code -c} runs the verification checks defined by {@link Checks} instead of the benchmarks.
+ * </p>
+ */
+public class BenchmarkRunner {
+  private static final int DEFAULT_WARMUP_ITERATIONS = 3;
+  private static final int DEFAULT_ITERATIONS = 5;
+  private static final int DEFAULT_ITERATION_TIME = 1000;
+
+  private final int warmupIterations;
+  private final int iterations;
+  private final long iterationNanos;
+  private final com.sun.management.ThreadMXBean threadBean;
+
+  /** Consumes benchmark results to prevent dead code elimination. */
+  private volatile long sink;
+
+  /**
+   * Creates a new benchmark runner.
+   *
+   * @param warmupIterations Number of unmeasured iterations.
+   * @param iterations       Number of measured iterations.
+   * @param iterationTime    Duration of a single iteration, in milliseconds.
+   */
+  public BenchmarkRunner(int warmupIterations, int iterations, int iterationTime) {
+    this.warmupIterations = Math.max(0, warmupIterations);
+    this.iterations = Math.max(1, iterations);
+    this.iterationNanos = Math.max(1, iterationTime) * 1_000_000L;
+    com.sun.management.ThreadMXBean bean = null;
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+      bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      if (bean.isThreadAllocatedMemorySupported()) {
+        bean.setThreadAllocatedMemoryEnabled(true);
+      } else {
+        bean = null;
+      }
+    }
+    this.threadBean = bean;
+  }
+
+  /**
+   * Executes the specified benchmark.
+   *
+   * @param benchmark The benchmark to execute.
+   * @return Measured results of the benchmark.
+   * @throws Exception if the benchmark operation fails.
+   */
+  public Result run(Benchmark benchmark) throws Exception {
+    for (int i = 0; i < warmupIterations; i++) {
+      runIteration(benchmark);
+    }
+
+    final Result result = new Result(benchmark.getName());
+    for (int i = 0; i < iterations; i++) {
+      final long[] values = runIteration(benchmark);
+      result.add(values[0], values[1], values[2]);
+    }
+    return result;
+  }
+
+  // Executes a single iteration and returns number of operations, elapsed time and allocated bytes
+  private long[] runIteration(Benchmark benchmark) throws Exception {
+    final long threadId = Thread.currentThread().getId();
+    long value = 0;
+    long ops = 0;
+    final long allocStart = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) : 0L;
+    final long start = System.nanoTime();
+    long elapsed;
+    do {
+      value += benchmark.run();
+      ops++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < iterationNanos);
+    final long allocated = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) - allocStart : -1L;
+    sink += value;
+    return new long[] { ops, elapsed, allocated };
+  }
+
+  public static void main(String[] args) {
+    int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+    int iterations = DEFAULT_ITERATIONS;
+    int iterationTime = DEFAULT_ITERATION_TIME;
+    Path outputFile = null;
+    boolean listOnly = false;
+    boolean checkOnly = false;
+    final List<String> filters = new ArrayList<>();
+
+    try {
+      for (int idx = 0; idx < args.length; idx++) {
+        final String arg = args[idx];
+        switch (arg.toLowerCase(Locale.ENGLISH)) {
+          case "-w":
+            warmupIterations = Integer.parseInt(args[++idx]);
+            break;
+          case "-i":
+            iterations = Integer.parseInt(args[++idx]);
+            break;
+          case "-t":
+            iterationTime = Integer.parseInt(args[++idx]);
+            break;
+          case "-o":
+            outputFile = Paths.get(args[++idx]);
+            break;
+          case "-l":
+            listOnly = true;
+            break;
+          case "-c":
+            checkOnly = true;
+            break;
+          default:
+            filters.add(arg.toLowerCase(Locale.ENGLISH));
+        }
+      }
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      System.err.println("Usage: BenchmarkRunner [-w iterations] [-i iterations] [-t millis] [-o results.json] [-l] "
+          + "[-c] [filter ...]");
+      System.exit(2);
+    }
+
+    int exitCode = 0;
+    try (Fixtures fixtures = new Fixtures()) {
+      // resources are accessed through a minimal generated game
+      Logger.info("Near Infinity {}", NearInfinity.getVersion());
+      if (!BrowserMenuBar.isInstantiated()) {
+        new BrowserMenuBar();
+      }
+      if (!Profile.openGame(fixtures.getKeyFile(), null, Profile.Game.BG2SoA)) {
+        throw new IllegalStateException("Could not open benchmark game: " + fixtures.getKeyFile());
+      }
+      fixtures.init();
+
+      if (checkOnly) {
+        exitCode = runChecks(fixtures, filters, listOnly);
+      } else if (listOnly) {
+        selectBenchmarks(fixtures, filters).forEach(System.out::println);
+      } else {
+        final BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, iterations, iterationTime);
+        final List<Result> results = new ArrayList<>();
+        System.out.println(Result.getHeader());
+        for (final Benchmark benchmark : selectBenchmarks(fixtures, filters)) {
+          try {
+            final Result result = runner.run(benchmark);
+            results.add(result);
+            System.out.println(result);
+          } catch (Exception e) {
+            Logger.error(e, "Benchmark failed: {}", benchmark.getName());
+            exitCode = 1;
+          }
+        }
+
+        if (outputFile != null) {
+          writeJson(outputFile, results, warmupIterations, iterations, iterationTime);
+        }
+      }
+    } catch (Exception e) {
+      Logger.error(e);
+      exitCode = 2;
+    }
+
+    System.exit(exitCode);
+  }
+
+  // Returns the benchmarks matching the filters
+  private static List<Benchmark> selectBenchmarks(Fixtures fixtures, List<String> filters) throws Exception {
+    final List<Benchmark> retVal = new ArrayList<>();
+    for (final Benchmark benchmark : Benchmarks.create(fixtures)) {
+      if (filters.isEmpty() || filters.stream().anyMatch(f -> benchmark.getName().contains(f))) {
+        retVal.add(benchmark);
+      }
+    }
+    return retVal;
+  }
+
+  // Executes the verification checks matching the filters and returns the exit code
+  private static int runChecks(Fixtures fixtures, List<String> filters, boolean listOnly) {
+    int exitCode = 0;
+    for (final Map.Entry<String, Checks.Check> entry : Checks.create(fixtures).entrySet()) {
+      final String name = entry.getKey();
+      if (!filters.isEmpty() && filters.stream().noneMatch(f -> name.contains(f))) {
+        continue;
+      }
+      if (listOnly) {
+        System.out.println(name);
+        continue;
+      }
+      try {
+        entry.getValue().verify();
+        System.out.println(String.format(Locale.ENGLISH, "%-24s OK", name));
+      } catch (Exception e) {
+        Logger.error(e, "Check failed: {}", name);
+        exitCode = 1;
+      }
+    }
+    return exitCode;
+  }
+
+  // Writes benchmark results to a JSON file
+  private static void writeJson(Path file, List<Result> results, int warmupIterations, int iterations,
+      int iterationTime) throws IOException {
+    final JSONObject root = new JSONObject();
+    root.put("version", NearInfinity.getVersion());
+    root.put("timestamp", System.currentTimeMillis());
+    root.put("java", System.getProperty("java.version"));
+    root.put("warmupIterations", warmupIterations);
+    root.put("iterations", iterations);
+    root.put("iterationTimeMs", iterationTime);
+    final JSONArray list = new JSONArray();
+    for (final Result result : results) {
+      list.put(result.toJson());
+    }
+    root.put("benchmarks", list);
+
+    try (BufferedWriter bw = Files.newBufferedWriter(file)) {
+      bw.write(root.toString(2));
+      bw.newLine();
+    }
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** Measured results of a single benchmark. */
+  public static class Result {
+    private final String name;
+    private final List<Double> opsPerSecond = new ArrayList<>();
+    private long totalOps;
+    private long totalNanos;
+    private long totalAllocated;
+
+    private Result(String name) {
+      this.name = name;
+    }
+
+    private void add(long ops, long nanos, long allocated) {
+      opsPerSecond.add(ops * 1e9 / nanos);
+      totalOps += ops;
+      totalNanos += nanos;
+      if (allocated < 0 || totalAllocated < 0) {
+        totalAllocated = -1L;
+      } else {
+        totalAllocated += allocated;
+      }
+    }
+
+    /** Returns the benchmark name. */
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the mean number of operations per second. */
+    public double getThroughput() {
+      return opsPerSecond.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+    }
+
+    /** Returns the standard deviation of the number of operations per second between iterations. */
+    public double getThroughputError() {
+      if (opsPerSecond.size() < 2) {
+        return 0.0;
+      }
+      final double mean = getThroughput();
+      double sum = 0.0;
+      for (final double value : opsPerSecond) {
+        sum += (value - mean) * (value - mean);
+      }
+      return Math.sqrt(sum / (opsPerSecond.size() - 1));
+    }
+
+    /** Returns the mean duration of a single operation, in microseconds. */
+    public double getTimePerOp() {
+      return (totalOps > 0) ? totalNanos / 1000.0 / totalOps : 0.0;
+    }
+
+    /** Returns the mean number of allocated bytes per operation, or -1 if not available. */
+    public double getAllocatedPerOp() {
+      return (totalAllocated >= 0 && totalOps > 0) ? (double) totalAllocated / totalOps : -1.0;
+    }
+
+    /** Returns the allocation rate in MB per second, or -1 if not available. */
+    public double getAllocationRate() {
+      return (totalAllocated >= 0 && totalNanos > 0) ? totalAllocated * 1e9 / totalNanos / (1024.0 * 1024.0) : -1.0;
+    }
+
+    /** Returns the column headers matching the output of {@link #toString()}. */
+    public static String getHeader() {
+      return String.format(Locale.ENGLISH, "%-24s %14s %10s %12s %14s %12s", "Benchmark", "ops/s", "error",
+          "us/op", "B/op", "MB/s alloc");
+    }
+
+    /** Returns the results in JSON format. */
+    public JSONObject toJson() {
+      final JSONObject retVal = new JSONObject();
+      retVal.put("name", name);
+      retVal.put("opsPerSecond", getThroughput());
+      retVal.put("opsPerSecondError", getThroughputError());
+      retVal.put("usPerOp", getTimePerOp());
+      retVal.put("bytesPerOp", getAllocatedPerOp());
+      retVal.put("allocMBPerSecond", getAllocationRate());
+      return retVal;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ENGLISH, "%-24s %14.1f %10.1f %12.2f %14.0f %12.1f", name, getThroughput(),
+          getThroughputError(), getTimePerOp(), getAllocatedPerOp(), getAllocationRate());
+    }
+  }
+}
@@ -0,0 +1,185 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.benchmark;
+
+import java.awt.Image;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.infinity.resource.are.AreResource;
+import org.infinity.resource.bcs.Compiler;
+import org.infinity.resource.bcs.Decompiler;
+import org.infinity.resource.bcs.ScriptType;
+import org.infinity.resource.cre.CreResource;
+import org.infinity.resource.graphics.BamV1Decoder;
+import org.infinity.resource.graphics.ColorConvert;
+import org.infinity.resource.graphics.DxtEncoder;
+import org.infinity.resource.itm.ItmResource;
+import org.infinity.resource.key.AbstractBIFFReader;
+import org.infinity.resource.key.BufferedResourceEntry;
+import org.infinity.resource.sound.AcmBuffer;
+import org.infinity.util.StringTable;
+
+/**
+ * Defines the available benchmarks.
+ */
+public final class Benchmarks {
+  /** Search terms used by the string table search benchmark. */
+  private static final String[] SEARCH_TERMS = { "dragon", "kalo", "the ra", "velor", "nimbel", "quost", "ithur" };
+
+  /**
+   * Returns all benchmarks operating on the specified fixtures.
+   *
+   * @param fixtures Initialized benchmark fixtures.
+   * @return List of benchmarks.
+   * @throws Exception if a benchmark could not be set up.
+   */
+  public static List<Benchmark> create(Fixtures fixtures) throws Exception {
+    final List<Benchmark> list = new ArrayList<>();
+    list.add(biffRead("biff.read.biff", AbstractBIFFReader.open(fixtures.getBiffFile())));
+    list.add(biffRead("biff.read.bif", AbstractBIFFReader.open(fixtures.getBifFile())));
+    list.add(biffRead("biff.read.bifc", AbstractBIFFReader.open(fixtures.getBifcFile())));
+    list.add(tlkLookup());
+    list.add(tlkSearch());
+    list.add(structParse("struct.parse.itm", fixtures.getItmData(), "BENCH.ITM"));
+    list.add(structParse("struct.parse.cre", fixtures.getCreData(), "BENCH.CRE"));
+    list.add(structParse("struct.parse.are", fixtures.getAreData(), "BENCH.ARE"));
+    list.add(scriptCompile(fixtures.getScriptSource()));
+    list.add(scriptDecompile(fixtures.getScriptSource()));
+    list.add(bamFrameGet(fixtures.getBamData()));
+    list.add(dxtEncode("dxt.encode.dxt1", fixtures.getDxtPixels(), DxtEncoder.DxtType.DXT1));
+    list.add(dxtEncode("dxt.encode.dxt5", fixtures.getDxtPixels(), DxtEncoder.DxtType.DXT5));
+    list.add(acmDecode(fixtures.getAcmData()));
+    list.add(nearestColor("color.nearest.argb", fixtures, ColorConvert.COLOR_DISTANCE_ARGB));
+    list.add(nearestColor("color.nearest.cie94", fixtures, ColorConvert.COLOR_DISTANCE_CIE94));
+    return list;
+  }
+
+  // Reads the resources of a BIFF archive in sequential order, one resource per operation
+  private static Benchmark biffRead(String name, AbstractBIFFReader reader) {
+    final int count = reader.getFileCount();
+    final int[] next = { 0 };
+    return new Benchmark(name, () -> {
+      final int locator = next[0];
+      next[0] = (locator + 1) % count;
+      final ByteBuffer buffer = reader.getResourceBuffer(locator);
+      return buffer.limit();
+    });
+  }
+
+  // Looks up random string references, 256 per operation
+  private static Benchmark tlkLookup() {
+    final int count = StringTable.getNumEntries();
+    final Random random = new Random(Fixtures.SEED);
+    final int[] indices = new int[256];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = random.nextInt(count);
+    }
+    return new Benchmark("tlk.lookup", () -> {
+      long retVal = 0;
+      for (final int index : indices) {
+        retVal += StringTable.getStringRef(index).length();
+      }
+      return retVal;
+    });
+  }
+
+  // Determines string table search candidates for a literal search term
+  private static Benchmark tlkSearch() {
+    final int[] next = { 0 };
+    return new Benchmark("tlk.search", () -> {
+      final String term = SEARCH_TERMS[next[0]];
+      next[0] = (next[0] + 1) % SEARCH_TERMS.length;
+      final int[] candidates = StringTable.getSearchCandidates(StringTable.Type.MALE, term, false);
+      return (candidates != null) ? candidates.length : -1;
+    });
+  }
+
+  // Parses a resource structure
+  private static Benchmark structParse(String name, ByteBuffer data, String resName) {
+    final BufferedResourceEntry entry = new BufferedResourceEntry(data, resName);
+    final String ext = resName.substring(resName.lastIndexOf('.') + 1);
+    return new Benchmark(name, () -> {
+      switch (ext) {
+        case "ITM":
+          return new ItmResource(entry).getRowCount();
+        case "CRE":
+          return new CreResource(entry).getRowCount();
+        default:
+          return new AreResource(entry).getRowCount();
+      }
+    });
+  }
+
+  // Compiles BAF source code
+  private static Benchmark scriptCompile(String source) {
+    checkCompiler(source);
+    return new Benchmark("script.compile", () -> new Compiler(source, ScriptType.BAF).compile().length());
+  }
+
+  // Decompiles BCS code
+  private static Benchmark scriptDecompile(String source) {
+    final String code = checkCompiler(source);
+    return new Benchmark("script.decompile", () -> new Decompiler(code, ScriptType.BCS, false).decompile().length());
+  }
+
+  // Compiles the specified source and throws an exception if the result contains errors
+  private static String checkCompiler(String source) {
+    final Compiler compiler = new Compiler(source, ScriptType.BAF);
+    final String code = compiler.compile();
+    if (!compiler.getErrors().isEmpty()) {
+      throw new IllegalStateException("Benchmark script contains errors: " + compiler.getErrors().first());
+    }
+    return code;
+  }
+
+  // Decodes BAM frames in sequential order, one frame per operation
+  private static Benchmark bamFrameGet(ByteBuffer data) {
+    final BamV1Decoder decoder = new BamV1Decoder(new BufferedResourceEntry(data, "BENCH.BAM"));
+    if (!decoder.isOpen()) {
+      throw new IllegalStateException("Benchmark BAM could not be loaded");
+    }
+    final BamV1Decoder.BamV1Control control = decoder.createControl();
+    final int count = decoder.frameCount();
+    final int[] next = { 0 };
+    return new Benchmark("bam.frameGet", () -> {
+      final int frameIdx = next[0];
+      next[0] = (frameIdx + 1) % count;
+      final Image image = decoder.frameGet(control, frameIdx);
+      final long retVal = image.getWidth(null);
+      image.flush();
+      return retVal;
+    });
+  }
+
+  // Encodes an image in the specified pixel format
+  private static Benchmark dxtEncode(String name, int[] pixels, DxtEncoder.DxtType type) {
+    final int size = Fixtures.DXT_IMAGE_SIZE;
+    return new Benchmark(name, () -> DxtEncoder.encodeImage(pixels, size, size, type).length);
+  }
+
+  // Decodes an ACM audio clip into PCM data
+  private static Benchmark acmDecode(byte[] data) {
+    return new Benchmark("acm.decode", () -> new AcmBuffer(data, 0).getAudioData().length);
+  }
+
+  // Determines nearest palette entries of 256 colors per operation
+  private static Benchmark nearestColor(String name, Fixtures fixtures, ColorConvert.ColorDistanceFunc func) {
+    final int[] palette = fixtures.getPalette();
+    final int[] colors = fixtures.getColors();
+    return new Benchmark(name, () -> {
+      long retVal = 0;
+      for (final int color : colors) {
+        retVal += ColorConvert.getNearestColor(color, palette, 1.0, func);
+      }
+      return retVal;
+    });
+  }
+
+  private Benchmarks() {
+  }
+}
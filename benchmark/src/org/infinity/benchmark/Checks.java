@@ -0,0 +1,84 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.infinity.util.StringTable;
+
+/**
+ * Defines verification checks which compare optimized code paths with their straightforward implementations on the
+ * benchmark fixtures. Checks are run separately from the benchmarks by the {@link BenchmarkRunner}.
+ */
+public final class Checks {
+  /**
+   * Returns all checks operating on the specified fixtures, in execution order.
+   *
+   * @param fixtures Initialized benchmark fixtures.
+   * @return Map of check names to checks.
+   */
+  public static Map<String, Check> create(Fixtures fixtures) {
+    final Map<String, Check> map = new LinkedHashMap<>();
+    map.put("tlk.search.candidates", Checks::checkSearchCandidates);
+    return map;
+  }
+
+  // Throws an exception if regular expression searches with escape sequences do not return all matching strings
+  private static void checkSearchCandidates() {
+    String text = null;
+    for (int i = 0, count = StringTable.getNumEntries(); i < count && text == null; i++) {
+      final String s = StringTable.getStringRef(i);
+      if (s.length() >= 6 && s.substring(0, 6).chars().allMatch(Character::isLetter)) {
+        text = s.substring(0, 6);
+      }
+    }
+    if (text == null) {
+      throw new IllegalStateException("Benchmark string table contains no suitable search text");
+    }
+
+    final int ch = text.charAt(0);
+    final String rest = text.substring(1);
+    final String[] terms = {
+        text,
+        String.format("\\x%02x%s", ch, rest),
+        String.format("\\u%04x%s", ch, rest),
+        String.format("\\0%o%s", ch, rest),
+        "\\cJ*" + text,
+        "\\p{L}" + rest,
+        "\\P{Digit}" + rest,
+    };
+    for (final String term : terms) {
+      final int[] candidates = StringTable.getSearchCandidates(StringTable.Type.MALE, term, true);
+      if (candidates == null) {
+        continue;
+      }
+      final Pattern pattern = Pattern.compile(term, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+      for (int i = 0, count = StringTable.getNumEntries(); i < count; i++) {
+        if (pattern.matcher(StringTable.getStringRef(i)).find() && Arrays.binarySearch(candidates, i) < 0) {
+          throw new IllegalStateException("String table search misses match " + i + " of term: " + term);
+        }
+      }
+    }
+  }
+
+  private Checks() {
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** A single verification check. */
+  @FunctionalInterface
+  public interface Check {
+    /**
+     * Executes the check.
+     *
+     * @throws Exception if the verification fails.
+     */
+    void verify() throws Exception;
+  }
+}
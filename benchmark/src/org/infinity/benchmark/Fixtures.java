@@ -0,0 +1,605 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.infinity.datatype.SectionOffset;
+import org.infinity.resource.AbstractStruct;
+import org.infinity.resource.AddRemovable;
+import org.infinity.resource.HasChildStructs;
+import org.infinity.resource.StructureFactory;
+import org.infinity.resource.are.AreResource;
+import org.infinity.resource.are.TiledObject;
+import org.infinity.resource.cre.CreResource;
+import org.infinity.resource.itm.ItmResource;
+import org.infinity.resource.key.BufferedResourceEntry;
+import org.infinity.resource.sound.AcmReader;
+import org.infinity.util.Logger;
+import org.infinity.util.io.StreamUtils;
+
+/**
+ * Generates the synthetic data used by the benchmarks.
+ * <p>
+ * All fixtures are created from a fixed random seed, so that results of different runs are comparable. No game data
+ * is required: a minimal game with an empty {@code chitin.key}, a generated {@code dialog.tlk} and a few IDS files is
+ * written to a temporary folder. It provides the environment required by string table lookups, script compilation and
+ * structure parsing.
+ * </p>
+ */
+public class Fixtures implements AutoCloseable {
+  /** Seed of the random number generator. */
+  public static final long SEED = 0x4e4931L;
+
+  /** Number of resources in the generated BIFF archives. */
+  public static final int BIFF_RESOURCES = 256;
+
+  /** Number of string references in the generated string table. */
+  public static final int TLK_ENTRIES = 20000;
+
+  /** Number of script blocks in the generated BAF source. */
+  public static final int SCRIPT_BLOCKS = 100;
+
+  /** Width and height of generated BAM frames, in pixels. */
+  public static final int BAM_FRAME_SIZE = 96;
+
+  /** Number of frames in the generated BAM resource. */
+  public static final int BAM_FRAMES = 16;
+
+  /** Width and height of the image used for DXT encoding, in pixels. */
+  public static final int DXT_IMAGE_SIZE = 256;
+
+  /** Length of the generated ACM audio clip, in seconds. */
+  public static final int ACM_SECONDS = 2;
+
+  private static final String[] SYLLABLES = { "ka", "lo", "mir", "an", "te", "dra", "gon", "el", "ith", "ur", "sa",
+      "vel", "or", "in", "the", "ra", "nim", "bel", "qu", "ost" };
+
+  private static final String TRIGGER_IDS = "IDS V1.0\r\n0x0002 Alive(O:Object*)\r\n"
+      + "0x400F Global(S:Name*,S:Area*,I:Value*)\r\n0x0001 True()\r\n";
+  private static final String ACTION_IDS = "IDS V1.0\r\n30 SetGlobal(S:Name*,S:Area*,I:Value*)\r\n0 NoAction()\r\n";
+  private static final String OBJECT_IDS = "IDS V1.0\r\n0 NOTHING\r\n1 Myself\r\n";
+
+  /** IDS files referenced by structure fields, filled with placeholder symbols. */
+  private static final String[] GENERIC_IDS = { "ALIGNMEN", "ANIMATE", "CLASS", "EA", "GENDER", "GENERAL", "PROJECTL", "RACE",
+      "SLOTS", "SPECIFIC", "STATE" };
+
+  private final Random random = new Random(SEED);
+  private final Path root;
+
+  private Path biffFile;
+  private Path bifFile;
+  private Path bifcFile;
+  private String scriptSource;
+  private ByteBuffer itmData;
+  private ByteBuffer creData;
+  private ByteBuffer areData;
+  private ByteBuffer bamData;
+  private byte[] acmData;
+  private int[] dxtPixels;
+  private int[] palette;
+  private int[] colors;
+
+  /**
+   * Creates the game environment in a new temporary folder. In-memory fixtures are generated by {@link #init()} after
+   * the game has been opened.
+   *
+   * @throws IOException if the game files could not be written.
+   */
+  public Fixtures() throws IOException {
+    root = Files.createTempDirectory("nibench");
+    final Path override = Files.createDirectories(root.resolve("override"));
+    final Path data = Files.createDirectories(root.resolve("data"));
+
+    writeKey(root.resolve("chitin.key"));
+    writeTlk(root.resolve("dialog.tlk"));
+    Files.write(override.resolve("TRIGGER.IDS"), TRIGGER_IDS.getBytes(StandardCharsets.US_ASCII));
+    Files.write(override.resolve("ACTION.IDS"), ACTION_IDS.getBytes(StandardCharsets.US_ASCII));
+    Files.write(override.resolve("OBJECT.IDS"), OBJECT_IDS.getBytes(StandardCharsets.US_ASCII));
+    for (final String name : GENERIC_IDS) {
+      final StringBuilder sb = new StringBuilder("IDS V1.0\r\n");
+      for (int i = 0; i < 16; i++) {
+        sb.append(i).append(' ').append(name).append('_').append(i).append("\r\n");
+      }
+      Files.write(override.resolve(name + ".IDS"), sb.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    final byte[] biff = createBiff();
+    biffFile = data.resolve("BENCH.BIF");
+    Files.write(biffFile, biff);
+    bifFile = data.resolve("BENCHZ.BIF");
+    Files.write(bifFile, createBif(biff, "BENCH.BIF"));
+    bifcFile = data.resolve("BENCHC.BIF");
+    Files.write(bifcFile, createBifc(biff));
+  }
+
+  /**
+   * Generates the in-memory fixtures. Must be called after the game has been opened.
+   *
+   * @throws Exception if a fixture could not be generated.
+   */
+  public void init() throws Exception {
+    scriptSource = createScript();
+    itmData = createStruct(StructureFactory.ResType.RES_ITM, "BENCH.ITM", 4);
+    creData = createStruct(StructureFactory.ResType.RES_CRE, "BENCH.CRE", 8);
+    areData = createStruct(StructureFactory.ResType.RES_ARE, "BENCH.ARE", 4);
+    bamData = createBam();
+    acmData = createAcm();
+    dxtPixels = createImage(DXT_IMAGE_SIZE, DXT_IMAGE_SIZE);
+    palette = new int[256];
+    for (int i = 0; i < palette.length; i++) {
+      palette[i] = 0xff000000 | random.nextInt(0x1000000);
+    }
+    colors = new int[256];
+    for (int i = 0; i < colors.length; i++) {
+      colors[i] = random.nextInt();
+    }
+  }
+
+  /** Returns the root folder of the generated game. */
+  public Path getGameRoot() {
+    return root;
+  }
+
+  /** Returns the path of the {@code chitin.key} of the generated game. */
+  public Path getKeyFile() {
+    return root.resolve("chitin.key");
+  }
+
+  /** Returns the path of the uncompressed BIFF V1 archive. */
+  public Path getBiffFile() {
+    return biffFile;
+  }
+
+  /** Returns the path of the zlib compressed BIF V1.0 archive. */
+  public Path getBifFile() {
+    return bifFile;
+  }
+
+  /** Returns the path of the block compressed BIFC V1.0 archive. */
+  public Path getBifcFile() {
+    return bifcFile;
+  }
+
+  /** Returns BAF source code with {@link #SCRIPT_BLOCKS} script blocks. */
+  public String getScriptSource() {
+    return scriptSource;
+  }
+
+  /** Returns a populated ITM resource. */
+  public ByteBuffer getItmData() {
+    return itmData;
+  }
+
+  /** Returns a populated CRE resource. */
+  public ByteBuffer getCreData() {
+    return creData;
+  }
+
+  /** Returns a populated ARE resource. */
+  public ByteBuffer getAreData() {
+    return areData;
+  }
+
+  /** Returns a BAM V1 resource with {@link #BAM_FRAMES} RLE compressed frames. */
+  public ByteBuffer getBamData() {
+    return bamData;
+  }
+
+  /** Returns a stereo ACM audio clip of {@link #ACM_SECONDS} seconds. */
+  public byte[] getAcmData() {
+    return acmData;
+  }
+
+  /** Returns ARGB pixels of an image with {@link #DXT_IMAGE_SIZE} pixels in each dimension. */
+  public int[] getDxtPixels() {
+    return dxtPixels;
+  }
+
+  /** Returns a palette of 256 random opaque colors. */
+  public int[] getPalette() {
+    return palette;
+  }
+
+  /** Returns 256 random ARGB colors. */
+  public int[] getColors() {
+    return colors;
+  }
+
+  /** Removes the generated game folder. */
+  @Override
+  public void close() {
+    try (Stream<Path> files = Files.walk(root)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> {
+        try {
+          Files.delete(path);
+        } catch (IOException e) {
+          Logger.warn("Could not delete {}", path);
+        }
+      });
+    } catch (IOException e) {
+      Logger.warn(e, "Could not remove benchmark fixtures");
+    }
+  }
+
+  // Writes an empty KEY V1 file; the header is followed by reserved space which is probed for the demo variant
+  private static void writeKey(Path file) throws IOException {
+    final ByteBuffer bb = StreamUtils.getByteBuffer(40);
+    bb.put("KEY V1  ".getBytes(StandardCharsets.US_ASCII));
+    bb.putInt(0); // number of BIFF entries
+    bb.putInt(0); // number of resource entries
+    bb.putInt(0x18); // BIFF entries offset
+    bb.putInt(0x18); // resource entries offset
+    Files.write(file, bb.array());
+  }
+
+  // Writes a TLK V1 file with generated strings
+  private void writeTlk(Path file) throws IOException {
+    final byte[][] strings = new byte[TLK_ENTRIES][];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = (i == 0) ? new byte[0] : createText(4 + random.nextInt(40)).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    final int headerSize = 18;
+    final int entrySize = 26;
+    final ByteBuffer header = StreamUtils.getByteBuffer(headerSize + strings.length * entrySize);
+    header.put("TLK V1  ".getBytes(StandardCharsets.US_ASCII));
+    header.putShort((short) 0);
+    header.putInt(strings.length);
+    header.putInt(header.capacity());
+    int ofs = 0;
+    for (final byte[] string : strings) {
+      header.putShort((short) 1); // flags: has text
+      header.put(new byte[8]); // sound resref
+      header.putInt(0); // volume variance
+      header.putInt(0); // pitch variance
+      header.putInt(ofs);
+      header.putInt(string.length);
+      ofs += string.length;
+    }
+
+    try (OutputStream os = Files.newOutputStream(file)) {
+      os.write(header.array());
+      for (final byte[] string : strings) {
+        os.write(string);
+      }
+    }
+  }
+
+  // Returns a BIFF V1 archive with text-like resources of varying size
+  private byte[] createBiff() {
+    final byte[][] resources = new byte[BIFF_RESOURCES][];
+    int dataSize = 0;
+    for (int i = 0; i < resources.length; i++) {
+      final int size = 512 + random.nextInt(32 * 1024);
+      resources[i] = createText(size).substring(0, size).getBytes(StandardCharsets.US_ASCII);
+      dataSize += size;
+    }
+
+    final int headerSize = 20 + 16 * resources.length;
+    final ByteBuffer bb = StreamUtils.getByteBuffer(headerSize + dataSize);
+    bb.put("BIFFV1  ".getBytes(StandardCharsets.US_ASCII));
+    bb.putInt(resources.length);
+    bb.putInt(0); // number of tilesets
+    bb.putInt(0x14);
+    int ofs = headerSize;
+    for (int i = 0; i < resources.length; i++) {
+      bb.putInt(i); // locator
+      bb.putInt(ofs);
+      bb.putInt(resources[i].length);
+      bb.putShort((short) 0x3f0); // 2DA
+      bb.putShort((short) 0);
+      ofs += resources[i].length;
+    }
+    for (final byte[] resource : resources) {
+      bb.put(resource);
+    }
+    return bb.array();
+  }
+
+  // Returns the BIFF archive compressed as a single zlib stream
+  private static byte[] createBif(byte[] biff, String biffName) throws IOException {
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (DeflaterOutputStream dos = new DeflaterOutputStream(compressed)) {
+      dos.write(biff);
+    }
+    final byte[] name = (biffName + '\0').getBytes(StandardCharsets.US_ASCII);
+    final ByteBuffer bb = StreamUtils.getByteBuffer(20 + name.length + compressed.size());
+    bb.put("BIF V1.0".getBytes(StandardCharsets.US_ASCII));
+    bb.putInt(name.length);
+    bb.put(name);
+    bb.putInt(biff.length);
+    bb.putInt(compressed.size());
+    bb.put(compressed.toByteArray());
+    return bb.array();
+  }
+
+  // Returns the BIFF archive compressed in blocks of 8 KB
+  private static byte[] createBifc(byte[] biff) {
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    final ByteBuffer bb = StreamUtils.getByteBuffer(12);
+    bb.put("BIFCV1.0".getBytes(StandardCharsets.US_ASCII));
+    bb.putInt(biff.length);
+    os.write(bb.array(), 0, bb.capacity());
+
+    final byte[] buffer = new byte[16 * 1024];
+    final Deflater deflater = new Deflater();
+    for (int ofs = 0; ofs < biff.length; ofs += 8192) {
+      final int len = Math.min(8192, biff.length - ofs);
+      deflater.reset();
+      deflater.setInput(biff, ofs, len);
+      deflater.finish();
+      final int clen = deflater.deflate(buffer);
+      final ByteBuffer block = StreamUtils.getByteBuffer(8);
+      block.putInt(len);
+      block.putInt(clen);
+      os.write(block.array(), 0, 8);
+      os.write(buffer, 0, clen);
+    }
+    deflater.end();
+    return os.toByteArray();
+  }
+
+  // Returns a BAF script with global variable checks and assignments
+  private String createScript() {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < SCRIPT_BLOCKS; i++) {
+      final String var = "BENCH_" + i;
+      sb.append("IF\n");
+      sb.append("  Global(\"").append(var).append("\",\"GLOBAL\",").append(random.nextInt(10)).append(")\n");
+      if ((i & 1) != 0) {
+        sb.append("  Alive(Myself)\n");
+      }
+      sb.append("THEN\n");
+      sb.append("  RESPONSE #100\n");
+      sb.append("    SetGlobal(\"").append(var).append("\",\"GLOBAL\",").append(random.nextInt(10)).append(")\n");
+      if ((i & 3) == 0) {
+        sb.append("    NoAction()\n");
+      }
+      sb.append("END\n\n");
+    }
+    return sb.toString();
+  }
+
+  // Creates a new resource structure of the specified type and adds "count" instances of each removable section
+  private static ByteBuffer createStruct(StructureFactory.ResType type, String name, int count) throws Exception {
+    final ByteBuffer template = StructureFactory.getInstance().createStructure(type, name, null).getBuffer();
+    final BufferedResourceEntry entry = new BufferedResourceEntry(template, name);
+    final AbstractStruct struct;
+    switch (type) {
+      case RES_ITM:
+        struct = new ItmResource(entry);
+        break;
+      case RES_CRE:
+        struct = new CreResource(entry);
+        break;
+      case RES_ARE:
+        struct = new AreResource(entry);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported resource type: " + type);
+    }
+    populate(struct, count, 1);
+    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      struct.write(os);
+      return StreamUtils.getByteBuffer(os.toByteArray());
+    }
+  }
+
+  // Adds removable sections to the structure, including sections of child structures
+  private static void populate(AbstractStruct struct, int count, int depth) throws Exception {
+    if (!(struct instanceof HasChildStructs)) {
+      return;
+    }
+    final int numPrototypes = ((HasChildStructs) struct).getPrototypes().length;
+    for (int idx = 0; idx < numPrototypes; idx++) {
+      for (int i = 0; i < count; i++) {
+        // prototypes must not be shared
+        AddRemovable entry = ((HasChildStructs) struct).getPrototypes()[idx];
+        if (!entry.canRemove()) {
+          break;
+        }
+        // skipping sections without offset in the template and tiled objects which are not read back with their
+        // default size
+        final SectionOffset so = struct.getSectionOffset(entry.getClass());
+        if ((so != null && so.getValue() == 0) || entry instanceof TiledObject) {
+          break;
+        }
+        entry = ((HasChildStructs) struct).confirmAddEntry(entry);
+        if (entry == null) {
+          break;
+        }
+        struct.addDatatype(entry);
+        if (depth > 0 && entry instanceof AbstractStruct) {
+          populate((AbstractStruct) entry, Math.max(1, count / 2), depth - 1);
+        }
+      }
+    }
+  }
+
+  // Returns a BAM V1 resource with RLE compressed frames in two cycles
+  private ByteBuffer createBam() {
+    final int numCycles = 2;
+    final int size = BAM_FRAME_SIZE;
+    final ByteArrayOutputStream frameData = new ByteArrayOutputStream();
+    final int[] frameOffsets = new int[BAM_FRAMES];
+    for (int i = 0; i < BAM_FRAMES; i++) {
+      frameOffsets[i] = frameData.size();
+      // a filled circle of varying radius on a transparent background
+      final int radius = size / 4 + random.nextInt(size / 4);
+      final byte[] pixels = new byte[size * size];
+      for (int y = 0; y < size; y++) {
+        for (int x = 0; x < size; x++) {
+          final int dx = x - size / 2;
+          final int dy = y - size / 2;
+          if (dx * dx + dy * dy <= radius * radius) {
+            pixels[y * size + x] = (byte) (1 + ((x / 4 + y / 4 + i) % 255));
+          }
+        }
+      }
+      encodeRle(pixels, frameData);
+    }
+
+    final int ofsFrames = 0x18;
+    final int ofsCycles = ofsFrames + BAM_FRAMES * 12;
+    final int ofsPalette = ofsCycles + numCycles * 4;
+    final int ofsLookup = ofsPalette + 256 * 4;
+    final int ofsData = ofsLookup + BAM_FRAMES * 2;
+    final ByteBuffer bb = StreamUtils.getByteBuffer(ofsData + frameData.size());
+    bb.put("BAM V1  ".getBytes(StandardCharsets.US_ASCII));
+    bb.putShort((short) BAM_FRAMES);
+    bb.put((byte) numCycles);
+    bb.put((byte) 0); // RLE index
+    bb.putInt(ofsFrames);
+    bb.putInt(ofsPalette);
+    bb.putInt(ofsLookup);
+    for (int i = 0; i < BAM_FRAMES; i++) {
+      bb.putShort((short) size);
+      bb.putShort((short) size);
+      bb.putShort((short) (size / 2));
+      bb.putShort((short) (size / 2));
+      bb.putInt(ofsData + frameOffsets[i]); // bit 31 cleared: RLE compressed
+    }
+    for (int i = 0; i < numCycles; i++) {
+      bb.putShort((short) (BAM_FRAMES / numCycles));
+      bb.putShort((short) (i * BAM_FRAMES / numCycles));
+    }
+    bb.putInt(0x0000ff00); // transparent green
+    for (int i = 1; i < 256; i++) {
+      bb.putInt(random.nextInt(0x1000000));
+    }
+    for (int i = 0; i < BAM_FRAMES; i++) {
+      bb.putShort((short) i);
+    }
+    bb.put(frameData.toByteArray());
+    bb.position(0);
+    return bb;
+  }
+
+  // Compresses runs of the RLE index 0
+  private static void encodeRle(byte[] pixels, ByteArrayOutputStream os) {
+    int i = 0;
+    while (i < pixels.length) {
+      if (pixels[i] == 0) {
+        int run = 1;
+        while (run < 256 && i + run < pixels.length && pixels[i + run] == 0) {
+          run++;
+        }
+        os.write(0);
+        os.write(run - 1);
+        i += run;
+      } else {
+        os.write(pixels[i]);
+        i++;
+      }
+    }
+  }
+
+  // Returns an ACM stream with random amplitudes, mostly encoded with linear fill packing modes
+  private byte[] createAcm() {
+    final int channels = 2;
+    final int sampleRate = 22050;
+    final int levels = 7;
+    final int subBlocks = 16;
+    final int numSamples = ACM_SECONDS * sampleRate * channels;
+    final int blockSize = (1 << levels) * subBlocks;
+    final int numBlocks = (numSamples + blockSize - 1) / blockSize;
+
+    final BitWriter bw = new BitWriter();
+    final ByteBuffer header = StreamUtils.getByteBuffer(AcmReader.HEADER_SIZE);
+    header.putInt(AcmReader.ID_ACM);
+    header.putInt(numSamples);
+    header.putShort((short) channels);
+    header.putShort((short) sampleRate);
+    header.putShort((short) ((subBlocks << 4) | levels));
+    bw.os.write(header.array(), 0, header.capacity());
+
+    for (int block = 0; block < numBlocks; block++) {
+      bw.write(10, 4); // amplitude table size (power of two)
+      bw.write(16 + random.nextInt(16), 16); // amplitude step
+      for (int pass = 0; pass < (1 << levels); pass++) {
+        // higher subbands contain less information
+        final int idx = (pass < 16) ? 3 + random.nextInt(6) : ((random.nextInt(4) == 0) ? 3 : 0);
+        bw.write(idx, 5);
+        if (idx > 0) {
+          for (int i = 0; i < subBlocks; i++) {
+            bw.write(random.nextInt(1 << idx), idx);
+          }
+        }
+      }
+    }
+    return bw.toByteArray();
+  }
+
+  // Returns ARGB pixels of a gradient with noise and some fully transparent areas
+  private int[] createImage(int width, int height) {
+    final int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        final int noise = random.nextInt(32);
+        final int r = (x * 255 / width + noise) & 0xff;
+        final int g = (y * 255 / height + noise) & 0xff;
+        final int b = ((x + y) * 127 / width + noise) & 0xff;
+        final int a = ((x / 32 + y / 32) % 5 == 0) ? 0 : 0xff;
+        pixels[y * width + x] = (a << 24) | (r << 16) | (g << 8) | b;
+      }
+    }
+    return pixels;
+  }
+
+  // Returns text consisting of random words with at least the specified length
+  private String createText(int minLength) {
+    final StringBuilder sb = new StringBuilder(minLength + 16);
+    while (sb.length() < minLength) {
+      if (sb.length() > 0) {
+        sb.append(random.nextInt(12) == 0 ? ". " : " ");
+      }
+      for (int i = 0, cnt = 1 + random.nextInt(3); i < cnt; i++) {
+        sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+      }
+    }
+    return sb.toString();
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** Writes bit sequences in the order expected by the ACM decoder (least significant bit first). */
+  private static class BitWriter {
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private int bits;
+    private int numBits;
+
+    public void write(int value, int count) {
+      for (int i = 0; i < count; i++) {
+        bits |= ((value >>> i) & 1) << numBits;
+        if (++numBits == 8) {
+          os.write(bits);
+          bits = 0;
+          numBits = 0;
+        }
+      }
+    }
+
+    public byte[] toByteArray() {
+      if (numBits > 0) {
+        os.write(bits);
+        bits = 0;
+        numBits = 0;
+      }
+      return os.toByteArray();
+    }
+  }
+}
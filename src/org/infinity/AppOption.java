@@ -4,8 +4,10 @@
 
 package org.infinity;
 
+import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Frame;
+import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,6 +16,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
@@ -58,6 +61,9 @@ public class AppOption {
   // References of all defined AppOption instances for automated access
   private static final ArrayList<AppOption> ENTRIES = new ArrayList<>(64);
 
+  // Incremented whenever the value of an option changes
+  private static final AtomicInteger REVISION = new AtomicInteger();
+
   // Default validator to use when no custom validator object is specified
   private static final Function<Object, Object> DEFAULT_VALIDATOR = o -> o;
 
@@ -258,6 +264,9 @@ public class AppOption {
   /** Menu Options > Misc. Types: MenuSyntaxHighlighting (Boolean, Default: true) */
   public static final AppOption MENU_SYNTAX_HIGHLIGHTING = new AppOption(OptionsMenuItem.OPTION_MENU_SYNTAXHIGHLIGHTING,
       "Enable MENU Syntax Highlighting", true);
+  /** Menu Options > Misc. Types: SavCompressionLevel (Integer, Default: 9) */
+  public static final AppOption SAV_COMPRESSION_LEVEL = new AppOption(OptionsMenuItem.OPTION_SAV_COMPRESSIONLEVEL,
+      "SAV Compression Level", 9);
   /** Menu Options > Misc. Types: SqlColorScheme (Integer, Default: 0) */
   public static final AppOption SQL_COLOR_SCHEME = new AppOption(OptionsMenuItem.OPTION_SQL_COLORSCHEME,
       "SQL Color Scheme", 0);
@@ -357,17 +366,17 @@ public class AppOption {
   // Application settings
   /** Application: WindowSizeX (Integer, Default: 67% of screen width) */
   public static final AppOption APP_WINDOW_SIZE_X = new AppOption(NearInfinity.WINDOW_SIZEX, "Application Window Width",
-      Math.max(800, (int) Toolkit.getDefaultToolkit().getScreenSize().getWidth() * 2 / 3), PREFS_APP);
+      Math.max(800, (int) getScreenSize().getWidth() * 2 / 3), PREFS_APP);
   /** Application: WindowSizeY (Integer, Default: 67% of screen height) */
   public static final AppOption APP_WINDOW_SIZE_Y = new AppOption(NearInfinity.WINDOW_SIZEY, "Application Window Height",
-      Math.max(600, (int) Toolkit.getDefaultToolkit().getScreenSize().getHeight() * 2 / 3), PREFS_APP);
+      Math.max(600, (int) getScreenSize().getHeight() * 2 / 3), PREFS_APP);
   /** Application: WindowPosX (Integer, Default: screen center) */
   public static final AppOption APP_WINDOW_POS_X = new AppOption(NearInfinity.WINDOW_POSX, "Application Window X",
-      ((int) Toolkit.getDefaultToolkit().getScreenSize().getWidth() - (Integer) APP_WINDOW_SIZE_X.getValue()) / 2,
+      ((int) getScreenSize().getWidth() - (Integer) APP_WINDOW_SIZE_X.getValue()) / 2,
       PREFS_APP);
   /** Application: WindowPosY (Integer, Default: screen center) */
   public static final AppOption APP_WINDOW_POS_Y = new AppOption(NearInfinity.WINDOW_POSY, "Application Window Y",
-      ((int) Toolkit.getDefaultToolkit().getScreenSize().getHeight() - (Integer) APP_WINDOW_SIZE_Y.getValue()) / 2,
+      ((int) getScreenSize().getHeight() - (Integer) APP_WINDOW_SIZE_Y.getValue()) / 2,
       PREFS_APP);
   /** Application: WindowState (Integer, Default: Frame.NORMAL) */
   public static final AppOption APP_WINDOW_STATE = new AppOption(NearInfinity.WINDOW_STATE, "Application Window State",
@@ -423,6 +432,14 @@ public static AppOption find(String name) {
         .orElse(null);
   }
 
+  /**
+   * Returns a counter that is incremented whenever the value of any option changes. It can be used to detect whether
+   * data derived from option values is outdated.
+   */
+  public static int getRevision() {
+    return REVISION.get();
+  }
+
   /**
    * Returns whether there are one or more options with modified values.
    *
@@ -500,6 +517,14 @@ private static Preferences getPrefs(String prefsNode) {
     }
   }
 
+  /** Returns the screen size, or a default size if no screen is available (e.g. in headless mode). */
+  private static Dimension getScreenSize() {
+    if (GraphicsEnvironment.isHeadless()) {
+      return new Dimension(1280, 1024);
+    }
+    return Toolkit.getDefaultToolkit().getScreenSize();
+  }
+
   /** Ensures that no cached {@code AppOption} instances exist with the specified option name. */
   private static String isValidInstance(String optionName) throws IllegalArgumentException {
     Objects.requireNonNull(optionName);
@@ -778,14 +803,21 @@ public boolean isNumericValue() {
    * @throws ClassCastException if {@code newValue} is not of a type assignable from {@link #getValueType()}.
    */
   public void setValue(Object newValue) {
+    final Object oldValue = this.value;
     this.value = validate(newValue);
+    if (!Objects.equals(oldValue, this.value)) {
+      REVISION.incrementAndGet();
+    }
   }
 
   /**
    * Reverts to the initial value as set by {@link #setInitialValue(Object)} or {@link #loadValue()}.
    */
   public void revert() {
-    this.value = this.initialValue;
+    if (!Objects.equals(this.value, this.initialValue)) {
+      this.value = this.initialValue;
+      REVISION.incrementAndGet();
+    }
   }
 
   /**
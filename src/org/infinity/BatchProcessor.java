@@ -0,0 +1,778 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinity.check.CheckReporter;
+import org.infinity.check.EffectValidationChecker;
+import org.infinity.check.EffectsIndexChecker;
+import org.infinity.check.IDSRefChecker;
+import org.infinity.check.ResRefChecker;
+import org.infinity.check.StructChecker;
+import org.infinity.gui.menu.BrowserMenuBar;
+import org.infinity.resource.AbstractStruct;
+import org.infinity.resource.Profile;
+import org.infinity.resource.Resource;
+import org.infinity.resource.ResourceExporter;
+import org.infinity.resource.ResourceFactory;
+import org.infinity.resource.StructEntry;
+import org.infinity.resource.bcs.ScriptBatchProcessor;
+import org.infinity.resource.bcs.ScriptMessage;
+import org.infinity.resource.key.ResourceEntry;
+import org.infinity.search.ReferenceHitFrame;
+import org.infinity.search.advanced.AdvancedSearchWorker;
+import org.infinity.search.advanced.XmlConfig;
+import org.infinity.util.Logger;
+import org.infinity.util.Threading;
+import org.infinity.util.io.FileEx;
+import org.infinity.util.io.FileManager;
+import org.infinity.util.metrics.LatencyTimer;
+import org.infinity.util.metrics.Metrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Runs resource checks, advanced searches and mass exports on a game without user interface.
+ * <p>
+ * All operations are executed in a single thread pool. Resources are parsed only once, regardless of the number of
+ * checks and searches that operate on them. Tasks of the different operations are submitted in alternating order, which
+ * allows I/O-bound exports to overlap with CPU-bound checks.
+ * </p>
+ * <p>
+ * Results are returned as a JSON report that contains the wall-clock time of the whole run as well as wall-clock time,
+ * accumulated worker time and latency distribution of each stage.
+ * </p>
+ */
+public class BatchProcessor {
+  /** Available resource checks. */
+  public enum Check {
+    /** Structural corruptions, such as overlapping fields or invalid offsets. See {@link StructChecker}. */
+    STRUCT("struct"),
+    /** References to missing resources or resources of the wrong type. See {@link ResRefChecker}. */
+    RESREF("resref"),
+    /** Values which are not defined by the associated IDS resource. See {@link IDSRefChecker}. */
+    IDSREF("idsref"),
+    /** Mis-indexed ability effects of ITM and SPL resources. See {@link EffectsIndexChecker}. */
+    EFFECTS_INDEX("effectsindex"),
+    /** Effect opcodes which are not supported by the game. See {@link EffectValidationChecker}. */
+    EFFECT_VALIDATION("effectvalidation"),
+    /** Compiler errors and warnings of BCS and BS scripts. See {@link ScriptBatchProcessor}. */
+    SCRIPT("script"),
+    ;
+
+    private final String name;
+
+    Check(String name) {
+      this.name = name;
+    }
+
+    /** Returns the name of the check as used on the command line. */
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the resource types supported by this check for the current game. */
+    public String[] getResourceTypes() {
+      switch (this) {
+        case STRUCT:
+          return StructChecker.FILE_TYPES;
+        case RESREF:
+          return ResRefChecker.FILE_TYPES;
+        case IDSREF:
+          return IDSRefChecker.FILE_TYPES;
+        case EFFECTS_INDEX:
+          return EffectsIndexChecker.FILE_TYPES;
+        case EFFECT_VALIDATION:
+          return EffectValidationChecker.getSupportedResourceTypes();
+        default:
+          return new String[] { "BCS", "BS" };
+      }
+    }
+
+    /** Returns the check of the specified name. Returns {@code null} if the check does not exist. */
+    public static Check fromName(String name) {
+      for (final Check check : values()) {
+        if (check.name.equalsIgnoreCase(name)) {
+          return check;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private final List<Check> checks = new ArrayList<>();
+  private final List<Path> searchFiles = new ArrayList<>();
+  private final List<String> exportTypes = new ArrayList<>();
+
+  private ResourceExporter exporter;
+
+  public BatchProcessor() {
+  }
+
+  /** Adds the specified check to the list of operations. */
+  public void addCheck(Check check) {
+    if (check != null && !checks.contains(check)) {
+      checks.add(check);
+    }
+  }
+
+  /** Adds an advanced search which is defined by the specified filter file in {@link XmlConfig} format. */
+  public void addSearch(Path filterFile) {
+    if (filterFile != null) {
+      searchFiles.add(filterFile);
+    }
+  }
+
+  /**
+   * Specifies the resources to export.
+   *
+   * @param types    Resource types to export.
+   * @param exporter Exports the resources. Specify {@code null} to disable exporting.
+   */
+  public void setExport(List<String> types, ResourceExporter exporter) {
+    exportTypes.clear();
+    if (types != null && exporter != null) {
+      for (final String type : types) {
+        exportTypes.add(type.toUpperCase(Locale.ENGLISH));
+      }
+    }
+    this.exporter = exporter;
+  }
+
+  /**
+   * Executes all operations in parallel. A game must be open.
+   *
+   * @return List of executed stages in report order.
+   * @throws Exception if an operation could not be prepared.
+   */
+  public List<Stage> process() throws Exception {
+    if (!Profile.isGameOpen()) {
+      throw new IllegalStateException("No game open");
+    }
+
+    final List<Stage> stages = new ArrayList<>();
+    final Stage prepareStage = new Stage("prepare", "prepare");
+    stages.add(prepareStage);
+    final Stage parseStage = new Stage("parse", "parse");
+
+    // resources are mapped to the operations which work on the parsed resource structure
+    final Map<ResourceEntry, List<StructTask>> structTasks = new LinkedHashMap<>();
+    final List<Runnable> scriptTasks = new ArrayList<>();
+    final List<Runnable> exportTasks = new ArrayList<>();
+
+    prepareStage.begin();
+    for (final Check check : checks) {
+      final Stage stage = new Stage("check." + check.getName(), "check");
+      stages.add(stage);
+      if (check == Check.SCRIPT) {
+        ScriptBatchProcessor.prepare();
+        final ScriptBatchProcessor processor = new ScriptBatchProcessor(ScriptBatchProcessor.Mode.VERIFY);
+        for (final ResourceEntry entry : getResources(check.getResourceTypes())) {
+          scriptTasks.add(() -> stage.run(entry, () -> checkScript(stage, processor, entry)));
+        }
+      } else {
+        final StructTask task = createCheckTask(check, stage);
+        for (final ResourceEntry entry : getResources(check.getResourceTypes())) {
+          structTasks.computeIfAbsent(entry, e -> new ArrayList<>()).add(task);
+        }
+      }
+    }
+
+    for (final Path file : searchFiles) {
+      final XmlConfig config = XmlConfig.Import(file.toFile());
+      final Stage stage = new Stage("search." + file.getFileName(), "search");
+      stage.info.put("file", file.toString());
+      stage.info.put("resourceType", config.getResourceType());
+      stage.info.put("filterMode", config.getFilterMode().toString());
+      stages.add(stage);
+      final StructTask task = new StructTask(stage, (entry, struct) -> {
+        final List<ReferenceHitFrame.ReferenceHit> hits = new ArrayList<>();
+        new AdvancedSearchWorker(hits, config.getFilterMode(), config.getFilters(), entry, null).match(struct);
+        for (final ReferenceHitFrame.ReferenceHit hit : hits) {
+          stage.addResult(entry, hit.getStructEntry(), -1, null);
+        }
+      });
+      for (final ResourceEntry entry : getResources(new String[] { config.getResourceType() })) {
+        structTasks.computeIfAbsent(entry, e -> new ArrayList<>()).add(task);
+      }
+    }
+
+    if (exporter != null && !exportTypes.isEmpty()) {
+      Files.createDirectories(exporter.getOutputPath());
+      final Stage stage = new Stage("export", "export");
+      stage.info.put("outputDir", exporter.getOutputPath().toString());
+      stages.add(stage);
+      final LongAdder skipped = new LongAdder();
+      stage.counter = skipped;
+      for (final ResourceEntry entry : getResources(exportTypes.toArray(new String[0]))) {
+        exportTasks.add(() -> stage.run(entry, () -> {
+          if (!exporter.export(entry)) {
+            skipped.increment();
+          }
+        }));
+      }
+    }
+    prepareStage.end();
+
+    if (!structTasks.isEmpty()) {
+      stages.add(1, parseStage);
+    }
+    final List<Runnable> parseTasks = new ArrayList<>(structTasks.size());
+    for (final Map.Entry<ResourceEntry, List<StructTask>> e : structTasks.entrySet()) {
+      parseTasks.add(() -> processStruct(parseStage, e.getKey(), e.getValue()));
+    }
+
+    // submitting tasks of all operations in alternating order
+    try (final Threading threadPool = new Threading(Threading.Priority.ABS_HIGHEST)) {
+      final List<List<Runnable>> queues = new ArrayList<>();
+      Collections.addAll(queues, parseTasks, scriptTasks, exportTasks);
+      final int max = queues.stream().mapToInt(List::size).max().orElse(0);
+      for (int i = 0; i < max; i++) {
+        for (final List<Runnable> queue : queues) {
+          if (i < queue.size()) {
+            threadPool.submit(queue.get(i));
+          }
+        }
+      }
+      threadPool.shutdown();
+      threadPool.awaitTermination();
+    }
+
+    return stages;
+  }
+
+  /**
+   * Returns a JSON representation of the specified stages.
+   *
+   * @param stages  List of executed stages.
+   * @param elapsed Total processing time, in nanoseconds.
+   * @return A {@link JSONObject} with summary and per-stage information.
+   */
+  public static JSONObject createReport(List<Stage> stages, long elapsed) {
+    final JSONArray list = new JSONArray();
+    for (final Stage stage : stages) {
+      list.put(stage.toJson());
+    }
+
+    final JSONObject root = new JSONObject();
+    root.put("version", NearInfinity.getVersion());
+    if (Profile.isGameOpen()) {
+      root.put("game", Profile.getGame().toString());
+    }
+    root.put("threads", Threading.MAX_THREADS_AVAILABLE);
+    root.put("wallMs", elapsed / 1_000_000L);
+    root.put("stages", list);
+    return root;
+  }
+
+  /**
+   * Writes a JSON report of the specified stages to the specified file.
+   *
+   * @param file    The output file.
+   * @param stages  List of executed stages.
+   * @param elapsed Total processing time, in nanoseconds.
+   * @throws IOException if the file could not be written.
+   */
+  public static void writeReport(Path file, List<Stage> stages, long elapsed) throws IOException {
+    try (final BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      createReport(stages, elapsed).write(bw, 2, 0);
+      bw.newLine();
+    }
+  }
+
+  // Parses the specified resource and passes the resulting structure to all associated tasks
+  private static void processStruct(Stage parseStage, ResourceEntry entry, List<StructTask> tasks) {
+    final AbstractStruct[] struct = new AbstractStruct[1];
+    parseStage.run(entry, () -> struct[0] = parse(entry));
+    if (struct[0] != null) {
+      for (final StructTask task : tasks) {
+        task.getStage().run(entry, () -> task.run(entry, struct[0]));
+      }
+    }
+  }
+
+  // Creates the resource instance of the specified entry
+  private static AbstractStruct parse(ResourceEntry entry) throws Exception {
+    final Class<? extends Resource> cls = ResourceFactory.getResourceType(entry);
+    if (cls == null || !AbstractStruct.class.isAssignableFrom(cls)) {
+      throw new IllegalArgumentException("Not a structured resource: " + entry);
+    }
+    try {
+      return (AbstractStruct) cls.getConstructor(ResourceEntry.class).newInstance(entry);
+    } catch (InvocationTargetException e) {
+      throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+    }
+  }
+
+  // Creates a task that applies the specified check to a parsed resource structure
+  private static StructTask createCheckTask(Check check, Stage stage) {
+    final CheckReporter reporter = stage::addResult;
+    switch (check) {
+      case STRUCT:
+        return new StructTask(stage, (entry, struct) -> StructChecker.check(entry, struct, reporter));
+      case RESREF: {
+        final List<String> spawnGroups = ResRefChecker.getSpawnGroups();
+        return new StructTask(stage, (entry, struct) -> ResRefChecker.check(entry, struct, spawnGroups, reporter));
+      }
+      case IDSREF:
+        return new StructTask(stage, (entry, struct) -> IDSRefChecker.check(entry, struct, reporter));
+      case EFFECTS_INDEX:
+        return new StructTask(stage, (entry, struct) -> EffectsIndexChecker.check(entry, struct, reporter));
+      case EFFECT_VALIDATION:
+        return new StructTask(stage, (entry, struct) -> EffectValidationChecker.check(entry, struct, reporter));
+      default:
+        throw new IllegalArgumentException("Not a structure check: " + check);
+    }
+  }
+
+  // Reports compiler errors and warnings of the specified script
+  private static void checkScript(Stage stage, ScriptBatchProcessor processor, ResourceEntry entry) {
+    final ScriptBatchProcessor.Result result = processor.process(entry);
+    if (result.getFailure() != null) {
+      throw new IllegalStateException(result.getFailure());
+    }
+    for (final ScriptMessage sm : result.getErrors()) {
+      stage.addResult(entry, null, -1, "[ERROR] line " + sm.getLine() + ": " + sm.getMessage());
+    }
+    for (final ScriptMessage sm : result.getWarnings()) {
+      stage.addResult(entry, null, -1, "[WARNING] line " + sm.getLine() + ": " + sm.getMessage());
+    }
+    for (final Map.Entry<Integer, String> e : result.getIdsErrors().entrySet()) {
+      stage.addResult(entry, null, -1, "[WARNING] line " + e.getKey() + ": " + e.getValue());
+    }
+    if (result.getMismatchLine() > 0) {
+      stage.addResult(entry, null, -1,
+          "[ERROR] line " + result.getMismatchLine() + ": Recompiled script does not match original byte code");
+    }
+  }
+
+  // Returns all resources of the specified types without duplicates
+  private static List<ResourceEntry> getResources(String[] types) {
+    final List<ResourceEntry> retVal = new ArrayList<>();
+    for (final String type : types) {
+      if (type != null && !type.isEmpty()) {
+        retVal.addAll(ResourceFactory.getResources(type));
+      }
+    }
+    return retVal;
+  }
+
+  /**
+   * Command line entry point.
+   * <p>
+   * Usage: {@code BatchProcessor [-check name[,name...]] [-search filter.xml] [-export type[,type...]] [-o outputdir]
+   * [-options option[,option...]] [-r report.json] [-t gametype] gamepath}
+   * </p>
+   * <p>
+   * Available checks: {@code struct, resref, idsref, effectsindex, effectvalidation, script} or {@code all}. The
+   * option {@code -search} can be specified multiple times. Filter files are created by the Advanced Search dialog.
+   * Export options: {@code overwrite, decompile, decrypt, trim, align, sound, chr, decompress, png, bamframes, mve}.
+   * The process exits with code 1 if any check reports a problem or any resource could not be processed.
+   * </p>
+   */
+  public static void main(String[] args) {
+    final BatchProcessor processor = new BatchProcessor();
+    final List<String> exportTypes = new ArrayList<>();
+    final List<String> exportOptions = new ArrayList<>();
+    Path outputDir = null;
+    Path reportFile = null;
+    Path gamePath = null;
+    Profile.Game forcedGame = null;
+    boolean valid = true;
+
+    for (int idx = 0; idx < args.length && valid; idx++) {
+      final String arg = args[idx];
+      final String option = arg.toLowerCase(Locale.ENGLISH);
+      switch (option) {
+        case "-check":
+        case "-search":
+        case "-export":
+        case "-options":
+        case "-o":
+        case "-r":
+        case "-t": {
+          if (idx + 1 >= args.length) {
+            System.err.println("Missing argument for option '" + arg + "'.");
+            System.exit(2);
+          }
+          final String value = args[++idx];
+          if (option.equals("-check")) {
+            for (final String name : value.split(",")) {
+              if (name.equalsIgnoreCase("all")) {
+                for (final Check check : Check.values()) {
+                  processor.addCheck(check);
+                }
+              } else if (Check.fromName(name.trim()) != null) {
+                processor.addCheck(Check.fromName(name.trim()));
+              } else {
+                System.err.println("Unknown check: " + name);
+                valid = false;
+              }
+            }
+          } else if (option.equals("-search")) {
+            processor.addSearch(FileManager.resolve(value));
+          } else if (option.equals("-export")) {
+            for (final String type : value.split(",")) {
+              exportTypes.add(type.trim());
+            }
+          } else if (option.equals("-options")) {
+            for (final String name : value.split(",")) {
+              exportOptions.add(name.trim().toLowerCase(Locale.ENGLISH));
+            }
+          } else if (option.equals("-o")) {
+            outputDir = FileManager.resolve(value);
+          } else if (option.equals("-r")) {
+            reportFile = FileManager.resolve(value);
+          } else {
+            for (final Profile.Game game : Profile.Game.values()) {
+              if (game.toString().equalsIgnoreCase(value)) {
+                forcedGame = game;
+                break;
+              }
+            }
+          }
+          break;
+        }
+        default:
+          if (gamePath == null) {
+            gamePath = FileManager.resolve(arg);
+          } else {
+            valid = false;
+          }
+      }
+    }
+
+    if (!exportTypes.isEmpty()) {
+      if (outputDir == null) {
+        System.err.println("Export requires an output directory (-o).");
+        valid = false;
+      } else {
+        try {
+          processor.setExport(exportTypes, createExporter(outputDir, exportOptions));
+        } catch (IllegalArgumentException e) {
+          System.err.println(e.getMessage());
+          valid = false;
+        }
+      }
+    }
+
+    if (!valid || gamePath == null) {
+      System.err.println("Usage: BatchProcessor [-check name[,name...]] [-search filter.xml] [-export type[,type...]] "
+          + "[-o outputdir] [-options option[,option...]] [-r report.json] [-t gametype] gamepath");
+      System.exit(2);
+    }
+
+    final Path keyFile = FileEx.create(gamePath).isDirectory() ? FileManager.query(gamePath, "chitin.key") : gamePath;
+    if (!FileEx.create(keyFile).isFile()) {
+      System.err.println("Game not found: " + gamePath);
+      System.exit(2);
+    }
+
+    int exitCode = 0;
+    try {
+      final long start = System.nanoTime();
+
+      // game resources are accessed with the stored application preferences
+      final Stage loadStage = new Stage("load", "load");
+      loadStage.begin();
+      Logger.info("Near Infinity {}", NearInfinity.getVersion());
+      if (!BrowserMenuBar.isInstantiated()) {
+        new BrowserMenuBar();
+      }
+      if (!Profile.openGame(keyFile, null, forcedGame)) {
+        System.err.println("Could not open game: " + keyFile);
+        System.exit(2);
+      }
+      loadStage.end();
+
+      final List<Stage> stages = new ArrayList<>();
+      stages.add(loadStage);
+      stages.addAll(processor.process());
+      final long elapsed = System.nanoTime() - start;
+
+      for (final Stage stage : stages) {
+        Logger.info("{}: {} resource(s), {} result(s), {} failure(s), {} ms", stage.getName(), stage.getResourceCount(),
+            stage.getResultCount(), stage.getFailureCount(), stage.getWallTime() / 1_000_000L);
+        if (stage.getFailureCount() > 0 || ("check".equals(stage.getType()) && stage.getResultCount() > 0)) {
+          exitCode = 1;
+        }
+      }
+
+      if (reportFile != null) {
+        writeReport(reportFile, stages, elapsed);
+      } else {
+        System.out.println(createReport(stages, elapsed).toString(2));
+      }
+    } catch (Exception e) {
+      Logger.error(e);
+      exitCode = 2;
+    }
+    System.exit(exitCode);
+  }
+
+  // Creates a resource exporter with the specified options
+  private static ResourceExporter createExporter(Path outputDir, List<String> options) {
+    final ResourceExporter retVal = new ResourceExporter(outputDir);
+    for (final String option : options) {
+      switch (option) {
+        case "overwrite":
+          retVal.setOverwrite(true);
+          break;
+        case "decompile":
+          retVal.setDecompile(true);
+          break;
+        case "decrypt":
+          retVal.setDecrypt(true);
+          break;
+        case "trim":
+          retVal.setTrimText(true);
+          break;
+        case "align":
+          retVal.setTableAlignment(ResourceExporter.TableAlignment.COMPACT);
+          break;
+        case "sound":
+          retVal.setConvertWav(true);
+          break;
+        case "chr":
+          retVal.setConvertChr(true);
+          break;
+        case "decompress":
+          retVal.setDecompress(true);
+          break;
+        case "png":
+          retVal.setConvertToPng(true);
+          break;
+        case "bamframes":
+          retVal.setBamFramesFormat("png");
+          break;
+        case "mve":
+          retVal.setConvertMve(true);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown export option: " + option);
+      }
+    }
+    return retVal;
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /**
+   * A single operation of the batch run. Stages are executed concurrently. Results and timings are collected from
+   * multiple worker threads.
+   */
+  public static class Stage {
+    private final String name;
+    private final String type;
+    private final LatencyTimer timer;
+    private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+    private final List<Result> results = Collections.synchronizedList(new ArrayList<>());
+    private final List<Result> failures = Collections.synchronizedList(new ArrayList<>());
+    private final JSONObject info = new JSONObject();
+
+    /** Optional counter of skipped resources. */
+    private LongAdder counter;
+
+    private Stage(String name, String type) {
+      this.name = name;
+      this.type = type;
+      this.timer = Metrics.timer("batch." + name);
+      this.timer.reset();
+    }
+
+    /** Returns the name of the stage. */
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the operation type of the stage. */
+    public String getType() {
+      return type;
+    }
+
+    /** Returns the number of processed resources. */
+    public long getResourceCount() {
+      return timer.getCount();
+    }
+
+    /** Returns the number of results, such as check problems or search matches. */
+    public int getResultCount() {
+      return results.size();
+    }
+
+    /** Returns the number of resources which could not be processed. */
+    public int getFailureCount() {
+      return failures.size();
+    }
+
+    /** Returns the time between start of the first and end of the last task, in nanoseconds. */
+    public long getWallTime() {
+      final long start = firstStart.get();
+      final long end = lastEnd.get();
+      return (end >= start) ? end - start : 0L;
+    }
+
+    /** Returns the accumulated processing time of all tasks, in nanoseconds. */
+    public long getWorkerTime() {
+      return timer.getTotal();
+    }
+
+    /** Returns a JSON representation of this stage. */
+    public JSONObject toJson() {
+      final JSONObject obj = new JSONObject();
+      obj.put("name", name);
+      obj.put("type", type);
+      for (final String key : info.keySet()) {
+        obj.put(key, info.get(key));
+      }
+      obj.put("wallMs", getWallTime() / 1_000_000L);
+      if (timer.getCount() > 0) {
+        obj.put("resources", timer.getCount());
+        obj.put("workerMs", timer.getTotal() / 1_000_000L);
+        obj.put("meanUs", timer.getMean() / 1000L);
+        obj.put("p95Us", timer.getPercentile(0.95) / 1000L);
+        obj.put("maxUs", timer.getMax() / 1000L);
+      }
+      if (counter != null) {
+        obj.put("skipped", counter.sum());
+      }
+      if ("check".equals(type) || "search".equals(type)) {
+        obj.put("results", toJson(results));
+      }
+      obj.put("failures", toJson(failures));
+      return obj;
+    }
+
+    // Marks the beginning of a stage-wide operation
+    private void begin() {
+      firstStart.accumulateAndGet(System.nanoTime(), Math::min);
+    }
+
+    // Marks the end of a stage-wide operation
+    private void end() {
+      lastEnd.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    // Executes a task for the specified resource and records its duration and failure
+    private void run(ResourceEntry entry, Task task) {
+      final long start = System.nanoTime();
+      firstStart.accumulateAndGet(start, Math::min);
+      try {
+        task.run();
+      } catch (Throwable t) {
+        Logger.debug(t, "{}: error processing {}", name, entry);
+        final String msg = (t.getMessage() != null) ? t.getClass().getSimpleName() + ": " + t.getMessage()
+            : t.getClass().getSimpleName();
+        failures.add(new Result(entry, null, -1, msg));
+      } finally {
+        final long end = System.nanoTime();
+        timer.record(end - start);
+        lastEnd.accumulateAndGet(end, Math::max);
+      }
+    }
+
+    // Adds a check problem or search match
+    private void addResult(ResourceEntry entry, StructEntry field, int offset, String message) {
+      results.add(new Result(entry, field, offset, message));
+    }
+
+    private static JSONArray toJson(List<Result> list) {
+      final List<Result> sorted;
+      synchronized (list) {
+        sorted = new ArrayList<>(list);
+      }
+      sorted.sort(Comparator.comparing((Result r) -> r.resource).thenComparingInt(r -> r.offset));
+      final JSONArray arr = new JSONArray();
+      for (final Result result : sorted) {
+        arr.put(result.toJson());
+      }
+      return arr;
+    }
+  }
+
+  /** Result of a single resource, such as a check problem, search match or processing error. */
+  private static class Result {
+    private final String resource;
+    private final String field;
+    private final String value;
+    private final int offset;
+    private final String message;
+
+    private Result(ResourceEntry entry, StructEntry field, int offset, String message) {
+      this.resource = entry.getResourceName();
+      this.field = (field != null) ? field.getName() : null;
+      this.value = (field != null) ? field.toString() : null;
+      this.offset = (offset < 0 && field != null) ? field.getOffset() : offset;
+      this.message = message;
+    }
+
+    private JSONObject toJson() {
+      final JSONObject obj = new JSONObject();
+      obj.put("resource", resource);
+      if (offset >= 0) {
+        obj.put("offset", offset);
+      }
+      if (field != null) {
+        obj.put("field", field);
+        obj.put("value", value);
+      }
+      if (message != null) {
+        obj.put("message", message);
+      }
+      return obj;
+    }
+  }
+
+  /** Operation of a stage that may fail with an exception. */
+  @FunctionalInterface
+  private interface Task {
+    void run() throws Exception;
+  }
+
+  /** Operation of a stage that works on a parsed resource structure. */
+  private static class StructTask {
+    private final Stage stage;
+    private final StructOperation operation;
+
+    private StructTask(Stage stage, StructOperation operation) {
+      this.stage = stage;
+      this.operation = operation;
+    }
+
+    private Stage getStage() {
+      return stage;
+    }
+
+    private void run(ResourceEntry entry, AbstractStruct struct) throws Exception {
+      operation.run(entry, struct);
+    }
+  }
+
+  @FunctionalInterface
+  private interface StructOperation {
+    void run(ResourceEntry entry, AbstractStruct struct) throws Exception;
+  }
+}
@@ -0,0 +1,28 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.check;
+
+import org.infinity.resource.StructEntry;
+import org.infinity.resource.key.ResourceEntry;
+
+/**
+ * Receives problems found by the resource checks of the checker classes.
+ * <p>
+ * Checks are executed concurrently for different resources. Implementations must be thread-safe.
+ * </p>
+ */
+@FunctionalInterface
+public interface CheckReporter {
+  /**
+   * Reports a problem in the specified resource.
+   *
+   * @param entry   The checked resource.
+   * @param field   The field that is affected by the problem. May be {@code null} if the problem is not bound to a
+   *                single field.
+   * @param offset  Offset of the problem in the resource data.
+   * @param message Description of the problem.
+   */
+  void report(ResourceEntry entry, StructEntry field, int offset, String message);
+}
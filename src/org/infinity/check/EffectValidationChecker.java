@@ -54,20 +54,35 @@ protected Runnable newWorker(ResourceEntry entry) {
   }
 
   private void search(ResourceEntry entry, AbstractStruct struct) {
+    check(entry, struct, (e, field, offset, message) -> {
+      synchronized (hitFrame) {
+        hitFrame.addHit(e, e.getSearchString(), field);
+      }
+    });
+  }
+
+  /**
+   * Reports all effect opcodes of the specified resource which are not supported by the current game. This method is
+   * thread-safe.
+   *
+   * @param entry    The resource to check.
+   * @param struct   The parsed resource structure.
+   * @param reporter Receives the invalid effect opcodes.
+   */
+  public static void check(ResourceEntry entry, AbstractStruct struct, CheckReporter reporter) {
     for (final StructEntry field : struct.getFlatFields()) {
       if (field instanceof EffectType || field instanceof EffectBitmap) {
         int value = ((IsNumeric) field).getValue();
         final BaseOpcode opcode = BaseOpcode.getOpcode(value);
         if (opcode instanceof DefaultOpcode) {
-          synchronized (hitFrame) {
-            hitFrame.addHit(entry, entry.getSearchString(), field);
-          }
+          reporter.report(entry, field, field.getOffset(), "Invalid effect opcode: " + value);
         }
       }
     }
   }
 
-  private static String[] getSupportedResourceTypes() {
+  /** Returns the resource types supported by this checker for the current game. */
+  public static String[] getSupportedResourceTypes() {
     final List<String> retVal = new ArrayList<>();
     for (final String type : new String[] { "CRE", "EFF", "ITM", "SPL" }) {
       if (Profile.isResourceTypeSupported(type)) {
@@ -16,11 +16,14 @@
 import org.infinity.search.ReferenceHitFrame;
 
 public class EffectsIndexChecker extends AbstractChecker {
+  /** Resource types supported by this checker. */
+  public static final String[] FILE_TYPES = { "ITM", "SPL" };
+
   /** Window with check results. */
   private final ReferenceHitFrame hitFrame;
 
   public EffectsIndexChecker() {
-    super("Effects Index Checker", new String[] { "ITM", "SPL" });
+    super("Effects Index Checker", FILE_TYPES);
     hitFrame = new ReferenceHitFrame("Mis-indexed Effects", NearInfinity.getInstance());
   }
 
@@ -49,15 +52,30 @@ protected Runnable newWorker(ResourceEntry entry) {
   }
 
   private void search(ResourceEntry entry, AbstractStruct struct) {
+    check(entry, struct, (e, field, offset, message) -> {
+      synchronized (hitFrame) {
+        hitFrame.addHit(e, e.getSearchString(), field);
+      }
+    });
+  }
+
+  /**
+   * Reports all abilities of the specified ITM or SPL resource whose first effect index does not match the number of
+   * preceding effects. This method is thread-safe.
+   *
+   * @param entry    The resource to check.
+   * @param struct   The parsed resource structure.
+   * @param reporter Receives the mis-indexed abilities.
+   */
+  public static void check(ResourceEntry entry, AbstractStruct struct, CheckReporter reporter) {
     int expectedEffectsIndex = ((IsNumeric) struct.getAttribute(SplResource.SPL_NUM_GLOBAL_EFFECTS)).getValue();
     for (final StructEntry e : struct.getFields()) {
       if (e instanceof AbstractAbility) {
         final AbstractAbility abil = (AbstractAbility) e;
         final int effectsIndex = ((IsNumeric) abil.getAttribute(AbstractAbility.ABILITY_FIRST_EFFECT_INDEX)).getValue();
         if (effectsIndex != expectedEffectsIndex) {
-          synchronized (hitFrame) {
-            hitFrame.addHit(entry, entry.getSearchString(), abil);
-          }
+          reporter.report(entry, abil, abil.getOffset(),
+              "First effect index is " + effectsIndex + ", expected " + expectedEffectsIndex);
         }
         expectedEffectsIndex += abil.getEffectsCount();
       }
@@ -14,11 +14,14 @@
 import org.infinity.search.ReferenceHitFrame;
 
 public final class IDSRefChecker extends AbstractChecker {
+  /** Resource types supported by this checker. */
+  public static final String[] FILE_TYPES = { "CRE", "EFF", "ITM", "PRO", "SPL" };
+
   /** Window with check results. */
   private final ReferenceHitFrame hitFrame;
 
   public IDSRefChecker() {
-    super("IDSRef Checker", new String[] { "CRE", "EFF", "ITM", "PRO", "SPL" });
+    super("IDSRef Checker", FILE_TYPES);
     hitFrame = new ReferenceHitFrame("Unknown IDS references", NearInfinity.getInstance());
   }
 
@@ -47,14 +50,28 @@ protected Runnable newWorker(ResourceEntry entry) {
   }
 
   private void search(ResourceEntry entry, AbstractStruct struct) {
+    check(entry, struct, (e, field, offset, message) -> {
+      synchronized (hitFrame) {
+        hitFrame.addHit(e, e.getSearchString(), field);
+      }
+    });
+  }
+
+  /**
+   * Reports all IDS fields of the specified resource whose values are not defined by the associated IDS resource.
+   * This method is thread-safe.
+   *
+   * @param entry    The resource to check.
+   * @param struct   The parsed resource structure.
+   * @param reporter Receives the unknown IDS references.
+   */
+  public static void check(ResourceEntry entry, AbstractStruct struct, CheckReporter reporter) {
     for (final StructEntry e : struct.getFlatFields()) {
       if (e instanceof IdsBitmap) {
         final IdsBitmap ref = (IdsBitmap) e;
         final long value = ref.getLongValue();
         if (value != 0L && ref.getDataOf(value) == null) {
-          synchronized (hitFrame) {
-            hitFrame.addHit(entry, entry.getSearchString(), ref);
-          }
+          reporter.report(entry, ref, ref.getOffset(), "Unknown IDS value: " + value);
         }
       }
     }
@@ -19,7 +19,8 @@
 import org.infinity.search.ReferenceHitFrame;
 
 public final class ResRefChecker extends AbstractChecker {
-  private static final String[] FILE_TYPES = { "ARE", "CHR", "CHU", "CRE", "DLG", "EFF", "GAM", "ITM", "PRO", "SPL",
+  /** Resource types supported by this checker. */
+  public static final String[] FILE_TYPES = { "ARE", "CHR", "CHU", "CRE", "DLG", "EFF", "GAM", "ITM", "PRO", "SPL",
                                                "STO", "VEF", "VVC", "WED", "WMP" };
 
   /** Window with check results. */
@@ -31,11 +32,7 @@ public ResRefChecker() {
     super("ResRef Checker", FILE_TYPES);
     hitFrame = new ReferenceHitFrame("Illegal ResourceRefs", NearInfinity.getInstance());
 
-    final ResourceEntry spawnRef = ResourceFactory.getResourceEntry("SPAWNGRP.2DA");
-    if (spawnRef != null) {
-      PlainTextResource spawn = (PlainTextResource) ResourceFactory.getResource(spawnRef);
-      extraValues = spawn.extract2DAHeaders();
-    }
+    extraValues = getSpawnGroups();
   }
 
   // --------------------- Begin Interface Runnable ---------------------
@@ -63,6 +60,38 @@ protected Runnable newWorker(ResourceEntry entry) {
   }
 
   private void search(ResourceEntry entry, AbstractStruct struct) {
+    check(entry, struct, extraValues, (e, field, offset, message) -> {
+      synchronized (hitFrame) {
+        hitFrame.addHit(e, e.getSearchString(), field);
+      }
+    });
+  }
+
+  /**
+   * Returns the spawn group names defined by SPAWNGRP.2DA, which are valid values of spawn resource references.
+   *
+   * @return List of spawn group names. Returns {@code null} if the game does not provide spawn groups.
+   */
+  public static List<String> getSpawnGroups() {
+    final ResourceEntry spawnRef = ResourceFactory.getResourceEntry("SPAWNGRP.2DA");
+    if (spawnRef != null) {
+      PlainTextResource spawn = (PlainTextResource) ResourceFactory.getResource(spawnRef);
+      return spawn.extract2DAHeaders();
+    }
+    return null;
+  }
+
+  /**
+   * Reports all resource references of the specified resource which point to missing resources or to resources of
+   * the wrong type. This method is thread-safe.
+   *
+   * @param entry       The resource to check.
+   * @param struct      The parsed resource structure.
+   * @param spawnGroups Spawn group names as returned by {@link #getSpawnGroups()}. May be {@code null}.
+   * @param reporter    Receives the illegal resource references.
+   */
+  public static void check(ResourceEntry entry, AbstractStruct struct, List<String> spawnGroups,
+      CheckReporter reporter) {
     for (final StructEntry e : struct.getFlatFields()) {
       if (!(e instanceof ResourceRef)) {
         continue;
@@ -78,7 +107,7 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
 
       // For spawn refs skip values from SPAWNGRP.2DA
       if (e instanceof SpawnResourceRef) {
-        if (extraValues != null && extraValues.contains(ref.getText())) {
+        if (spawnGroups != null && spawnGroups.contains(ref.getText())) {
           continue;
         }
       } else {
@@ -90,9 +119,7 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
 
       final ResourceEntry resource = ResourceFactory.getResourceEntry(resourceName);
       if (!ref.isLegalEntry(resource)) {
-        synchronized (hitFrame) {
-          hitFrame.addHit(entry, entry.getSearchString(), ref);
-        }
+        reporter.report(entry, ref, ref.getOffset(), "Illegal resource reference: " + ref.getText());
       }
     }
   }
@@ -37,8 +37,7 @@
 import org.infinity.resource.Resource;
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.bcs.BcsResource;
-import org.infinity.resource.bcs.Compiler;
-import org.infinity.resource.bcs.Decompiler;
+import org.infinity.resource.bcs.ScriptBatchProcessor;
 import org.infinity.resource.bcs.ScriptMessage;
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.search.AbstractSearcher;
@@ -60,6 +59,9 @@ public final class ScriptChecker extends AbstractSearcher
   /** List of the {@link ScriptErrorsTableLine} objects with compiler warnings. */
   private SortableTable warningTable;
 
+  /** Decompiles and recompiles the checked scripts. */
+  private final ScriptBatchProcessor processor = new ScriptBatchProcessor(ScriptBatchProcessor.Mode.VERIFY);
+
   public ScriptChecker(Component parent) {
     super(CHECK_MULTI_TYPE_FORMAT, parent);
     new Thread(this).start();
@@ -142,6 +144,7 @@ public void run() {
       warningTable = new SortableTable(new String[] { "Script", "Warning", "Line" }, colClasses,
           new Integer[] { 120, 440, 50 });
 
+      ScriptBatchProcessor.prepare();
       if (runSearch("Checking scripts", scriptFiles)) {
         return;
       }
@@ -220,28 +223,21 @@ public void mouseReleased(MouseEvent event) {
   @Override
   protected Runnable newWorker(ResourceEntry entry) {
     return () -> {
-      try {
-        final BcsResource script = new BcsResource(entry);
-        final Decompiler decompiler = new Decompiler(script.getCode(), true);
-        decompiler.setGenerateComments(false);
-        decompiler.setGenerateResourcesUsed(false);
-
-        final Compiler compiler = new Compiler(decompiler.decompile());
-        compiler.compile();
-        synchronized (this) {
-          for (final ScriptMessage sm : compiler.getErrors()) {
-            errorTable.addTableItem(
-                new ScriptErrorsTableLine(entry, sm.getLine(), sm.getMessage(), ScriptErrorsTableLine.Type.ERROR));
-          }
+      final ScriptBatchProcessor.Result result = processor.process(entry);
+      if (result.getFailure() != null) {
+        Logger.error("{}: {}", entry, result.getFailure());
+      }
+      synchronized (this) {
+        for (final ScriptMessage sm : result.getErrors()) {
+          errorTable.addTableItem(
+              new ScriptErrorsTableLine(entry, sm.getLine(), sm.getMessage(), ScriptErrorsTableLine.Type.ERROR));
         }
-        synchronized (this) {
-          for (final ScriptMessage sm : compiler.getWarnings()) {
-            warningTable.addTableItem(
-                new ScriptErrorsTableLine(entry, sm.getLine(), sm.getMessage(), ScriptErrorsTableLine.Type.WARNING));
-          }
+      }
+      synchronized (this) {
+        for (final ScriptMessage sm : result.getWarnings()) {
+          warningTable.addTableItem(
+              new ScriptErrorsTableLine(entry, sm.getLine(), sm.getMessage(), ScriptErrorsTableLine.Type.WARNING));
         }
-      } catch (Exception e) {
-        Logger.error(e);
       }
       advanceProgress();
     };
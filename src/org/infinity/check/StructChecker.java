@@ -59,7 +59,8 @@
 import org.infinity.util.StringTable;
 
 public final class StructChecker extends AbstractChecker implements ListSelectionListener {
-  private static final String[] FILETYPES = { "ARE", "CHR", "CHU", "CRE", "DLG", "EFF", "GAM", "ITM", "PRO", "SPL",
+  /** Resource types supported by this checker. */
+  public static final String[] FILE_TYPES = { "ARE", "CHR", "CHU", "CRE", "DLG", "EFF", "GAM", "ITM", "PRO", "SPL",
                                               "STO", "VEF", "VVC", "WED", "WMP" };
 
   private static final HashMap<String, StructInfo> FILE_INFO = new HashMap<>();
@@ -91,7 +92,7 @@ public final class StructChecker extends AbstractChecker implements ListSelectio
   private final SortableTable table;
 
   public StructChecker() {
-    super("Find Corrupted Files", FILETYPES);
+    super("Find Corrupted Files", FILE_TYPES);
 
     table = new SortableTable(new String[] { "File", "Offset", "Error message" },
         new Class<?>[] { ResourceEntry.class, String.class, String.class }, // TODO: replace "Offset" by Integer
@@ -203,6 +204,22 @@ protected Runnable newWorker(ResourceEntry entry) {
   }
 
   private void search(ResourceEntry entry, AbstractStruct struct) {
+    check(entry, struct, (e, field, offset, message) -> {
+      synchronized (table) {
+        table.addTableItem(new Corruption(e, offset, message));
+      }
+    });
+  }
+
+  /**
+   * Reports structural corruptions of the specified resource, such as overlapping fields, unused data, invalid
+   * signatures or versions and offsets pointing outside of the resource data. This method is thread-safe.
+   *
+   * @param entry    The resource to check.
+   * @param struct   The parsed resource structure.
+   * @param reporter Receives the corruptions found.
+   */
+  public static void check(ResourceEntry entry, AbstractStruct struct, CheckReporter reporter) {
     final List<StructEntry> flatList = struct.getFlatFields();
     if (flatList.size() < 2) {
       return;
@@ -215,18 +232,14 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
       if (!entry2.getName().equals(AbstractStruct.COMMON_UNUSED_BYTES)) {
         int delta = entry2.getOffset() - offset;
         if (entry2.getSize() > 0 && delta < 0) {
-          synchronized (table) {
-            table.addTableItem(new Corruption(entry, entry1.getOffset(),
-                entry1.getName() + '(' + Integer.toHexString(entry1.getOffset()) + "h)" + " overlaps "
-                    + entry2.getName() + '(' + Integer.toHexString(entry2.getOffset()) + "h)" + " by " + -delta
-                    + " bytes"));
-          }
+          reporter.report(entry, null, entry1.getOffset(),
+              entry1.getName() + '(' + Integer.toHexString(entry1.getOffset()) + "h)" + " overlaps "
+                  + entry2.getName() + '(' + Integer.toHexString(entry2.getOffset()) + "h)" + " by " + -delta
+                  + " bytes");
         } else if (delta > 0) {
-          synchronized (table) {
-            table.addTableItem(new Corruption(entry, entry1.getOffset(),
-                delta + " unused bytes between " + entry1.getName() + '(' + Integer.toHexString(entry1.getOffset())
-                    + "h)" + " and " + entry2.getName() + '(' + Integer.toHexString(entry2.getOffset()) + "h)"));
-          }
+          reporter.report(entry, null, entry1.getOffset(),
+              delta + " unused bytes between " + entry1.getName() + '(' + Integer.toHexString(entry1.getOffset())
+                  + "h)" + " and " + entry2.getName() + '(' + Integer.toHexString(entry2.getOffset()) + "h)");
         }
         // Using max() as shared data regions may confuse the consistency check algorithm
         offset = Math.max(offset, entry2.getOffset() + entry2.getSize());
@@ -235,10 +248,8 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
     }
     StructEntry last = flatList.get(flatList.size() - 1);
     if (last.getName().equals(AbstractStruct.COMMON_UNUSED_BYTES)) {
-      synchronized (table) {
-        table.addTableItem(new Corruption(entry, last.getOffset(), last.getSize() + " unused bytes after "
-            + entry1.getName() + '(' + Integer.toHexString(entry1.getOffset()) + "h)"));
-      }
+      reporter.report(entry, null, last.getOffset(), last.getSize() + " unused bytes after "
+          + entry1.getName() + '(' + Integer.toHexString(entry1.getOffset()) + "h)");
     }
 
     // Checking signature and version fields
@@ -249,15 +260,11 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
         String ver = struct.getAttribute(AbstractStruct.COMMON_VERSION).toString();
         if (!info.isVersion(ver)) {
           // invalid version?
-          synchronized (table) {
-            table.addTableItem(new Corruption(entry, 4, "Unsupported or invalid version: \"" + ver + "\""));
-          }
+          reporter.report(entry, null, 4, "Unsupported or invalid version: \"" + ver + "\"");
         }
       } else {
         // invalid signature?
-        synchronized (table) {
-          table.addTableItem(new Corruption(entry, 0, "Invalid signature: \"" + sig + "\""));
-        }
+        reporter.report(entry, null, 0, "Invalid signature: \"" + sig + "\"");
       }
     }
 
@@ -305,19 +312,15 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
       if (field instanceof SectionOffset) {
         final SectionOffset so = (SectionOffset) field;
         if (so.getValue() + ofsOffset < headerSize) {
-          synchronized (table) {
-            table.addTableItem(new Corruption(entry, so.getOffset(),
-                "Offset field points to header data (field name: \"" + so.getName() + "\", offset: "
-                    + Integer.toHexString(so.getValue()) + "h, header size: "
-                    + Integer.toHexString(headerSize - ofsOffset) + "h)"));
-          }
+          reporter.report(entry, null, so.getOffset(),
+              "Offset field points to header data (field name: \"" + so.getName() + "\", offset: "
+                  + Integer.toHexString(so.getValue()) + "h, header size: "
+                  + Integer.toHexString(headerSize - ofsOffset) + "h)");
         } else if (so.getValue() + ofsOffset > struct.getSize()) {
-          synchronized (table) {
-            table.addTableItem(new Corruption(entry, so.getOffset(),
-                "Offset field value is out of range (field name: \"" + so.getName() + "\", offset: "
-                    + Integer.toHexString(so.getValue()) + "h, resource size: "
-                    + Integer.toHexString(struct.getSize() - ofsOffset) + "h)"));
-          }
+          reporter.report(entry, null, so.getOffset(),
+              "Offset field value is out of range (field name: \"" + so.getName() + "\", offset: "
+                  + Integer.toHexString(so.getValue()) + "h, resource size: "
+                  + Integer.toHexString(struct.getSize() - ofsOffset) + "h)");
         }
       }
     }
@@ -325,23 +328,19 @@ private void search(ResourceEntry entry, AbstractStruct struct) {
     // Type-specific checks
     if (entry.getExtension().equalsIgnoreCase("WED")) {
       List<Corruption> list = getWedCorruption(entry, struct);
-      synchronized (table) {
-        for (Corruption corruption : list) {
-          table.addTableItem(corruption);
-        }
+      for (Corruption corruption : list) {
+        reporter.report(entry, null, corruption.getOffset(), corruption.getMessage());
       }
     } else if (entry.getExtension().equalsIgnoreCase("STO")) {
       List<Corruption> list = getStoCorruption(entry, struct);
-      synchronized (table) {
-        for (Corruption corruption : list) {
-          table.addTableItem(corruption);
-        }
+      for (Corruption corruption : list) {
+        reporter.report(entry, null, corruption.getOffset(), corruption.getMessage());
       }
     }
   }
 
   // Checking for invalid trigger strings in STO V1.1 resources
-  private List<Corruption> getStoCorruption(ResourceEntry entry, AbstractStruct struct) {
+  private static List<Corruption> getStoCorruption(ResourceEntry entry, AbstractStruct struct) {
     final List<Corruption> list = new ArrayList<>();
     if (entry.getExtension().equalsIgnoreCase("STO")) {
       String version = ((IsTextual) struct.getAttribute(AbstractStruct.COMMON_VERSION)).getText();
@@ -372,7 +371,7 @@ private List<Corruption> getStoCorruption(ResourceEntry entry, AbstractStruct st
   }
 
   // Checking for WED-specific corruptions
-  private List<Corruption> getWedCorruption(ResourceEntry entry, AbstractStruct struct) {
+  private static List<Corruption> getWedCorruption(ResourceEntry entry, AbstractStruct struct) {
     final List<Corruption> list = new ArrayList<>();
     if (entry.getExtension().equalsIgnoreCase("WED")) {
       final int ovlSize = 0x18; // size of an Overlay structure
@@ -563,7 +562,6 @@ public int getOffset() {
       return offset;
     }
 
-    @SuppressWarnings("unused")
     public String getMessage() {
       return errorMsg;
     }
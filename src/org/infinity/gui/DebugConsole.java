@@ -21,6 +21,7 @@
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JTabbedPane;
 
 import org.infinity.NearInfinity;
 import org.infinity.gui.menu.BrowserMenuBar;
@@ -57,12 +58,19 @@ public DebugConsole() {
     lowerpanel.add(bSaveConsole);
     lowerpanel.add(cbExtraInfo);
 
+    JPanel consolePanel = new JPanel(new BorderLayout());
+    consolePanel.add(new InfinityScrollPane(taconsole, false), BorderLayout.CENTER);
+    consolePanel.add(lowerpanel, BorderLayout.SOUTH);
+
+    JTabbedPane tabbedPane = new JTabbedPane();
+    tabbedPane.addTab("Console", consolePanel);
+    tabbedPane.addTab("Metrics", new MetricsPanel());
+
     JPanel pane = (JPanel) getContentPane();
     pane.setLayout(new BorderLayout());
-    pane.add(new InfinityScrollPane(taconsole, false), BorderLayout.CENTER);
-    pane.add(lowerpanel, BorderLayout.SOUTH);
+    pane.add(tabbedPane, BorderLayout.CENTER);
 
-    setSize(Misc.getScaledValue(450), Misc.getScaledValue(450));
+    setSize(Misc.getScaledValue(600), Misc.getScaledValue(450));
     Center.center(this, NearInfinity.getInstance().getBounds());
   }
 
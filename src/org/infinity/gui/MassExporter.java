@@ -12,25 +12,14 @@
 import java.awt.Dialog;
 import java.awt.FlowLayout;
 import java.awt.Font;
-import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
-import java.awt.image.RenderedImage;
-import java.io.EOFException;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -47,7 +36,6 @@
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
@@ -78,38 +66,17 @@
 import org.infinity.icon.Icons;
 import org.infinity.resource.Profile;
 import org.infinity.resource.Resource;
+import org.infinity.resource.ResourceExporter;
 import org.infinity.resource.ResourceFactory;
-import org.infinity.resource.StructEntry;
-import org.infinity.resource.TextResource;
-import org.infinity.resource.bcs.BcsResource;
-import org.infinity.resource.bcs.Decompiler;
-import org.infinity.resource.cre.CreResource;
-import org.infinity.resource.dlg.DlgResource;
-import org.infinity.resource.graphics.BamDecoder;
-import org.infinity.resource.graphics.BamResource;
-import org.infinity.resource.graphics.ColorConvert;
-import org.infinity.resource.graphics.Compressor;
-import org.infinity.resource.graphics.MosDecoder;
-import org.infinity.resource.graphics.MosV1Decoder;
-import org.infinity.resource.graphics.PvrDecoder;
-import org.infinity.resource.graphics.TisConvert;
-import org.infinity.resource.graphics.TisConvert.Config;
-import org.infinity.resource.graphics.TisDecoder;
-import org.infinity.resource.graphics.TisResource;
 import org.infinity.resource.key.ResourceEntry;
-import org.infinity.resource.sound.AudioFactory;
-import org.infinity.resource.text.PlainTextResource;
 import org.infinity.resource.ui.CheckBoxResourceCellRenderer;
 import org.infinity.resource.ui.ResourceCellRenderer;
-import org.infinity.resource.video.MveResource;
-import org.infinity.util.DebugTimer;
 import org.infinity.util.Logger;
 import org.infinity.util.Misc;
-import org.infinity.util.StaticSimpleXorDecryptor;
 import org.infinity.util.Threading;
-import org.infinity.util.io.FileEx;
 import org.infinity.util.io.FileManager;
-import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 import org.infinity.util.tuples.Couple;
 
 public final class MassExporter extends ChildFrame implements ActionListener, ListSelectionListener, DocumentListener, Runnable {
@@ -149,6 +116,7 @@ public final class MassExporter extends ChildFrame implements ActionListener, Li
   private final JTextField tfPattern = new JTextField(16);
 
   private Path outputPath;
+  private ResourceExporter exporter;
   private List<String> selectedTypes;
   private ProgressMonitor progress;
   private int progressIndex;
@@ -254,6 +222,7 @@ public void changedUpdate(DocumentEvent e) {
 
   @Override
   public void run() {
+    Span span = null;
     try {
       final Component parentComponent = isVisible() ? this : NearInfinity.getInstance();
 
@@ -269,8 +238,11 @@ public void run() {
         return;
       }
 
+      exporter = createExporter();
+
       // executing multithreaded search
       boolean isCancelled = false;
+      span = Metrics.start("export.MassExporter");
       try (final Threading threadPool = new Threading()) {
         progress = new ProgressMonitor(parentComponent, "Exporting...",
             String.format(FMT_PROGRESS, getResourceCount(), getResourceCount()), 0, selectedFiles.size());
@@ -278,7 +250,6 @@ public void run() {
         progress.setMillisToPopup(0);
         progress.setProgress(0);
         progress.setNote(String.format(FMT_PROGRESS, 0, getResourceCount()));
-        DebugTimer.getInstance().timerReset();
         for (int i = 0, count = getResourceCount(); i < count; i++) {
           threadPool.submit(new Worker(selectedFiles.get(i)));
           if (progress.isCanceled()) {
@@ -324,8 +295,12 @@ public void run() {
         selectedFiles.clear();
       }
       selectedFiles = null;
+      exporter = null;
+    }
+    if (span != null) {
+      span.close();
+      Logger.info(span.getTimerFormatted("Mass export completed"));
     }
-    Logger.info(DebugTimer.getInstance().getTimerFormatted("Mass export completed"));
   }
 
   // --------------------- End Interface Runnable ---------------------
@@ -634,6 +609,32 @@ private void updateTextFieldColor(JTextField tf) {
     }
   }
 
+  /** Returns a {@link ResourceExporter} instance that is initialized with the current export settings. */
+  private ResourceExporter createExporter() {
+    final ResourceExporter retVal = new ResourceExporter(outputPath);
+    retVal.setOverwrite(cbOverwrite.isSelected());
+    retVal.setDecompile(cbDecompile.isSelected());
+    retVal.setDecrypt(cbDecrypt.isSelected());
+    retVal.setTrimText(cbTrimText.isSelected());
+    if (cbFormatAlign.isSelected()) {
+      retVal.setTableAlignment((cbFormatAlignList.getSelectedIndex() == 1) ? ResourceExporter.TableAlignment.UNIFORM
+          : ResourceExporter.TableAlignment.COMPACT);
+    }
+    retVal.setConvertWav(cbConvertWAV.isSelected());
+    retVal.setConvertChr(cbConvertCRE.isSelected());
+    retVal.setDecompress(cbDecompress.isSelected());
+    retVal.setConvertToPng(cbConvertToPNG.isSelected());
+    if (cbConvertTisVersion.isSelected()) {
+      retVal.setTisConversion((cbConvertTisList.getSelectedIndex() == 1) ? ResourceExporter.TisConversion.PVRZ
+          : ResourceExporter.TisConversion.PALETTE);
+    }
+    if (cbExtractFramesBAM.isSelected()) {
+      retVal.setBamFramesFormat((cbExtractFramesBAMFormat.getSelectedIndex() == 0) ? "png" : "bmp");
+    }
+    retVal.setConvertMve(cbExportMVEasAVI.isSelected());
+    return retVal;
+  }
+
   private synchronized void advanceProgress(boolean finished) {
     if (progress != null) {
       if (finished) {
@@ -650,379 +651,14 @@ private synchronized void advanceProgress(boolean finished) {
     }
   }
 
-  private void exportText(ResourceEntry entry, Class<? extends Resource> resourceType, Path output) throws Exception {
-    // preparing source data
-    ByteBuffer bb = entry.getResourceBuffer();
-
-    if (cbDecrypt.isSelected()) {
-      bb = decryptText(entry, bb);
-    }
-
-    if (resourceType.isAssignableFrom(BcsResource.class) && cbDecompile.isSelected()) {
-      bb = decompileScript(entry, bb);
-      output = output.getParent().resolve(StreamUtils.replaceFileExtension(output.getFileName().toString(), "BAF"));
-    } else {
-      if (cbTrimText.isSelected()) {
-        bb = trimText(entry, bb);
-      }
-      if (cbFormatAlign.isSelected() && entry.getExtension().equalsIgnoreCase("2DA")) {
-        bb = alignTable(entry, bb);
-      }
-    }
-
-    // saving data
-    // Keep trying. File may be in use by another thread.
-    try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
-      StreamUtils.writeBytes(os, bb);
-    }
-  }
-
-  private void decompileDialog(ResourceEntry entry, Path output) throws Exception {
-    output = output.getParent().resolve(StreamUtils.replaceFileExtension(output.getFileName().toString(), "D"));
-    final DlgResource dlg = new DlgResource(entry);
-    try (PrintWriter writer = new PrintWriter(output.toFile(), BrowserMenuBar.getInstance().getOptions().getSelectedCharset())) {
-      if (!dlg.exportDlgAsText(writer)) {
-        Logger.error("Failed to decompile: ", entry);
-      }
-    }
-  }
-
-  private void decompressBamMos(ResourceEntry entry, Path output) throws Exception {
-    ByteBuffer bb = entry.getResourceBuffer();
-    if (bb.limit() > 0) {
-      String sig = StreamUtils.readString(bb, 4);
-      if (sig.equals("BAMC") || sig.equals("MOSC")) {
-        bb = Compressor.decompress(bb);
-      }
-      // Keep trying. File may be in use by another thread.
-      try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
-        StreamUtils.writeBytes(os, bb);
-      }
-    }
-  }
-
-  private void decompressWav(ResourceEntry entry, Path output) throws Exception {
-    ByteBuffer buffer = StreamUtils.getByteBuffer(AudioFactory.convertAudio(entry));
-    if (buffer.limit() > 0) {
-      // Keep trying. File may be in use by another thread.
-      try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
-        StreamUtils.writeBytes(os, buffer);
-      }
-    }
-  }
-
-  private void mosToPng(ResourceEntry entry, Path output) throws Exception {
-    if (entry != null && entry.getExtension().equalsIgnoreCase("MOS")) {
-      output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "PNG"));
-      if (FileEx.create(output).exists() && !cbOverwrite.isSelected()) {
-        return;
-      }
-
-      MosDecoder decoder = MosDecoder.loadMos(entry);
-      if (decoder != null) {
-        if (decoder instanceof MosV1Decoder) {
-          ((MosV1Decoder) decoder).setTransparencyEnabled(true);
-        }
-        RenderedImage image = ColorConvert.toBufferedImage(decoder.getImage(), true);
-        try {
-          ImageIO.write(image, "png", output.toFile());
-        } finally {
-          image = null;
-        }
-      } else {
-        throw new Exception(String.format("Error loading resource: %s", entry.getResourceName()));
-      }
-    }
-  }
-
-  private void pvrzToPng(ResourceEntry entry, Path output) throws Exception {
-    if (entry != null && entry.getExtension().equalsIgnoreCase("PVRZ")) {
-      output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "PNG"));
-      if (FileEx.create(output).exists() && !cbOverwrite.isSelected()) {
-        return;
-      }
-
-      PvrDecoder decoder = PvrDecoder.loadPvr(entry);
-      if (decoder != null) {
-        RenderedImage image = decoder.decode();
-        try {
-          ImageIO.write(image, "png", output.toFile());
-        } finally {
-          image = null;
-        }
-      } else {
-        throw new Exception(String.format("Error loading resource: %s", entry.getResourceName()));
-      }
-    }
-  }
-
-  private void tisToPng(ResourceEntry entry, Path output) throws Exception {
-    if (entry != null && entry.getExtension().equalsIgnoreCase("TIS")) {
-      output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "PNG"));
-      if (FileEx.create(output).exists() && !cbOverwrite.isSelected()) {
-        return;
-      }
-
-      TisDecoder decoder = TisDecoder.loadTis(entry);
-      if (decoder != null) {
-        int tileCount = decoder.getTileCount();
-        int columns = TisConvert.calcTilesetWidth(entry, true, 1);
-        int rows = tileCount / columns;
-        if ((tileCount % columns) != 0) {
-          rows++;
-        }
-
-        BufferedImage tile = ColorConvert.createCompatibleImage(64, 64, Transparency.BITMASK);
-        BufferedImage image = ColorConvert.createCompatibleImage(64 * columns, 64 * rows, Transparency.BITMASK);
-        try {
-          Graphics2D g = image.createGraphics();
-          try {
-            for (int i = 0; i < tileCount; i++) {
-              int x = 64 * (i % columns);
-              int y = 64 * (i / columns);
-              decoder.getTile(i, tile);
-              g.drawImage(tile, x, y, null);
-            }
-          } finally {
-            g.dispose();
-            g = null;
-          }
-          ImageIO.write(image, "png", output.toFile());
-        } finally {
-          tile = null;
-          image = null;
-        }
-      } else {
-        throw new Exception(String.format("Error loading resource: %s", entry.getResourceName()));
-      }
-    }
-  }
-
-  private void extractBamFrames(ResourceEntry entry, Path output) throws Exception {
-    String format = (cbExtractFramesBAMFormat.getSelectedIndex() == 0) ? "png" : "bmp";
-    Path filePath = output.getParent();
-    String fileName = output.getFileName().toString();
-    int extIdx = fileName.lastIndexOf('.');
-    String fileBase = (extIdx >= 0) ? fileName.substring(0, extIdx) : fileName;
-    String fileExt = "." + format;
-
-    // creating subfolder for frames
-    Path path = filePath.resolve(fileBase);
-    if (!FileEx.create(path).exists()) {
-      try {
-        Files.createDirectory(path);
-      } catch (IOException e) {
-        String msg = String.format("Error creating folder \"%s\". Skipping file \"%s\".", fileBase, fileName);
-        Logger.warn(msg);
-        JOptionPane.showMessageDialog(NearInfinity.getInstance(), msg, "Error", JOptionPane.ERROR_MESSAGE);
-        return;
-      }
-    } else if (!FileEx.create(path).isDirectory()) {
-      String msg = String.format("Folder \"%s\" can not be created. Skipping file \"%s\".", fileBase, fileName);
-      Logger.warn(msg);
-      JOptionPane.showMessageDialog(NearInfinity.getInstance(), msg, "Error", JOptionPane.ERROR_MESSAGE);
-      return;
-    }
-    filePath = path;
-
-    BamDecoder decoder = BamDecoder.loadBam(entry);
-    BamResource.exportFrames(decoder, filePath, fileBase, fileExt, format, true);
-  }
-
-  private void chrToCre(ResourceEntry entry, Path output) throws Exception {
-    output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "CRE"));
-    if (FileEx.create(output).exists() && !cbOverwrite.isSelected()) {
-      return;
-    }
-    CreResource crefile = new CreResource(entry);
-    final List<StructEntry> flatList = crefile.getFlatFields();
-    while (!flatList.get(0).toString().equals("CRE ")) {
-      flatList.remove(0);
-    }
-    // Keep trying. File may be in use by another thread.
-    try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
-      for (final StructEntry e : flatList) {
-        e.write(os);
-      }
-    }
-  }
-
-  private void exportResource(ResourceEntry entry, Path output) throws Exception {
-    if (entry != null && output != null) {
-      Logger.info("Converting {}", entry.toString());
-      int[] info = entry.getResourceInfo();
-      int size = info[0];
-      if (info.length > 1) {
-        size = size * info[1] + 0x18;
-      }
-      boolean isTis = (info.length > 1);
-      boolean isTisV2 = isTis && (info[1] == 0x0c);
-
-      if (isTis && cbConvertTisVersion.isSelected() && !isTisV2 && cbConvertTisList.getSelectedIndex() == 1) {
-        final Path tisFile = TisConvert.makeTisFileNameValid(output);
-        final TisResource tis = new TisResource(entry);
-        final ResourceEntry wedEntry = TisConvert.findWed(entry, true);
-        final int tilesPerRow = TisConvert.calcTilesetWidth(wedEntry, false, tis.getDecoder().getTileCount());
-        final int pvrzBaseIndex = TisConvert.calcPvrzBaseIndex(tisFile);
-        final TisConvert.OverlayConversion convert = (Profile.getEngine() == Profile.Engine.BG2)
-            ? TisConvert.OverlayConversion.BG2_TO_BG2EE
-            : TisConvert.OverlayConversion.NONE;
-        final TisConvert.Config config = Config.createConfigPvrz(tisFile, tis.getDecoder(), wedEntry, tilesPerRow, -1,
-            TisConvert.Config.MAX_TEXTURE_SIZE, pvrzBaseIndex, TisConvert.Config.DEFAULT_BORDER_SIZE,
-            TisConvert.Config.MAX_TEXTURE_SIZE / 2, true, true, convert);
-        TisConvert.convertToPvrzTis(config, false, null);
-      } else if (isTis && cbConvertTisVersion.isSelected() && isTisV2 && cbConvertTisList.getSelectedIndex() == 0) {
-        TisResource tis = new TisResource(entry);
-
-        // overlay conversion mode depends on game and WED overlay movement type
-        final ResourceEntry wedEntry = TisConvert.findWed(entry, true);
-        final int movementType = TisConvert.getTisMovementType(wedEntry, false);
-        final TisConvert.OverlayConversion convert;
-        switch (Profile.getGame()) {
-          case BG2EE:
-          case IWDEE:
-          case PSTEE:
-          case EET:
-            convert = (movementType == 0) ? TisConvert.OverlayConversion.BG2EE_TO_BG2 : TisConvert.OverlayConversion.NONE;
-            break;
-          case BG1EE:
-            convert = (movementType == 2) ? TisConvert.OverlayConversion.BG2EE_TO_BG2 : TisConvert.OverlayConversion.NONE;
-            break;
-          default:
-            convert = TisConvert.OverlayConversion.NONE;
-        }
-
-        final TisConvert.Config config = Config.createConfigPalette(output, tis.getTileList(), tis.getDecoder(),
-            wedEntry, convert);
-        TisConvert.convertToPaletteTis(config, false, null);
-      } else if (size >= 0) {
-        try (InputStream is = entry.getResourceDataAsStream()) {
-          // Keep trying. File may be in use by another thread.
-          try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
-            int bytesWritten = (int) StreamUtils.writeBytes(os, is, size);
-            if (bytesWritten < size) {
-              throw new EOFException(entry + ": " + bytesWritten + " of " + size + " bytes written");
-            }
-          }
-        }
-      }
-    }
-  }
-
   private void export(ResourceEntry entry) {
     try {
-      Path output = outputPath.resolve(entry.getResourceName());
-      if (FileEx.create(output).exists() && !cbOverwrite.isSelected()) {
-        return;
-      }
-
-      Class<? extends Resource> resourceType = ResourceFactory.getResourceType(entry);
-      boolean isTextResource = TextResource.class.isAssignableFrom(resourceType);
-
-      if (isTextResource) {
-        exportText(entry, resourceType, output);
-      } else if (entry.getExtension().equalsIgnoreCase("DLG") && cbDecompile.isSelected()) {
-        decompileDialog(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("MOS") && cbConvertToPNG.isSelected()) {
-        mosToPng(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("PVRZ") && cbConvertToPNG.isSelected()) {
-        pvrzToPng(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("TIS") && cbConvertToPNG.isSelected()) {
-        tisToPng(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("BAM") && cbExtractFramesBAM.isSelected()) {
-        extractBamFrames(entry, output);
-      } else if ((entry.getExtension().equalsIgnoreCase("BAM") || entry.getExtension().equalsIgnoreCase("MOS"))
-          && cbDecompress.isSelected()) {
-        decompressBamMos(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("CHR") && cbConvertCRE.isSelected()) {
-        chrToCre(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("WAV") && cbConvertWAV.isSelected()) {
-        decompressWav(entry, output);
-      } else if (entry.getExtension().equalsIgnoreCase("MVE") && cbExportMVEasAVI.isSelected()) {
-        output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "avi"));
-        if (FileEx.create(output).exists() && !cbOverwrite.isSelected()) {
-          return;
-        }
-        MveResource.convertAvi(entry, output, null, true);
-      } else {
-        exportResource(entry, output);
-      }
+      exporter.export(entry);
     } catch (Exception e) {
       Logger.error(e, "Error in resource: {}", entry);
-
     }
   }
 
-  /**
-   * Decompiles BCS data from {@code inBuffer}.
-   *
-   * @param entry The original {@link ResourceEntry} instance.
-   * @param inBuffer Buffer containing the current state of the resource data.
-   * @return {@link ByteBuffer} instance with decompiled script content.
-   */
-  private ByteBuffer decompileScript(ResourceEntry entry, ByteBuffer inBuffer) throws Exception {
-    if (inBuffer != null) {
-      final Decompiler decompiler = new Decompiler(StreamUtils.readString(inBuffer, inBuffer.limit()), false);
-      decompiler.setGenerateComments(BrowserMenuBar.getInstance().getOptions().autogenBCSComments());
-      String script = decompiler.getSource().replaceAll("\r?\n", Misc.LINE_SEPARATOR);
-      final Charset cs = Misc.getCharsetFrom(BrowserMenuBar.getInstance().getOptions().getSelectedCharset());
-      return ByteBuffer.wrap(script.getBytes(cs));
-    }
-    return inBuffer;
-  }
-
-  /**
-   * Decrypts data from {@code inBuffer}.
-   *
-   * @param entry The original {@link ResourceEntry} instance.
-   * @param inBuffer Buffer containing the current state of the resource data.
-   * @return {@link ByteBuffer} instance with decrypted text content.
-   */
-  private ByteBuffer decryptText(ResourceEntry entry, ByteBuffer inBuffer) {
-    if (inBuffer != null && inBuffer.limit() > 1 && inBuffer.getShort(0) == -1) {
-      return StaticSimpleXorDecryptor.decrypt(inBuffer, 2);
-    }
-    return inBuffer;
-  }
-
-  /**
-   * Removes trailing whitespace from all lines of text in {@code inBuffer}.
-   *
-   * @param entry The original {@link ResourceEntry} instance.
-   * @param inBuffer Buffer containing the current state of the resource data.
-   * @return {@link ByteBuffer} instance with trimmed text content.
-   */
-  private ByteBuffer trimText(ResourceEntry entry, ByteBuffer inBuffer) {
-    if (inBuffer != null) {
-      String text = Misc.CHARSET_DEFAULT.decode(inBuffer).toString();
-      text = PlainTextResource.trimSpaces(text, true, false);
-      return ByteBuffer.wrap(text.getBytes(Misc.CHARSET_DEFAULT));
-    }
-    return inBuffer;
-  }
-
-  /**
-   * Aligns table data for improved readability.
-   *
-   * @param entry The original {@link ResourceEntry} instance.
-   * @param inBuffer Buffer containing the current state of the resource data.
-   * @return {@link ByteBuffer} instance with aligned text content.
-   */
-  private ByteBuffer alignTable(ResourceEntry entry, ByteBuffer inBuffer) {
-    if (inBuffer != null) {
-      String text = Misc.CHARSET_DEFAULT.decode(inBuffer).toString();
-      if (cbFormatAlignList.getSelectedIndex() == 1) {
-        // Uniform alignment
-        text = PlainTextResource.alignTableColumns(text, 1, false, 1);
-      } else {
-        // Compact alignment
-        text = PlainTextResource.alignTableColumns(text, 2, true, 4);
-      }
-      return ByteBuffer.wrap(text.getBytes(Misc.CHARSET_DEFAULT));
-    }
-    return inBuffer;
-  }
-
 //  /**
 //   * Sorts IDS entries by key values.
 //   *
@@ -1039,32 +675,6 @@ private ByteBuffer alignTable(ResourceEntry entry, ByteBuffer inBuffer) {
 //    return inBuffer;
 //  }
 
-  // Attempts to open "output" as stream to the specified file "numAttempts' time with "delayAttempts" ms delay
-  // inbetween.
-  private OutputStream tryOpenOutputStream(Path output, int numAttempts, int delayAttempts) throws Exception {
-    if (output != null) {
-      numAttempts = Math.max(1, numAttempts);
-      delayAttempts = Math.max(0, delayAttempts);
-      OutputStream os = null;
-      while (os == null) {
-        try {
-          os = StreamUtils.getOutputStream(output, true);
-        } catch (FileNotFoundException fnfe) {
-          if (--numAttempts == 0) {
-            throw fnfe;
-          }
-          try {
-            Thread.sleep(delayAttempts);
-          } catch (InterruptedException ie) {
-            Logger.trace(ie);
-          }
-        }
-      }
-      return os;
-    }
-    return null;
-  }
-
 //  // Attempts to open "output" as writer to the specified file "numAttempts' time with "delayAttempts" ms delay
 //  // inbetween.
 //  private Writer tryOpenOutputWriter(Path output, int numAttempts, int delayAttempts) throws Exception {
@@ -0,0 +1,249 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.gui;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.AbstractTableModel;
+
+import org.infinity.icon.Icons;
+import org.infinity.resource.Profile;
+import org.infinity.util.Logger;
+import org.infinity.util.Misc;
+import org.infinity.util.io.FileEx;
+import org.infinity.util.metrics.Metric;
+import org.infinity.util.metrics.Metrics;
+
+/**
+ * Displays the performance metrics collected by {@link Metrics} and provides export in JSON and CSV format.
+ */
+public class MetricsPanel extends JPanel implements ActionListener {
+  /** Refresh interval for automatic updates, in milliseconds. */
+  private static final int REFRESH_INTERVAL = 1000;
+
+  private static final FileNameExtensionFilter FILTER_JSON = new FileNameExtensionFilter("JSON files (*.json)", "json");
+  private static final FileNameExtensionFilter FILTER_CSV = new FileNameExtensionFilter("CSV files (*.csv)", "csv");
+
+  private final MetricsTableModel model = new MetricsTableModel();
+  private final JTable table = new JTable(model);
+  private final JButton bRefresh = new JButton("Refresh", Icons.ICON_REFRESH_16.getIcon());
+  private final JButton bReset = new JButton("Reset", Icons.ICON_NEW_16.getIcon());
+  private final JButton bExport = new JButton("Export...", Icons.ICON_EXPORT_16.getIcon());
+  private final JCheckBox cbAutoRefresh = new JCheckBox("Auto refresh", true);
+  private final Timer timer = new Timer(REFRESH_INTERVAL, this);
+
+  public MetricsPanel() {
+    super(new BorderLayout());
+
+    table.setAutoCreateRowSorter(true);
+    table.setFillsViewportHeight(true);
+    table.getColumnModel().getColumn(0).setPreferredWidth(Misc.getScaledValue(200));
+
+    bRefresh.setMnemonic('r');
+    bRefresh.addActionListener(this);
+    bReset.setMnemonic('e');
+    bReset.setToolTipText("Discard all recorded metrics.");
+    bReset.addActionListener(this);
+    bExport.setMnemonic('x');
+    bExport.setToolTipText("Export recorded metrics in JSON or CSV format.");
+    bExport.addActionListener(this);
+    cbAutoRefresh.addActionListener(this);
+
+    JPanel lowerpanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+    lowerpanel.add(bRefresh);
+    lowerpanel.add(bReset);
+    lowerpanel.add(bExport);
+    lowerpanel.add(cbAutoRefresh);
+
+    add(new InfinityScrollPane(table, false), BorderLayout.CENTER);
+    add(lowerpanel, BorderLayout.SOUTH);
+
+    model.refresh();
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    model.refresh();
+    if (cbAutoRefresh.isSelected()) {
+      timer.start();
+    }
+  }
+
+  @Override
+  public void removeNotify() {
+    timer.stop();
+    super.removeNotify();
+  }
+
+  // --------------------- Begin Interface ActionListener ---------------------
+
+  @Override
+  public void actionPerformed(ActionEvent event) {
+    if (event.getSource() == timer) {
+      if (isShowing()) {
+        model.refresh();
+      }
+    } else if (event.getSource() == bRefresh) {
+      model.refresh();
+    } else if (event.getSource() == bReset) {
+      Metrics.resetAll();
+      model.refresh();
+    } else if (event.getSource() == bExport) {
+      export();
+    } else if (event.getSource() == cbAutoRefresh) {
+      if (cbAutoRefresh.isSelected()) {
+        timer.start();
+      } else {
+        timer.stop();
+      }
+    }
+  }
+
+  // --------------------- End Interface ActionListener ---------------------
+
+  // Exports all metrics to a user-defined file
+  private void export() {
+    final JFileChooser chooser = new JFileChooser(Profile.getGameRoot().toFile());
+    chooser.setDialogTitle("Export metrics");
+    chooser.setAcceptAllFileFilterUsed(false);
+    chooser.addChoosableFileFilter(FILTER_JSON);
+    chooser.addChoosableFileFilter(FILTER_CSV);
+    chooser.setFileFilter(FILTER_JSON);
+    chooser.setSelectedFile(new File(chooser.getCurrentDirectory(), "nimetrics.json"));
+    if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+      return;
+    }
+
+    Path output = chooser.getSelectedFile().toPath();
+    final String fileName = output.getFileName().toString().toLowerCase(Locale.ENGLISH);
+    final boolean isCsv;
+    if (fileName.endsWith(".csv")) {
+      isCsv = true;
+    } else if (fileName.endsWith(".json")) {
+      isCsv = false;
+    } else {
+      isCsv = (chooser.getFileFilter() == FILTER_CSV);
+      output = output.resolveSibling(output.getFileName() + (isCsv ? ".csv" : ".json"));
+    }
+
+    if (FileEx.create(output).exists()) {
+      String[] options = { "Overwrite", "Cancel" };
+      if (JOptionPane.showOptionDialog(this, output + " exists. Overwrite?", "Export metrics",
+          JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]) != 0) {
+        return;
+      }
+    }
+
+    try (BufferedWriter bw = Files.newBufferedWriter(output)) {
+      bw.write(isCsv ? Metrics.toCsv() : Metrics.toJson().toString(2));
+      bw.newLine();
+      JOptionPane.showMessageDialog(this, "Metrics exported to " + output, "Export complete",
+          JOptionPane.INFORMATION_MESSAGE);
+    } catch (IOException e) {
+      JOptionPane.showMessageDialog(this, "Error while exporting " + output, "Error", JOptionPane.ERROR_MESSAGE);
+      Logger.error(e);
+    }
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** Table model with one row per metric. */
+  private static class MetricsTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = { "Name", "Type", "Count", "Total (ms)", "Mean (µs)", "p95 (µs)",
+        "Max (µs)", "Hit rate (%)" };
+    private static final String[] VALUES = { null, null, Metrics.VALUE_COUNT, Metrics.VALUE_TOTAL_MS,
+        Metrics.VALUE_MEAN_US, Metrics.VALUE_P95_US, Metrics.VALUE_MAX_US, Metrics.VALUE_HIT_RATE };
+
+    private final List<Metric> metrics = new ArrayList<>();
+    private final List<Map<String, Number>> values = new ArrayList<>();
+
+    /** Fetches the current state of all metrics. */
+    public void refresh() {
+      final List<Metric> list = Metrics.getMetrics();
+      final boolean structureChanged = !list.equals(metrics);
+      metrics.clear();
+      metrics.addAll(list);
+      values.clear();
+      for (final Metric metric : list) {
+        values.add(metric.getValues());
+      }
+      if (structureChanged) {
+        fireTableDataChanged();
+      } else if (!metrics.isEmpty()) {
+        fireTableRowsUpdated(0, metrics.size() - 1);
+      }
+    }
+
+    @Override
+    public int getRowCount() {
+      return metrics.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+      return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+      switch (columnIndex) {
+        case 0:
+        case 1:
+          return String.class;
+        case 2:
+          return Long.class;
+        default:
+          return Double.class;
+      }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      switch (columnIndex) {
+        case 0:
+          return metrics.get(rowIndex).getName();
+        case 1:
+          return metrics.get(rowIndex).getType();
+        default:
+          final Number value = values.get(rowIndex).get(VALUES[columnIndex]);
+          if (value == null) {
+            return null;
+          } else if (columnIndex == 2) {
+            return value.longValue();
+          } else if (Metrics.VALUE_HIT_RATE.equals(VALUES[columnIndex])) {
+            return Math.round(value.doubleValue() * 1000.0) / 10.0;
+          } else {
+            return Math.round(value.doubleValue() * 10.0) / 10.0;
+          }
+      }
+    }
+  }
+}
@@ -418,6 +418,15 @@ public String toString() {
                       "Enables syntax highlighting for MENU resources.", AppOption.MENU_SYNTAX_HIGHLIGHTING)
                   .setOnCreated(this::menuSyntaxHighlightingOnCreated).setOnAction(this::menuSyntaxHighlightingOnAction)
               ),
+              OptionGroup.create("SAV",
+                  OptionGroupBox.create(AppOption.SAV_COMPRESSION_LEVEL.getName(), AppOption.SAV_COMPRESSION_LEVEL.getLabel(),
+                      "Select the compression level for new or modified files in SAV resources.<p>"
+                          + "Lower levels compress faster but produce larger SAV files. Unmodified files always keep "
+                          + "their original compressed data.</p>",
+                      9, new String[] { "0 (no compression)", "1 (fastest)", "2", "3", "4", "5", "6", "7", "8",
+                          "9 (smallest)" },
+                      AppOption.SAV_COMPRESSION_LEVEL)
+              ),
               OptionGroup.create("SQL",
                   OptionGroupBox.create(AppOption.SQL_COLOR_SCHEME.getName(), AppOption.SQL_COLOR_SCHEME.getLabel(),
                       "Select a color scheme for SQL resources.<p>"
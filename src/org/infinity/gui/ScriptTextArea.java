@@ -37,7 +37,9 @@
 import org.infinity.gui.menu.BrowserMenuBar;
 import org.infinity.icon.Icons;
 import org.infinity.resource.ResourceFactory;
+import org.infinity.resource.bcs.BackgroundCompiler;
 import org.infinity.resource.bcs.ScriptInfo;
+import org.infinity.resource.bcs.ScriptType;
 import org.infinity.resource.bcs.Signatures;
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.resource.text.modes.BCSTokenMaker;
@@ -77,6 +79,9 @@ private enum IconType {
   private final Signatures triggers;
   private final Signatures actions;
 
+  // Reports compiler errors and warnings while the script is edited
+  private BackgroundCompiler backgroundCompiler;
+
   /**
    * Constructs a new script text area with BCS language settings.
    */
@@ -246,6 +251,30 @@ public void stateChanged(ChangeEvent e) {
 
   // --------------------- End Interface ChangeListener ---------------------
 
+  /** Returns whether the script source is compiled in the background while it is edited. */
+  public boolean isBackgroundCompilerEnabled() {
+    return (backgroundCompiler != null);
+  }
+
+  /**
+   * Specifies whether the script source should be compiled in the background while it is edited. Compiler errors and
+   * warnings are highlighted in the text.
+   *
+   * @param enable     Whether to enable background compilation.
+   * @param scriptType The type of the script source. Only considered if background compilation is enabled.
+   */
+  public void setBackgroundCompilerEnabled(boolean enable, ScriptType scriptType) {
+    if (backgroundCompiler != null) {
+      removeParser(backgroundCompiler);
+      backgroundCompiler = null;
+    }
+    if (enable) {
+      backgroundCompiler = new BackgroundCompiler(this, scriptType);
+      setParserDelay(BackgroundCompiler.PARSER_DELAY);
+      addParser(backgroundCompiler);
+    }
+  }
+
   /**
    * Adds a new error notification to the gutter at the left edge.
    *
@@ -219,6 +219,11 @@ public String getText(int index) {
     return null;
   }
 
+  @Override
+  public int[] getCandidates(String term, boolean regex) {
+    return StringTable.getSearchCandidates(StringTable.Type.MALE, term, regex);
+  }
+
   @Override
   public void hitFound(int index) {
     showEntry(index);
@@ -53,8 +53,10 @@ public StringLookup() {
     setSize(Misc.getScaledValue(540), Misc.getScaledValue(350));
     Center.center(this, NearInfinity.getInstance().getBounds());
 
-    // pre-caching string table to significantly reduce search time
-    new Thread(StringTable::ensureFullyLoaded).start();
+    // pre-caching string table and search index to significantly reduce search time
+    final Thread thread = new Thread(() -> StringTable.ensureSearchIndex(StringTable.Type.MALE), "StringTableIndex");
+    thread.setDaemon(true);
+    thread.start();
   }
 
   /**
@@ -83,6 +85,15 @@ public String getText(int index) {
     return StringTable.getStringRef(index);
   }
 
+  @Override
+  public int[] getCandidates(String term, boolean regex) {
+    // index covers only unformatted strings
+    if (StringTable.getDisplayFormat() != StringTable.Format.NONE) {
+      return null;
+    }
+    return StringTable.getSearchCandidates(StringTable.Type.MALE, term, regex);
+  }
+
   @Override
   public void hitFound(int index) {
     strref.setValue(index);
@@ -29,11 +29,15 @@
 import java.awt.print.Printable;
 import java.awt.print.PrinterException;
 import java.awt.print.PrinterJob;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -62,6 +66,7 @@
 import javax.swing.event.TableModelListener;
 import javax.swing.table.DefaultTableCellRenderer;
 
+import org.infinity.AppOption;
 import org.infinity.NearInfinity;
 import org.infinity.datatype.Datatype;
 import org.infinity.datatype.DecNumber;
@@ -109,6 +114,7 @@
 import org.infinity.search.advanced.SearchOptions;
 import org.infinity.util.Logger;
 import org.infinity.util.Misc;
+import org.infinity.util.StringTable;
 import org.infinity.util.StructClipboard;
 import org.infinity.util.io.ByteBufferOutputStream;
 import org.infinity.util.io.StreamUtils;
@@ -191,6 +197,7 @@ public final class StructViewer extends JPanel implements ListSelectionListener,
   private final InfinityTextArea tatext = new InfinityTextArea(true);
   private final HashMap<Integer, StructEntry> entryMap = new HashMap<>();
   private final HashMap<Viewable, ViewFrame> viewMap = new HashMap<>();
+  private final CellTextCache cellTextCache = new CellTextCache();
   private final StructTable table;
 
   private JMenuItem miFindAttribute;
@@ -237,6 +244,8 @@ private static JMenu createResrefMenu(String cmd, String text, String[] types, I
   public StructViewer(AbstractStruct struct) {
     this.struct = struct;
     this.struct.addTableModelListener(this);
+    this.struct.addTableModelListener(cellTextCache);
+    this.struct.addPropertyChangeListener(cellTextCache);
     this.table = new StructTable(this.struct);
     table.setBorder(BorderFactory.createEmptyBorder(3, 3, 3, 3));
     table.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_INTERVAL_SELECTION);
@@ -277,7 +286,8 @@ public Component getTableCellRendererComponent(JTable table, Object value, boole
         }
         setBackground(getClassColor(cls));
 
-        super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        final String text = cellTextCache.getText(field, row, column, value);
+        super.getTableCellRendererComponent(table, text, isSelected, hasFocus, row, column);
         if (column >= 2) {
           setHorizontalAlignment(SwingConstants.TRAILING);
         } else {
@@ -889,6 +899,10 @@ public void tableChanged(TableModelEvent event) {
 
   @Override
   public void componentShown(ComponentEvent e) {
+    if (e.getSource() == this) {
+      // cell content may depend on external data that has been modified while the viewer was hidden
+      cellTextCache.clear();
+    }
   }
 
   @Override
@@ -991,6 +1005,9 @@ public void close() {
     }
 
     StructClipboard.getInstance().removeChangeListener(this);
+    struct.removeTableModelListener(cellTextCache);
+    struct.removePropertyChangeListener(cellTextCache);
+    cellTextCache.clear();
     if (struct instanceof Resource) {
       if (tabbedPane != null && struct instanceof HasViewerTabs) {
         lastIndex = tabbedPane.getSelectedIndex();
@@ -1647,6 +1664,101 @@ private void maybeShowPopup(MouseEvent e) {
     }
   }
 
+  /**
+   * Caches the text representation of field values. Formatting field values can be expensive, which slows down
+   * scrolling through structures with many fields. Only rendered cells are cached. Cached rows are invalidated by
+   * table model events, which are fired whenever fields are edited, added or removed, and by property change events,
+   * which are fired whenever field values are updated indirectly, e.g. section offsets and counts after adding or
+   * removing substructures. The whole cache is invalidated whenever options or string table texts change.
+   * <p>
+   * Values of substructures are not cached since they may be modified in separate viewers. Other columns are not
+   * cached since their text is created by the table model anyway.
+   * </p>
+   */
+  private static final class CellTextCache implements TableModelListener, PropertyChangeListener {
+    /** Table column of the field values. */
+    private static final int VALUE_COLUMN = 1;
+
+    private String[] rows = new String[0];
+    private StructEntry[] fields = new StructEntry[0];
+    private int optionRevision = AppOption.getRevision();
+    private int stringRevision = StringTable.getRevision();
+
+    /**
+     * Returns the text representation of the specified cell value.
+     *
+     * @param field  The structure field associated with the table row.
+     * @param row    Table row index.
+     * @param column Table column index.
+     * @param value  The cell value.
+     * @return Text representation of {@code value}.
+     */
+    public String getText(StructEntry field, int row, int column, Object value) {
+      if (value == null) {
+        return "";
+      }
+      if (field instanceof AbstractStruct || row < 0 || column != VALUE_COLUMN) {
+        return value.toString();
+      }
+
+      if (optionRevision != AppOption.getRevision() || stringRevision != StringTable.getRevision()) {
+        // field values may depend on options and string table texts
+        clear();
+        optionRevision = AppOption.getRevision();
+        stringRevision = StringTable.getRevision();
+      }
+
+      if (row >= rows.length) {
+        final int size = Math.max(row + 1, rows.length * 3 / 2);
+        rows = Arrays.copyOf(rows, size);
+        fields = Arrays.copyOf(fields, size);
+      }
+      String text = rows[row];
+      if (text == null || fields[row] != field) {
+        // row content has not been cached or has been replaced
+        text = value.toString();
+        rows[row] = text;
+        fields[row] = field;
+      }
+      return text;
+    }
+
+    /** Removes all cached cells. */
+    public void clear() {
+      rows = new String[0];
+      fields = new StructEntry[0];
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+      final int first = e.getFirstRow();
+      final int last = e.getLastRow();
+      if (e.getType() == TableModelEvent.UPDATE && first >= 0 && last != Integer.MAX_VALUE) {
+        for (int row = first, max = Math.min(last, rows.length - 1); row <= max; row++) {
+          rows[row] = null;
+          fields[row] = null;
+        }
+      } else {
+        // rows have been added, removed or restructured
+        clear();
+      }
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+      // events of nested structures are forwarded to their parents
+      final Object source = evt.getSource();
+      final String name = evt.getPropertyName();
+      for (int row = 0; row < fields.length; row++) {
+        final StructEntry field = fields[row];
+        if (field != null && field.getParent() == source && Objects.equals(field.getName(), name)) {
+          rows[row] = null;
+          fields[row] = null;
+        }
+      }
+    }
+  }
+
   private static final class StructTable extends JTable implements Printable {
     private final AbstractStruct struct;
 
@@ -1863,12 +1975,13 @@ private boolean findMatch(int row, int col, String key, String regex, String rep
       if (key != null) {
         final Object o = table.getModel().getValueAt(row, col);
         if (o != null) {
+          final String text = cellTextCache.getText((StructEntry) table.getModel().getValueAt(row, 1), row, col, o);
           final String curKey = key.toUpperCase(Locale.ROOT);
           final String cellText;
           if (regex != null && replacement != null) {
-            cellText = o.toString().replaceFirst(regex, replacement).toUpperCase(Locale.ROOT);
+            cellText = text.replaceFirst(regex, replacement).toUpperCase(Locale.ROOT);
           } else {
-            cellText = o.toString().toUpperCase(Locale.ROOT);
+            cellText = text.toUpperCase(Locale.ROOT);
           }
           retVal = cellText.startsWith(curKey);
         }
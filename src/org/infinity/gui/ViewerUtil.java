@@ -203,8 +203,9 @@ public static JComponent makeBamPanel(ResourceRef iconRef) {
 
     final ResourceEntry iconEntry = ResourceFactory.getResourceEntry(iconRef.getResourceName());
     if (iconEntry != null) {
+      BamDecoder decoder = null;
       try {
-        final BamDecoder decoder = BamDecoder.loadBam(iconEntry);
+        decoder = BamDecoder.loadBam(iconEntry);
         final BamControl ctrl = Objects.requireNonNull(decoder).createControl();
 
         // collecting BAM frame indices
@@ -238,6 +239,10 @@ public static JComponent makeBamPanel(ResourceRef iconRef) {
         return panel;
       } catch (Exception e) {
         Logger.error(e);
+      } finally {
+        if (decoder != null) {
+          decoder.close();
+        }
       }
     }
 
@@ -253,8 +258,9 @@ public static JComponent makeBamPanel(ResourceRef iconRef) {
   public static JLabel makeBamPanel(ResourceRef iconRef, int frameNr) {
     final ResourceEntry iconEntry = ResourceFactory.getResourceEntry(iconRef.getResourceName());
     if (iconEntry != null) {
+      BamDecoder decoder = null;
       try {
-        final BamDecoder decoder = BamDecoder.loadBam(iconEntry);
+        decoder = BamDecoder.loadBam(iconEntry);
         final BamControl ctrl = Objects.requireNonNull(decoder).createControl();
         final JLabel label = new JLabel(iconRef.getName(), SwingConstants.CENTER);
         frameNr = Math.min(frameNr, decoder.frameCount() - 1);
@@ -264,6 +270,10 @@ public static JLabel makeBamPanel(ResourceRef iconRef, int frameNr) {
         return label;
       } catch (Exception e) {
         Logger.error(e);
+      } finally {
+        if (decoder != null) {
+          decoder.close();
+        }
       }
     }
     return new JLabel("No " + iconRef.getName().toLowerCase(Locale.ROOT), SwingConstants.CENTER);
@@ -275,8 +285,9 @@ public static JLabel makeBamPanel(ResourceRef iconRef, int frameNr) {
   public static JLabel makeBamPanel(ResourceRef iconRef, int animNr, int frameNr) {
     final ResourceEntry iconEntry = ResourceFactory.getResourceEntry(iconRef.getResourceName());
     if (iconEntry != null) {
+      BamDecoder decoder = null;
       try {
-        final BamDecoder decoder = BamDecoder.loadBam(iconEntry);
+        decoder = BamDecoder.loadBam(iconEntry);
         assert decoder != null;
         final BamControl ctrl = decoder.createControl();
         final JLabel label = new JLabel(iconRef.getName(), SwingConstants.CENTER);
@@ -292,6 +303,10 @@ public static JLabel makeBamPanel(ResourceRef iconRef, int animNr, int frameNr)
         return label;
       } catch (Exception e) {
         Logger.error(e);
+      } finally {
+        if (decoder != null) {
+          decoder.close();
+        }
       }
     }
     return new JLabel("No " + iconRef.getName().toLowerCase(Locale.ROOT), SwingConstants.CENTER);
@@ -301,8 +316,9 @@ public static JLabel makeBamPanel(ResourceRef iconRef, int animNr, int frameNr)
   public static JLabel makeMaxBamPanel(ResourceRef iconRef) {
     ResourceEntry iconEntry = ResourceFactory.getResourceEntry(iconRef.getResourceName());
     if (iconEntry != null) {
+      BamDecoder decoder = null;
       try {
-        final BamDecoder decoder = BamDecoder.loadBam(iconEntry);
+        decoder = BamDecoder.loadBam(iconEntry);
         int numFrames = Objects.requireNonNull(decoder).frameCount();
         int maxSize = -1;
         int frameIdx = -1;
@@ -324,6 +340,10 @@ public static JLabel makeMaxBamPanel(ResourceRef iconRef) {
         }
       } catch (Exception e) {
         Logger.error(e);
+      } finally {
+        if (decoder != null) {
+          decoder.close();
+        }
       }
     }
     return new JLabel("No " + iconRef.getName().toLowerCase(Locale.ROOT), SwingConstants.CENTER);
@@ -65,6 +65,15 @@ public Type getType() {
     return type;
   }
 
+  /**
+   * Returns whether the filter processes each frame without accessing any other frames of the BAM animation.
+   * Frame-independent filters are applied to multiple frames concurrently. Filters that only work on the specified
+   * frame and do not modify shared state may override this method and return {@code true}.
+   */
+  public boolean isFrameIndependent() {
+    return false;
+  }
+
   /**
    * Returns a panel with controls that can be used for setting specific filter parameters.
    */
@@ -78,6 +78,11 @@ public void updateControls() {
     bpwExclude.setEnabled(getConverter().isBamV1Selected());
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return String.valueOf(sliderBrightness.getValue()) + ';' +
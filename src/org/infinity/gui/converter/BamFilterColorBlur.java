@@ -81,6 +81,11 @@ public void updateControls() {
     spinnerRadius.setEnabled(enable);
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return Double.toString(((SpinnerNumberModel)spinnerRadius.getModel()).getNumber().doubleValue());
@@ -80,6 +80,11 @@ public void updateControls() {
     spinnerThreshold.setEnabled(enable);
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return String.valueOf(checkTransparency.isSelected()) + ';' + spinnerThreshold.getValue();
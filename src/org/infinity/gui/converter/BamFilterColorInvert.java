@@ -65,6 +65,11 @@ public void updateControls() {
     bpwExclude.setEnabled(getConverter().isBamV1Selected());
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return encodeColorList(pExcludeColors.getSelectedIndices());
@@ -110,6 +110,11 @@ public void updateControls() {
     bPalette.setEnabled(getConverter().isBamV1Selected());
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return encodeColorList(paletteDialog.getPalette());
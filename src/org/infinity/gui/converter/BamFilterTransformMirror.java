@@ -53,6 +53,11 @@ public PseudoBamFrameEntry updatePreview(int frameIndex, PseudoBamFrameEntry ent
     return applyEffect(entry);
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return String.valueOf(cbHorizontal.isSelected()) + ';' +
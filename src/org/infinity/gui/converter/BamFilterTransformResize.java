@@ -111,6 +111,11 @@ public void updateControls() {
     updateStatus();
   }
 
+  @Override
+  public boolean isFrameIndependent() {
+    return true;
+  }
+
   @Override
   public String getConfiguration() {
     return String.valueOf(cbType.getSelectedIndex()) + ';' +
@@ -56,7 +56,11 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
@@ -132,6 +136,7 @@
 import org.infinity.util.Logger;
 import org.infinity.util.Misc;
 import org.infinity.util.SimpleListModel;
+import org.infinity.util.Threading;
 import org.infinity.util.io.FileEx;
 import org.infinity.util.io.FileManager;
 import org.infinity.util.io.StreamUtils;
@@ -4140,18 +4145,20 @@ private void updateFilteredBamDecoder(int bamVersion, boolean force) throws Exce
 
       updateFinalBamDecoder(bamVersion);
 
-      // Processing each filter sequentially
+      // Processing each filter sequentially, frames of frame-independent filters concurrently
       List<BamFilterBase> filters = createFilterList(false);
       for (final BamFilterBase filter : filters) {
         if (filter instanceof BamFilterBaseColor) {
           // processing color filter
           try {
             final BamFilterBaseColor colorFilter = (BamFilterBaseColor) filter;
-            for (PseudoBamFrameEntry element : listFrameEntries.get(BAM_FINAL)) {
-              BufferedImage image = colorFilter.process(element.getFrame());
+            final List<PseudoBamFrameEntry> frames = listFrameEntries.get(BAM_FINAL);
+            final List<BufferedImage> images = processFrames(frames.size(), colorFilter.isFrameIndependent(),
+                frameIdx -> () -> colorFilter.process(frames.get(frameIdx).getFrame()));
+            for (int frameIdx = 0; frameIdx < images.size(); frameIdx++) {
+              final BufferedImage image = images.get(frameIdx);
               if (image != null) {
-                element.setFrame(image);
-                image = null;
+                frames.get(frameIdx).setFrame(image);
               } else {
                 throw new Exception();
               }
@@ -4164,12 +4171,15 @@ private void updateFilteredBamDecoder(int bamVersion, boolean force) throws Exce
           // processing transform filter
           try {
             final BamFilterBaseTransform transformFilter = (BamFilterBaseTransform) filter;
-            for (int frameIdx = 0, frameSize = listFrameEntries.get(BAM_FINAL).size(); frameIdx < frameSize; frameIdx++) {
-              final PseudoBamFrameEntry srcEntry = listFrameEntries.get(BAM_FINAL).get(frameIdx);
-              final PseudoBamFrameEntry dstEntry = transformFilter.process(srcEntry);
+            final List<PseudoBamFrameEntry> frames = listFrameEntries.get(BAM_FINAL);
+            final List<PseudoBamFrameEntry> entries = processFrames(frames.size(),
+                transformFilter.isFrameIndependent(), frameIdx -> () -> transformFilter.process(frames.get(frameIdx)));
+            for (int frameIdx = 0; frameIdx < entries.size(); frameIdx++) {
+              final PseudoBamFrameEntry srcEntry = frames.get(frameIdx);
+              final PseudoBamFrameEntry dstEntry = entries.get(frameIdx);
               if (dstEntry != null) {
                 if (dstEntry != srcEntry) {
-                  listFrameEntries.get(BAM_FINAL).set(frameIdx, dstEntry);
+                  frames.set(frameIdx, dstEntry);
                 }
               } else {
                 throw new Exception(String.format("%s: Result is null", transformFilter));
@@ -4192,6 +4202,36 @@ private void updateFilteredBamDecoder(int bamVersion, boolean force) throws Exce
     }
   }
 
+  /**
+   * Executes the tasks created by {@code taskFactory} for all frame indices and returns the results in frame order.
+   * Tasks are executed concurrently if {@code concurrent} is {@code true}.
+   */
+  private static <T> List<T> processFrames(int frameCount, boolean concurrent, IntFunction<Callable<T>> taskFactory)
+      throws Exception {
+    final List<T> retVal = new ArrayList<>(frameCount);
+    if (concurrent && frameCount > 1 && Threading.MAX_THREADS_AVAILABLE > 1) {
+      try (final Threading threadPool = new Threading()) {
+        final List<Future<T>> results = new ArrayList<>(frameCount);
+        for (int frameIdx = 0; frameIdx < frameCount; frameIdx++) {
+          results.add(threadPool.submit(taskFactory.apply(frameIdx)));
+        }
+        try {
+          for (final Future<T> result : results) {
+            retVal.add(result.get());
+          }
+        } catch (ExecutionException e) {
+          threadPool.shutdownNow();
+          throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        }
+      }
+    } else {
+      for (int frameIdx = 0; frameIdx < frameCount; frameIdx++) {
+        retVal.add(taskFactory.apply(frameIdx).call());
+      }
+    }
+    return retVal;
+  }
+
   /** Creates a sorted list including all selected filters in the post-processing tab. */
   private List<BamFilterBase> createFilterList(boolean includeOutputFilters) {
     List<BamFilterBase> retVal = new ArrayList<>();
@@ -4267,45 +4307,55 @@ private void updateFinalBamDecoder(int bamVersion) throws Exception {
         if (transIndex < 0) {
           transIndex = 0;
         }
-        HashMap<Integer, Byte> colorCache = new HashMap<>(4096);
+        final HashMap<Integer, Byte> paletteCache = new HashMap<>(512);
         for (int i = 0; i < palette.length; i++) {
           if (i != transIndex) {
-            colorCache.put(palette[i], (byte) i);
+            paletteCache.put(palette[i], (byte) i);
           }
         }
+        // nearest color matches are deterministic: each worker thread can use a color cache of its own
+        final ThreadLocal<HashMap<Integer, Byte>> colorCaches = ThreadLocal.withInitial(() -> {
+          final HashMap<Integer, Byte> colorCache = new HashMap<>(4096);
+          colorCache.putAll(paletteCache);
+          return colorCache;
+        });
 
         // processing frames
-        IndexColorModel cm = new IndexColorModel(8, 256, palette, 0, getUseAlpha(), transIndex, DataBuffer.TYPE_BYTE);
-        for (int i = 0; i < srcListFrames.size(); i++) {
-          final PseudoBamFrameEntry srcEntry = srcListFrames.get(i);
-          BufferedImage srcImage = ColorConvert.toBufferedImage(srcEntry.getFrame(), true, true);
-          int[] srcBuf = ((DataBufferInt) srcImage.getRaster().getDataBuffer()).getData();
-          BufferedImage dstImage = new BufferedImage(srcEntry.getWidth(), srcEntry.getHeight(),
+        final IndexColorModel cm = new IndexColorModel(8, 256, palette, 0, getUseAlpha(), transIndex,
+            DataBuffer.TYPE_BYTE);
+        final int transColorIndex = transIndex;
+        final double weight = getUseAlpha() ? 1.0 : 0.0;
+        final List<BufferedImage> dstImages = processFrames(srcListFrames.size(), true, frameIdx -> () -> {
+          final PseudoBamFrameEntry srcEntry = srcListFrames.get(frameIdx);
+          final HashMap<Integer, Byte> colorCache = colorCaches.get();
+          final BufferedImage srcImage = ColorConvert.toBufferedImage(srcEntry.getFrame(), true, true);
+          final int[] srcBuf = ((DataBufferInt) srcImage.getRaster().getDataBuffer()).getData();
+          final BufferedImage dstImage = new BufferedImage(srcEntry.getWidth(), srcEntry.getHeight(),
               BufferedImage.TYPE_BYTE_INDEXED, cm);
-          byte[] dstBuf = ((DataBufferByte) dstImage.getRaster().getDataBuffer()).getData();
+          final byte[] dstBuf = ((DataBufferByte) dstImage.getRaster().getDataBuffer()).getData();
 
           for (int ofs = 0; ofs < srcBuf.length; ofs++) {
             int c = srcBuf[ofs];
             if (PseudoBamDecoder.isTransparentColor(c, threshold)) {
-              dstBuf[ofs] = (byte) transIndex;
+              dstBuf[ofs] = (byte) transColorIndex;
             } else {
               Byte colIdx = colorCache.get(c);
               if (colIdx != null) {
                 dstBuf[ofs] = colIdx;
               } else {
-                double weight = getUseAlpha() ? 1.0 : 0.0;
                 byte color = (byte) ColorConvert.getNearestColor(srcBuf[ofs], palette, weight, null, true);
                 dstBuf[ofs] = color;
                 colorCache.put(c, color);
               }
             }
           }
-          srcBuf = null;
           srcImage.flush();
-          srcImage = null;
-          dstBuf = null;
+          return dstImage;
+        });
 
-          PseudoBamFrameEntry dstEntry = new PseudoBamFrameEntry(dstImage, srcEntry.getCenterX(),
+        for (int i = 0; i < srcListFrames.size(); i++) {
+          final PseudoBamFrameEntry srcEntry = srcListFrames.get(i);
+          PseudoBamFrameEntry dstEntry = new PseudoBamFrameEntry(dstImages.get(i), srcEntry.getCenterX(),
               srcEntry.getCenterY());
           // adding frame-specific options
           options = srcEntry.getOptionNames();
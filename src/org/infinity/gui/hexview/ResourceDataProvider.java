@@ -17,12 +17,21 @@
 
 /**
  * Provides data as byte array from the associated ResourceEntry instance to be used in JHexView components.
+ * <p>
+ * Resource data is loaded once on first access. Modified data is stored as a sparse overlay of data pages, so that
+ * requests are served by bulk copies of the affected pages.
+ * </p>
  */
 public class ResourceDataProvider implements IDataProvider {
+  /** Size of a data page, in bytes. */
+  private static final int PAGE_SIZE = 4096;
+
   private final ArrayList<IDataChangedListener> listeners = new ArrayList<>();
-  private final HashMap<Integer, Byte> modifiedMap = new HashMap<>();
+  /** Modified data pages mapped by page index. */
+  private final HashMap<Integer, byte[]> modifiedPages = new HashMap<>();
   private final ResourceEntry entry;
 
+  private ByteBuffer buffer;
   private int size;
 
   public ResourceDataProvider(ResourceEntry entry) {
@@ -48,16 +57,24 @@ public byte[] getData(long offset, int length) {
       length = getDataLength() - (int) offset;
     }
 
-    if (length > 0) {
+    if (offset >= 0 && length > 0) {
       try {
-        ByteBuffer bb = getResourceEntry().getResourceBuffer();
-        byte[] retVal = new byte[length];
-        for (int i = 0; i < length; i++) {
-          if (isModifiedData((int) offset + i)) {
-            retVal[i] = getModifiedData((int) offset + i);
+        final ByteBuffer bb = getBuffer();
+        final byte[] retVal = new byte[length];
+        int pos = (int) offset;
+        int dstOfs = 0;
+        while (dstOfs < length) {
+          final int pageOfs = pos % PAGE_SIZE;
+          final int len = Math.min(length - dstOfs, PAGE_SIZE - pageOfs);
+          final byte[] page = modifiedPages.get(pos / PAGE_SIZE);
+          if (page != null) {
+            System.arraycopy(page, pageOfs, retVal, dstOfs, len);
           } else {
-            retVal[i] = bb.get((int) offset + i);
+            bb.position(pos);
+            bb.get(retVal, dstOfs, len);
           }
+          pos += len;
+          dstOfs += len;
         }
         return retVal;
       } catch (Exception e) {
@@ -109,8 +126,12 @@ public void removeListener(IDataChangedListener listener) {
   @Override
   public void setData(long offset, byte[] data) {
     if (data != null) {
-      for (byte element : data) {
-        addModifiedData((int) offset, element);
+      try {
+        for (int i = 0; i < data.length; i++) {
+          addModifiedData((int) offset + i, data[i]);
+        }
+      } catch (Exception e) {
+        Logger.error(e);
       }
       if (data.length > 0) {
         fireDataChanged();
@@ -125,9 +146,10 @@ public ResourceEntry getResourceEntry() {
     return entry;
   }
 
-  /** Removes all modified data information from the provider. */
+  /** Removes all modified data information from the provider and releases cached resource data. */
   public void clear() {
     clearModifiedData();
+    buffer = null;
   }
 
   protected void fireDataChanged() {
@@ -139,32 +161,32 @@ protected void fireDataChanged() {
     }
   }
 
-  private boolean isModifiedData(int offset) {
-    return modifiedMap.containsKey(offset);
-  }
-
-  private byte getModifiedData(int offset) {
-    Byte b = modifiedMap.get(offset);
-    if (b != null) {
-      return b;
-    } else {
-      return 0;
+  // Returns the resource data. Loads data from the resource if needed.
+  private ByteBuffer getBuffer() throws Exception {
+    if (buffer == null) {
+      buffer = getResourceEntry().getResourceBuffer().duplicate();
     }
+    return buffer;
   }
 
-  private void addModifiedData(int offset, byte value) {
+  // Stores the specified value in a modified copy of the associated data page
+  private void addModifiedData(int offset, byte value) throws Exception {
     if (offset >= 0 && offset < getDataLength()) {
-      modifiedMap.put(offset, value);
+      final int pageIndex = offset / PAGE_SIZE;
+      byte[] page = modifiedPages.get(pageIndex);
+      if (page == null) {
+        page = new byte[PAGE_SIZE];
+        final ByteBuffer bb = getBuffer();
+        bb.position(pageIndex * PAGE_SIZE);
+        bb.get(page, 0, Math.min(PAGE_SIZE, getDataLength() - pageIndex * PAGE_SIZE));
+        modifiedPages.put(pageIndex, page);
+      }
+      page[offset % PAGE_SIZE] = value;
     }
   }
 
-  // private void removeModifiedData(int offset)
-  // {
-  // modifiedMap.remove(Integer.valueOf(offset));
-  // }
-
   // Removes all modified data from the map.
   private void clearModifiedData() {
-    modifiedMap.clear();
+    modifiedPages.clear();
   }
 }
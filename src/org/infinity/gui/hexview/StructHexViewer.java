@@ -262,6 +262,10 @@ public void stateChanged(ChangeEvent e) {
       if (!tabSelected && getStruct().isRawTabSelected()) {
         // actions when entering Raw tab
         tabSelected = true;
+        if (getDataProvider() instanceof StructuredDataProvider) {
+          // fields may have been modified in other viewers
+          ((StructuredDataProvider) getDataProvider()).invalidate();
+        }
         getHexView().requestFocusInWindow();
         updateStatusBar((int) getHexView().getCurrentOffset());
 
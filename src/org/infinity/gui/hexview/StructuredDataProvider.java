@@ -10,7 +10,12 @@
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 
 import org.infinity.resource.AbstractStruct;
 import org.infinity.resource.StructEntry;
@@ -23,11 +28,28 @@
 
 /**
  * Provides data as byte array from the associated AbstractStruct instance to be used in JHexView components.
+ * <p>
+ * Structure fields are serialized into data pages on first access. Pages are cached until the structure is modified.
+ * </p>
  */
-public class StructuredDataProvider implements IDataProvider {
+public class StructuredDataProvider implements IDataProvider, TableModelListener {
+  /** Size of a data page, in bytes. */
+  private static final int PAGE_SIZE = 4096;
+
+  /** Max. number of cached data pages. */
+  private static final int MAX_CACHED_PAGES = 1024;
+
   private final ArrayList<IDataChangedListener> listeners = new ArrayList<>();
   private final AbstractStruct struct;
 
+  /** Serialized data pages mapped by page index. */
+  private final LinkedHashMap<Integer, byte[]> pages = new LinkedHashMap<Integer, byte[]>(64, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+      return size() > MAX_CACHED_PAGES;
+    }
+  };
+
   private List<StructEntry> listStructures;
   private int dataSize;
 
@@ -39,6 +61,7 @@ public StructuredDataProvider(AbstractStruct struct) {
     this.struct = struct;
     this.dataSize = -1; // mark as uninitialized
     this.listStructures = null; // mark as uninitialized
+    this.struct.addTableModelListener(this);
   }
 
   // --------------------- Begin Interface IDataProvider ---------------------
@@ -59,59 +82,18 @@ public byte[] getData(long offset, int length) {
       length = getDataLength() - (int) offset;
     }
 
-    if (length > 0) {
-      ArrayList<StructEntry> listEntries = new ArrayList<>();
-      int entryIndex = findStructureIndex((int) offset);
-      if (entryIndex >= 0) {
-        // collecting matching entries
-        for (int idx = entryIndex; idx < getCachedList().size(); idx++) {
-          if (getCachedList().get(idx).getOffset() >= offset + length) {
-            break;
-          }
-          listEntries.add(getCachedList().get(idx));
-        }
-
-        // creating byte array to return
-        byte[] retVal = new byte[length + extraLength];
-
-        // constructing byte array
-        int startOffset = listEntries.get(0).getOffset();
-        StructEntry entry = listEntries.get(listEntries.size() - 1);
-        int fullSize = entry.getOffset() + entry.getSize() - startOffset;
-        ByteArrayOutputStream os = new ByteArrayOutputStream(fullSize);
-        int curOfs = startOffset;
-        for (StructEntry listEntry : listEntries) {
-          entry = listEntry;
-
-          // sanity check
-          if (entry.getOffset() >= offset + length) {
-            continue;
-          }
-
-          // filling holes with empty data
-          while (curOfs < entry.getOffset()) {
-            os.write(0);
-            curOfs++;
-          }
-
-          // writing actual data
-          try {
-            entry.write(os);
-          } catch (IOException e) {
-            Logger.error(e);
-          }
-          curOfs += entry.getSize();
-        }
-
-        // preparing byte array for output
-        try {
-          System.arraycopy(os.toByteArray(), (int) offset - startOffset, retVal, 0, length);
-        } catch (ArrayIndexOutOfBoundsException e) {
-          Logger.error(e);
-        }
-
-        return retVal;
+    if (offset >= 0 && length > 0) {
+      final byte[] retVal = new byte[length + extraLength];
+      int pos = (int) offset;
+      int dstOfs = 0;
+      while (dstOfs < length) {
+        final int pageOfs = pos % PAGE_SIZE;
+        final int len = Math.min(length - dstOfs, PAGE_SIZE - pageOfs);
+        System.arraycopy(getPage(pos / PAGE_SIZE), pageOfs, retVal, dstOfs, len);
+        pos += len;
+        dstOfs += len;
       }
+      return retVal;
     }
     return null;
   }
@@ -191,6 +173,7 @@ public void setData(long offset, byte[] data) {
 
                 // loading data into the structure
                 entry.read(StreamUtils.getByteBuffer(buffer), 0);
+                invalidate(entry.getOffset(), entry.getOffset() + entry.getSize());
                 hasChanged = true;
               }
             } catch (Exception e) {
@@ -208,8 +191,20 @@ public void setData(long offset, byte[] data) {
 
   // --------------------- End Interface IDataProvider ---------------------
 
+  // --------------------- Begin Interface TableModelListener ---------------------
+
+  @Override
+  public void tableChanged(TableModelEvent e) {
+    // field values have been modified in the structure viewer
+    invalidate();
+  }
+
+  // --------------------- End Interface TableModelListener ---------------------
+
   /** Cleans up resources. */
   public void close() {
+    struct.removeTableModelListener(this);
+    pages.clear();
     if (listStructures != null) {
       listStructures.clear();
       listStructures = null;
@@ -217,9 +212,17 @@ public void close() {
     }
   }
 
+  /** Discards all serialized data. Data is serialized again from the structure fields when requested. */
+  public void invalidate() {
+    pages.clear();
+  }
+
   /** Re-initializes data cache. */
   public void reset() {
-    close();
+    pages.clear();
+    if (listStructures != null) {
+      listStructures.clear();
+    }
     listStructures = getStruct().getFlatFields();
     dataSize = 0;
     for (final StructEntry e : listStructures) {
@@ -259,6 +262,92 @@ private List<StructEntry> getCachedList() {
     return listStructures;
   }
 
+  /** Returns the specified data page. Serializes the associated structure fields if needed. */
+  private byte[] getPage(int pageIndex) {
+    byte[] page = pages.get(pageIndex);
+    if (page == null) {
+      page = serializePages(pageIndex);
+    }
+    return page;
+  }
+
+  /**
+   * Serializes all structure fields overlapping the specified data page and stores the result in the page cache.
+   * Subsequent pages which are completely covered by a field extending beyond the page are cached as well, up to half
+   * the cache capacity. Returns the specified data page.
+   */
+  private byte[] serializePages(int pageIndex) {
+    final List<StructEntry> list = getCachedList();
+    final int pageStart = pageIndex * PAGE_SIZE;
+
+    // first field which ends after the start of the page
+    int lo = 0;
+    int hi = list.size();
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      final StructEntry e = list.get(mid);
+      if (e.getOffset() + e.getSize() <= pageStart) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+
+    final int pageEnd = pageStart + PAGE_SIZE;
+    int rangeStart = pageStart;
+    if (lo < list.size()) {
+      rangeStart = Math.min(rangeStart, list.get(lo).getOffset());
+    }
+    final ByteArrayOutputStream os = new ByteArrayOutputStream(pageEnd - rangeStart);
+    int curOfs = rangeStart;
+    for (int idx = lo; idx < list.size(); idx++) {
+      final StructEntry entry = list.get(idx);
+      if (entry.getOffset() >= pageEnd) {
+        break;
+      }
+
+      // filling holes with empty data
+      while (curOfs < entry.getOffset()) {
+        os.write(0);
+        curOfs++;
+      }
+
+      // writing actual data
+      try {
+        entry.write(os);
+      } catch (IOException e) {
+        Logger.error(e);
+      }
+      curOfs += entry.getSize();
+    }
+
+    // splitting data into pages
+    final byte[] data = os.toByteArray();
+    // large fields must not evict the requested page
+    final int lastPage = Math.min(Math.max(pageIndex, curOfs / PAGE_SIZE - 1), pageIndex + MAX_CACHED_PAGES / 2 - 1);
+    byte[] retVal = null;
+    for (int idx = pageIndex; idx <= lastPage; idx++) {
+      final byte[] page = new byte[PAGE_SIZE];
+      final int srcOfs = idx * PAGE_SIZE - rangeStart;
+      final int len = Math.min(PAGE_SIZE, data.length - srcOfs);
+      if (len > 0) {
+        System.arraycopy(data, srcOfs, page, 0, len);
+      }
+      pages.put(idx, page);
+      if (idx == pageIndex) {
+        retVal = page;
+      }
+    }
+    return retVal;
+  }
+
+  /** Discards cached data pages overlapping the specified data range. */
+  private void invalidate(int startOffset, int endOffset) {
+    for (int idx = startOffset / PAGE_SIZE, last = (endOffset - 1) / PAGE_SIZE; idx <= last; idx++) {
+      pages.remove(idx);
+    }
+  }
+
   /** Returns the list index of the StructEntry containing the specified offset. Returns -1 on failure. */
   private int findStructureIndex(int offset) {
     StructEntry key = new EmptyStructure(offset);
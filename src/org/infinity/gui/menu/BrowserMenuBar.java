@@ -5,9 +5,11 @@
 package org.infinity.gui.menu;
 
 import java.awt.Frame;
+import java.awt.GraphicsEnvironment;
 import java.awt.KeyEventDispatcher;
 import java.awt.Toolkit;
 import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.util.prefs.Preferences;
 
@@ -76,6 +78,10 @@ public static int getSelectedButtonIndex(AbstractButton[] items, int defaultInde
 
   /** Returns the platform-specific shortcut key (e.g. Ctrl on Win/Linux, Meta on Mac). */
   public static int getCtrlMask() {
+    if (GraphicsEnvironment.isHeadless()) {
+      // no platform-specific shortcuts available in headless mode
+      return InputEvent.CTRL_MASK;
+    }
     return Toolkit.getDefaultToolkit().getMenuShortcutKeyMask();
   }
 
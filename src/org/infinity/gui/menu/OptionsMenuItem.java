@@ -209,6 +209,7 @@ public String toString() {
   public static final String OPTION_LUA_COLORSCHEME           = "LuaColorScheme";
   public static final String OPTION_MENU_SYNTAXHIGHLIGHTING   = "MenuSyntaxHighlighting";
   public static final String OPTION_MENU_COLORSCHEME          = "MenuColorScheme";
+  public static final String OPTION_SAV_COMPRESSIONLEVEL      = "SavCompressionLevel";
   public static final String OPTION_SQL_SYNTAXHIGHLIGHTING    = "SqlSyntaxHighlighting";
   public static final String OPTION_SQL_COLORSCHEME           = "SqlColorScheme";
   public static final String OPTION_TLK_SYNTAXHIGHLIGHTING    = "TlkSyntaxHighlighting";
@@ -910,6 +911,11 @@ public AutoAlign2da getAutoAlign2da() {
     return AutoAlign2da.DISABLED;
   }
 
+  /** Returns the zlib compression level for new or modified entries of SAV resources. */
+  public int getSavCompressionLevel() {
+    return Math.max(0, Math.min(9, AppOption.SAV_COMPRESSION_LEVEL.getIntValue()));
+  }
+
   /** Returns whether the dialog tree viewer shows icons in front of state and response entries. */
   public boolean showDlgTreeIcons() {
     return AppOption.DLG_SHOW_ICONS.getBoolValue();
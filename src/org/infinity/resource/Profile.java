@@ -4,6 +4,7 @@
 
 package org.infinity.resource;
 
+import java.awt.GraphicsEnvironment;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
@@ -1920,7 +1921,7 @@ && getLuaValue(FileManager.query(gameRoots, "engine.lua"), "engine_mode", "0", f
       }
     } else {
       // game == Game.Unknown
-      if (game == null) {
+      if (game == null && !GraphicsEnvironment.isHeadless()) {
         // present list of available game types to choose from
         Game oldGame = getProperty(Key.GET_GAME_TYPE_PREVIOUS);
         if (oldGame == null) {
@@ -0,0 +1,683 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.resource;
+
+import java.awt.Rectangle;
+import java.awt.image.RenderedImage;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import javax.imageio.ImageIO;
+
+import org.infinity.gui.menu.BrowserMenuBar;
+import org.infinity.resource.bcs.BcsResource;
+import org.infinity.resource.bcs.Decompiler;
+import org.infinity.resource.cre.CreResource;
+import org.infinity.resource.dlg.DlgResource;
+import org.infinity.resource.graphics.BamDecoder;
+import org.infinity.resource.graphics.BamResource;
+import org.infinity.resource.graphics.Compressor;
+import org.infinity.resource.graphics.MosDecoder;
+import org.infinity.resource.graphics.MosV1Decoder;
+import org.infinity.resource.graphics.MosV2Decoder;
+import org.infinity.resource.graphics.PvrDecoder;
+import org.infinity.resource.graphics.StreamingPngWriter;
+import org.infinity.resource.graphics.TisConvert;
+import org.infinity.resource.graphics.TisConvert.Config;
+import org.infinity.resource.graphics.TisDecoder;
+import org.infinity.resource.graphics.TisResource;
+import org.infinity.resource.key.ResourceEntry;
+import org.infinity.resource.sound.AudioFactory;
+import org.infinity.resource.text.PlainTextResource;
+import org.infinity.resource.video.MveResource;
+import org.infinity.util.Logger;
+import org.infinity.util.Misc;
+import org.infinity.util.StaticSimpleXorDecryptor;
+import org.infinity.util.io.FileEx;
+import org.infinity.util.io.StreamUtils;
+
+/**
+ * Exports game resources to a directory and optionally converts them into more accessible formats.
+ * <p>
+ * Export options should be configured before resources are exported. The {@link #export(ResourceEntry)} method can
+ * be called concurrently for different resources afterwards. This class does not depend on UI components and can be
+ * used by the mass exporter as well as by command line tools.
+ * </p>
+ */
+public class ResourceExporter {
+  /** Available target formats for TIS conversion. */
+  public enum TisConversion {
+    /** TIS resources are exported without conversion. */
+    NONE,
+    /** PVRZ-based TIS resources are converted to palette-based TIS resources. */
+    PALETTE,
+    /** Palette-based TIS resources are converted to PVRZ-based TIS resources. */
+    PVRZ,
+  }
+
+  /** Available alignment modes for 2DA table data. */
+  public enum TableAlignment {
+    /** Table data is exported without alignment. */
+    NONE,
+    /** Column width is calculated individually. */
+    COMPACT,
+    /** Column width is calculated evenly, comparable to WeiDU's PRETTY_PRINT_2DA. */
+    UNIFORM,
+  }
+
+  private final Path outputPath;
+
+  private boolean overwrite;
+  private boolean decompile;
+  private boolean decrypt;
+  private boolean trimText;
+  private TableAlignment tableAlignment = TableAlignment.NONE;
+  private boolean convertWav;
+  private boolean convertChr;
+  private boolean decompress;
+  private boolean convertToPng;
+  private TisConversion tisConversion = TisConversion.NONE;
+  private String bamFramesFormat;
+  private boolean convertMve;
+
+  /**
+   * Creates a new exporter.
+   *
+   * @param outputPath Directory for exported resources. The directory must exist.
+   */
+  public ResourceExporter(Path outputPath) {
+    this.outputPath = Objects.requireNonNull(outputPath);
+  }
+
+  /** Returns the directory for exported resources. */
+  public Path getOutputPath() {
+    return outputPath;
+  }
+
+  /** Returns whether existing files are overwritten. */
+  public boolean isOverwrite() {
+    return overwrite;
+  }
+
+  /** Specifies whether existing files are overwritten. Existing files are skipped otherwise. */
+  public void setOverwrite(boolean overwrite) {
+    this.overwrite = overwrite;
+  }
+
+  /** Returns whether scripts and dialogs are decompiled. */
+  public boolean isDecompile() {
+    return decompile;
+  }
+
+  /** Specifies whether BCS scripts are decompiled to BAF and DLG resources to D sources. */
+  public void setDecompile(boolean decompile) {
+    this.decompile = decompile;
+  }
+
+  /** Returns whether encrypted text resources are decrypted. */
+  public boolean isDecrypt() {
+    return decrypt;
+  }
+
+  /** Specifies whether encrypted text resources are decrypted. */
+  public void setDecrypt(boolean decrypt) {
+    this.decrypt = decrypt;
+  }
+
+  /** Returns whether trailing whitespace is removed from text resources. */
+  public boolean isTrimText() {
+    return trimText;
+  }
+
+  /** Specifies whether trailing whitespace is removed from text resources. */
+  public void setTrimText(boolean trimText) {
+    this.trimText = trimText;
+  }
+
+  /** Returns the alignment mode for 2DA table data. */
+  public TableAlignment getTableAlignment() {
+    return tableAlignment;
+  }
+
+  /** Specifies the alignment mode for 2DA table data. */
+  public void setTableAlignment(TableAlignment alignment) {
+    this.tableAlignment = (alignment != null) ? alignment : TableAlignment.NONE;
+  }
+
+  /** Returns whether sound resources are converted to WAV. */
+  public boolean isConvertWav() {
+    return convertWav;
+  }
+
+  /** Specifies whether sound resources are converted to WAV. */
+  public void setConvertWav(boolean convertWav) {
+    this.convertWav = convertWav;
+  }
+
+  /** Returns whether CHR resources are converted to CRE. */
+  public boolean isConvertChr() {
+    return convertChr;
+  }
+
+  /** Specifies whether CHR resources are converted to CRE. */
+  public void setConvertChr(boolean convertChr) {
+    this.convertChr = convertChr;
+  }
+
+  /** Returns whether compressed BAM and MOS resources are decompressed. */
+  public boolean isDecompress() {
+    return decompress;
+  }
+
+  /** Specifies whether compressed BAM and MOS resources are decompressed. */
+  public void setDecompress(boolean decompress) {
+    this.decompress = decompress;
+  }
+
+  /** Returns whether MOS, PVRZ and TIS resources are converted to PNG. */
+  public boolean isConvertToPng() {
+    return convertToPng;
+  }
+
+  /** Specifies whether MOS, PVRZ and TIS resources are converted to PNG. */
+  public void setConvertToPng(boolean convertToPng) {
+    this.convertToPng = convertToPng;
+  }
+
+  /** Returns the target format for TIS conversion. */
+  public TisConversion getTisConversion() {
+    return tisConversion;
+  }
+
+  /** Specifies the target format for TIS conversion. */
+  public void setTisConversion(TisConversion conversion) {
+    this.tisConversion = (conversion != null) ? conversion : TisConversion.NONE;
+  }
+
+  /** Returns the image format of exported BAM frames. Returns {@code null} if BAM frames are not exported. */
+  public String getBamFramesFormat() {
+    return bamFramesFormat;
+  }
+
+  /**
+   * Specifies the image format of exported BAM frames. Frames of each BAM resource are exported into separate
+   * subfolders.
+   *
+   * @param format Either "png" or "bmp". Specify {@code null} to export BAM resources without conversion.
+   */
+  public void setBamFramesFormat(String format) {
+    this.bamFramesFormat = format;
+  }
+
+  /** Returns whether MVE resources are converted to AVI. */
+  public boolean isConvertMve() {
+    return convertMve;
+  }
+
+  /** Specifies whether MVE resources are converted to AVI. */
+  public void setConvertMve(boolean convertMve) {
+    this.convertMve = convertMve;
+  }
+
+  /**
+   * Exports the specified resource with the current export options. This method is thread-safe as long as export
+   * options are not modified.
+   *
+   * @param entry The resource to export.
+   * @return {@code true} if the resource has been exported, {@code false} if an existing file has been skipped.
+   * @throws Exception if the resource could not be exported.
+   */
+  public boolean export(ResourceEntry entry) throws Exception {
+    Path output = outputPath.resolve(entry.getResourceName());
+    if (FileEx.create(output).exists() && !overwrite) {
+      return false;
+    }
+
+    final String ext = entry.getExtension();
+    Class<? extends Resource> resourceType = ResourceFactory.getResourceType(entry);
+    boolean isTextResource = resourceType != null && TextResource.class.isAssignableFrom(resourceType);
+
+    if (isTextResource) {
+      exportText(entry, resourceType, output);
+    } else if (ext.equalsIgnoreCase("DLG") && decompile) {
+      decompileDialog(entry, output);
+    } else if (ext.equalsIgnoreCase("MOS") && convertToPng) {
+      return mosToPng(entry);
+    } else if (ext.equalsIgnoreCase("PVRZ") && convertToPng) {
+      return pvrzToPng(entry);
+    } else if (ext.equalsIgnoreCase("TIS") && convertToPng) {
+      return tisToPng(entry);
+    } else if (ext.equalsIgnoreCase("BAM") && bamFramesFormat != null) {
+      extractBamFrames(entry, output);
+    } else if ((ext.equalsIgnoreCase("BAM") || ext.equalsIgnoreCase("MOS")) && decompress) {
+      decompressBamMos(entry, output);
+    } else if (ext.equalsIgnoreCase("CHR") && convertChr) {
+      return chrToCre(entry);
+    } else if (ext.equalsIgnoreCase("WAV") && convertWav) {
+      decompressWav(entry, output);
+    } else if (ext.equalsIgnoreCase("MVE") && convertMve) {
+      output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "avi"));
+      if (FileEx.create(output).exists() && !overwrite) {
+        return false;
+      }
+      MveResource.convertAvi(entry, output, null, true);
+    } else {
+      exportResource(entry, output);
+    }
+    return true;
+  }
+
+  private void exportText(ResourceEntry entry, Class<? extends Resource> resourceType, Path output) throws Exception {
+    // preparing source data
+    ByteBuffer bb = entry.getResourceBuffer();
+
+    if (decrypt) {
+      bb = decryptText(bb);
+    }
+
+    if (resourceType.isAssignableFrom(BcsResource.class) && decompile) {
+      bb = decompileScript(bb);
+      output = output.getParent().resolve(StreamUtils.replaceFileExtension(output.getFileName().toString(), "BAF"));
+    } else {
+      if (trimText) {
+        bb = trimText(bb);
+      }
+      if (tableAlignment != TableAlignment.NONE && entry.getExtension().equalsIgnoreCase("2DA")) {
+        bb = alignTable(bb);
+      }
+    }
+
+    // saving data
+    // Keep trying. File may be in use by another thread.
+    try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
+      StreamUtils.writeBytes(os, bb);
+    }
+  }
+
+  private void decompileDialog(ResourceEntry entry, Path output) throws Exception {
+    output = output.getParent().resolve(StreamUtils.replaceFileExtension(output.getFileName().toString(), "D"));
+    final DlgResource dlg = new DlgResource(entry);
+    try (PrintWriter writer = new PrintWriter(output.toFile(), getCharset().name())) {
+      if (!dlg.exportDlgAsText(writer)) {
+        Logger.error("Failed to decompile: {}", entry);
+      }
+    }
+  }
+
+  private void decompressBamMos(ResourceEntry entry, Path output) throws Exception {
+    ByteBuffer bb = entry.getResourceBuffer();
+    if (bb.limit() > 0) {
+      String sig = StreamUtils.readString(bb, 4);
+      if (sig.equals("BAMC") || sig.equals("MOSC")) {
+        bb = Compressor.decompress(bb);
+      }
+      // Keep trying. File may be in use by another thread.
+      try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
+        StreamUtils.writeBytes(os, bb);
+      }
+    }
+  }
+
+  private void decompressWav(ResourceEntry entry, Path output) throws Exception {
+    // Audio data is decoded directly into the output file
+    long size = 0L;
+    // Keep trying. File may be in use by another thread.
+    try (OutputStream os = new BufferedOutputStream(tryOpenOutputStream(output, 10, 100))) {
+      size = AudioFactory.writeAudio(entry, os);
+    } finally {
+      if (size == 0L) {
+        Files.deleteIfExists(output);
+      }
+    }
+  }
+
+  private boolean mosToPng(ResourceEntry entry) throws Exception {
+    final Path output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "PNG"));
+    if (FileEx.create(output).exists() && !overwrite) {
+      return false;
+    }
+
+    final MosDecoder decoder = MosDecoder.loadMos(entry);
+    if (decoder != null) {
+      try {
+        if (decoder instanceof MosV1Decoder) {
+          ((MosV1Decoder) decoder).setTransparencyEnabled(true);
+        }
+
+        // image is composed in bands from the blocks that intersect with each band
+        final int width = decoder.getWidth();
+        final Rectangle[] blocks = getMosBlocks(decoder);
+        int bandHeight = 64;
+        for (final Rectangle block : blocks) {
+          bandHeight = Math.max(bandHeight, block.height);
+        }
+        writePng(output, width, decoder.getHeight(), bandHeight, (top, height, buffer) -> {
+          for (int i = 0; i < blocks.length; i++) {
+            final Rectangle rect = blocks[i];
+            final int y0 = Math.max(top, rect.y);
+            final int y1 = Math.min(top + height, rect.y + rect.height);
+            final int w = Math.min(rect.width, width - rect.x);
+            if (y0 < y1 && w > 0) {
+              final int[] data = new int[rect.width * rect.height];
+              synchronized (decoder) {
+                if (!decoder.getBlockData(i, data)) {
+                  continue;
+                }
+              }
+              for (int y = y0; y < y1; y++) {
+                System.arraycopy(data, (y - rect.y) * rect.width, buffer, (y - top) * width + rect.x, w);
+              }
+            }
+          }
+        });
+      } finally {
+        decoder.close();
+      }
+    } else {
+      throw new Exception(String.format("Error loading resource: %s", entry.getResourceName()));
+    }
+    return true;
+  }
+
+  // Writes a PNG file from the specified band source. Incomplete files are removed if the image could not be written.
+  private static void writePng(Path output, int width, int height, int bandHeight, StreamingPngWriter.BandSource source)
+      throws Exception {
+    boolean complete = false;
+    try {
+      try (OutputStream os = new BufferedOutputStream(tryOpenOutputStream(output, 10, 100))) {
+        StreamingPngWriter.write(os, width, height, bandHeight, source);
+      }
+      complete = true;
+    } finally {
+      if (!complete) {
+        Files.deleteIfExists(output);
+      }
+    }
+  }
+
+  // Returns the image regions covered by the individual MOS blocks.
+  private static Rectangle[] getMosBlocks(MosDecoder decoder) {
+    final Rectangle[] blocks = new Rectangle[decoder.getBlockCount()];
+    for (int i = 0; i < blocks.length; i++) {
+      if (decoder instanceof MosV2Decoder) {
+        blocks[i] = ((MosV2Decoder) decoder).getBlockInfo(i).getMosRect();
+      } else {
+        final int cols = ((MosV1Decoder) decoder).getColumnCount();
+        blocks[i] = new Rectangle((i % cols) * 64, (i / cols) * 64, decoder.getBlockWidth(i),
+            decoder.getBlockHeight(i));
+      }
+    }
+    return blocks;
+  }
+
+  private boolean pvrzToPng(ResourceEntry entry) throws Exception {
+    final Path output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "PNG"));
+    if (FileEx.create(output).exists() && !overwrite) {
+      return false;
+    }
+
+    PvrDecoder decoder = PvrDecoder.loadPvr(entry);
+    if (decoder != null) {
+      RenderedImage image = decoder.decode();
+      try {
+        ImageIO.write(image, "png", output.toFile());
+      } finally {
+        image = null;
+      }
+    } else {
+      throw new Exception(String.format("Error loading resource: %s", entry.getResourceName()));
+    }
+    return true;
+  }
+
+  private boolean tisToPng(ResourceEntry entry) throws Exception {
+    final Path output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "PNG"));
+    if (FileEx.create(output).exists() && !overwrite) {
+      return false;
+    }
+
+    final TisDecoder decoder = TisDecoder.loadTis(entry);
+    if (decoder != null) {
+      try {
+        final int tileCount = decoder.getTileCount();
+        final int columns = TisConvert.calcTilesetWidth(entry, true, 1);
+        final int rows = (tileCount + columns - 1) / columns;
+        final int width = 64 * columns;
+
+        // each band consists of a single row of tiles
+        writePng(output, width, 64 * rows, 64, (top, height, buffer) -> {
+          final int[] tile = new int[64 * 64];
+          for (int col = 0, idx = (top / 64) * columns; col < columns && idx < tileCount; col++, idx++) {
+            if (decoder.getTileData(idx, tile)) {
+              for (int y = 0; y < 64; y++) {
+                System.arraycopy(tile, y * 64, buffer, y * width + col * 64, 64);
+              }
+            }
+          }
+        });
+      } finally {
+        decoder.close();
+      }
+    } else {
+      throw new Exception(String.format("Error loading resource: %s", entry.getResourceName()));
+    }
+    return true;
+  }
+
+  private void extractBamFrames(ResourceEntry entry, Path output) throws Exception {
+    String format = "bmp".equalsIgnoreCase(bamFramesFormat) ? "bmp" : "png";
+    Path filePath = output.getParent();
+    String fileName = output.getFileName().toString();
+    int extIdx = fileName.lastIndexOf('.');
+    String fileBase = (extIdx >= 0) ? fileName.substring(0, extIdx) : fileName;
+    String fileExt = "." + format;
+
+    // creating subfolder for frames
+    Path path = filePath.resolve(fileBase);
+    if (!FileEx.create(path).exists()) {
+      try {
+        Files.createDirectory(path);
+      } catch (IOException e) {
+        throw new IOException(String.format("Error creating folder \"%s\". Skipping file \"%s\".", fileBase, fileName),
+            e);
+      }
+    } else if (!FileEx.create(path).isDirectory()) {
+      throw new IOException(String.format("Folder \"%s\" can not be created. Skipping file \"%s\".", fileBase,
+          fileName));
+    }
+    filePath = path;
+
+    BamDecoder decoder = BamDecoder.loadBam(entry);
+    BamResource.exportFrames(decoder, filePath, fileBase, fileExt, format, true);
+  }
+
+  private boolean chrToCre(ResourceEntry entry) throws Exception {
+    final Path output = outputPath.resolve(StreamUtils.replaceFileExtension(entry.getResourceName(), "CRE"));
+    if (FileEx.create(output).exists() && !overwrite) {
+      return false;
+    }
+    CreResource crefile = new CreResource(entry);
+    final List<StructEntry> flatList = crefile.getFlatFields();
+    while (!flatList.get(0).toString().equals("CRE ")) {
+      flatList.remove(0);
+    }
+    // Keep trying. File may be in use by another thread.
+    try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
+      for (final StructEntry e : flatList) {
+        e.write(os);
+      }
+    }
+    return true;
+  }
+
+  private void exportResource(ResourceEntry entry, Path output) throws Exception {
+    Logger.info("Converting {}", entry.toString());
+    int[] info = entry.getResourceInfo();
+    int size = info[0];
+    if (info.length > 1) {
+      size = size * info[1] + 0x18;
+    }
+    boolean isTis = (info.length > 1);
+    boolean isTisV2 = isTis && (info[1] == 0x0c);
+
+    if (isTis && !isTisV2 && tisConversion == TisConversion.PVRZ) {
+      final Path tisFile = TisConvert.makeTisFileNameValid(output);
+      final TisResource tis = new TisResource(entry);
+      final ResourceEntry wedEntry = TisConvert.findWed(entry, true);
+      final int tilesPerRow = TisConvert.calcTilesetWidth(wedEntry, false, tis.getDecoder().getTileCount());
+      final int pvrzBaseIndex = TisConvert.calcPvrzBaseIndex(tisFile);
+      final TisConvert.OverlayConversion convert = (Profile.getEngine() == Profile.Engine.BG2)
+          ? TisConvert.OverlayConversion.BG2_TO_BG2EE
+          : TisConvert.OverlayConversion.NONE;
+      final TisConvert.Config config = Config.createConfigPvrz(tisFile, tis.getDecoder(), wedEntry, tilesPerRow, -1,
+          TisConvert.Config.MAX_TEXTURE_SIZE, pvrzBaseIndex, TisConvert.Config.DEFAULT_BORDER_SIZE,
+          TisConvert.Config.MAX_TEXTURE_SIZE / 2, true, true, convert);
+      TisConvert.convertToPvrzTis(config, false, null);
+    } else if (isTis && isTisV2 && tisConversion == TisConversion.PALETTE) {
+      TisResource tis = new TisResource(entry);
+
+      // overlay conversion mode depends on game and WED overlay movement type
+      final ResourceEntry wedEntry = TisConvert.findWed(entry, true);
+      final int movementType = TisConvert.getTisMovementType(wedEntry, false);
+      final TisConvert.OverlayConversion convert;
+      switch (Profile.getGame()) {
+        case BG2EE:
+        case IWDEE:
+        case PSTEE:
+        case EET:
+          convert = (movementType == 0) ? TisConvert.OverlayConversion.BG2EE_TO_BG2 : TisConvert.OverlayConversion.NONE;
+          break;
+        case BG1EE:
+          convert = (movementType == 2) ? TisConvert.OverlayConversion.BG2EE_TO_BG2 : TisConvert.OverlayConversion.NONE;
+          break;
+        default:
+          convert = TisConvert.OverlayConversion.NONE;
+      }
+
+      final TisConvert.Config config = Config.createConfigPalette(output, tis.getTileList(), tis.getDecoder(),
+          wedEntry, convert);
+      TisConvert.convertToPaletteTis(config, false, null);
+    } else if (size >= 0) {
+      try (InputStream is = entry.getResourceDataAsStream()) {
+        // Keep trying. File may be in use by another thread.
+        try (OutputStream os = tryOpenOutputStream(output, 10, 100)) {
+          int bytesWritten = (int) StreamUtils.writeBytes(os, is, size);
+          if (bytesWritten < size) {
+            throw new EOFException(entry + ": " + bytesWritten + " of " + size + " bytes written");
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Decompiles BCS data from {@code inBuffer}.
+   *
+   * @param inBuffer Buffer containing the current state of the resource data.
+   * @return {@link ByteBuffer} instance with decompiled script content.
+   */
+  private ByteBuffer decompileScript(ByteBuffer inBuffer) throws Exception {
+    if (inBuffer != null) {
+      final Decompiler decompiler = new Decompiler(StreamUtils.readString(inBuffer, inBuffer.limit()), false);
+      decompiler.setGenerateComments(BrowserMenuBar.isInstantiated()
+          && BrowserMenuBar.getInstance().getOptions().autogenBCSComments());
+      String script = decompiler.getSource().replaceAll("\r?\n", Misc.LINE_SEPARATOR);
+      return ByteBuffer.wrap(script.getBytes(getCharset()));
+    }
+    return inBuffer;
+  }
+
+  /**
+   * Decrypts data from {@code inBuffer}.
+   *
+   * @param inBuffer Buffer containing the current state of the resource data.
+   * @return {@link ByteBuffer} instance with decrypted text content.
+   */
+  private ByteBuffer decryptText(ByteBuffer inBuffer) {
+    if (inBuffer != null && inBuffer.limit() > 1 && inBuffer.getShort(0) == -1) {
+      return StaticSimpleXorDecryptor.decrypt(inBuffer, 2);
+    }
+    return inBuffer;
+  }
+
+  /**
+   * Removes trailing whitespace from all lines of text in {@code inBuffer}.
+   *
+   * @param inBuffer Buffer containing the current state of the resource data.
+   * @return {@link ByteBuffer} instance with trimmed text content.
+   */
+  private ByteBuffer trimText(ByteBuffer inBuffer) {
+    if (inBuffer != null) {
+      String text = Misc.CHARSET_DEFAULT.decode(inBuffer).toString();
+      text = PlainTextResource.trimSpaces(text, true, false);
+      return ByteBuffer.wrap(text.getBytes(Misc.CHARSET_DEFAULT));
+    }
+    return inBuffer;
+  }
+
+  /**
+   * Aligns table data for improved readability.
+   *
+   * @param inBuffer Buffer containing the current state of the resource data.
+   * @return {@link ByteBuffer} instance with aligned text content.
+   */
+  private ByteBuffer alignTable(ByteBuffer inBuffer) {
+    if (inBuffer != null) {
+      String text = Misc.CHARSET_DEFAULT.decode(inBuffer).toString();
+      if (tableAlignment == TableAlignment.UNIFORM) {
+        text = PlainTextResource.alignTableColumns(text, 1, false, 1);
+      } else {
+        text = PlainTextResource.alignTableColumns(text, 2, true, 4);
+      }
+      return ByteBuffer.wrap(text.getBytes(Misc.CHARSET_DEFAULT));
+    }
+    return inBuffer;
+  }
+
+  // Returns the character set for decompiled scripts and dialogs
+  private static Charset getCharset() {
+    if (BrowserMenuBar.isInstantiated()) {
+      return Misc.getCharsetFrom(BrowserMenuBar.getInstance().getOptions().getSelectedCharset());
+    }
+    return Profile.getDefaultCharset();
+  }
+
+  // Attempts to open "output" as stream to the specified file "numAttempts' time with "delayAttempts" ms delay
+  // inbetween.
+  private static OutputStream tryOpenOutputStream(Path output, int numAttempts, int delayAttempts) throws Exception {
+    if (output != null) {
+      numAttempts = Math.max(1, numAttempts);
+      delayAttempts = Math.max(0, delayAttempts);
+      OutputStream os = null;
+      while (os == null) {
+        try {
+          os = StreamUtils.getOutputStream(output, true);
+        } catch (FileNotFoundException fnfe) {
+          if (--numAttempts == 0) {
+            throw fnfe;
+          }
+          try {
+            Thread.sleep(delayAttempts);
+          } catch (InterruptedException ie) {
+            Logger.trace(ie);
+          }
+        }
+      }
+      return os;
+    }
+    return null;
+  }
+}
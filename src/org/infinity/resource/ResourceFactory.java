@@ -281,7 +281,7 @@ public static Resource getResource(ResourceEntry entry, String forcedExtension)
       if (NearInfinity.getInstance() != null && !BrowserMenuBar.getInstance().getOptions().ignoreReadErrors()) {
         JOptionPane.showMessageDialog(NearInfinity.getInstance(), "Error reading " + entry + '\n' + e.getMessage(),
             "Error", JOptionPane.ERROR_MESSAGE);
-      } else {
+      } else if (NearInfinity.getInstance() != null) {
         final String msg = String.format("Error reading %s @ %s - %s", entry, entry.getActualPath(), e);
         NearInfinity.getInstance().getStatusBar().setMessage(msg);
       }
@@ -27,9 +27,7 @@
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.awt.image.VolatileImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.ByteArrayOutputStream;
@@ -2348,13 +2346,9 @@ private void exportMap() {
           rcCanvas.paint(g1);
           g1.dispose();
         } else {
-          final double zoom = getZoomFactor();
-          final VolatileImage srcImage = (VolatileImage) rcCanvas.getImage();
-          dstImage = ColorConvert.createCompatibleImage(rcCanvas.getWidth(), rcCanvas.getHeight(),
-              srcImage.getTransparency());
+          dstImage = ColorConvert.createCompatibleImage(rcCanvas.getWidth(), rcCanvas.getHeight(), false);
           final Graphics2D g2 = dstImage.createGraphics();
-          final AffineTransform xform = AffineTransform.getScaleInstance(zoom, zoom);
-          g2.drawImage(srcImage, xform, null);
+          rcCanvas.paintMap(g2);
           g2.dispose();
         }
         bRet = ImageIO.write(dstImage, "png", os);
@@ -23,6 +23,7 @@
 import org.infinity.resource.are.AreResource;
 import org.infinity.resource.are.viewer.icon.ViewerIcons;
 import org.infinity.resource.graphics.BamDecoder;
+import org.infinity.resource.graphics.BamV1Decoder;
 import org.infinity.resource.graphics.ColorConvert;
 import org.infinity.resource.graphics.PseudoBamDecoder;
 import org.infinity.resource.key.FileResourceEntry;
@@ -143,6 +144,9 @@ public LayerObjectAnimation(AreResource parent, Animation anim) {
         if (!SharedResourceCache.contains(SharedResourceCache.Type.ANIMATION, keyAnim)) {
           final ResourceEntry bamEntry = ResourceFactory.getResourceEntry(keyAnim);
           bam = BamDecoder.loadBam(bamEntry);
+          if (bam instanceof BamV1Decoder) {
+            ((BamV1Decoder) bam).setFrameCacheSize(BamV1Decoder.DEFAULT_FRAME_CACHE_SIZE);
+          }
           SharedResourceCache.add(SharedResourceCache.Type.ANIMATION, keyAnim, new ResourceAnimation(keyAnim, bam));
         } else {
           SharedResourceCache.add(SharedResourceCache.Type.ANIMATION, keyAnim);
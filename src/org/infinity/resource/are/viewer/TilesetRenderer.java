@@ -9,13 +9,16 @@
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
-import java.awt.image.VolatileImage;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.infinity.datatype.IsNumeric;
 import org.infinity.datatype.IsTextual;
@@ -26,6 +29,7 @@
 import org.infinity.resource.graphics.ColorConvert;
 import org.infinity.resource.graphics.GraphicsResource;
 import org.infinity.resource.graphics.TisDecoder;
+import org.infinity.resource.graphics.TisV2Decoder;
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.resource.wed.Door;
 import org.infinity.resource.wed.Overlay;
@@ -53,6 +57,9 @@ public enum RenderMode {
   private static final double MIN_ZOOM_FACTOR = 1.0 / 64.0; // lower zoom factor limit
   private static final double MAX_ZOOM_FACTOR = 16.0; // upper zoom factor limit
 
+  // min. number of rendered tiles kept in the tile cache
+  private static final int MIN_CACHE_TILES = 256;
+
   // Placeholder for missing tile data
   private static final int[] DEFAULT_TILE_DATA = createDefaultTile();
 
@@ -75,8 +82,8 @@ public enum RenderMode {
   // array of tile indices used for closed door states for each door structure
   private final List<DoorInfo> listDoorTileIndices = new ArrayList<>();
 
-  // internally used for drawing tile graphics
-  private final BufferedImage workingTile = ColorConvert.createCompatibleImage(64, 64, true);
+  // caches rendered tiles of the visible map area; key: (lighting << 32) | tilemap index
+  private final LruCache<Long, BufferedImage> tileCache = new LruCache<>(MIN_CACHE_TILES);
 
   private WedResource wed; // current wed resource
   private int overlayTransparency; // overlay transparency strength from 0 (opaque) to 255 (transparent)
@@ -97,6 +104,7 @@ public enum RenderMode {
   private int miniMapType = ViewerConstants.MAP_NONE; // the currently overlayed mini map (one of the MAP_XXX constants)
   private int miniMapAlpha = 128; // alpha transparency for overlayed mini maps
   private GraphicsResource miniMap = null; // the current mini map resource
+  private BufferedImage miniMapImage = null; // pixel data of the current mini map
 
   /**
    * Returns the number of supported lighting modes.
@@ -181,9 +189,6 @@ public WedResource getWed() {
    */
   public void dispose() {
     release(true);
-    if (getImage() instanceof VolatileImage) {
-      getImage().flush();
-    }
   }
 
   /**
@@ -261,6 +266,8 @@ public void setZoomFactor(double factor) {
     }
     if (factor != zoomFactor) {
       zoomFactor = factor;
+      // cached tiles may be prescaled
+      tileCache.clear();
       hasChangedMap = true;
       updateDisplay();
     }
@@ -283,6 +290,7 @@ public boolean isForcedInterpolation() {
   public void setForcedInterpolation(boolean set) {
     if (set != forcedInterpolation) {
       forcedInterpolation = set;
+      tileCache.clear();
       hasChangedAppearance = true;
       updateDisplay();
     }
@@ -468,6 +476,8 @@ public void setMiniMap(int mapType, GraphicsResource bmp) {
           miniMap = null;
           miniMapType = ViewerConstants.MAP_NONE;
       }
+      miniMapImage = (miniMap != null) ? ColorConvert.toBufferedImage(miniMap.getImage(), true, true) : null;
+      tileCache.clear();
       hasChangedAppearance = true;
       updateDisplay();
     }
@@ -491,6 +501,9 @@ public void setMiniMapTransparency(int alpha) {
     alpha = Math.min(Math.max(alpha, 0), 255);
     if (miniMapAlpha != alpha) {
       miniMapAlpha = alpha;
+      if (miniMapImage != null) {
+        tileCache.clear();
+      }
       hasChangedAppearance = true;
       updateDisplay();
     }
@@ -502,34 +515,19 @@ public void setMiniMapTransparency(int alpha) {
    * @param force If {@code true}, the map will be redrawn regardless of the current map state.
    */
   public void reload(boolean force) {
-    boolean b = false;
-    if (getImage() != null && getImage() instanceof VolatileImage) {
-      b = ((VolatileImage) getImage()).contentsLost();
-    }
-    updateDisplay(b || force);
+    updateDisplay(force);
   }
 
-  @Override
-  public void paint(Graphics g) {
-    // checking whether VolatileImage instance needs to be updated
-    if (getImage() != null && getImage() instanceof VolatileImage) {
-      VolatileImage image = (VolatileImage) getImage();
-      int valCode;
-      do {
-        valCode = image.validate(getGraphicsConfiguration());
-        if (valCode == VolatileImage.IMAGE_INCOMPATIBLE) {
-          // recreate the image object
-          int w = image.getWidth();
-          int h = image.getHeight();
-          image = createVolatileImage(w, h);
-          setImage(image);
-        }
-        if (valCode != VolatileImage.IMAGE_OK) {
-          updateDisplay(true);
-        }
-      } while (image.contentsLost());
+  /**
+   * Draws the whole map at the current zoom factor onto the specified graphics context. Rendered tiles are not added to
+   * the tile cache.
+   *
+   * @param g The graphics context to draw on.
+   */
+  public void paintMap(Graphics2D g) {
+    if (g != null && isInitialized()) {
+      drawTiles(g, new Rectangle(0, 0, getMapWidth(true), getMapHeight(true)), false);
     }
-    super.paint(g);
   }
 
   protected void updateSize() {
@@ -551,7 +549,13 @@ protected void updateSize() {
 
   @Override
   protected void paintCanvas(Graphics g) {
-    super.paintCanvas(g);
+    if (isInitialized()) {
+      Rectangle clip = g.getClipBounds();
+      if (clip == null) {
+        clip = new Rectangle(0, 0, getWidth(), getHeight());
+      }
+      drawTiles((Graphics2D) g, clip, true);
+    }
     if (showCellGrid) {
       drawGrid(g, 16.0, 12.0, Color.DARK_GRAY);
     }
@@ -574,19 +578,6 @@ private static int[] createDefaultTile() {
     return buffer;
   }
 
-  // Resizes the current image or creates a new one if needed
-  private boolean updateImageSize() {
-    if (isInitialized()) {
-      if (getImage() == null || getImage().getWidth(null) != getMapWidth(false)
-          || getImage().getHeight(null) != getMapHeight(false)) {
-        setImage(ColorConvert.createVolatileImage(getMapWidth(false), getMapHeight(false), false));
-      }
-      updateSize();
-      return true;
-    }
-    return false;
-  }
-
   // Initializes a new map
   private boolean init(int overlayTransparency, WedResource wed) {
     release(false);
@@ -600,9 +591,7 @@ private boolean init(int overlayTransparency, WedResource wed) {
     if (wed != null) {
       if (initWed(wed)) {
         this.wed = wed;
-        if (!updateImageSize()) {
-          return false;
-        }
+        updateSize();
       } else {
         return false;
       }
@@ -619,22 +608,13 @@ private boolean init(int overlayTransparency, WedResource wed) {
   private void release(boolean forceUpdate) {
     if (isInitialized()) {
       wed = null;
+      listTilesets.forEach(Tileset::close);
       listTilesets.clear();
       listDoorTileIndices.clear();
+      tileCache.clear();
 
-      Image img = getImage();
-      if (img != null) {
-        if (forceUpdate) {
-          Graphics2D g = (Graphics2D) img.getGraphics();
-          try {
-            g.setComposite(AlphaComposite.Src);
-            g.setColor(ColorConvert.TRANSPARENT_COLOR);
-            g.fillRect(0, 0, img.getWidth(null), img.getHeight(null));
-          } finally {
-            g.dispose();
-          }
-          repaint();
-        }
+      if (forceUpdate) {
+        repaint();
       }
 
       hasChangedMap = false;
@@ -719,27 +699,22 @@ private void updateDisplay() {
     updateDisplay(false);
   }
 
-  // (Re-)draw display, resize if needed
+  // Invalidates affected tiles and triggers a repaint of the visible map area, resize if needed
   private void updateDisplay(boolean forced) {
     if (isInitialized()) {
-      updateImageSize();
-
-      // VolatileImage objects may lose their content under specific circumstances
-      if (!forced && getImage() != null && getImage() instanceof VolatileImage) {
-        forced = ((VolatileImage) getImage()).contentsLost();
-      }
+      updateSize();
 
-      if (hasChangedMap || hasChangedAppearance || forced) {
-        // redraw each tile
-        drawAllTiles();
+      if (forced) {
+        // discard all rendered tiles
+        tileCache.clear();
       } else {
         if (hasChangedOverlays) {
-          // redraw overlayed tiles only
-          drawOverlayTiles();
+          // discard overlayed and animated tiles only
+          invalidateOverlayTiles();
         }
         if (hasChangedDoorState) {
-          // redraw door tiles only
-          drawDoorTiles();
+          // discard door tiles only
+          invalidateDoorTiles();
         }
       }
       repaint();
@@ -784,32 +759,117 @@ private void drawGrid(Graphics g, double gridWidth, double gridHeight, Color col
     }
   }
 
-  // draws all tiles of the map
-  private void drawAllTiles() {
+  // draws all tiles intersecting the specified region (in scaled canvas coordinates)
+  private void drawTiles(Graphics2D g, Rectangle region, boolean useCache) {
     final Tileset ts = listTilesets.get(0);
-    ts.listTiles.forEach(tile -> drawTile(tile, isDoorTile(tile)));
+    final double tileSize = 64.0 * zoomFactor;
+    final int x0 = Math.max(0, (int) Math.floor(region.x / tileSize));
+    final int y0 = Math.max(0, (int) Math.floor(region.y / tileSize));
+    final int x1 = Math.min(ts.tilesX - 1, (int) Math.floor((region.x + region.width - 1) / tileSize));
+    final int y1 = Math.min(ts.tilesY - 1, (int) Math.floor((region.y + region.height - 1) / tileSize));
+    if (x1 < x0 || y1 < y0) {
+      return;
+    }
+
+    if (useCache) {
+      // keep enough tiles available to cover the visible area without thrashing
+      final int capacity = Math.max(MIN_CACHE_TILES, 2 * (x1 - x0 + 1) * (y1 - y0 + 1));
+      tileCache.setCapacity(capacity);
+      ts.setCacheCapacity(capacity);
+    }
+
+    final Object oldHint = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, getInterpolationType());
+    try {
+      for (int y = y0; y <= y1; y++) {
+        final int dy1 = (int) Math.floor(y * tileSize);
+        final int dy2 = (int) Math.floor((y + 1) * tileSize);
+        for (int x = x0; x <= x1; x++) {
+          final int dx1 = (int) Math.floor(x * tileSize);
+          final int dx2 = (int) Math.floor((x + 1) * tileSize);
+          final BufferedImage image = getTileImage(y * ts.tilesX + x, dx2 - dx1, dy2 - dy1, useCache);
+          if (image != null) {
+            if (image.getWidth() == dx2 - dx1 && image.getHeight() == dy2 - dy1) {
+              g.drawImage(image, dx1, dy1, null);
+            } else {
+              g.drawImage(image, dx1, dy1, dx2, dy2, 0, 0, image.getWidth(), image.getHeight(), null);
+            }
+          }
+        }
+      }
+    } finally {
+      if (oldHint != null) {
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldHint);
+      }
+    }
   }
 
-  // draws overlayed and animated tiles only
-  private void drawOverlayTiles() {
+  // Returns the rendered graphics of the specified tile. Tiles are prescaled to the given size if zoomed out.
+  private BufferedImage getTileImage(int tileIndex, int width, int height, boolean useCache) {
+    final Long key = ((long) lighting << 32) | (tileIndex & 0xffffffffL);
+    BufferedImage image = useCache ? tileCache.get(key) : null;
+    if (image == null) {
+      final Tileset ts = listTilesets.get(0);
+      if (tileIndex < 0 || tileIndex >= ts.listTiles.size()) {
+        return null;
+      }
+      final Tile tile = ts.listTiles.get(tileIndex);
+      image = ColorConvert.createCompatibleImage(64, 64, true);
+      drawTile(tile, isDoorTile(tile), ((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+
+      if (zoomFactor < 1.0 && width > 0 && height > 0) {
+        // reduces memory footprint of cached tiles
+        final BufferedImage scaled = ColorConvert.createCompatibleImage(width, height, true);
+        final Graphics2D g = scaled.createGraphics();
+        try {
+          g.setComposite(AlphaComposite.Src);
+          g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, getInterpolationType());
+          g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+          g.dispose();
+        }
+        image.flush();
+        image = scaled;
+      }
+
+      if (useCache) {
+        tileCache.put(key, image);
+      }
+    }
+    return image;
+  }
+
+  // Removes the specified tile from the tile cache
+  private void invalidateTile(int tileIndex) {
+    for (long i = 0; i < LABEL_VISUAL_STATES.length; i++) {
+      tileCache.remove((i << 32) | (tileIndex & 0xffffffffL));
+    }
+  }
+
+  // Removes the specified tile from the tile cache
+  private void invalidateTile(Tile tile) {
+    final Tileset ts = listTilesets.get(0);
+    invalidateTile((tile.getY() / 64) * ts.tilesX + (tile.getX() / 64));
+  }
+
+  // Removes overlayed and animated tiles from the tile cache
+  private void invalidateOverlayTiles() {
     final Tileset ts = listTilesets.get(0);
 
     if (ts.hasAnimatedTiles) {
-      ts.listTiles.stream().filter(tile -> tile.tileCount > 1).forEach(tile -> drawTile(tile, isDoorTile(tile)));
+      ts.listTiles.stream().filter(tile -> tile.tileCount > 1).forEach(this::invalidateTile);
     }
 
     if (ts.hasOverlays) {
-      ts.listOverlayTiles.forEach(tile -> drawTile(tile, isDoorTile(tile)));
+      ts.listOverlayTiles.forEach(this::invalidateTile);
     }
   }
 
-  // draws door tiles only
-  private void drawDoorTiles() {
-    final List<Tile> tileList = listTilesets.get(0).listTiles;
+  // Removes door tiles from the tile cache
+  private void invalidateDoorTiles() {
     for (DoorInfo di : listDoorTileIndices) {
       for (int j = 0, iCount = di.getIndicesCount(); j < iCount; j++) {
-        final Tile tile = tileList.get(di.getIndex(j));
-        drawTile(tile, isDoorTile(tile));
+        invalidateTile(di.getIndex(j));
       }
     }
   }
@@ -940,11 +1000,10 @@ private void drawTileBlended(int[] primaryTile, int[] secondaryTile, int[] overl
     }
   }
 
-  // draws the specified tile into the target graphics buffer
-  private synchronized void drawTile(Tile tile, boolean isDoorTile) {
+  // draws the specified tile into the target pixel buffer
+  private synchronized void drawTile(Tile tile, boolean isDoorTile, int[] target) {
     if (tile != null) {
       boolean isDoorClosed = (Profile.getEngine() == Profile.Engine.PST) != isClosed;
-      int[] target = ((DataBufferInt) workingTile.getRaster().getDataBuffer()).getData();
 
       if (overlaysEnabled && tile.hasOverlay() && hasOverlay(tile.getOverlayIndex())) { // overlayed tile
         // preparing graphics data
@@ -953,20 +1012,20 @@ private synchronized void drawTile(Tile tile, boolean isDoorTile) {
           int tileIdx = listTilesets.get(overlay).listTiles.get(0).getPrimaryIndex();
           int[] srcOvl = null;
           if (tileIdx >= 0) {
-            srcOvl = listTilesets.get(overlay).listTileData.get(tileIdx);
+            srcOvl = listTilesets.get(overlay).getTileData(tileIdx);
           }
           int[] srcPri = null;
           tileIdx = tile.getPrimaryIndex();
           if (tileIdx >= 0) {
-            srcPri = listTilesets.get(0).listTileData.get(tileIdx);
+            srcPri = listTilesets.get(0).getTileData(tileIdx);
           }
           int[] srcSec = null;
           tileIdx = tile.getSecondaryIndex();
           if (tileIdx >= 0) {
-            if (tileIdx < listTilesets.get(0).listTileData.size()) {
-              srcSec = listTilesets.get(0).listTileData.get(tileIdx);
+            if (tileIdx < listTilesets.get(0).getTileDataCount()) {
+              srcSec = listTilesets.get(0).getTileData(tileIdx);
             } else {
-              Logger.warn("Invalid tile index: {} of {}", tileIdx, listTilesets.get(0).listTileData.size());
+              Logger.warn("Invalid tile index: {} of {}", tileIdx, listTilesets.get(0).getTileDataCount());
             }
           }
 
@@ -991,8 +1050,8 @@ private synchronized void drawTile(Tile tile, boolean isDoorTile) {
         if (tileIdx < 0) {
           tileIdx = tile.getPrimaryIndex();
         } // XXX: hackish work-around for faulty tile definitions
-        if (tileIdx >= 0 && tileIdx < listTilesets.get(0).listTileData.size()) {
-          srcTile = listTilesets.get(0).listTileData.get(tileIdx);
+        if (tileIdx >= 0 && tileIdx < listTilesets.get(0).getTileDataCount()) {
+          srcTile = listTilesets.get(0).getTileData(tileIdx);
         } else {
           // loading default tile
           srcTile = DEFAULT_TILE_DATA;
@@ -1004,8 +1063,7 @@ private synchronized void drawTile(Tile tile, boolean isDoorTile) {
       }
 
       // drawing mini map if available
-      if (miniMap != null && miniMapType != -1) {
-        BufferedImage miniMapImage = ColorConvert.toBufferedImage(miniMap.getImage(), true, true);
+      if (miniMapImage != null && miniMapType != -1) {
         int miniMapWidth = miniMapImage.getWidth();
         int miniMapHeight = miniMapImage.getHeight();
         int[] map = ((DataBufferInt) miniMapImage.getRaster().getDataBuffer()).getData();
@@ -1052,14 +1110,6 @@ private synchronized void drawTile(Tile tile, boolean isDoorTile) {
           }
         }
       }
-
-      // drawing tile on canvas
-      if (getImage() != null) {
-        Graphics2D g = (Graphics2D) getImage().getGraphics();
-        g.drawImage(workingTile, tile.getX(), tile.getY(), null);
-        g.dispose();
-      }
-      target = null;
     }
   }
 
@@ -1097,8 +1147,8 @@ private void notifyChangeListeners() {
 
   // Stores data of a specific overlay structure
   private static class Tileset {
-    // graphics data for all tiles of this overlay (as int arrays of 64*64 pixels)
-    public final List<int[]> listTileData = new ArrayList<>();
+    // graphics data of recently used tiles of this overlay (as int arrays of 64*64 pixels)
+    private final LruCache<Integer, int[]> tileData = new LruCache<>(MIN_CACHE_TILES);
     // info structures for all tiles of this overlay
     public final List<Tile> listTiles = new ArrayList<>();
     // lists references to all tiles containing overlays from listTiles
@@ -1110,11 +1160,46 @@ private static class Tileset {
 
     private boolean hasOverlays;
     private boolean hasAnimatedTiles;
+    private TisDecoder decoder; // decodes tile graphics on demand
+    private int tileDataCount; // number of available tiles in the tileset
 
     public Tileset(WedResource wed, Overlay ovl) {
       init(wed, ovl);
     }
 
+    // Returns the number of tiles in the associated tileset
+    public int getTileDataCount() {
+      return tileDataCount;
+    }
+
+    // Returns the graphics data of the specified tile. Tiles are decoded on first access.
+    public int[] getTileData(int index) {
+      int[] retVal = tileData.get(index);
+      if (retVal == null && decoder != null && index >= 0 && index < tileDataCount) {
+        retVal = new int[64 * 64];
+        if (!decoder.getTileData(index, retVal)) {
+          Logger.warn("Could not decode tile: {}", index);
+        }
+        tileData.put(index, retVal);
+      }
+      return retVal;
+    }
+
+    // Sets the max. number of decoded tiles to keep in memory
+    public void setCacheCapacity(int capacity) {
+      tileData.setCapacity(capacity);
+    }
+
+    // Releases the tileset decoder and all decoded tiles
+    public void close() {
+      tileData.clear();
+      if (decoder != null) {
+        decoder.close();
+        decoder = null;
+      }
+      tileDataCount = 0;
+    }
+
     public void advanceTileFrame() {
       if (hasAnimatedTiles) {
         listTiles.forEach(Tile::advancePrimaryIndex);
@@ -1142,20 +1227,12 @@ private void init(WedResource wed, Overlay ovl) {
         ResourceEntry tisEntry = getTisResource(wed, ovl);
         if (tisEntry != null) {
           try {
-            TisDecoder decoder = TisDecoder.loadTis(tisEntry);
+            decoder = TisDecoder.loadTis(tisEntry);
             isTisPalette = decoder.getType() == TisDecoder.Type.PALETTE;
-            BufferedImage tileImage = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
-            for (int i = 0, tCount = decoder.getTileCount(); i < tCount; i++) {
-              decoder.getTile(i, tileImage);
-              int[] srcData = ((DataBufferInt) tileImage.getRaster().getDataBuffer()).getData();
-              int[] dstData = new int[64 * 64];
-              System.arraycopy(srcData, 0, dstData, 0, 64 * 64);
-              listTileData.add(dstData);
+            tileDataCount = decoder.getTileCount();
+            if (decoder instanceof TisV2Decoder) {
+              ((TisV2Decoder) decoder).prefetchPvrz();
             }
-            tileImage.flush();
-            tileImage = null;
-            decoder.close();
-            decoder = null;
           } catch (Exception e) {
             Logger.error(e);
             return;
@@ -1262,6 +1339,31 @@ private ResourceEntry getTisResource(WedResource wed, Overlay ovl) {
 
   }
 
+  // A simple access-ordered map that discards the least recently used entries if the capacity is exceeded
+  private static class LruCache<K, V> extends LinkedHashMap<K, V> {
+    private int capacity;
+
+    public LruCache(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = Math.max(1, capacity);
+    }
+
+    // Sets a new capacity and discards the least recently used entries if needed
+    public void setCapacity(int capacity) {
+      this.capacity = Math.max(1, capacity);
+      final Iterator<Map.Entry<K, V>> iter = entrySet().iterator();
+      while (size() > this.capacity && iter.hasNext()) {
+        iter.next();
+        iter.remove();
+      }
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > capacity;
+    }
+  }
+
   // Stores tilemap information only (no graphics data)
   private static class Tile {
     private final int tileIdx2; // (start) indices of primary and secondary tiles
@@ -0,0 +1,327 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.resource.bcs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.parser.AbstractParser;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParserNotice;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.ParserNotice;
+import org.infinity.util.Logger;
+
+/**
+ * A {@link org.fife.ui.rsyntaxtextarea.parser.Parser Parser} that compiles script sources of a text area in a
+ * background thread and reports compiler errors and warnings as parser notices.
+ * <p>
+ * BAF sources are split into script blocks ({@code IF ... END}) which are compiled independently. Compiler messages
+ * are cached by block content, so that only modified blocks have to be compiled again.
+ * </p>
+ * <p>
+ * Parsing is triggered by the text area after the configured parser delay. Until compilation of the current text has
+ * finished the previously reported notices are retained.
+ * </p>
+ */
+public class BackgroundCompiler extends AbstractParser {
+  /** Recommended parser delay (in ms) for text areas using this parser. */
+  public static final int PARSER_DELAY = 300;
+
+  /** Max. number of script blocks with cached compiler messages per text area. */
+  private static final int MAX_CACHED_BLOCKS = 2048;
+
+  /** Compiles scripts of all text areas in the background. */
+  private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+    final Thread thread = new Thread(r, "BackgroundCompiler");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final RSyntaxTextArea textArea;
+  private final ScriptType scriptType;
+
+  /** Script source that is waiting to be compiled. */
+  private final AtomicReference<String> pendingSource = new AtomicReference<>();
+
+  /** Compiler messages mapped by script block source. Accessed only by the compiler thread. */
+  private final Map<String, List<Message>> blockCache = new LinkedHashMap<String, List<Message>>(256, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, List<Message>> eldest) {
+      return size() > MAX_CACHED_BLOCKS;
+    }
+  };
+
+  /** Most recent compilation result. */
+  private volatile Snapshot snapshot;
+
+  /**
+   * Creates a new parser for the specified text area.
+   *
+   * @param textArea   The text area to report compiler messages to.
+   * @param scriptType Type of the script source. Only {@link ScriptType#BAF} sources are compiled incrementally.
+   */
+  public BackgroundCompiler(RSyntaxTextArea textArea, ScriptType scriptType) {
+    this.textArea = textArea;
+    this.scriptType = (scriptType != null) ? scriptType : ScriptType.BAF;
+  }
+
+  /** Returns the script type of the compiled source. */
+  public ScriptType getScriptType() {
+    return scriptType;
+  }
+
+  /**
+   * Returns the compiler messages of the current document content. Compilation is scheduled in the background if the
+   * document content has not been compiled yet. Returns {@code null} in this case to retain the current notices.
+   */
+  @Override
+  public ParseResult parse(RSyntaxDocument doc, String style) {
+    final String source;
+    try {
+      source = doc.getText(0, doc.getLength());
+    } catch (BadLocationException e) {
+      Logger.trace(e);
+      return null;
+    }
+
+    final Snapshot curSnapshot = snapshot;
+    if (curSnapshot == null || !curSnapshot.source.equals(source)) {
+      schedule(source);
+      return null;
+    }
+
+    final DefaultParseResult result = new DefaultParseResult(this);
+    result.setParsedLines(0, Math.max(0, doc.getDefaultRootElement().getElementCount() - 1));
+    result.setParseTime(curSnapshot.parseTime);
+    for (final ParserNotice notice : curSnapshot.notices) {
+      result.addNotice(notice);
+    }
+    return result;
+  }
+
+  // Schedules compilation of the specified source in the background
+  private void schedule(String source) {
+    if (pendingSource.getAndSet(source) == null) {
+      EXECUTOR.execute(this::compilePending);
+    }
+  }
+
+  // Compiler thread: compiles the most recently scheduled source and requests the text area to fetch the results
+  private void compilePending() {
+    String source;
+    boolean compiled = false;
+    while ((source = pendingSource.getAndSet(null)) != null) {
+      try {
+        snapshot = compile(source);
+        compiled = true;
+      } catch (Throwable t) {
+        Logger.debug(t, "Background compilation failed");
+      }
+    }
+    if (compiled) {
+      SwingUtilities.invokeLater(() -> textArea.forceReparsing(this));
+    }
+  }
+
+  // Compiles the specified script source block by block and returns the resulting parser notices
+  private Snapshot compile(String source) {
+    final long startTime = System.currentTimeMillis();
+    final int[] lineOffsets = getLineOffsets(source);
+    final List<int[]> blocks = (scriptType == ScriptType.BAF)
+        ? getScriptBlocks(source, lineOffsets)
+        : Collections.singletonList(new int[] { 0, lineOffsets.length });
+
+    final List<ParserNotice> notices = new ArrayList<>();
+    for (final int[] block : blocks) {
+      final int startLine = block[0];
+      final int endLine = block[1];
+      final int startOfs = lineOffsets[startLine];
+      final int endOfs = (endLine < lineOffsets.length) ? lineOffsets[endLine] : source.length();
+      final String blockSource = source.substring(startOfs, endOfs);
+      if (blockSource.trim().isEmpty()) {
+        continue;
+      }
+
+      List<Message> messages = blockCache.get(blockSource);
+      if (messages == null) {
+        messages = compileBlock(blockSource);
+        blockCache.put(blockSource, messages);
+      }
+
+      for (final Message msg : messages) {
+        notices.add(createNotice(msg, source, lineOffsets, startLine));
+      }
+    }
+
+    return new Snapshot(source, notices, System.currentTimeMillis() - startTime);
+  }
+
+  // Compiles a single script block and returns the compiler messages with block-relative line numbers
+  private List<Message> compileBlock(String blockSource) {
+    final Compiler compiler = new Compiler(blockSource, scriptType);
+    compiler.compile();
+    if (compiler.getErrors().isEmpty() && compiler.getWarnings().isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<Message> retVal = new ArrayList<>(compiler.getErrors().size() + compiler.getWarnings().size());
+    for (final ScriptMessage sm : compiler.getErrors()) {
+      retVal.add(new Message(sm, true));
+    }
+    for (final ScriptMessage sm : compiler.getWarnings()) {
+      retVal.add(new Message(sm, false));
+    }
+    return retVal;
+  }
+
+  // Creates a parser notice for the specified compiler message at its absolute position in the script source
+  private ParserNotice createNotice(Message msg, String source, int[] lineOffsets, int blockLine) {
+    final int lastLine = lineOffsets.length - 1;
+    final int line = Math.min(lastLine, blockLine + Math.max(1, msg.line) - 1);
+    final int lineEnd = (line < lastLine) ? lineOffsets[line + 1] - 1 : source.length();
+
+    int offset;
+    int endOffset;
+    if (msg.column > 0) {
+      offset = Math.min(lineEnd, lineOffsets[line] + msg.column - 1);
+      final int endLine = Math.min(lastLine, blockLine + Math.max(1, msg.endLine) - 1);
+      endOffset = Math.min(source.length(), lineOffsets[endLine] + Math.max(1, msg.endColumn));
+    } else {
+      // no position information available: marking whole line
+      offset = lineOffsets[line];
+      endOffset = lineEnd;
+    }
+
+    final DefaultParserNotice notice = new DefaultParserNotice(this, msg.message, line, offset,
+        Math.max(1, endOffset - offset));
+    notice.setLevel(msg.error ? ParserNotice.Level.ERROR : ParserNotice.Level.WARNING);
+    return notice;
+  }
+
+  // Returns the start offsets of all lines in the specified text
+  private static int[] getLineOffsets(String text) {
+    int count = 1;
+    for (int i = 0, len = text.length(); i < len; i++) {
+      if (text.charAt(i) == '\n') {
+        count++;
+      }
+    }
+
+    final int[] retVal = new int[count];
+    for (int i = 0, idx = 1, len = text.length(); i < len; i++) {
+      if (text.charAt(i) == '\n') {
+        retVal[idx++] = i + 1;
+      }
+    }
+    return retVal;
+  }
+
+  /**
+   * Splits the specified BAF source into ranges of lines. Each range starts with a line beginning with the {@code IF}
+   * keyword outside of comments. Returned array elements contain start line (inclusive) and end line (exclusive).
+   */
+  private static List<int[]> getScriptBlocks(String source, int[] lineOffsets) {
+    final List<int[]> retVal = new ArrayList<>();
+    boolean inComment = false;
+    int blockStart = 0;
+    for (int line = 0; line < lineOffsets.length; line++) {
+      final int start = lineOffsets[line];
+      final int end = (line + 1 < lineOffsets.length) ? lineOffsets[line + 1] : source.length();
+      if (!inComment && line > blockStart && isBlockStart(source, start, end)) {
+        retVal.add(new int[] { blockStart, line });
+        blockStart = line;
+      }
+      inComment = scanComments(source, start, end, inComment);
+    }
+    retVal.add(new int[] { blockStart, lineOffsets.length });
+    return retVal;
+  }
+
+  // Returns whether the specified line begins with the IF keyword
+  private static boolean isBlockStart(String source, int start, int end) {
+    int pos = start;
+    while (pos < end && Character.isWhitespace(source.charAt(pos))) {
+      pos++;
+    }
+    if (pos + 2 > end || !source.startsWith("IF", pos)) {
+      return false;
+    }
+    pos += 2;
+    return pos == end || !(Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_');
+  }
+
+  // Returns whether the end of the specified line is located inside a multi-line comment
+  private static boolean scanComments(String source, int start, int end, boolean inComment) {
+    int pos = start;
+    while (pos < end) {
+      final char ch = source.charAt(pos);
+      if (inComment) {
+        if (ch == '*' && pos + 1 < end && source.charAt(pos + 1) == '/') {
+          inComment = false;
+          pos++;
+        }
+      } else if (ch == '/' && pos + 1 < end && source.charAt(pos + 1) == '/') {
+        break;
+      } else if (ch == '/' && pos + 1 < end && source.charAt(pos + 1) == '*') {
+        inComment = true;
+        pos++;
+      } else if (ch == '"' || ch == '~' || ch == '%' || ch == '#') {
+        // skipping string literals, which are always closed on the same line
+        final int close = source.indexOf(ch, pos + 1);
+        if (close >= 0 && close < end) {
+          pos = close;
+        }
+      }
+      pos++;
+    }
+    return inComment;
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** A compiler message with line numbers relative to the compiled script block. */
+  private static class Message {
+    private final String message;
+    private final int line;
+    private final int column;
+    private final int endLine;
+    private final int endColumn;
+    private final boolean error;
+
+    public Message(ScriptMessage sm, boolean error) {
+      this.message = sm.getMessage();
+      this.line = sm.getLine();
+      this.column = sm.getColumn();
+      this.endLine = sm.getEndLine();
+      this.endColumn = sm.getEndColumn();
+      this.error = error;
+    }
+  }
+
+  /** Parser notices of a compiled script source. */
+  private static class Snapshot {
+    private final String source;
+    private final List<ParserNotice> notices;
+    private final long parseTime;
+
+    public Snapshot(String source, List<ParserNotice> notices, long parseTime) {
+      this.source = source;
+      this.notices = notices;
+      this.parseTime = parseTime;
+    }
+  }
+}
@@ -266,6 +266,7 @@ public JComponent makeViewer(ViewableContainer container) {
     sourceText.setText(text);
     sourceText.setCaretPosition(0);
     sourceText.setAutoIndentEnabled(BrowserMenuBar.getInstance().getOptions().getBcsAutoIndentEnabled());
+    sourceText.setBackgroundCompilerEnabled(true, ScriptType.BAF);
     sourceText.addCaretListener(container.getStatusBar());
     sourceText.setMargin(new Insets(3, 3, 3, 3));
     sourceText.setLineWrap(false);
@@ -580,6 +580,7 @@ public void highlightText(int startOfs, int endOfs) {
   public JComponent makeViewer(ViewableContainer container) {
     sourceText = new ScriptTextArea();
     sourceText.setAutoIndentEnabled(BrowserMenuBar.getInstance().getOptions().getBcsAutoIndentEnabled());
+    sourceText.setBackgroundCompilerEnabled(true, ScriptType.BAF);
     sourceText.addCaretListener(container.getStatusBar());
     sourceText.setMargin(new Insets(3, 3, 3, 3));
     sourceText.setLineWrap(false);
@@ -0,0 +1,624 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.resource.bcs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.infinity.NearInfinity;
+import org.infinity.gui.menu.BrowserMenuBar;
+import org.infinity.resource.Profile;
+import org.infinity.resource.ResourceFactory;
+import org.infinity.resource.key.FileResourceEntry;
+import org.infinity.resource.key.ResourceEntry;
+import org.infinity.util.DebugTimer;
+import org.infinity.util.IdsMapCache;
+import org.infinity.util.Logger;
+import org.infinity.util.Misc;
+import org.infinity.util.StaticSimpleXorDecryptor;
+import org.infinity.util.Threading;
+import org.infinity.util.io.FileEx;
+import org.infinity.util.io.FileManager;
+import org.infinity.util.io.StreamUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Compiles, decompiles or verifies a set of BAF and BCS resources in parallel.
+ * <p>
+ * Function signatures and IDS resources referenced by script functions are loaded once by {@link #prepare()} before
+ * the scripts are processed. Worker threads only read from these caches afterwards.
+ * </p>
+ * <p>
+ * The processor can be used from within the application (e.g. by {@code ScriptChecker}) or from the command line via
+ * {@link #main(String[])}. Results can be exported as a JSON report.
+ * </p>
+ */
+public class ScriptBatchProcessor {
+  /** Available processing modes. */
+  public enum Mode {
+    /** Compiles BAF sources into BCS byte code. */
+    COMPILE,
+    /** Decompiles BCS byte code into BAF sources. */
+    DECOMPILE,
+    /**
+     * Decompiles BCS byte code and compiles the result back, which must result in the original byte code. BAF sources
+     * are compiled first.
+     */
+    VERIFY,
+  }
+
+  /** Processing state of a single script. */
+  public enum Status {
+    /** Script has been processed without errors or warnings. */
+    OK,
+    /** Script has been processed with warnings. */
+    WARNING,
+    /** Script could not be processed because of script errors. */
+    ERROR,
+    /** Compiled byte code of the decompiled script does not match the original byte code. */
+    MISMATCH,
+    /** Script could not be processed because of an unexpected error. */
+    FAILED,
+  }
+
+  private final Mode mode;
+
+  private Path outputDir;
+  private volatile int threadCount;
+
+  public ScriptBatchProcessor(Mode mode) {
+    this.mode = (mode != null) ? mode : Mode.VERIFY;
+  }
+
+  /** Returns the processing mode of this instance. */
+  public Mode getMode() {
+    return mode;
+  }
+
+  /** Returns the directory for compiled or decompiled scripts. Returns {@code null} if output is not written. */
+  public Path getOutputDirectory() {
+    return outputDir;
+  }
+
+  /**
+   * Specifies the directory for compiled or decompiled scripts. Output is not written if {@code null} is specified.
+   * Scripts are never written in {@link Mode#VERIFY} mode.
+   */
+  public void setOutputDirectory(Path dir) {
+    this.outputDir = dir;
+  }
+
+  /**
+   * Loads trigger and action signatures as well as all IDS resources referenced by script functions and object
+   * specifiers. This should be called once before scripts are processed concurrently.
+   */
+  public static void prepare() {
+    final DebugTimer timer = new DebugTimer();
+    final TreeSet<String> idsNames = new TreeSet<>();
+    idsNames.add("OBJECT.IDS");
+    idsNames.add("SPELL.IDS");
+
+    for (final Signatures signatures : new Signatures[] { Signatures.getTriggers(), Signatures.getActions() }) {
+      if (signatures == null) {
+        continue;
+      }
+      for (final Integer id : signatures.getFunctionIds()) {
+        final Signatures.Function[] functions = signatures.getFunction(id);
+        if (functions == null) {
+          continue;
+        }
+        for (final Signatures.Function function : functions) {
+          for (int i = 0, count = function.getNumParameters(); i < count; i++) {
+            final String idsRef = function.getParameter(i).getIdsRef();
+            if (idsRef != null && !idsRef.isEmpty()) {
+              idsNames.add(IdsMapCache.getValidIdsRef(idsRef).toUpperCase(Locale.ENGLISH));
+            }
+          }
+        }
+      }
+    }
+
+    final ScriptInfo info = ScriptInfo.getInfo();
+    if (info != null) {
+      for (final String name : info.getObjectIdsList()) {
+        idsNames.add(IdsMapCache.getValidIdsRef(name).toUpperCase(Locale.ENGLISH));
+      }
+    }
+
+    for (final String name : idsNames) {
+      if (ResourceFactory.resourceExists(name)) {
+        IdsMapCache.get(name);
+      }
+    }
+    Logger.debug(timer.getTimerFormatted("Preparing " + idsNames.size() + " IDS resources for script processing"));
+  }
+
+  /**
+   * Processes the specified scripts in parallel. {@link #prepare()} is called before processing starts.
+   *
+   * @param entries List of BAF or BCS resources.
+   * @return List of results in the order of the specified resources.
+   * @throws InterruptedException if the current thread was interrupted while waiting.
+   */
+  public List<Result> processAll(List<ResourceEntry> entries) throws InterruptedException {
+    final List<Result> results = new ArrayList<>(entries.size());
+    if (entries.isEmpty()) {
+      return results;
+    }
+
+    prepare();
+    final List<Future<Result>> futures = new ArrayList<>(entries.size());
+    try (final Threading threads = new Threading()) {
+      threadCount = threads.getThreadCount();
+      for (final ResourceEntry entry : entries) {
+        futures.add(threads.submit(() -> process(entry)));
+      }
+      for (int i = 0, size = futures.size(); i < size; i++) {
+        try {
+          results.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          final Result result = new Result(entries.get(i));
+          result.fail(e.getCause());
+          result.updateStatus();
+          results.add(result);
+        }
+      }
+    } catch (InterruptedException e) {
+      throw e;
+    } catch (Exception e) {
+      Logger.error(e);
+    }
+    return results;
+  }
+
+  /**
+   * Processes a single script. This method is thread-safe.
+   *
+   * @param entry The BAF or BCS resource.
+   * @return The processing result.
+   */
+  public Result process(ResourceEntry entry) {
+    final Result result = new Result(entry);
+    try {
+      final boolean isSource = "BAF".equalsIgnoreCase(entry.getExtension());
+      final String text = readScript(entry);
+      switch (mode) {
+        case COMPILE: {
+          final String code = compile(result, text);
+          if (result.errors.isEmpty()) {
+            writeOutput(entry, "BCS", code);
+          }
+          break;
+        }
+        case DECOMPILE: {
+          final String source = isSource ? text : decompile(result, text);
+          writeOutput(entry, "BAF", source);
+          break;
+        }
+        case VERIFY: {
+          final String code = isSource ? compile(result, text) : text;
+          if (result.errors.isEmpty()) {
+            final Result roundTrip = isSource ? new Result(entry) : result;
+            final String newCode = compile(roundTrip, decompile(result, code));
+            if (roundTrip != result) {
+              result.errors.addAll(roundTrip.errors);
+              result.warnings.addAll(roundTrip.warnings);
+              result.compileTime += roundTrip.compileTime;
+            }
+            if (result.errors.isEmpty()) {
+              result.mismatchLine = compareCode(code, newCode);
+            }
+          }
+          break;
+        }
+      }
+    } catch (Exception e) {
+      result.fail(e);
+    }
+    result.updateStatus();
+    return result;
+  }
+
+  /**
+   * Returns a JSON representation of the specified processing results. The reported thread count refers to the last
+   * call of {@link #processAll(List)}.
+   *
+   * @param results List of processing results.
+   * @param elapsed Total processing time, in nanoseconds.
+   * @return A {@link JSONObject} with summary and per-script information.
+   */
+  public JSONObject createReport(List<Result> results, long elapsed) {
+    final Map<Status, Integer> counts = new TreeMap<>();
+    for (final Status status : Status.values()) {
+      counts.put(status, 0);
+    }
+
+    final JSONArray scripts = new JSONArray();
+    for (final Result result : results) {
+      counts.merge(result.getStatus(), 1, Integer::sum);
+      scripts.put(result.toJson());
+    }
+
+    final JSONObject summary = new JSONObject();
+    for (final Map.Entry<Status, Integer> entry : counts.entrySet()) {
+      summary.put(entry.getKey().name().toLowerCase(Locale.ENGLISH), entry.getValue());
+    }
+
+    final JSONObject root = new JSONObject();
+    root.put("mode", mode.name().toLowerCase(Locale.ENGLISH));
+    if (Profile.isGameOpen()) {
+      root.put("game", Profile.getGame().toString());
+    }
+    root.put("threads", threadCount);
+    root.put("scripts", results.size());
+    root.put("timeMs", elapsed / 1_000_000L);
+    root.put("summary", summary);
+    root.put("results", scripts);
+    return root;
+  }
+
+  /**
+   * Writes a JSON report of the specified processing results to the specified file.
+   *
+   * @param file    The output file.
+   * @param results List of processing results.
+   * @param elapsed Total processing time, in nanoseconds.
+   * @throws IOException if the file could not be written.
+   */
+  public void writeReport(Path file, List<Result> results, long elapsed) throws IOException {
+    try (final BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      createReport(results, elapsed).write(bw, 2, 0);
+      bw.newLine();
+    }
+  }
+
+  // Compiles the specified script source and returns the resulting byte code
+  private String compile(Result result, String source) {
+    final long start = System.nanoTime();
+    final Compiler compiler = new Compiler(source);
+    final String code = compiler.compile();
+    result.errors.addAll(compiler.getErrors());
+    result.warnings.addAll(compiler.getWarnings());
+    result.compileTime += System.nanoTime() - start;
+    return code;
+  }
+
+  // Decompiles the specified byte code and returns the resulting script source
+  private String decompile(Result result, String code) throws Exception {
+    final long start = System.nanoTime();
+    final Decompiler decompiler = new Decompiler(code, true);
+    decompiler.setGenerateComments(false);
+    decompiler.setGenerateResourcesUsed(false);
+    final String source = decompiler.decompile();
+    result.idsErrors.putAll(decompiler.getIdsErrors());
+    result.decompileTime += System.nanoTime() - start;
+    return source;
+  }
+
+  // Returns the first (1-based) line where the byte code differs, 0 if both are equal
+  private static int compareCode(String code1, String code2) {
+    final String[] lines1 = code1.trim().split("\\r?\\n");
+    final String[] lines2 = code2.trim().split("\\r?\\n");
+    final int count = Math.min(lines1.length, lines2.length);
+    for (int i = 0; i < count; i++) {
+      if (!lines1[i].trim().equals(lines2[i].trim())) {
+        return i + 1;
+      }
+    }
+    return (lines1.length != lines2.length) ? count + 1 : 0;
+  }
+
+  // Writes the processed script to the output directory if available
+  private void writeOutput(ResourceEntry entry, String ext, String text) throws IOException {
+    if (outputDir == null || text == null) {
+      return;
+    }
+    final String name = entry.getResourceRef() + '.' + ext;
+    final Path file = outputDir.resolve(name);
+    final Charset cs = "BAF".equals(ext) ? getCharset() : Profile.getDefaultCharset();
+    try (final BufferedWriter bw = Files.newBufferedWriter(file, cs)) {
+      bw.write(text.replaceAll("\r?\n", Misc.LINE_SEPARATOR));
+    }
+  }
+
+  // Reads the text content of the specified script resource
+  private static String readScript(ResourceEntry entry) throws Exception {
+    ByteBuffer buffer = entry.getResourceBuffer();
+    if (buffer.limit() > 1 && buffer.getShort(0) == -1) {
+      buffer = StaticSimpleXorDecryptor.decrypt(buffer, 2);
+    }
+    return StreamUtils.readString(buffer, buffer.limit(), getCharset());
+  }
+
+  // Returns the character set for script sources
+  private static Charset getCharset() {
+    if (BrowserMenuBar.isInstantiated()) {
+      return Misc.getCharsetFrom(BrowserMenuBar.getInstance().getOptions().getSelectedCharset());
+    }
+    return Profile.getDefaultCharset();
+  }
+
+  /**
+   * Command line entry point.
+   * <p>
+   * Usage: {@code ScriptBatchProcessor [-compile|-decompile|-verify] [-o outputdir] [-r report.json] [-t gametype]
+   * gamepath [script ...]}
+   * </p>
+   * <p>
+   * Scripts can be specified as game resource names or as paths to script files. All BCS and BS resources of the game
+   * are processed (or all BAF resources in compile mode) if no scripts are specified. The process exits with code 1 if
+   * any script could not be processed successfully.
+   * </p>
+   */
+  public static void main(String[] args) {
+    Mode mode = Mode.VERIFY;
+    Path outputDir = null;
+    Path reportFile = null;
+    Path gamePath = null;
+    Profile.Game forcedGame = null;
+    final List<String> scripts = new ArrayList<>();
+
+    for (int idx = 0; idx < args.length; idx++) {
+      final String arg = args[idx];
+      switch (arg.toLowerCase(Locale.ENGLISH)) {
+        case "-compile":
+          mode = Mode.COMPILE;
+          break;
+        case "-decompile":
+          mode = Mode.DECOMPILE;
+          break;
+        case "-verify":
+          mode = Mode.VERIFY;
+          break;
+        case "-o":
+        case "-r":
+        case "-t":
+          if (idx + 1 >= args.length) {
+            System.err.println("Missing argument for option '" + arg + "'.");
+            System.exit(2);
+          }
+          idx++;
+          if (arg.equalsIgnoreCase("-o")) {
+            outputDir = FileManager.resolve(args[idx]);
+          } else if (arg.equalsIgnoreCase("-r")) {
+            reportFile = FileManager.resolve(args[idx]);
+          } else {
+            for (final Profile.Game game : Profile.Game.values()) {
+              if (game.toString().equalsIgnoreCase(args[idx])) {
+                forcedGame = game;
+                break;
+              }
+            }
+          }
+          break;
+        default:
+          if (gamePath == null) {
+            gamePath = FileManager.resolve(arg);
+          } else {
+            scripts.add(arg);
+          }
+      }
+    }
+
+    if (gamePath == null) {
+      System.err.println("Usage: ScriptBatchProcessor [-compile|-decompile|-verify] [-o outputdir] [-r report.json] "
+          + "[-t gametype] gamepath [script ...]");
+      System.exit(2);
+    }
+
+    final Path keyFile = FileEx.create(gamePath).isDirectory() ? FileManager.query(gamePath, "chitin.key") : gamePath;
+    if (!FileEx.create(keyFile).isFile()) {
+      System.err.println("Game not found: " + gamePath);
+      System.exit(2);
+    }
+
+    // game resources are accessed with the stored application preferences
+    Logger.info("Near Infinity {}", NearInfinity.getVersion());
+    if (!BrowserMenuBar.isInstantiated()) {
+      new BrowserMenuBar();
+    }
+    if (!Profile.openGame(keyFile, null, forcedGame)) {
+      System.err.println("Could not open game: " + keyFile);
+      System.exit(2);
+    }
+
+    final List<ResourceEntry> entries = new ArrayList<>();
+    if (scripts.isEmpty()) {
+      if (mode == Mode.COMPILE) {
+        entries.addAll(ResourceFactory.getResources("BAF"));
+      } else {
+        entries.addAll(ResourceFactory.getResources("BCS"));
+        entries.addAll(ResourceFactory.getResources("BS"));
+      }
+    } else {
+      for (final String script : scripts) {
+        ResourceEntry entry = ResourceFactory.getResourceEntry(script);
+        if (entry == null) {
+          final Path file = FileManager.resolve(script);
+          if (FileEx.create(file).isFile()) {
+            entry = new FileResourceEntry(file);
+          }
+        }
+        if (entry != null) {
+          entries.add(entry);
+        } else {
+          System.err.println("Script not found: " + script);
+        }
+      }
+    }
+
+    int exitCode = 0;
+    try {
+      if (outputDir != null) {
+        Files.createDirectories(outputDir);
+      }
+      final ScriptBatchProcessor processor = new ScriptBatchProcessor(mode);
+      processor.setOutputDirectory(outputDir);
+
+      final long start = System.nanoTime();
+      final List<Result> results = processor.processAll(entries);
+      final long elapsed = System.nanoTime() - start;
+
+      for (final Result result : results) {
+        if (result.getStatus() != Status.OK && result.getStatus() != Status.WARNING) {
+          exitCode = 1;
+        }
+      }
+
+      if (reportFile != null) {
+        processor.writeReport(reportFile, results, elapsed);
+      } else {
+        System.out.println(processor.createReport(results, elapsed).toString(2));
+      }
+    } catch (Exception e) {
+      Logger.error(e);
+      exitCode = 1;
+    }
+    System.exit(exitCode);
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** Processing result of a single script. */
+  public static class Result {
+    private final ResourceEntry entry;
+    private final List<ScriptMessage> errors = new ArrayList<>();
+    private final List<ScriptMessage> warnings = new ArrayList<>();
+    private final SortedMap<Integer, String> idsErrors = new TreeMap<>();
+
+    private Status status;
+    private String failure;
+    private int mismatchLine;
+    private long compileTime;
+    private long decompileTime;
+
+    private Result(ResourceEntry entry) {
+      this.entry = entry;
+    }
+
+    /** Returns the processed script resource. */
+    public ResourceEntry getResourceEntry() {
+      return entry;
+    }
+
+    /** Returns the processing state of the script. */
+    public Status getStatus() {
+      return status;
+    }
+
+    /** Returns the compiler errors. */
+    public List<ScriptMessage> getErrors() {
+      return Collections.unmodifiableList(errors);
+    }
+
+    /** Returns the compiler warnings. */
+    public List<ScriptMessage> getWarnings() {
+      return Collections.unmodifiableList(warnings);
+    }
+
+    /** Returns unresolved IDS references reported by the decompiler, mapped by source line. */
+    public SortedMap<Integer, String> getIdsErrors() {
+      return Collections.unmodifiableSortedMap(idsErrors);
+    }
+
+    /** Returns the first line of differing byte code in {@link Mode#VERIFY} mode, 0 otherwise. */
+    public int getMismatchLine() {
+      return mismatchLine;
+    }
+
+    /** Returns the message of an unexpected error. Returns {@code null} if the script was processed. */
+    public String getFailure() {
+      return failure;
+    }
+
+    /** Returns the time spent compiling the script, in nanoseconds. */
+    public long getCompileTime() {
+      return compileTime;
+    }
+
+    /** Returns the time spent decompiling the script, in nanoseconds. */
+    public long getDecompileTime() {
+      return decompileTime;
+    }
+
+    /** Returns a JSON representation of this result. */
+    public JSONObject toJson() {
+      final JSONObject obj = new JSONObject();
+      obj.put("name", entry.getResourceName());
+      obj.put("status", status.name().toLowerCase(Locale.ENGLISH));
+      obj.put("compileUs", compileTime / 1000L);
+      obj.put("decompileUs", decompileTime / 1000L);
+      if (failure != null) {
+        obj.put("failure", failure);
+      }
+      if (mismatchLine > 0) {
+        obj.put("mismatchLine", mismatchLine);
+      }
+      if (!errors.isEmpty()) {
+        obj.put("errors", toJson(errors));
+      }
+      if (!warnings.isEmpty()) {
+        obj.put("warnings", toJson(warnings));
+      }
+      if (!idsErrors.isEmpty()) {
+        final JSONArray arr = new JSONArray();
+        for (final Map.Entry<Integer, String> e : idsErrors.entrySet()) {
+          arr.put(new JSONObject().put("line", e.getKey()).put("message", e.getValue()));
+        }
+        obj.put("idsErrors", arr);
+      }
+      return obj;
+    }
+
+    @Override
+    public String toString() {
+      return entry.getResourceName() + ": " + status;
+    }
+
+    private void fail(Throwable t) {
+      failure = (t != null) ? t.getClass().getSimpleName() + ": " + t.getMessage() : "Unknown error";
+      Logger.debug(t, "Error processing {}", entry);
+    }
+
+    private void updateStatus() {
+      if (failure != null) {
+        status = Status.FAILED;
+      } else if (!errors.isEmpty()) {
+        status = Status.ERROR;
+      } else if (mismatchLine > 0) {
+        status = Status.MISMATCH;
+      } else if (!warnings.isEmpty() || !idsErrors.isEmpty()) {
+        status = Status.WARNING;
+      } else {
+        status = Status.OK;
+      }
+    }
+
+    private static JSONArray toJson(List<ScriptMessage> messages) {
+      final JSONArray arr = new JSONArray();
+      for (final ScriptMessage sm : messages) {
+        arr.put(new JSONObject().put("line", sm.getLine()).put("column", sm.getColumn()).put("message",
+            sm.getMessage()));
+      }
+      return arr;
+    }
+  }
+}
@@ -6,34 +6,76 @@
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.key.ResourceEntry;
+import org.infinity.util.SymbolTable;
 import org.infinity.util.io.StreamUtils;
 
 /**
  * Manages action and trigger function signatures.
+ * <p>
+ * Signatures are stored in immutable lookup tables: function identifiers are kept in a sorted {@code int} array with a
+ * parallel array of function overloads, function names in a case-insensitive {@link SymbolTable}.
+ * </p>
  */
 public class Signatures {
-  private static final HashMap<String, Signatures> INSTANCES = new HashMap<>();
+  private static final ConcurrentHashMap<String, Signatures> INSTANCES = new ConcurrentHashMap<>();
 
-  private final TreeMap<Integer, HashSet<Function>> functions;
-  private final HashMap<String, Function> functionsByName;
   private final String resource;
 
-  protected Signatures(String resource) {
-    this.functions = new TreeMap<>();
-    this.functionsByName = new HashMap<>(600);
+  /** Sorted function identifiers. */
+  private final int[] ids;
+
+  /** Function overloads associated with {@link #ids}. */
+  private final Function[][] functions;
+
+  /** Unmodifiable view of {@link #ids}. */
+  private final Set<Integer> functionIds;
+
+  /** Functions referenced by {@link #functionsByName}. */
+  private final Function[] namedFunctions;
+
+  /** Maps function names to indices of {@link #namedFunctions}. */
+  private final SymbolTable functionsByName;
+
+  protected Signatures(String resource, TreeMap<Integer, HashSet<Function>> functionMap,
+      Map<String, Function> nameMap) {
     this.resource = resource;
+
+    this.ids = new int[functionMap.size()];
+    this.functions = new Function[functionMap.size()][];
+    int idx = 0;
+    for (final Map.Entry<Integer, HashSet<Function>> entry : functionMap.entrySet()) {
+      ids[idx] = entry.getKey();
+      functions[idx] = entry.getValue().toArray(new Function[entry.getValue().size()]);
+      idx++;
+    }
+    this.functionIds = Collections.unmodifiableSortedSet(new TreeSet<>(functionMap.keySet()));
+
+    this.namedFunctions = new Function[nameMap.size()];
+    final HashMap<String, Integer> nameIndices = new HashMap<>(nameMap.size() * 2);
+    idx = 0;
+    for (final Map.Entry<String, Function> entry : nameMap.entrySet()) {
+      namedFunctions[idx] = entry.getValue();
+      nameIndices.put(entry.getKey(), idx);
+      idx++;
+    }
+    this.functionsByName = new SymbolTable(nameIndices, false);
   }
 
   /** Returns the IDS resource containing the function signatures. */
@@ -45,28 +87,20 @@ public String getResource() {
    * Returns the full set of available function identifiers which can be used to query function signatures.
    */
   public Set<Integer> getFunctionIds() {
-    return functions.keySet();
+    return functionIds;
   }
 
   /** Returns the number of available function signatures. */
   public int getSize() {
-    return functions.size();
+    return ids.length;
   }
 
   /**
    * Returns the set of functions associated with the specified identifier. Returns {@code null} if not available.
    */
   public Function[] getFunction(int id) {
-    HashSet<Function> set = functions.get(id);
-    if (set != null) {
-      Function[] retVal = new Function[set.size()];
-      int idx = 0;
-      for (Function f : set) {
-        retVal[idx++] = f;
-      }
-      return retVal;
-    }
-    return null;
+    final int idx = Arrays.binarySearch(ids, id);
+    return (idx >= 0) ? functions[idx].clone() : null;
   }
 
   /**
@@ -87,12 +121,13 @@ public Function getFunction(String name) {
    * @return A function object on match, {@code null} otherwise.
    */
   public Function getFunction(String name, boolean exact) {
-    Function retVal = null;
-    if (name != null) {
-      retVal = functionsByName.get(name.toLowerCase(Locale.ENGLISH));
-      if (exact && retVal != null && !retVal.getName().equals(name)) {
-        retVal = null;
-      }
+    final int idx = functionsByName.get(name, -1);
+    if (idx < 0) {
+      return null;
+    }
+    final Function retVal = namedFunctions[idx];
+    if (exact && !retVal.getName().equals(name)) {
+      return null;
     }
     return retVal;
   }
@@ -123,61 +158,71 @@ public static Signatures getActions() {
    * @return a {@code Signatures} instance. Returns {@code null} on error.
    */
   public static Signatures get(String resource, boolean isTrigger) {
-    Signatures retVal;
-
     resource = normalizedName(resource);
-    retVal = INSTANCES.get(resource);
+    Signatures retVal = INSTANCES.get(resource);
     if (retVal == null) {
-      ResourceEntry entry = ResourceFactory.getResourceEntry(resource);
-      if (entry == null) {
-        return retVal;
+      // loading is serialized to prevent concurrent callers from parsing the same resource
+      synchronized (INSTANCES) {
+        retVal = INSTANCES.get(resource);
+        if (retVal == null) {
+          retVal = load(resource, isTrigger);
+        }
       }
+    }
+    return retVal;
+  }
 
-      // processing function signatures from IDS files
-      try {
-        ByteBuffer buffer = entry.getResourceBuffer();
-        String data = StreamUtils.readString(buffer, buffer.limit());
-        String[] lines = data.split("\\r?\\n");
+  // Parses function signatures from the specified IDS resource and adds them to the cache
+  private static Signatures load(String resource, boolean isTrigger) {
+    ResourceEntry entry = ResourceFactory.getResourceEntry(resource);
+    if (entry == null) {
+      return null;
+    }
 
-        retVal = new Signatures(resource);
-        for (String line : lines) {
-          Function f = Function.parse(line, isTrigger);
-          if (f != null) {
-            HashSet<Function> set = retVal.functions.get(f.getId());
-            if (set == null) {
-              set = new HashSet<>(8);
-            }
-            set.add(f);
-            retVal.functions.put(f.getId(), set);
-            retVal.functionsByName.put(f.getName().toLowerCase(Locale.ENGLISH), f);
-          }
-        }
-      } catch (Exception e) {
-        return retVal;
-      }
+    final TreeMap<Integer, HashSet<Function>> functionMap = new TreeMap<>();
+    final HashMap<String, Function> nameMap = new HashMap<>(600);
+
+    // processing function signatures from IDS files
+    String[] lines;
+    try {
+      ByteBuffer buffer = entry.getResourceBuffer();
+      String data = StreamUtils.readString(buffer, buffer.limit());
+      lines = data.split("\\r?\\n");
+    } catch (Exception e) {
+      return null;
+    }
 
-      // additional hardcoded function signatures that may not be found in IDS files
-      ScriptInfo info = ScriptInfo.getInfo();
-      List<String> hardcoded = info
-          .getFunctionDefinitions(isTrigger ? Function.FunctionType.TRIGGER : Function.FunctionType.ACTION);
-      for (final String line : hardcoded) {
-        Function f = Function.parse(line, isTrigger);
-        if (f != null) {
-          HashSet<Function> set = retVal.functions.get(f.getId());
-          if (set == null) {
-            set = new HashSet<>(8);
-          }
-          set.add(f);
-          retVal.functions.put(f.getId(), set);
-          retVal.functionsByName.put(f.getName().toLowerCase(Locale.ENGLISH), f);
-        }
+    try {
+      for (String line : lines) {
+        addFunction(Function.parse(line, isTrigger), functionMap, nameMap);
       }
+    } catch (Exception e) {
+      // incomplete signatures are not cached
+      return new Signatures(resource, functionMap, nameMap);
+    }
 
-      INSTANCES.put(resource, retVal);
+    // additional hardcoded function signatures that may not be found in IDS files
+    ScriptInfo info = ScriptInfo.getInfo();
+    List<String> hardcoded = info
+        .getFunctionDefinitions(isTrigger ? Function.FunctionType.TRIGGER : Function.FunctionType.ACTION);
+    for (final String line : hardcoded) {
+      addFunction(Function.parse(line, isTrigger), functionMap, nameMap);
     }
+
+    final Signatures retVal = new Signatures(resource, functionMap, nameMap);
+    INSTANCES.put(resource, retVal);
     return retVal;
   }
 
+  // Adds the specified function to the intermediate function maps
+  private static void addFunction(Function f, TreeMap<Integer, HashSet<Function>> functionMap,
+      Map<String, Function> nameMap) {
+    if (f != null) {
+      functionMap.computeIfAbsent(f.getId(), k -> new HashSet<>(8)).add(f);
+      nameMap.put(f.getName().toLowerCase(Locale.ENGLISH), f);
+    }
+  }
+
   // Makes sure IDS resource is lowercased and contains a file extension
   private static String normalizedName(String resource) {
     if (resource == null) {
@@ -968,10 +968,14 @@ private void updateImage() {
               String resName = getResource().getBackgroundImage();
               MosDecoder mos = MosDecoder.loadMos(ResourceFactory.getResourceEntry(resName));
               if (mos != null) {
-                if (mos instanceof MosV1Decoder) {
-                  ((MosV1Decoder) mos).setTransparencyEnabled(true);
+                try {
+                  if (mos instanceof MosV1Decoder) {
+                    ((MosV1Decoder) mos).setTransparencyEnabled(true);
+                  }
+                  bg = (BufferedImage) mos.getImage();
+                } finally {
+                  mos.close();
                 }
-                bg = (BufferedImage) mos.getImage();
               }
             }
             if (bg != null) {
@@ -1554,10 +1558,14 @@ public void updateImage() {
                 .getResourceName();
             MosDecoder mos = MosDecoder.loadMos(ResourceFactory.getResourceEntry(resName));
             if (mos != null) {
-              if (mos instanceof MosV1Decoder) {
-                ((MosV1Decoder) mos).setTransparencyEnabled(true);
+              try {
+                if (mos instanceof MosV1Decoder) {
+                  ((MosV1Decoder) mos).setTransparencyEnabled(true);
+                }
+                mos.getImage(image);
+              } finally {
+                mos.close();
               }
-              mos.getImage(image);
             }
 
             // 2.2. drawing control elements
@@ -1669,10 +1677,14 @@ public void updateImage() {
             if (!isResourceIgnored(resName)) {
               MosDecoder mos = MosDecoder.loadMos(ResourceFactory.getResourceEntry(resName));
               if (mos != null) {
-                if (mos instanceof MosV1Decoder) {
-                  ((MosV1Decoder) mos).setTransparencyEnabled(true);
+                try {
+                  if (mos instanceof MosV1Decoder) {
+                    ((MosV1Decoder) mos).setTransparencyEnabled(true);
+                  }
+                  mos.getImage(image);
+                } finally {
+                  mos.close();
                 }
-                mos.getImage(image);
               }
             }
 
@@ -12,11 +12,7 @@
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 
 import javax.swing.JButton;
@@ -428,6 +424,9 @@ public final class CreResource extends AbstractStruct
   public static final int TAB_INDEX_ANIMATION = 1;
   public static final int TAB_INDEX_RAW       = 2;
 
+  /** Number of header bytes needed to determine the script name of any supported CRE or CHR resource. */
+  private static final int SCRIPT_NAME_HEADER_SIZE = 0x224 + 916 + 32;
+
   private static final TreeMap<Long, String> MAGE_TYPE_MAP = new TreeMap<>();
 
   private static final TreeMap<Long, String> COLOR_PLACEMENT_MAP = new TreeMap<>();
@@ -537,11 +536,22 @@ public final class CreResource extends AbstractStruct
   private StructHexViewer hexViewer;
   private Boolean hasRawTab;
 
-  public static void addScriptName(Map<String, Set<ResourceEntry>> scriptNames, ResourceEntry entry) {
-    try {
-      ByteBuffer buffer = entry.getResourceBuffer();
+  /**
+   * Reads the script name of the specified CRE or CHR resource. Only the resource header is read from disk.
+   *
+   * @param entry The CRE or CHR {@link ResourceEntry}.
+   * @return The script name as defined in the resource. Returns an empty string if the resource does not define a
+   *         script name or could not be read.
+   */
+  public static String readScriptName(ResourceEntry entry) {
+    String scriptName = "";
+    if (entry == null) {
+      return scriptName;
+    }
+
+    try (final InputStream is = entry.getResourceDataAsStream()) {
+      final ByteBuffer buffer = StreamUtils.readBytes(is, SCRIPT_NAME_HEADER_SIZE);
       String signature = StreamUtils.readString(buffer, 0, 4);
-      String scriptName = "";
       int offset = 0;
 
       // CHR header is ignored
@@ -566,29 +576,11 @@ public static void addScriptName(Map<String, Set<ResourceEntry>> scriptNames, Re
         } else if (version.equalsIgnoreCase("V9.0") || version.equalsIgnoreCase("V9.1")) {
           scriptName = StreamUtils.readString(buffer, offset + 744, 32, Profile.getDefaultCharset());
         }
-        if (scriptName.isEmpty() || scriptName.equalsIgnoreCase("None")) {
-          return;
-          // Apparently script name is the only thing that matters
-          // scriptName = entry.toString().substring(0, entry.toString().length() - 4);
-        } else {
-          scriptName = scriptName.toLowerCase(Locale.ENGLISH).replace(" ", "");
-          if (scriptNames.containsKey(scriptName)) {
-            synchronized (scriptNames) {
-              Set<ResourceEntry> entries = scriptNames.get(scriptName);
-              entries.add(entry);
-            }
-          } else {
-            Set<ResourceEntry> entries = new HashSet<>();
-            entries.add(entry);
-            synchronized (scriptNames) {
-              scriptNames.put(scriptName, entries);
-            }
-          }
-        }
       }
     } catch (Exception e) {
       Logger.trace(e);
     }
+    return scriptName;
   }
 
   private static void adjustEntryOffsets(AbstractStruct struct, int amount) {
@@ -45,7 +45,6 @@
 import org.infinity.resource.cre.decoder.SpriteDecoder;
 import org.infinity.resource.cre.decoder.SpriteDecoder.SpriteBamControl;
 import org.infinity.resource.cre.decoder.util.Sequence;
-import org.infinity.resource.cre.decoder.util.SpriteUtils;
 import org.infinity.resource.graphics.ColorConvert;
 import org.infinity.util.Logger;
 
@@ -266,7 +265,6 @@ public void close() {
     if (getDecoder() != null) {
       getDecoder().close();
     }
-    SpriteUtils.clearCache();
     this.bamControl = null;
     this.decoder = null;
   }
@@ -26,7 +26,6 @@
 import org.infinity.icon.Icons;
 import org.infinity.resource.cre.CreResource;
 import org.infinity.resource.cre.decoder.SpriteDecoder;
-import org.infinity.resource.cre.decoder.util.SpriteUtils;
 import org.infinity.util.Logger;
 
 /**
@@ -176,7 +175,11 @@ private void init() {
   }
 
   private void cleanup() {
-    SpriteUtils.clearCache();
+    // cached resources are shared with other animation viewers and evicted when no longer used
+    final SpriteDecoder decoder = (panelCreature != null) ? getDecoder() : null;
+    if (decoder != null) {
+      decoder.close();
+    }
   }
 
   /** Background task: Loads the selected creature and initializes the browser. */
@@ -51,6 +51,7 @@
 import org.infinity.resource.cre.decoder.util.Sequence;
 import org.infinity.resource.cre.decoder.util.SpriteUtils;
 import org.infinity.resource.graphics.BamDecoder;
+import org.infinity.resource.graphics.BamV1Decoder;
 import org.infinity.resource.graphics.BamV1Decoder.BamV1Control;
 import org.infinity.resource.graphics.BlendingComposite;
 import org.infinity.resource.graphics.ColorConvert;
@@ -162,6 +163,8 @@ public abstract class SpriteDecoder extends PseudoBamDecoder {
   private final EnumMap<Direction, Integer> directionMap;
   /** Cache for creature animation attributes. */
   private final TreeMap<DecoderAttribute, Object> attributesMap;
+  /** BAM controllers of the source BAM resources used by this animation. */
+  private final HashMap<ResourceEntry, BamV1Control> bamControlMap;
 
   private BufferedImage imageCircle;
   private Sequence currentSequence;
@@ -230,6 +233,7 @@ protected SpriteDecoder(AnimationInfo.Type type, int animationId, IniMap ini) th
     Objects.requireNonNull(ini, "No INI data available for animation id: " + animationId);
     this.attributesMap = new TreeMap<>();
     this.directionMap = new EnumMap<>(Direction.class);
+    this.bamControlMap = new HashMap<>();
     setAttribute(KEY_ANIMATION_TYPE, type);
     setAttribute(KEY_ANIMATION_SECTION, type.getSectionName());
     this.creInfo = new CreatureInfo(this, SpriteUtils.getPseudoCre(animationId, null, null));
@@ -252,6 +256,7 @@ protected SpriteDecoder(AnimationInfo.Type type, CreResource cre) throws Excepti
     Objects.requireNonNull(type, "Animation type cannot be null");
     this.attributesMap = new TreeMap<>();
     this.directionMap = new EnumMap<>(Direction.class);
+    this.bamControlMap = new HashMap<>();
     setAttribute(KEY_ANIMATION_TYPE, type);
     setAttribute(KEY_ANIMATION_SECTION, type.getSectionName());
     this.creInfo = new CreatureInfo(this, cre);
@@ -351,11 +356,47 @@ public void reset() throws Exception {
     }
   }
 
+  @Override
+  public void close() {
+    super.close();
+    directionMap.clear();
+    releaseBamControllers();
+  }
+
   /** Removes the currently loaded animation sequence. */
   protected void discard() {
     frameClear();
     directionMap.clear();
-    SpriteUtils.clearBamCache();
+    releaseBamControllers();
+  }
+
+  /**
+   * Returns the BAM controller for the specified source BAM resource. The same controller is returned for a resource
+   * until {@link #releaseBamControllers()} is called, which allows to modify its palette once for the whole animation.
+   *
+   * @param entry the BAM resource entry.
+   * @return the {@code BamV1Control} instance of the BAM resource. Returns {@code null} if the controller could not be
+   *         retrieved.
+   */
+  protected BamV1Control getBamController(ResourceEntry entry) {
+    BamV1Control retVal = bamControlMap.get(entry);
+    if (retVal == null) {
+      BamV1Decoder decoder = SpriteUtils.acquireBamDecoder(entry, this);
+      if (decoder != null) {
+        retVal = decoder.createControl();
+        bamControlMap.put(entry, retVal);
+      }
+    }
+    return retVal;
+  }
+
+  /**
+   * Discards all BAM controllers of this animation. Source BAM resources are released to the shared BAM cache.
+   * Controllers which are still referenced by frames of the current animation remain functional.
+   */
+  protected void releaseBamControllers() {
+    bamControlMap.clear();
+    SpriteUtils.releaseBamDecoders(this);
   }
 
   /**
@@ -577,7 +618,7 @@ public void setTranslucencyEnabled(boolean b) {
     if (translucencyEnabled != b) {
       translucencyEnabled = b;
       if (isTranslucent()) {
-        SpriteUtils.clearBamCache();
+        releaseBamControllers();
         spriteChanged();
       }
     }
@@ -592,7 +633,7 @@ public boolean isTintEnabled() {
   public void setTintEnabled(boolean b) {
     if (tintEnabled != b) {
       tintEnabled = b;
-      SpriteUtils.clearBamCache();
+      releaseBamControllers();
       spriteChanged();
     }
   }
@@ -606,7 +647,7 @@ public boolean isBlurEnabled() {
   public void setBlurEnabled(boolean b) {
     if (blurEnabled != b) {
       blurEnabled = b;
-      SpriteUtils.clearBamCache();
+      releaseBamControllers();
       spriteChanged();
     }
   }
@@ -620,7 +661,7 @@ public boolean isPaletteReplacementEnabled() {
   public void setPaletteReplacementEnabled(boolean b) {
     if (paletteReplacementEnabled != b) {
       paletteReplacementEnabled = b;
-      SpriteUtils.clearBamCache();
+      releaseBamControllers();
       spriteChanged();
     }
   }
@@ -1154,7 +1195,7 @@ protected void createAnimation(SeqDef definition, List<Direction> directions, Be
             }
 
             entry = sd.getEntry();
-            srcCtrl = Objects.requireNonNull(SpriteUtils.loadBamController(entry));
+            srcCtrl = Objects.requireNonNull(getBamController(entry));
             srcCtrl.cycleSet(sd.getCycleIndex());
 
             if (sd.getCurrentFrame() >= 0) {
@@ -1187,7 +1228,8 @@ protected void createAnimation(SeqDef definition, List<Direction> directions, Be
   /**
    * Creates a single creature animation frame from the given array of source frame segments and adds it to the BAM
    * frame list. Each source frame segment can be processed by the specified lambda function before it is drawn onto to
-   * the target frame.
+   * the target frame. Frame dimensions and center are available right away, but frame pixels are composed when the
+   * frame is accessed the first time.
    *
    * @param sourceFrames   array of source frame segments to compose.
    * @param beforeSrcFrame optional function that is executed before a source frame segment is drawn onto the target
@@ -1214,74 +1256,16 @@ protected int createFrame(FrameInfo[] sourceFrames, BeforeSourceFrame beforeSrcF
     rect = SpriteUtils.updateFrameDimension(rect,
         new Dimension(2 * (dim.width + (int) circleStrokeSize), 2 * (dim.height + (int) circleStrokeSize)));
 
-    // creating target image
-    BufferedImage image;
-    if (rect.width > 0 && rect.height > 0) {
-      image = ColorConvert.createCompatibleImage(rect.width, rect.height, Transparency.TRANSLUCENT);
-      Graphics2D g = image.createGraphics();
-      try {
-        g.setComposite(AlphaComposite.SrcOver);
-        g.setColor(ColorConvert.TRANSPARENT_COLOR);
-        g.fillRect(0, 0, image.getWidth(), image.getHeight());
-
-        // drawing source frames to target image
-        for (final FrameInfo fi : sourceFrames) {
-          BamV1Control ctrl = fi.getController();
-          ctrl.cycleSet(fi.getCycle());
-          int frameIdx = fi.getFrame();
-          ctrl.cycleSetFrameIndex(frameIdx);
-          BufferedImage srcImage = (BufferedImage) ctrl.cycleGetFrame();
-          if (beforeSrcFrame != null) {
-            srcImage = beforeSrcFrame.apply(fi.getSegmentDefinition(), srcImage, g);
-          }
-          FrameEntry entry = ctrl.getDecoder().getFrameInfo(ctrl.cycleGetFrameIndexAbsolute());
-          int x = -rect.x - entry.getCenterX() + fi.getCenterShift().x;
-          int y = -rect.y - entry.getCenterY() + fi.getCenterShift().y;
-
-          if (isBoundingBoxVisible() && entry.getWidth() > 2 && entry.getHeight() > 2) {
-            // drawing bounding box around sprite elements
-            Stroke oldStroke = g.getStroke();
-            Color oldColor = g.getColor();
-            Object oldHints = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
-            try {
-              g.setStroke(FrameInfo.STROKE_BOUNDING_BOX);
-              g.setColor(FrameInfo.SPRITE_COLOR.getOrDefault(fi.getSegmentDefinition().getSpriteType(),
-                  FrameInfo.SPRITE_COLOR_DEFAULT));
-              g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
-              g.drawRect(x, y, entry.getWidth() - 1, entry.getHeight() - 1);
-            } finally {
-              g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                  (oldHints != null) ? oldHints : RenderingHints.VALUE_ANTIALIAS_DEFAULT);
-              if (oldColor != null) {
-                g.setColor(oldColor);
-              }
-              if (oldStroke != null) {
-                g.setStroke(oldStroke);
-              }
-            }
-          }
-
-          g.drawImage(srcImage, x, y, entry.getWidth(), entry.getHeight(), null);
-
-          if (afterSrcFrame != null) {
-            afterSrcFrame.accept(fi.getSegmentDefinition(), g);
-          }
-          ctrl = null;
-        }
-      } finally {
-        g.dispose();
-        g = null;
-      }
-    } else {
-      // dummy graphics
-      image = ColorConvert.createCompatibleImage(1, 1, Transparency.TRANSLUCENT);
+    // default frame operations don't modify the output, which allows to share composed frames between decoders
+    if (beforeSrcFrame == FN_BEFORE_SRC_FRAME) {
+      beforeSrcFrame = null;
+    }
+    if (afterSrcFrame == FN_AFTER_SRC_FRAME) {
+      afterSrcFrame = null;
     }
 
-    // setting center point
-    int cx = -rect.x;
-    int cy = -rect.y;
-
-    return frameAdd(image, new Point(cx, cy));
+    // frame is composed on first access
+    return frameAdd(new SpriteFrameEntry(rect, sourceFrames, isBoundingBoxVisible(), beforeSrcFrame, afterSrcFrame));
   }
 
   /**
@@ -1702,15 +1686,20 @@ protected void applyColorTint(BamV1Control control, SegmentDef sd) {
    */
   protected void flipImageHorizontal(int frameIndex) {
     PseudoBamFrameEntry frame = getFrameInfo(frameIndex);
-    // flipping image horizontally
-    BufferedImage image = frame.getFrame();
+    // frames that have not been composed yet are flipped on demand
+    if (!(frame instanceof SpriteFrameEntry) || !((SpriteFrameEntry) frame).flipHorizontal()) {
+      // updating frame data
+      frame.setFrame(flipImageHorizontal(frame.getFrame()));
+    }
+    frame.setCenterX(frame.getWidth() - frame.getCenterX() - 1);
+  }
+
+  /** Returns a horizontally mirrored copy of the specified image. */
+  private static BufferedImage flipImageHorizontal(BufferedImage image) {
     AffineTransform at = AffineTransform.getScaleInstance(-1, 1);
     at.translate(-image.getWidth(), 0);
     AffineTransformOp op = new AffineTransformOp(at, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-    image = op.filter(image, null);
-    // updating frame data
-    frame.setFrame(image);
-    frame.setCenterX(frame.getWidth() - frame.getCenterX() - 1);
+    return op.filter(image, null);
   }
 
   /**
@@ -1802,6 +1791,220 @@ public boolean equals(Object obj) {
 
   // -------------------------- INNER CLASSES --------------------------
 
+  /**
+   * A frame entry that composes the creature animation frame from its source frame segments when the image is accessed
+   * the first time. Frames without custom frame operations are stored in a LRU cache that is shared by all sprite
+   * decoders, which allows decoders with the same animation and colors to reuse composed frames.
+   */
+  private static class SpriteFrameEntry extends PseudoBamFrameEntry {
+    private final Rectangle rect;
+    private final FrameInfo[] sourceFrames;
+    private final int[] cycles;
+    private final int[] frames;
+    private final long[] paletteHashes;
+    private final boolean boundingBox;
+    private final BeforeSourceFrame beforeSrcFrame;
+    private final AfterSourceFrame afterSrcFrame;
+
+    private boolean mirrored;
+    private List<Object> cacheKey;
+    /** Contains explicitly assigned or non-shareable frame images. */
+    private BufferedImage image;
+
+    public SpriteFrameEntry(Rectangle rect, FrameInfo[] sourceFrames, boolean boundingBox,
+        BeforeSourceFrame beforeSrcFrame, AfterSourceFrame afterSrcFrame) {
+      super(null, -rect.x, -rect.y);
+      this.rect = new Rectangle(rect);
+      this.sourceFrames = sourceFrames.clone();
+      this.boundingBox = boundingBox;
+      this.beforeSrcFrame = beforeSrcFrame;
+      this.afterSrcFrame = afterSrcFrame;
+
+      // segment definitions advance with each frame: source frame indices must be preserved
+      this.cycles = new int[sourceFrames.length];
+      this.frames = new int[sourceFrames.length];
+      this.paletteHashes = new long[sourceFrames.length];
+      for (int i = 0; i < sourceFrames.length; i++) {
+        final BamV1Control ctrl = sourceFrames[i].getController();
+        this.cycles[i] = sourceFrames[i].getCycle();
+        this.frames[i] = sourceFrames[i].getFrame();
+        this.paletteHashes[i] = getPaletteHash(ctrl.getCurrentPalette(), ctrl.isTransparencyEnabled());
+      }
+    }
+
+    @Override
+    public int getWidth() {
+      if (image == null && rect.width > 0 && rect.height > 0) {
+        return rect.width;
+      }
+      return super.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+      if (image == null && rect.width > 0 && rect.height > 0) {
+        return rect.height;
+      }
+      return super.getHeight();
+    }
+
+    @Override
+    public BufferedImage getFrame() {
+      if (image != null) {
+        return image;
+      }
+
+      if (isShareable()) {
+        final List<Object> key = getCacheKey();
+        BufferedImage retVal = SpriteUtils.getCachedFrame(key);
+        if (retVal == null) {
+          retVal = compose();
+          SpriteUtils.putCachedFrame(key, retVal);
+        }
+        return retVal;
+      } else {
+        setFrame(compose());
+        return image;
+      }
+    }
+
+    @Override
+    public void setFrame(BufferedImage image) {
+      super.setFrame(image);
+      // called by the super constructor before this instance is fully initialized
+      if (sourceFrames != null) {
+        this.image = super.getFrame();
+      }
+    }
+
+    /**
+     * Marks the frame to be mirrored horizontally when it is composed. Does nothing if the frame image is already
+     * available.
+     *
+     * @return {@code true} if mirroring has been deferred, {@code false} if the frame image must be flipped directly.
+     */
+    public boolean flipHorizontal() {
+      if (image == null) {
+        mirrored = !mirrored;
+        cacheKey = null;
+        return true;
+      }
+      return false;
+    }
+
+    /** Returns whether the composed frame can be shared with other sprite decoders. */
+    private boolean isShareable() {
+      return beforeSrcFrame == null && afterSrcFrame == null;
+    }
+
+    /** Returns a key that uniquely identifies the composition of this frame. */
+    private List<Object> getCacheKey() {
+      if (cacheKey == null) {
+        final List<Object> key = new ArrayList<>(3 + sourceFrames.length * 6);
+        key.add(rect);
+        key.add(mirrored);
+        key.add(boundingBox);
+        for (int i = 0; i < sourceFrames.length; i++) {
+          final SegmentDef sd = sourceFrames[i].getSegmentDefinition();
+          key.add(sd.getEntry());
+          key.add(sd.getSpriteType());
+          key.add(cycles[i]);
+          key.add(frames[i]);
+          key.add(sourceFrames[i].getCenterShift());
+          key.add(paletteHashes[i]);
+        }
+        cacheKey = key;
+      }
+      return cacheKey;
+    }
+
+    /** Draws all source frame segments onto a new image. */
+    private BufferedImage compose() {
+      if (rect.width <= 0 || rect.height <= 0) {
+        // dummy graphics
+        return ColorConvert.createCompatibleImage(1, 1, Transparency.TRANSLUCENT);
+      }
+
+      BufferedImage retVal = ColorConvert.createCompatibleImage(rect.width, rect.height, Transparency.TRANSLUCENT);
+      Graphics2D g = retVal.createGraphics();
+      try {
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setColor(ColorConvert.TRANSPARENT_COLOR);
+        g.fillRect(0, 0, retVal.getWidth(), retVal.getHeight());
+
+        // drawing source frames to target image
+        for (int i = 0; i < sourceFrames.length; i++) {
+          final FrameInfo fi = sourceFrames[i];
+          final BamV1Control ctrl = fi.getController();
+          BufferedImage srcImage;
+          FrameEntry entry;
+          // source BAM controllers may be shared by frames composed concurrently
+          synchronized (ctrl) {
+            ctrl.cycleSet(cycles[i]);
+            ctrl.cycleSetFrameIndex(frames[i]);
+            srcImage = (BufferedImage) ctrl.cycleGetFrame();
+            entry = ctrl.getDecoder().getFrameInfo(ctrl.cycleGetFrameIndexAbsolute());
+          }
+          if (beforeSrcFrame != null) {
+            srcImage = beforeSrcFrame.apply(fi.getSegmentDefinition(), srcImage, g);
+          }
+          int x = -rect.x - entry.getCenterX() + fi.getCenterShift().x;
+          int y = -rect.y - entry.getCenterY() + fi.getCenterShift().y;
+
+          if (boundingBox && entry.getWidth() > 2 && entry.getHeight() > 2) {
+            // drawing bounding box around sprite elements
+            Stroke oldStroke = g.getStroke();
+            Color oldColor = g.getColor();
+            Object oldHints = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+            try {
+              g.setStroke(FrameInfo.STROKE_BOUNDING_BOX);
+              g.setColor(FrameInfo.SPRITE_COLOR.getOrDefault(fi.getSegmentDefinition().getSpriteType(),
+                  FrameInfo.SPRITE_COLOR_DEFAULT));
+              g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+              g.drawRect(x, y, entry.getWidth() - 1, entry.getHeight() - 1);
+            } finally {
+              g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                  (oldHints != null) ? oldHints : RenderingHints.VALUE_ANTIALIAS_DEFAULT);
+              if (oldColor != null) {
+                g.setColor(oldColor);
+              }
+              if (oldStroke != null) {
+                g.setStroke(oldStroke);
+              }
+            }
+          }
+
+          g.drawImage(srcImage, x, y, entry.getWidth(), entry.getHeight(), null);
+
+          if (afterSrcFrame != null) {
+            afterSrcFrame.accept(fi.getSegmentDefinition(), g);
+          }
+        }
+      } finally {
+        g.dispose();
+        g = null;
+      }
+
+      if (mirrored) {
+        retVal = flipImageHorizontal(retVal);
+      }
+
+      return retVal;
+    }
+
+    /** Calculates a 64-bit hash value of the given palette. */
+    private static long getPaletteHash(int[] palette, boolean transparencyEnabled) {
+      long retVal = transparencyEnabled ? 0xcbf29ce484222325L : ~0xcbf29ce484222325L;
+      if (palette != null) {
+        for (final int color : palette) {
+          retVal = (retVal ^ (color & 0xffffffffL)) * 0x100000001b3L;
+        }
+        retVal = retVal * 31L + palette.length;
+      }
+      return retVal;
+    }
+  }
+
   /**
    * Specialized controller for creature animations.
    */
@@ -9,17 +9,24 @@
 import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinity.resource.Profile;
 import org.infinity.resource.ResourceFactory;
@@ -72,14 +79,22 @@
  * Collection of helpful methods for Sprite rendering.
  */
 public class SpriteUtils {
-  /** Cache for source BAM resources (decoder and attached controller). */
-  private static final HashMap<ResourceEntry, Couple<BamV1Decoder, BamV1Decoder.BamV1Control>> BAM_CACHE = new HashMap<>();
+  /** Max. amount of BAM data (in bytes) that is kept in the cache for BAM resources which are not in use. */
+  private static final long BAM_CACHE_BUDGET = 32L * 1024L * 1024L;
+  /** Cache for source BAM resources, shared by all sprite decoders. */
+  private static final ConcurrentHashMap<ResourceEntry, CachedBam> BAM_CACHE = new ConcurrentHashMap<>();
+  /** Provides a global access order for cached BAM resources. */
+  private static final AtomicLong BAM_CACHE_CLOCK = new AtomicLong();
   /** Cache for replacement palettes. */
-  private static final HashMap<ResourceEntry, int[]> PALETTE_CACHE = new HashMap<>();
+  private static final ConcurrentHashMap<ResourceEntry, int[]> PALETTE_CACHE = new ConcurrentHashMap<>();
+  /** Max. amount of memory (in bytes) used by the cache for composed animation frames. */
+  private static final long FRAME_CACHE_BUDGET = 64L * 1024L * 1024L;
+  /** LRU cache for composed animation frames, shared by all sprite decoders. */
+  private static final LinkedHashMap<Object, BufferedImage> FRAME_CACHE = new LinkedHashMap<>(256, 0.75f, true);
   /** Cache for color gradients. */
-  private static final HashMap<Integer, int[]> COLOR_GRADIENTS = new HashMap<>(350);
+  private static final ConcurrentHashMap<Integer, int[]> COLOR_GRADIENTS = new ConcurrentHashMap<>(350);
   /** Cache for randomized color gradients. */
-  private static final HashMap<Integer, int[]> RANDOM_GRADIENT_INDICES = new HashMap<>();
+  private static final ConcurrentHashMap<Integer, int[]> RANDOM_GRADIENT_INDICES = new ConcurrentHashMap<>();
   /** A random number generator for general use */
   private static final Random RANDOM = new Random();
 
@@ -90,6 +105,9 @@ public class SpriteUtils {
   /** A stable pool of random numbers. */
   private static int[] randomPool;
 
+  /** Current amount of memory (in bytes) used by the cached animation frames. */
+  private static long frameCacheSize;
+
   static {
     TYPE_ASSOCIATION_MAP.put(AnimationInfo.Type.EFFECT, EffectDecoder.class);
     TYPE_ASSOCIATION_MAP.put(AnimationInfo.Type.MONSTER_QUADRANT, MonsterQuadrantDecoder.class);
@@ -116,13 +134,81 @@ public class SpriteUtils {
   public static void clearCache() {
     clearBamCache();
     clearColorCache();
+    clearFrameCache();
   }
 
-  /** Clears BAM cache only. */
+  /**
+   * Clears BAM cache only. BAM resources which are still in use remain available to their owners but are no longer
+   * shared.
+   */
   public static void clearBamCache() {
     BAM_CACHE.clear();
   }
 
+  /** Clears the cache for composed animation frames. */
+  public static void clearFrameCache() {
+    synchronized (FRAME_CACHE) {
+      FRAME_CACHE.clear();
+      frameCacheSize = 0L;
+    }
+  }
+
+  /**
+   * Returns the composed animation frame associated with the specified key from the shared frame cache.
+   *
+   * @param key Key that uniquely identifies the composition of the animation frame.
+   * @return the cached image if available, {@code null} otherwise.
+   */
+  public static BufferedImage getCachedFrame(Object key) {
+    if (key != null) {
+      synchronized (FRAME_CACHE) {
+        return FRAME_CACHE.get(key);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds a composed animation frame to the shared frame cache. Least recently used frames are removed from the cache if
+   * the memory budget of the cache is exceeded.
+   *
+   * @param key   Key that uniquely identifies the composition of the animation frame.
+   * @param image the composed image.
+   */
+  public static void putCachedFrame(Object key, BufferedImage image) {
+    if (key == null || image == null) {
+      return;
+    }
+
+    final long size = getImageSize(image);
+    if (size > FRAME_CACHE_BUDGET / 4L) {
+      // don't let a single frame flush the whole cache
+      return;
+    }
+
+    synchronized (FRAME_CACHE) {
+      final BufferedImage oldImage = FRAME_CACHE.put(key, image);
+      if (oldImage != null) {
+        frameCacheSize -= getImageSize(oldImage);
+      }
+      frameCacheSize += size;
+
+      final Iterator<BufferedImage> iter = FRAME_CACHE.values().iterator();
+      while (frameCacheSize > FRAME_CACHE_BUDGET && iter.hasNext()) {
+        final BufferedImage img = iter.next();
+        if (img != image) {
+          frameCacheSize -= getImageSize(img);
+          iter.remove();
+        }
+      }
+    }
+  }
+
+  /** Returns the approximate memory footprint of the specified image, in bytes. */
+  private static long getImageSize(BufferedImage image) {
+    return (long) image.getWidth() * image.getHeight() * 4L;
+  }
+
   /** Clears all palette-related caches. */
   public static void clearColorCache() {
     PALETTE_CACHE.clear();
@@ -420,7 +506,9 @@ public static BamV1Decoder loadBamDecoder(ResourceEntry entry) {
   }
 
   /**
-   * Loads the BAM controller instance for the specified BAM V1 resource. Retrieves the object from cache if available.
+   * Loads the BAM controller instance for the specified BAM V1 resource. The BAM decoder is retrieved from cache if
+   * available. A new controller is created for each call, which allows to modify the palette of the controller without
+   * affecting other callers.
    *
    * @param entry the BAM resource entry.
    * @return the {@code BamV1Control} instance created from the BAM resource. Returns {@code null} if the controller
@@ -432,26 +520,96 @@ public static BamV1Decoder.BamV1Control loadBamController(ResourceEntry entry) {
   }
 
   /**
-   * Loads the decoder instance and an associated controller for the specified BAM V1 resource. Retrieves the objects
-   * from cache if available.
+   * Loads the decoder instance and a new associated controller for the specified BAM V1 resource. The decoder is
+   * retrieved from cache if available.
    *
    * @param entry the BAM resource entry.
    * @return {@code BamV1Decoder} and {@code BamV1Control} instances created from the BAM resource. Returns {@code null}
    *         if the objects could not be retrieved.
    */
   public static Couple<BamV1Decoder, BamV1Decoder.BamV1Control> loadBamDecoderController(ResourceEntry entry) {
-    Couple<BamV1Decoder, BamV1Decoder.BamV1Control> retVal = BAM_CACHE.getOrDefault(entry, null);
-    if (retVal == null) {
+    BamV1Decoder decoder = acquireBamDecoder(entry, null);
+    return (decoder != null) ? Couple.with(decoder, decoder.createControl()) : null;
+  }
+
+  /**
+   * Returns the decoder for the specified BAM V1 resource and registers the given owner as a user of the resource.
+   * Cached BAM resources are not evicted as long as they are referenced by an owner. Owners are tracked by identity
+   * and by weak references, i.e. BAM resources are released automatically when all owners have been garbage
+   * collected.
+   *
+   * @param entry the BAM resource entry.
+   * @param owner the object that uses the BAM resource. Specify {@code null} to retrieve the decoder without
+   *                registering a reference.
+   * @return the {@code BamV1Decoder} instance of the BAM resource. Returns {@code null} if the decoder could not be
+   *         retrieved.
+   */
+  public static BamV1Decoder acquireBamDecoder(ResourceEntry entry, Object owner) {
+    if (entry == null) {
+      return null;
+    }
+
+    boolean added = false;
+    CachedBam cached = BAM_CACHE.get(entry);
+    if (cached == null) {
       try {
-        BamV1Decoder decoder = new BamV1Decoder(entry);
-        BamV1Decoder.BamV1Control control = decoder.createControl();
-        retVal = Couple.with(decoder, control);
-        BAM_CACHE.put(entry, retVal);
+        final BamV1Decoder decoder = new BamV1Decoder(entry);
+        decoder.setFrameCacheSize(BamV1Decoder.DEFAULT_FRAME_CACHE_SIZE);
+        final CachedBam newCached = new CachedBam(decoder);
+        cached = BAM_CACHE.putIfAbsent(entry, newCached);
+        if (cached == null) {
+          cached = newCached;
+          added = true;
+        }
       } catch (Exception e) {
         Logger.error(e);
+        return null;
+      }
+    }
+
+    cached.acquire(owner);
+    if (added) {
+      trimBamCache();
+    }
+    return cached.decoder;
+  }
+
+  /**
+   * Removes the given owner from all cached BAM resources. Resources without owners can be evicted from the cache.
+   *
+   * @param owner the object that has been registered by {@link #acquireBamDecoder(ResourceEntry, Object)}.
+   */
+  public static void releaseBamDecoders(Object owner) {
+    if (owner != null) {
+      for (final CachedBam cached : BAM_CACHE.values()) {
+        cached.release(owner);
+      }
+      trimBamCache();
+    }
+  }
+
+  /** Evicts least recently used BAM resources without owners until the cache fits into the memory budget. */
+  private static void trimBamCache() {
+    final List<Map.Entry<ResourceEntry, CachedBam>> unused = new ArrayList<>();
+    long size = 0L;
+    for (final Map.Entry<ResourceEntry, CachedBam> e : BAM_CACHE.entrySet()) {
+      if (!e.getValue().isReferenced()) {
+        unused.add(e);
+        size += e.getValue().getSize();
+      }
+    }
+
+    if (size > BAM_CACHE_BUDGET) {
+      unused.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+      for (final Iterator<Map.Entry<ResourceEntry, CachedBam>> iter = unused.iterator(); iter.hasNext()
+          && size > BAM_CACHE_BUDGET;) {
+        final Map.Entry<ResourceEntry, CachedBam> e = iter.next();
+        // resource may have been acquired in the meantime
+        if (!e.getValue().isReferenced() && BAM_CACHE.remove(e.getKey(), e.getValue())) {
+          size -= e.getValue().getSize();
+        }
       }
     }
-    return retVal;
   }
 
   /**
@@ -608,7 +766,7 @@ public static int[] loadReplacementPalette(String resref, int index) {
       return retVal;
     }
 
-    retVal = PALETTE_CACHE.getOrDefault(entry, null);
+    retVal = PALETTE_CACHE.get(entry);
     if (retVal == null) {
       try {
         retVal = ColorConvert.loadPaletteBMP(entry);
@@ -693,6 +851,20 @@ public static int[] interpolateColors(int[] palette, int srcOfs1, int srcOfs2, i
    * @return the gradient as array of colors. Returns {@code null} if color index does not exist.
    */
   public static int[] getColorGradient(int index, boolean allowRandom) {
+    if (COLOR_GRADIENTS.isEmpty()) {
+      initColorGradients();
+    }
+
+    int[] retVal = allowRandom ? getRandomColorGradient(index) : null;
+    if (retVal == null) {
+      retVal = COLOR_GRADIENTS.get(index);
+    }
+
+    return retVal;
+  }
+
+  /** Initializes the color gradient map. Does nothing if the map has already been initialized. */
+  private static synchronized void initColorGradients() {
     if (COLOR_GRADIENTS.isEmpty()) {
       // initializing color gradient map on demand
       ResourceEntry palFile = null;
@@ -716,16 +888,9 @@ public static int[] getColorGradient(int index, boolean allowRandom) {
         }
       } else {
         // dummy entry to skip continuous gradient initialization attempts if gradient bitmap isn't available
-        COLOR_GRADIENTS.put(Integer.MIN_VALUE, null);
+        COLOR_GRADIENTS.put(Integer.MIN_VALUE, new int[0]);
       }
     }
-
-    int[] retVal = allowRandom ? getRandomColorGradient(index) : null;
-    if (retVal == null) {
-      retVal = COLOR_GRADIENTS.getOrDefault(index, null);
-    }
-
-    return retVal;
   }
 
   /**
@@ -736,17 +901,39 @@ public static int[] getColorGradient(int index, boolean allowRandom) {
    *         gradient could be determined.
    */
   public static int[] getRandomColorGradient(int index) {
+    if (RANDOM_GRADIENT_INDICES.isEmpty()) {
+      initRandomColorGradients();
+    }
+
+    int failCounter = 100;
+    int[] retVal = null;
+    int[] indices = RANDOM_GRADIENT_INDICES.get(index);
+    while (retVal == null && indices != null && indices.length > 0 && failCounter-- > 0) {
+      int idx = indices[getRandomInt(index, false) % indices.length];
+      if (RANDOM_GRADIENT_INDICES.containsKey(idx)) {
+        // random color entries may refer to other random color entries
+        indices = RANDOM_GRADIENT_INDICES.get(index);
+      } else {
+        retVal = getColorGradient(idx, false);
+      }
+    }
+
+    return retVal;
+  }
+
+  /** Initializes the random color gradient map. Does nothing if the map has already been initialized. */
+  private static synchronized void initRandomColorGradients() {
     if (RANDOM_GRADIENT_INDICES.isEmpty()) {
       if (ResourceFactory.resourceExists("RANDCOLR.2DA")) {
         Table2da table = Table2daCache.get("RANDCOLR.2DA");
         if (table != null && table.getRowCount() > 1) {
           for (int col = 1, numCols = table.getColCount(); col < numCols; col++) {
             // random entry index
-            int randIdx = Misc.toNumber(table.get(0, col), -1);
+            int randIdx = table.getInt(0, col, -1);
             if (randIdx >= 0) {
               int[] indices = new int[table.getRowCount() - 1];
               for (int row = 1, numRows = table.getRowCount(); row < numRows; row++) {
-                indices[row - 1] = Misc.toNumber(table.get(row, col), 0);
+                indices[row - 1] = table.getInt(row, col, 0);
               }
               RANDOM_GRADIENT_INDICES.put(randIdx, indices);
             }
@@ -754,24 +941,9 @@ public static int[] getRandomColorGradient(int index) {
         }
       } else {
         // dummy entry to skip continuous random gradient initialization attempts if RANDCOLR.2DA isn't available
-        RANDOM_GRADIENT_INDICES.put(Integer.MIN_VALUE, null);
-      }
-    }
-
-    int failCounter = 100;
-    int[] retVal = null;
-    int[] indices = RANDOM_GRADIENT_INDICES.getOrDefault(index, null);
-    while (retVal == null && indices != null && indices.length > 0 && failCounter-- > 0) {
-      int idx = indices[getRandomInt(index, false) % indices.length];
-      if (RANDOM_GRADIENT_INDICES.containsKey(idx)) {
-        // random color entries may refer to other random color entries
-        indices = RANDOM_GRADIENT_INDICES.getOrDefault(index, null);
-      } else {
-        retVal = getColorGradient(idx, false);
+        RANDOM_GRADIENT_INDICES.put(Integer.MIN_VALUE, new int[0]);
       }
     }
-
-    return retVal;
   }
 
   /**
@@ -1574,4 +1746,74 @@ private static List<IniMap> guessIniMapsPst(int animationId) {
 
   private SpriteUtils() {
   }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** A cached BAM decoder with the set of objects that are currently using it. */
+  private static class CachedBam {
+    private final BamV1Decoder decoder;
+    private final long bufferSize;
+    // owners are compared by identity since their hash codes may depend on mutable state
+    private final List<WeakReference<Object>> owners = new ArrayList<>();
+
+    private volatile long lastAccess;
+
+    public CachedBam(BamV1Decoder decoder) {
+      this.decoder = decoder;
+      final ByteBuffer buffer = decoder.getResourceBuffer();
+      this.bufferSize = (buffer != null) ? buffer.limit() : 0L;
+      this.lastAccess = BAM_CACHE_CLOCK.incrementAndGet();
+    }
+
+    /** Returns the memory used by the BAM resource data and the decoded frames cached by the decoder. */
+    public long getSize() {
+      return bufferSize + decoder.getFrameCacheUsage();
+    }
+
+    /** Registers the specified owner and updates the access time. */
+    public void acquire(Object owner) {
+      lastAccess = BAM_CACHE_CLOCK.incrementAndGet();
+      if (owner != null) {
+        synchronized (owners) {
+          if (indexOf(owner) < 0) {
+            owners.add(new WeakReference<>(owner));
+          }
+        }
+      }
+    }
+
+    /** Removes the specified owner. */
+    public void release(Object owner) {
+      synchronized (owners) {
+        final int idx = indexOf(owner);
+        if (idx >= 0) {
+          owners.remove(idx);
+        }
+      }
+    }
+
+    /** Returns whether the BAM resource is used by any owners. */
+    public boolean isReferenced() {
+      synchronized (owners) {
+        purge();
+        return !owners.isEmpty();
+      }
+    }
+
+    // Returns the list index of the specified owner, or -1 if not registered. Cleared references are removed.
+    private int indexOf(Object owner) {
+      purge();
+      for (int i = 0, cnt = owners.size(); i < cnt; i++) {
+        if (owners.get(i).get() == owner) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    // Removes references of garbage collected owners
+    private void purge() {
+      owners.removeIf(ref -> ref.get() == null);
+    }
+  }
 }
@@ -5,11 +5,17 @@
 package org.infinity.resource.dlg;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 
 import javax.swing.JTree;
 import javax.swing.ProgressMonitor;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 
@@ -17,8 +23,18 @@
 
 //-------------------------- INNER CLASSES --------------------------
 
-/** Applies expand or collapse operations on a set of dialog tree nodes in a background task. */
+/**
+ * Applies expand or collapse operations on a set of dialog tree nodes in a background task.
+ * <p>
+ * The paths to expand or collapse are gathered in the background. They are applied to the tree in large batches on the
+ * event dispatch thread while tree expansion listeners are detached. The tree UI is rebuilt once when all batches have
+ * been applied.
+ * </p>
+ */
 public class TreeWorker extends SwingWorker<Void, Void> {
+  /** Max. number of paths to expand or collapse in a single batch on the event dispatch thread. */
+  private static final int BATCH_SIZE = 5000;
+
   /** Path that must be collapsed or expanded. */
   private final TreePath path;
 
@@ -31,6 +47,9 @@ public class TreeWorker extends SwingWorker<Void, Void> {
   /** Progress that shows if operation takes a long time (very deep tree). */
   private final ProgressMonitor progress;
 
+  /** Expansion listeners that are detached from the tree while batches are applied. */
+  private TreeExpansionListener[] listeners;
+
   public TreeWorker(JTree dlgTree, TreePath path, boolean expand) {
     this.dlgTree = dlgTree;
     this.path = path;
@@ -45,10 +64,9 @@ public TreeWorker(JTree dlgTree, TreePath path, boolean expand) {
   @Override
   protected Void doInBackground() throws Exception {
     try {
-      if (expand) {
-        expandNode(path);
-      } else {
-        collapseNode(path);
+      final List<TreePath> paths = expand ? getExpandPaths(path) : getCollapsePaths(path);
+      if (!progress.isCanceled()) {
+        applyPaths(paths);
       }
     } catch (Exception e) {
       Logger.error(e);
@@ -58,77 +76,129 @@ protected Void doInBackground() throws Exception {
 
   @Override
   protected void done() {
+    restoreTree();
     progress.close();
   }
 
-  /** Advances the progress bar by one unit. May display a short notice after a while. */
-  private void advanceProgress() {
-    final int current = progress.getMaximum();
-    progress.setMaximum(current + 1);
-    if (current % 100 == 0) {
-      progress.setNote(String.format("Processing node %d", current));
+  /** Updates the progress note while paths are gathered. */
+  private void advanceProgress(int count) {
+    if (count % 1000 == 0) {
+      progress.setNote(String.format("Processing node %d", count));
     }
-    progress.setProgress(current);
   }
 
-  /** Expands all children and their children of the given path. */
-  private void expandNode(final TreePath path) {
-    if (progress.isCanceled()) {
-      return;
+  /** Returns the given path and all paths of its children and their children that must be expanded, parents first. */
+  private List<TreePath> getExpandPaths(TreePath path) {
+    final List<TreePath> retVal = new ArrayList<>();
+    // Use access via model because it properly initializes items
+    final TreeModel model = dlgTree.getModel();
+    final Deque<TreePath> stack = new ArrayDeque<>();
+    stack.push(path);
+    while (!stack.isEmpty() && !progress.isCanceled()) {
+      final TreePath curPath = stack.pop();
+      final Object node = curPath.getLastPathComponent();
+      final boolean isRef = node instanceof ItemBase && ((ItemBase) node).getMain() != null;
+
+      // Do not try expand recursive structures
+      if (isRef || model.isLeaf(node)) {
+        continue;
+      }
+
+      retVal.add(curPath);
+      advanceProgress(retVal.size());
+      for (int i = model.getChildCount(node) - 1; i >= 0; --i) {
+        stack.push(curPath.pathByAddingChild(model.getChild(node, i)));
+      }
     }
+    return retVal;
+  }
 
-    final Object node = path.getLastPathComponent();
-    final boolean isRef = node instanceof ItemBase && ((ItemBase) node).getMain() != null;
+  /** Returns the given path and all paths of its children and their children that must be collapsed, children first. */
+  private List<TreePath> getCollapsePaths(TreePath path) {
+    final List<TreePath> retVal = new ArrayList<>();
+    // Use access via model because it properly initializes items
+    final TreeModel model = dlgTree.getModel();
+    final Deque<TreePath> stack = new ArrayDeque<>();
+    stack.push(path);
+    while (!stack.isEmpty() && !progress.isCanceled()) {
+      final TreePath curPath = stack.pop();
+      final Object node = curPath.getLastPathComponent();
+      final boolean isRef = node instanceof ItemBase && ((ItemBase) node).getMain() != null;
+
+      // Do not try collapse recursive structures
+      // This will collapse all main nodes (even under already collapsed nodes)
+      // and will not collapse non-main nodes under collapsed nodes (but still
+      // collapse non-main nodes under expanded nodes)
+      if (isRef && dlgTree.isCollapsed(curPath)) {
+        continue;
+      }
 
-    // Do not try expand recursive structures
-    if (isRef) {
-      return;
+      retVal.add(curPath);
+      advanceProgress(retVal.size());
+      for (int i = 0, count = model.getChildCount(node); i < count; ++i) {
+        stack.push(curPath.pathByAddingChild(model.getChild(node, i)));
+      }
     }
 
-    advanceProgress();
-    if (!dlgTree.isExpanded(path)) {
+    // children must be collapsed before their parents
+    Collections.reverse(retVal);
+    return retVal;
+  }
+
+  /** Expands or collapses the given paths in batches on the event dispatch thread. */
+  private void applyPaths(List<TreePath> paths) {
+    progress.setMaximum(paths.size());
+    progress.setNote(String.format("Updating %d nodes", paths.size()));
+    for (int start = 0, size = paths.size(); start < size && !progress.isCanceled(); start += BATCH_SIZE) {
+      final List<TreePath> batch = paths.subList(start, Math.min(size, start + BATCH_SIZE));
       try {
-        SwingUtilities.invokeAndWait(() -> dlgTree.expandPath(path));
+        SwingUtilities.invokeAndWait(() -> {
+          detachListeners();
+          for (final TreePath curPath : batch) {
+            if (expand) {
+              if (!dlgTree.isExpanded(curPath)) {
+                dlgTree.expandPath(curPath);
+              }
+            } else {
+              dlgTree.collapsePath(curPath);
+            }
+          }
+        });
       } catch (InterruptedException | InvocationTargetException e) {
         Logger.error(e);
+        break;
       }
-    }
-
-    // Use access via model because it properly initializes items
-    final TreeModel model = dlgTree.getModel();
-    for (int i = 0, count = model.getChildCount(node); i < count; ++i) {
-      expandNode(path.pathByAddingChild(model.getChild(node, i)));
+      progress.setProgress(start + batch.size());
     }
   }
 
-  /** Collapses all children and their children of the given path. */
-  private void collapseNode(final TreePath path) {
-    if (progress.isCanceled()) {
-      return;
-    }
-
-    final Object node = path.getLastPathComponent();
-    final boolean isRef = node instanceof ItemBase && ((ItemBase) node).getMain() != null;
-
-    // Do not try collapse recursive structures
-    // This will collapse all main nodes (even under already collapsed nodes)
-    // and will not collapse non-main nodes under collapsed nodes (but still
-    // collapse non-main nodes under expanded nodes)
-    if (isRef && dlgTree.isCollapsed(path)) {
-      return;
+  /**
+   * Removes all expansion listeners from the tree. This includes the listener of the tree UI which would otherwise
+   * update the tree layout for every single expanded or collapsed node.
+   */
+  private void detachListeners() {
+    if (listeners == null) {
+      listeners = dlgTree.getTreeExpansionListeners();
+      for (final TreeExpansionListener l : listeners) {
+        dlgTree.removeTreeExpansionListener(l);
+      }
     }
+  }
 
-    advanceProgress();
-    // Use access via model because it properly initializes items
-    final TreeModel model = dlgTree.getModel();
-    for (int i = 0, count = model.getChildCount(node); i < count; ++i) {
-      collapseNode(path.pathByAddingChild(model.getChild(node, i)));
-    }
+  /** Reattaches expansion listeners and rebuilds the tree layout from the current expansion state. */
+  private void restoreTree() {
+    if (listeners != null) {
+      for (final TreeExpansionListener l : listeners) {
+        dlgTree.addTreeExpansionListener(l);
+      }
+      listeners = null;
 
-    try {
-      SwingUtilities.invokeAndWait(() -> dlgTree.collapsePath(path));
-    } catch (InterruptedException | InvocationTargetException e) {
-      Logger.error(e);
+      // reinstalling the UI rebuilds the layout cache from the expanded state of the tree in a single pass
+      dlgTree.updateUI();
+      final TreePath selected = dlgTree.getSelectionPath();
+      if (selected != null) {
+        dlgTree.scrollPathToVisible(selected);
+      }
     }
   }
 }
@@ -155,6 +155,10 @@ public BamResource(ResourceEntry entry) {
     WindowBlocker.blockWindow(true);
     try {
       decoder = BamDecoder.loadBam(entry);
+      if (decoder instanceof BamV1Decoder) {
+        // frames are requested repeatedly by cycle playback
+        ((BamV1Decoder) decoder).setFrameCacheSize(BamV1Decoder.DEFAULT_FRAME_CACHE_SIZE);
+      }
       bamControl = decoder.createControl();
       bamControl.setMode(BamDecoder.BamControl.Mode.SHARED);
       if (bamControl instanceof BamV1Decoder.BamV1Control) {
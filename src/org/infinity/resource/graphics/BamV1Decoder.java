@@ -13,6 +13,8 @@
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 
@@ -20,11 +22,18 @@
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.util.Logger;
 import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.CacheMetric;
+import org.infinity.util.metrics.Metrics;
 
 /**
  * Handles BAM v1 resources (both BAMC and uncompressed BAM V1).
  */
 public class BamV1Decoder extends BamDecoder {
+  /** A suggested byte budget for the decoded frame cache. */
+  public static final int DEFAULT_FRAME_CACHE_SIZE = 8 * 1024 * 1024;
+
+  private static final CacheMetric METRIC_CACHE = Metrics.cache("cache.bamframe");
+
   private final List<BamV1FrameEntry> listFrames = new ArrayList<>();
   private final List<CycleEntry> listCycles = new ArrayList<>();
   private final BamV1FrameEntry defaultFrameInfo = new BamV1FrameEntry(null, 0);
@@ -33,6 +42,7 @@ public class BamV1Decoder extends BamDecoder {
   private ByteBuffer bamBuffer; // contains the raw (uncompressed) data of the BAM resource
   private int[] bamPalette; // BAM palette
   private int rleIndex; // color index for RLE compressed pixels
+  private FrameCache frameCache; // optional cache of decoded palette indices, null if disabled
 
   /**
    * Loads and decodes a BAM v1 resource. This includes both compressed (BAMC) and uncompressed BAM resource.
@@ -65,6 +75,10 @@ public void close() {
     listFrames.clear();
     listCycles.clear();
     rleIndex = 0;
+    final FrameCache cache = frameCache;
+    if (cache != null) {
+      cache.clear();
+    }
   }
 
   @Override
@@ -132,6 +146,71 @@ public void frameGet(BamControl control, int frameIdx, Image canvas) {
     }
   }
 
+  /**
+   * Enables or disables the cache for decoded frames.
+   * <p>
+   * The cache stores the palette indices of decoded frames, so that frames requested repeatedly, e.g. during cycle
+   * playback, are not decoded again. Palettes are still applied individually for each {@link BamControl}. The cache can
+   * be accessed concurrently and discards the least recently used frames if the byte budget is exceeded.
+   * </p>
+   *
+   * @param maxBytes Max. number of bytes occupied by cached frames. Specify a value {@code <= 0} to disable the cache.
+   *                   {@link #DEFAULT_FRAME_CACHE_SIZE} is a suitable value for most purposes.
+   */
+  public void setFrameCacheSize(long maxBytes) {
+    if (maxBytes > 0) {
+      final FrameCache cache = frameCache;
+      if (cache != null) {
+        cache.setCapacity(maxBytes);
+      } else {
+        frameCache = new FrameCache(maxBytes);
+      }
+    } else {
+      frameCache = null;
+    }
+  }
+
+  /** Returns the byte budget of the decoded frame cache. Returns 0 if the cache is disabled. */
+  public long getFrameCacheSize() {
+    final FrameCache cache = frameCache;
+    return (cache != null) ? cache.getCapacity() : 0L;
+  }
+
+  /** Returns the number of bytes currently occupied by the decoded frame cache. Returns 0 if the cache is disabled. */
+  public long getFrameCacheUsage() {
+    final FrameCache cache = frameCache;
+    return (cache != null) ? cache.getSize() : 0L;
+  }
+
+  /**
+   * Returns the palette indices of the specified frame. Scanlines are stored consecutively and have the width of the
+   * frame.
+   * <p>
+   * <b>Note:</b> The returned array may be shared by the frame cache and must not be modified.
+   * </p>
+   *
+   * @param frameIdx The frame index.
+   * @return Palette indices of the frame. Returns {@code null} if the frame index is out of bounds.
+   */
+  public byte[] getFramePixels(int frameIdx) {
+    if (frameIdx < 0 || frameIdx >= listFrames.size()) {
+      return null;
+    }
+
+    final FrameCache cache = frameCache;
+    if (cache == null) {
+      return decodeFramePixels(frameIdx);
+    }
+
+    byte[] pixels = cache.get(frameIdx);
+    METRIC_CACHE.record(pixels != null);
+    if (pixels == null) {
+      pixels = decodeFramePixels(frameIdx);
+      cache.put(frameIdx, pixels);
+    }
+    return pixels;
+  }
+
   /** Returns the compressed color index for compressed BAM v1 resources. */
   public int getRleIndex() {
     return rleIndex;
@@ -259,6 +338,8 @@ private void decodeFrame(BamControl control, int frameIdx, Image canvas) {
       boolean isCompressed = listFrames.get(frameIdx).compressed;
       int ofsData = listFrames.get(frameIdx).ofsData;
 
+      final byte[] cachedPixels = (frameCache != null) ? getFramePixels(frameIdx) : null;
+
       int left, top, maxWidth, maxHeight, srcOfs, dstOfs;
       int count = 0, color = 0;
       byte pixel = 0;
@@ -276,37 +357,57 @@ private void decodeFrame(BamControl control, int frameIdx, Image canvas) {
         srcOfs = ofsData;
         dstOfs = 0;
       }
+      // output is limited to the source frame dimensions
+      final int cols = Math.min(maxWidth, srcWidth);
+      final int rows = Math.min(maxHeight, srcHeight);
       try {
-        for (int y = 0; y < maxHeight; y++) {
-          for (int x = 0; x < srcWidth; x++, dstOfs++) {
-            if (count > 0) {
-              // writing remaining RLE compressed pixels
-              count--;
-              if (x < maxWidth) {
-                if (bufferB != null) {
-                  bufferB[dstOfs] = pixel;
-                }
-                if (bufferI != null) {
-                  bufferI[dstOfs] = color;
-                }
+        if (cachedPixels != null) {
+          // applying palette to cached frame data
+          srcOfs = 0;
+          for (int y = 0; y < rows; y++, srcOfs += srcWidth, dstOfs += dstWidth) {
+            for (int x = 0; x < cols; x++) {
+              pixel = cachedPixels[srcOfs + x];
+              if (bufferB != null) {
+                bufferB[dstOfs + x] = pixel;
               }
-            } else {
-              pixel = bamBuffer.get(srcOfs++);
-              color = palette[pixel & 0xff];
-              if (isCompressed && (pixel & 0xff) == rleIndex) {
-                count = bamBuffer.get(srcOfs++) & 0xff;
+              if (bufferI != null) {
+                bufferI[dstOfs + x] = palette[pixel & 0xff];
               }
-              if (x < maxWidth) {
-                if (bufferB != null) {
-                  bufferB[dstOfs] = pixel;
+            }
+          }
+        } else {
+          // decoding RLE compressed frame data
+          for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < srcWidth; x++, dstOfs++) {
+              if (count > 0) {
+                // writing remaining RLE compressed pixels
+                count--;
+                if (x < cols) {
+                  if (bufferB != null) {
+                    bufferB[dstOfs] = pixel;
+                  }
+                  if (bufferI != null) {
+                    bufferI[dstOfs] = color;
+                  }
                 }
-                if (bufferI != null) {
-                  bufferI[dstOfs] = color;
+              } else {
+                pixel = bamBuffer.get(srcOfs++);
+                color = palette[pixel & 0xff];
+                if (isCompressed && (pixel & 0xff) == rleIndex) {
+                  count = bamBuffer.get(srcOfs++) & 0xff;
+                }
+                if (x < cols) {
+                  if (bufferB != null) {
+                    bufferB[dstOfs] = pixel;
+                  }
+                  if (bufferI != null) {
+                    bufferI[dstOfs] = color;
+                  }
                 }
               }
             }
+            dstOfs += dstWidth - srcWidth;
           }
-          dstOfs += dstWidth - srcWidth;
         }
       } catch (Exception e) {
         Logger.error("Error [{}]: input (offset={}, size={}), output (offset={}, size={})",
@@ -333,6 +434,29 @@ private void decodeFrame(BamControl control, int frameIdx, Image canvas) {
     }
   }
 
+  // Decodes the palette indices of the specified frame.
+  private byte[] decodeFramePixels(int frameIdx) {
+    final BamV1FrameEntry entry = listFrames.get(frameIdx);
+    final byte[] pixels = new byte[entry.width * entry.height];
+    int srcOfs = entry.ofsData;
+    try {
+      for (int dstOfs = 0; dstOfs < pixels.length;) {
+        final byte pixel = bamBuffer.get(srcOfs++);
+        int count = 1;
+        if (entry.compressed && (pixel & 0xff) == rleIndex) {
+          count += bamBuffer.get(srcOfs++) & 0xff;
+        }
+        for (final int end = Math.min(pixels.length, dstOfs + count); dstOfs < end; dstOfs++) {
+          pixels[dstOfs] = pixel;
+        }
+      }
+    } catch (Exception e) {
+      Logger.error("Error [{}]: input (offset={}, size={}), frame {}", e.getClass().getName(), srcOfs,
+          bamBuffer.limit(), frameIdx);
+    }
+    return pixels;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -823,6 +947,57 @@ private void preparePalette(int[] externalPalette) {
     }
   }
 
+  // Caches decoded palette indices of frames, bounded by a byte budget
+  private static class FrameCache {
+    private final LinkedHashMap<Integer, byte[]> frames = new LinkedHashMap<>(16, 0.75f, true);
+    private long capacity;
+    private long size;
+
+    public FrameCache(long capacity) {
+      this.capacity = capacity;
+    }
+
+    public synchronized long getCapacity() {
+      return capacity;
+    }
+
+    public synchronized long getSize() {
+      return size;
+    }
+
+    public synchronized void setCapacity(long capacity) {
+      this.capacity = capacity;
+      trim();
+    }
+
+    public synchronized byte[] get(int frameIdx) {
+      return frames.get(frameIdx);
+    }
+
+    public synchronized void put(int frameIdx, byte[] pixels) {
+      final byte[] old = frames.put(frameIdx, pixels);
+      if (old != null) {
+        size -= old.length;
+      }
+      size += pixels.length;
+      trim();
+    }
+
+    public synchronized void clear() {
+      frames.clear();
+      size = 0L;
+    }
+
+    // Discards least recently used frames until the cache fits into the byte budget
+    private void trim() {
+      final Iterator<byte[]> iter = frames.values().iterator();
+      while (size > capacity && iter.hasNext()) {
+        size -= iter.next().length;
+        iter.remove();
+      }
+    }
+  }
+
   // Stores information for a single cycle
   private static class CycleEntry {
     private final int[] frames; // list of frame indices used in this cycle
@@ -33,6 +33,7 @@
  */
 public class BamV2Decoder extends BamDecoder {
   private final TreeSet<Integer> pvrIndices = new TreeSet<>();
+  private final PvrDecoder.References pvrReferences = new PvrDecoder.References();
   private final List<BamV2FrameEntry> listFrames = new ArrayList<>();
   private final List<CycleEntry> listCycles = new ArrayList<>();
   private final BamV2FrameEntry defaultFrameInfo = new BamV2FrameEntry(null, 0, 0);
@@ -63,7 +64,7 @@ public BamV2FrameEntry getFrameInfo(int frameIdx) {
 
   @Override
   public void close() {
-    PvrDecoder.flushCache();
+    pvrReferences.releaseAll();
     bamBuffer = null;
     listFrames.clear();
     listCycles.clear();
@@ -243,7 +244,7 @@ private PvrDecoder getPVR(int page) {
         entry = ResourceFactory.getResourceEntry(name);
       }
       if (entry != null) {
-        return PvrDecoder.loadPvr(entry);
+        return pvrReferences.add(PvrDecoder.loadPvr(entry));
       }
     } catch (Exception e) {
       Logger.error(e);
@@ -28,6 +28,7 @@ public class MosV2Decoder extends MosDecoder {
   private static final int HEADER_SIZE = 16;  // size of the MOS header
 
   private final List<MosBlock> dataBlocks = new ArrayList<>();
+  private final PvrDecoder.References pvrReferences = new PvrDecoder.References();
 
   private ByteBuffer mosBuffer;
   private int width;
@@ -81,7 +82,7 @@ public void preloadPvrz() {
 
   @Override
   public void close() {
-    PvrDecoder.flushCache();
+    pvrReferences.releaseAll();
     dataBlocks.clear();
     mosBuffer = null;
     width = height = blockCount = 0;
@@ -319,7 +320,7 @@ private PvrDecoder getPVR(int page) {
     try {
       ResourceEntry entry = ResourceFactory.getResourceEntry(getPvrzFileName(page));
       if (entry != null) {
-        return PvrDecoder.loadPvr(entry);
+        return pvrReferences.add(PvrDecoder.loadPvr(entry));
       }
     } catch (Exception e) {
       Logger.error(e);
@@ -228,6 +228,21 @@ public int frameAdd(BufferedImage[] images, Point[] centers) {
     return frameInsert(listFrames.size(), images, centers);
   }
 
+  /**
+   * Adds the specified frame entry to the end of the frame list. This allows to add specialized frame entries, such as
+   * entries which create their image data on demand.
+   *
+   * @param entry The frame entry to add.
+   * @return The index of the added frame or -1 if frame could not be added.
+   */
+  public int frameAdd(PseudoBamFrameEntry entry) {
+    if (entry != null) {
+      listFrames.add(entry);
+      return listFrames.size() - 1;
+    }
+    return -1;
+  }
+
   /**
    * Inserts a frame at the specified position. Center position defaults to (0, 0).
    *
@@ -468,7 +483,7 @@ private void renderFrame(BamControl control, int frameIdx, Image canvas) {
       }
 
       // decoding frame data
-      BufferedImage srcImage = listFrames.get(frameIdx).frame;
+      BufferedImage srcImage = listFrames.get(frameIdx).getFrame();
       BufferedImage dstImage = ColorConvert.toBufferedImage(canvas, true, false);
       int srcPixelStride = srcImage.getRaster().getSampleModel().getNumDataElements();
       int srcBufferType = srcImage.getRaster().getDataBuffer().getDataType();
@@ -735,7 +750,7 @@ public boolean exportBamV1(Path fileName, ProgressMonitor progress, int curProgr
         o = listFrames.get(idx).getOption(OPTION_BOOL_COMPRESSED);
         boolean frameCompressed = (o != null) ? ((Boolean) o) : false;
         PseudoBamFrameEntry entry = listFrames.get(idx);
-        byte[] srcBuffer = ((DataBufferByte) entry.frame.getRaster().getDataBuffer()).getData();
+        byte[] srcBuffer = ((DataBufferByte) entry.getFrame().getRaster().getDataBuffer()).getData();
 
         if (frameCompressed) {
           // creating RLE compressed frame
@@ -968,7 +983,7 @@ public boolean exportBamV2(Path fileName, DxtEncoder.DxtType dxtType, int pvrzIn
       for (int cycleFrame : cycleFrames) {
         try {
           final PseudoBamFrameEntry frameEntryAbs = listFrames.get(cycleFrame);
-          final PseudoBamFrameEntry frameEntryRel = new PseudoBamFrameEntry(frameEntryAbs.frame, frameEntryAbs.centerX,
+          final PseudoBamFrameEntry frameEntryRel = new PseudoBamFrameEntry(frameEntryAbs.getFrame(), frameEntryAbs.centerX,
               frameEntryAbs.centerY);
           int startBlockIdx = -1;
           int numBlocks = 0;
@@ -1074,7 +1089,7 @@ public int[] createGlobalPalette(HashMap<Integer, Integer> colorMap) {
       if (colorMap == null) {
         newMap = new HashMap<>();
         for (PseudoBamFrameEntry listFrame : listFrames) {
-          registerColors(newMap, listFrame.frame, (boolean)listFrame.getOption(OPTION_BOOL_TRANSPARENTGREENFORCED));
+          registerColors(newMap, listFrame.getFrame(), (boolean)listFrame.getOption(OPTION_BOOL_TRANSPARENTGREENFORCED));
         }
       } else {
         newMap = new HashMap<>(colorMap.size());
@@ -1273,8 +1288,8 @@ private boolean buildFrameDataList(List<FrameDataV2> framesList, List<BinPack2D>
 
     for (int frameIdx = 0, frameCount = listFrames.size(); frameIdx < frameCount; frameIdx++) {
       final PseudoBamFrameEntry listFrame = listFrames.get(frameIdx);
-      int imgWidth = listFrame.frame.getWidth();
-      int imgHeight = listFrame.frame.getHeight();
+      int imgWidth = listFrame.getFrame().getWidth();
+      int imgHeight = listFrame.getFrame().getHeight();
 
       int x = 0, y = 0, pOfs = 0;
       while (pOfs < imgWidth * imgHeight) {
@@ -1380,7 +1395,7 @@ private boolean createPvrzPages(Path path, DxtEncoder.DxtType dxtType, List<BinP
         for (final FrameDataV2 frame : framesList) {
           if (frame.page == pageIndex) {
             try {
-              final BufferedImage image = listFrames.get(frame.frameIdx).frame;
+              final BufferedImage image = listFrames.get(frame.frameIdx).getFrame();
               int sx = frame.dx, sy = frame.dy;
               int dx = frame.sx, dy = frame.sy;
               int w = frame.width, h = frame.height;
@@ -1532,7 +1547,7 @@ public void setFrame(BufferedImage image) {
 
     @Override
     public Object clone() {
-      PseudoBamFrameEntry retVal = new PseudoBamFrameEntry(frame, centerX, centerY);
+      PseudoBamFrameEntry retVal = new PseudoBamFrameEntry(getFrame(), centerX, centerY);
       retVal.overrideCenterX = overrideCenterX;
       retVal.overrideCenterY = overrideCenterY;
       return retVal;
@@ -1844,7 +1859,7 @@ public boolean cycleFrameHasPalette(int frameIdx) {
     public boolean cycleFrameHasPalette(int cycleIdx, int frameIdx) {
       int index = cycleGetFrameIndexAbsolute(cycleIdx, frameIdx);
       if (index >= 0) {
-        BufferedImage image = getDecoder().listFrames.get(index).frame;
+        BufferedImage image = getDecoder().listFrames.get(index).getFrame();
         return image != null && image.getType() == BufferedImage.TYPE_BYTE_INDEXED;
       }
       return false;
@@ -1868,7 +1883,7 @@ public int[] cycleFrameGetPalette(int frameIdx) {
     public int[] cycleFrameGetPalette(int cycleIdx, int frameIdx) {
       int index = cycleGetFrameIndexAbsolute(cycleIdx, frameIdx);
       if (index >= 0) {
-        BufferedImage image = getDecoder().listFrames.get(index).frame;
+        BufferedImage image = getDecoder().listFrames.get(index).getFrame();
         if (image != null && image.getType() == BufferedImage.TYPE_BYTE_INDEXED) {
           if (image.getColorModel() instanceof IndexColorModel) {
             IndexColorModel cm = (IndexColorModel) image.getColorModel();
@@ -8,9 +8,16 @@
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.nio.file.Path;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.InflaterInputStream;
 
 import org.infinity.resource.graphics.decoder.PvrInfo;
@@ -18,21 +25,46 @@
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.util.DynamicArray;
 import org.infinity.util.Logger;
+import org.infinity.util.Threading;
 import org.infinity.util.io.FileManager;
 import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.CacheMetric;
+import org.infinity.util.metrics.Metrics;
 
 /**
  * Decodes a PVR(Z) file. Note: Supports only the minimal set of PVR-specific features required to decode the BGEE's
  * PVRZ resources (this includes only a selected number of supported pixel formats).
  */
 public class PvrDecoder {
-  // The global cache list for PVR objects. The "key" has to be a unique String (e.g. filename or integer as string)
-  private static final Map<String, PvrDecoder> PVR_CACHE = new LinkedHashMap<>();
+  // The global cache for PVR objects. The "key" has to be a unique String (e.g. filename or integer as string)
+  private static final ConcurrentHashMap<String, PvrDecoder> PVR_CACHE = new ConcurrentHashMap<>();
+
+  // Logical clock used to determine the least recently used cache entries
+  private static final AtomicLong CACHE_CLOCK = new AtomicLong();
+
+  // Total size of all cached PVR objects, in bytes
+  private static final AtomicLong CACHE_SIZE = new AtomicLong();
+
+  // Used to synchronize removal of excess cache entries
+  private static final Object CACHE_LOCK = new Object();
+
+  // Hit rate of the global cache
+  private static final CacheMetric METRIC_CACHE = Metrics.cache("cache.pvr");
 
   // The max. number of cache entries to hold
-  private static int MaxCacheEntries = 32;
+  private static int MaxCacheEntries = 256;
+
+  // The max. total size of cache entries, in bytes
+  private static long MaxCacheSize = 128L * 1024L * 1024L;
+
+  // Background threads for loading PVR resources in advance
+  private static ExecutorService prefetchExecutor;
+
+  private final AtomicInteger refCount = new AtomicInteger();
 
   private PvrInfo info;
+  private String key;
+  private volatile long lastAccess;
 
   /**
    * Returns an initialized PvrDecoder object with the specified resource (if available).
@@ -44,13 +76,9 @@ public static PvrDecoder loadPvr(ResourceEntry entry) {
     if (entry == null) {
       throw new NullPointerException();
     }
-    final String key;
-    if (entry instanceof FileResourceEntry) {
-      key = entry.getActualPath().toString();
-    } else {
-      key = entry.getResourceName();
-    }
+    final String key = getCacheKey(entry);
     PvrDecoder decoder = getCachedPvrDecoder(key);
+    METRIC_CACHE.record(decoder != null);
     if (decoder == null) {
       try (InputStream is = entry.getResourceDataAsStream()) {
         decoder = createPvrDecoder(key, is);
@@ -73,6 +101,7 @@ public static PvrDecoder loadPvr(String fileName) {
     }
     final String key = fileName;
     PvrDecoder decoder = getCachedPvrDecoder(key);
+    METRIC_CACHE.record(decoder != null);
     if (decoder == null) {
       try (InputStream is = StreamUtils.getInputStream(FileManager.resolve(fileName))) {
         decoder = createPvrDecoder(key, is);
@@ -92,6 +121,7 @@ public static PvrDecoder loadPvr(String fileName) {
   public static PvrDecoder loadPvr(Path file) {
     final String key = file.getFileName().toString();
     PvrDecoder decoder = getCachedPvrDecoder(key);
+    METRIC_CACHE.record(decoder != null);
     if (decoder == null) {
       try (InputStream is = StreamUtils.getInputStream(file)) {
         decoder = createPvrDecoder(key, is);
@@ -114,6 +144,7 @@ public static PvrDecoder loadPvr(InputStream input) {
     }
     final String key = Integer.valueOf(input.hashCode()).toString();
     PvrDecoder decoder = getCachedPvrDecoder(key);
+    METRIC_CACHE.record(decoder != null);
     if (decoder == null) {
       try {
         decoder = createPvrDecoder(key, input);
@@ -124,70 +155,124 @@ public static PvrDecoder loadPvr(InputStream input) {
     return decoder;
   }
 
+  /**
+   * Loads the specified PVR(Z) resources into the cache in the background. Resources that are already cached or exceed
+   * the available cache capacity are skipped.
+   *
+   * @param entries Collection of {@link ResourceEntry} objects of the pvr(z) resources to load.
+   */
+  public static void prefetch(Collection<ResourceEntry> entries) {
+    if (entries == null || entries.isEmpty() || MaxCacheEntries == 0) {
+      return;
+    }
+
+    final List<ResourceEntry> list = new ArrayList<>(entries.size());
+    for (final ResourceEntry entry : entries) {
+      if (entry != null && !PVR_CACHE.containsKey(getCacheKey(entry)) && list.size() < MaxCacheEntries) {
+        list.add(entry);
+      }
+    }
+
+    if (!list.isEmpty()) {
+      final ExecutorService executor = getPrefetchExecutor();
+      for (final ResourceEntry entry : list) {
+        executor.execute(() -> loadPvr(entry));
+      }
+    }
+  }
+
   /** Returns the max. number of PvrDecoder objects to cache. */
   public static int getMaxCacheEntries() {
     return MaxCacheEntries;
   }
 
   /** Specify the new max. number of PvrDecoder objects to cache. Specifying 0 disables the cache. */
-  public static synchronized void setMaxCacheEntries(int maxValue) {
+  public static void setMaxCacheEntries(int maxValue) {
     if (maxValue < 0)
       maxValue = 0;
     else if (maxValue > 65535)
       maxValue = 65535;
     if (maxValue != MaxCacheEntries) {
       MaxCacheEntries = maxValue;
-      while (PVR_CACHE.size() > MaxCacheEntries) {
-        PVR_CACHE.remove(PVR_CACHE.keySet().iterator().next());
-      }
+      trimCache();
+    }
+  }
+
+  /** Returns the max. total size of PvrDecoder objects to cache, in bytes. */
+  public static long getMaxCacheSize() {
+    return MaxCacheSize;
+  }
+
+  /** Specify the new max. total size of PvrDecoder objects to cache, in bytes. Specifying 0 disables the cache. */
+  public static void setMaxCacheSize(long maxValue) {
+    maxValue = Math.max(0L, maxValue);
+    if (maxValue != MaxCacheSize) {
+      MaxCacheSize = maxValue;
+      trimCache();
     }
   }
 
-  /** Clears all available caches. */
-  public static synchronized void flushCache() {
-    PVR_CACHE.clear();
+  /**
+   * Clears all available caches. PvrDecoder objects which are currently in use remain valid but are no longer cached.
+   */
+  public static void flushCache() {
+    synchronized (CACHE_LOCK) {
+      PVR_CACHE.clear();
+      CACHE_SIZE.set(0L);
+    }
     PvrInfo.flushCache();
   }
 
   /** Returns the current cache load as percentage value. */
   public static int getCacheLoad() {
+    int retVal = 0;
     if (MaxCacheEntries > 0) {
-      return (PVR_CACHE.size() * 100) / MaxCacheEntries;
+      retVal = (PVR_CACHE.size() * 100) / MaxCacheEntries;
+    }
+    if (MaxCacheSize > 0L) {
+      retVal = Math.max(retVal, (int) ((CACHE_SIZE.get() * 100L) / MaxCacheSize));
+    }
+    return retVal;
+  }
+
+  // Returns a normalized cache key for the specified resource.
+  private static String getCacheKey(ResourceEntry entry) {
+    final String key;
+    if (entry instanceof FileResourceEntry) {
+      key = entry.getActualPath().toString();
     } else {
-      return 0;
+      key = entry.getResourceName();
     }
+    return key.toUpperCase(Locale.ENGLISH);
   }
 
   // Returns a cached PvrDecoder object if available, null otherwise.
-  private static synchronized PvrDecoder getCachedPvrDecoder(String key) {
-    final PvrDecoder retVal = PVR_CACHE.get(key);
+  private static PvrDecoder getCachedPvrDecoder(String key) {
+    final PvrDecoder retVal = (key != null) ? PVR_CACHE.get(key.toUpperCase(Locale.ENGLISH)) : null;
     if (retVal != null) {
-      // re-inserting entry to prevent premature removal from cache
-      PVR_CACHE.remove(key);
-      PVR_CACHE.put(key, retVal);
+      // prevent premature removal from cache
+      retVal.lastAccess = CACHE_CLOCK.incrementAndGet();
     }
     return retVal;
   }
 
   // Returns a PvrDecoder object of the specified key if available, or creates and returns a new one otherwise.
-  private static synchronized PvrDecoder createPvrDecoder(String key, InputStream input) {
+  private static PvrDecoder createPvrDecoder(String key, InputStream input) {
     PvrDecoder retVal = null;
     if (key != null && !key.isEmpty()) {
       key = key.toUpperCase(Locale.ENGLISH);
-      if (PVR_CACHE.containsKey(key)) {
-        retVal = PVR_CACHE.get(key);
-        // re-inserting entry to prevent premature removal from cache
-        PVR_CACHE.remove(key);
-        PVR_CACHE.put(key, retVal);
-      } else {
+      retVal = getCachedPvrDecoder(key);
+      if (retVal == null) {
         try {
-          retVal = new PvrDecoder(input);
-          if (retVal != null) {
-            PVR_CACHE.put(key, retVal);
-            // removing excess cache entries
-            while (PVR_CACHE.size() > MaxCacheEntries) {
-              PVR_CACHE.remove(PVR_CACHE.keySet().iterator().next());
-            }
+          // decoding outside of any locks allows concurrent loading of different resources
+          final PvrDecoder decoder = new PvrDecoder(input);
+          decoder.key = key;
+          decoder.lastAccess = CACHE_CLOCK.incrementAndGet();
+          retVal = PVR_CACHE.putIfAbsent(key, decoder);
+          if (retVal == null) {
+            retVal = decoder;
+            CACHE_SIZE.addAndGet(decoder.getCacheSize());
+            trimCache();
           }
         } catch (Exception e) {
           Logger.error(e);
@@ -197,6 +282,71 @@ private static synchronized PvrDecoder createPvrDecoder(String key, InputStream
     return retVal;
   }
 
+  // Removes least recently used cache entries until cache limits are met. Entries without active references are
+  // removed first. Referenced entries stay available to their users, but are no longer shared via the cache.
+  private static void trimCache() {
+    synchronized (CACHE_LOCK) {
+      while (PVR_CACHE.size() > MaxCacheEntries || CACHE_SIZE.get() > MaxCacheSize) {
+        PvrDecoder candidate = null;
+        PvrDecoder referenced = null;
+        for (final PvrDecoder decoder : PVR_CACHE.values()) {
+          if (decoder.refCount.get() <= 0) {
+            if (candidate == null || decoder.lastAccess < candidate.lastAccess) {
+              candidate = decoder;
+            }
+          } else if (referenced == null || decoder.lastAccess < referenced.lastAccess) {
+            referenced = decoder;
+          }
+        }
+        if (candidate == null) {
+          candidate = referenced;
+        }
+        if (candidate == null) {
+          break;
+        }
+        if (PVR_CACHE.remove(candidate.key, candidate)) {
+          CACHE_SIZE.addAndGet(-candidate.getCacheSize());
+        }
+      }
+    }
+  }
+
+  // Returns the executor service for background loading of PVR resources.
+  private static synchronized ExecutorService getPrefetchExecutor() {
+    if (prefetchExecutor == null) {
+      final int numThreads = Math.max(1, Threading.MAX_THREADS_AVAILABLE / 2);
+      prefetchExecutor = Executors.newFixedThreadPool(numThreads, r -> {
+        final Thread thread = new Thread(r, "PvrDecoder-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      });
+    }
+    return prefetchExecutor;
+  }
+
+  /**
+   * Registers a new reference to this PvrDecoder object. Referenced objects are only removed from the cache if the
+   * cache limits cannot be met otherwise. Each call should be balanced by a call to {@link #releaseReference()}.
+   */
+  public void addReference() {
+    refCount.incrementAndGet();
+  }
+
+  /**
+   * Removes a reference to this PvrDecoder object. The object may be removed from the cache if no references are left.
+   */
+  public void releaseReference() {
+    if (refCount.updateAndGet(v -> Math.max(0, v - 1)) == 0) {
+      trimCache();
+    }
+  }
+
+  // Returns the approximate memory footprint of this object, in bytes.
+  private long getCacheSize() {
+    return (info != null && info.getData() != null) ? info.getData().length : 0L;
+  }
+
   /** Provides access to the PVR information data structure. */
   public PvrInfo getInfo() {
     return info;
@@ -334,4 +484,36 @@ private PvrDecoder(InputStream input) throws Exception {
       input.close();
     }
   }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /**
+   * Keeps track of the PvrDecoder objects used by a single decoder instance. Tracked objects are protected from cache
+   * removal until {@link #releaseAll()} is called.
+   */
+  public static class References {
+    private final Set<PvrDecoder> decoders = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers the specified PvrDecoder object if it has not yet been registered.
+     *
+     * @param decoder The {@link PvrDecoder} to track. May be {@code null}.
+     * @return the {@code decoder} argument.
+     */
+    public PvrDecoder add(PvrDecoder decoder) {
+      if (decoder != null && decoders.add(decoder)) {
+        decoder.addReference();
+      }
+      return decoder;
+    }
+
+    /** Releases all tracked PvrDecoder objects. */
+    public void releaseAll() {
+      for (final PvrDecoder decoder : decoders) {
+        if (decoders.remove(decoder)) {
+          decoder.releaseReference();
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,384 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.resource.graphics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.infinity.util.Threading;
+
+/**
+ * Writes large images as PNG files without holding the whole bitmap in memory.
+ * <p>
+ * The image is processed in horizontal bands of scanlines. Bands are requested from a {@link BandSource}, filtered and
+ * compressed concurrently by a thread pool, and written in order as soon as they are available. Only a small number of
+ * bands are kept in memory at any time, regardless of the image size.
+ * </p>
+ * <p>
+ * Output is always a non-interlaced 8-bit RGBA image.
+ * </p>
+ */
+public class StreamingPngWriter {
+  /** Provides pixel data for a horizontal band of the image. */
+  @FunctionalInterface
+  public interface BandSource {
+    /**
+     * Writes the ARGB pixels of the specified rows to the buffer. Scanlines are stored consecutively and have the
+     * width of the image.
+     * <p>
+     * This method is called concurrently for different bands.
+     * </p>
+     *
+     * @param top    First row of the band.
+     * @param height Number of rows in the band.
+     * @param buffer Buffer for the pixel data. It is initialized with transparent pixels.
+     * @throws Exception if the pixel data could not be provided. Aborts the write operation.
+     */
+    void getBand(int top, int height, int[] buffer) throws Exception;
+  }
+
+  private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+  private static final int FILTER_NONE  = 0;
+  private static final int FILTER_SUB   = 1;
+  private static final int FILTER_UP    = 2;
+  private static final int FILTER_AVG   = 3;
+  private static final int FILTER_PAETH = 4;
+
+  private static final int ADLER_BASE = 65521;
+
+  private final int width;
+  private final int height;
+  private final int bandHeight;
+
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+  /**
+   * Writes an image of the specified dimensions as PNG to the output stream.
+   *
+   * @param os         The output stream. It is not closed by this method.
+   * @param width      Image width, in pixels.
+   * @param height     Image height, in pixels.
+   * @param bandHeight Number of rows that are requested from {@code source} at once.
+   * @param source     Provides the pixel data.
+   * @throws Exception if the image could not be written.
+   */
+  public static void write(OutputStream os, int width, int height, int bandHeight, BandSource source)
+      throws Exception {
+    new StreamingPngWriter(width, height, bandHeight).write(os, source);
+  }
+
+  /**
+   * Creates a new PNG writer for images of the specified dimensions.
+   *
+   * @param width      Image width, in pixels.
+   * @param height     Image height, in pixels.
+   * @param bandHeight Number of rows that are requested from a {@link BandSource} at once.
+   * @throws IllegalArgumentException if any of the arguments is less than 1.
+   */
+  public StreamingPngWriter(int width, int height, int bandHeight) {
+    if (width < 1 || height < 1 || bandHeight < 1) {
+      throw new IllegalArgumentException(String.format("Invalid dimensions: %dx%d, band height: %d", width, height,
+          bandHeight));
+    }
+    this.width = width;
+    this.height = height;
+    this.bandHeight = Math.min(bandHeight, height);
+  }
+
+  /** Returns the image width, in pixels. */
+  public int getWidth() {
+    return width;
+  }
+
+  /** Returns the image height, in pixels. */
+  public int getHeight() {
+    return height;
+  }
+
+  /** Returns the number of rows that are processed at once. */
+  public int getBandHeight() {
+    return bandHeight;
+  }
+
+  /** Returns the zlib compression level of the image data. */
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Sets the zlib compression level of the image data.
+   *
+   * @param level Compression level in range [0, 9], or {@link Deflater#DEFAULT_COMPRESSION}.
+   */
+  public void setCompressionLevel(int level) {
+    if (level != Deflater.DEFAULT_COMPRESSION
+        && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+      throw new IllegalArgumentException("Compression level out of range: " + level);
+    }
+    compressionLevel = level;
+  }
+
+  /**
+   * Writes the image as PNG to the output stream.
+   *
+   * @param os     The output stream. It is not closed by this method.
+   * @param source Provides the pixel data.
+   * @throws Exception if the image could not be written. Exceptions thrown by {@code source} are passed on.
+   */
+  public void write(OutputStream os, BandSource source) throws Exception {
+    final int numBands = (height + bandHeight - 1) / bandHeight;
+
+    os.write(SIGNATURE);
+    final byte[] header = new byte[13];
+    setInt(header, 0, width);
+    setInt(header, 4, height);
+    header[8] = 8;  // bit depth
+    header[9] = 6;  // color type: RGBA
+    writeChunk(os, "IHDR", header, header.length);
+
+    final Deque<Future<Band>> pending = new ArrayDeque<>();
+    try (final Threading threadPool = new Threading()) {
+      final int maxPending = threadPool.getThreadCount() * 2;
+      long adler = 1L;
+      try {
+        int nextBand = 0;
+        while (nextBand < numBands || !pending.isEmpty()) {
+          while (nextBand < numBands && pending.size() < maxPending) {
+            final int top = nextBand * bandHeight;
+            final int rows = Math.min(bandHeight, height - top);
+            final boolean first = (nextBand == 0);
+            final boolean last = (nextBand == numBands - 1);
+            pending.add(threadPool.submit(() -> encodeBand(source, top, rows, first, last)));
+            nextBand++;
+          }
+
+          final Band band = getResult(pending.poll());
+          adler = combineAdler32(adler, band.adler, band.length);
+          if (pending.isEmpty() && nextBand == numBands) {
+            // last band: append zlib checksum
+            band.data.write((int) (adler >>> 24));
+            band.data.write((int) (adler >>> 16));
+            band.data.write((int) (adler >>> 8));
+            band.data.write((int) adler);
+          }
+          writeChunk(os, "IDAT", band.data.getBuffer(), band.data.size());
+        }
+      } finally {
+        // discard remaining bands if an error occurred
+        for (final Future<Band> future : pending) {
+          future.cancel(true);
+        }
+      }
+    }
+
+    writeChunk(os, "IEND", new byte[0], 0);
+    os.flush();
+  }
+
+  // Returns the result of the specified task. Exceptions of the task are passed on unwrapped.
+  private static Band getResult(Future<Band> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+    }
+  }
+
+  // Requests, filters and compresses the specified band of the image.
+  private Band encodeBand(BandSource source, int top, int rows, boolean first, boolean last) throws Exception {
+    final int[] pixels = new int[width * rows];
+    source.getBand(top, rows, pixels);
+
+    // filtering scanlines
+    final int stride = width * 4;
+    final byte[] filtered = new byte[rows * (stride + 1)];
+    byte[] prev = null;
+    byte[] cur = new byte[stride];
+    byte[] next = new byte[stride];
+    final byte[] candidate = new byte[stride];
+    for (int y = 0, ofs = 0; y < rows; y++, ofs += stride + 1) {
+      for (int x = 0, src = y * width, dst = 0; x < width; x++, src++) {
+        final int argb = pixels[src];
+        cur[dst++] = (byte) (argb >>> 16);
+        cur[dst++] = (byte) (argb >>> 8);
+        cur[dst++] = (byte) argb;
+        cur[dst++] = (byte) (argb >>> 24);
+      }
+      filterRow(cur, prev, filtered, ofs, candidate);
+      prev = cur;
+      cur = next;
+      next = prev;
+    }
+
+    // compressing filtered data as part of a single zlib stream
+    final Band band = new Band();
+    band.length = filtered.length;
+    band.adler = adler32(filtered);
+    band.data = new Buffer(filtered.length / 2 + 64);
+    if (first) {
+      // zlib header: deflate with 32K window, no preset dictionary
+      band.data.write(0x78);
+      band.data.write(0xda);
+    }
+    final Deflater deflater = new Deflater(compressionLevel, true);
+    try {
+      deflater.setInput(filtered);
+      final byte[] buf = new byte[65536];
+      if (last) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          band.data.write(buf, 0, deflater.deflate(buf));
+        }
+      } else {
+        // flushed output continues seamlessly with the data of the next band
+        int len;
+        do {
+          len = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+          band.data.write(buf, 0, len);
+        } while (len == buf.length);
+      }
+    } finally {
+      deflater.end();
+    }
+    return band;
+  }
+
+  // Filters a single scanline with the filter type that produces the smallest sum of absolute differences.
+  // The first row of a band (prev == null) is filtered without reference to the previous row.
+  private static void filterRow(byte[] cur, byte[] prev, byte[] out, int ofs, byte[] candidate) {
+    final int bpp = 4;
+    final int len = cur.length;
+    int bestType = FILTER_NONE;
+    long bestSum = Long.MAX_VALUE;
+    final int lastType = (prev != null) ? FILTER_PAETH : FILTER_SUB;
+    for (int type = FILTER_NONE; type <= lastType; type++) {
+      long sum = 0;
+      for (int i = 0; i < len && sum < bestSum; i++) {
+        final int a = (i >= bpp) ? cur[i - bpp] & 0xff : 0;
+        final int b = (prev != null) ? prev[i] & 0xff : 0;
+        final int c = (prev != null && i >= bpp) ? prev[i - bpp] & 0xff : 0;
+        final int value;
+        switch (type) {
+          case FILTER_SUB:
+            value = cur[i] - a;
+            break;
+          case FILTER_UP:
+            value = cur[i] - b;
+            break;
+          case FILTER_AVG:
+            value = cur[i] - ((a + b) >>> 1);
+            break;
+          case FILTER_PAETH:
+            value = cur[i] - paeth(a, b, c);
+            break;
+          default:
+            value = cur[i];
+        }
+        final byte v = (byte) value;
+        candidate[i] = v;
+        sum += Math.abs(v);
+      }
+      if (sum < bestSum) {
+        bestSum = sum;
+        bestType = type;
+        out[ofs] = (byte) type;
+        System.arraycopy(candidate, 0, out, ofs + 1, len);
+      }
+    }
+  }
+
+  private static int paeth(int a, int b, int c) {
+    final int p = a + b - c;
+    final int pa = Math.abs(p - a);
+    final int pb = Math.abs(p - b);
+    final int pc = Math.abs(p - c);
+    if (pa <= pb && pa <= pc) {
+      return a;
+    } else if (pb <= pc) {
+      return b;
+    } else {
+      return c;
+    }
+  }
+
+  private static long adler32(byte[] data) {
+    final Adler32 adler = new Adler32();
+    adler.update(data, 0, data.length);
+    return adler.getValue();
+  }
+
+  // Combines two Adler-32 checksums into the checksum of the concatenated data (see zlib's adler32_combine).
+  private static long combineAdler32(long adler1, long adler2, long len2) {
+    final long rem = len2 % ADLER_BASE;
+    long sum1 = adler1 & 0xffff;
+    long sum2 = (rem * sum1) % ADLER_BASE;
+    sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+    sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + ADLER_BASE - rem;
+    if (sum1 >= ADLER_BASE) {
+      sum1 -= ADLER_BASE;
+    }
+    if (sum1 >= ADLER_BASE) {
+      sum1 -= ADLER_BASE;
+    }
+    if (sum2 >= (ADLER_BASE << 1)) {
+      sum2 -= (ADLER_BASE << 1);
+    }
+    if (sum2 >= ADLER_BASE) {
+      sum2 -= ADLER_BASE;
+    }
+    return sum1 | (sum2 << 16);
+  }
+
+  private static void writeChunk(OutputStream os, String type, byte[] data, int length) throws IOException {
+    final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    final byte[] buf = new byte[4];
+    setInt(buf, 0, length);
+    os.write(buf);
+    os.write(typeBytes);
+    os.write(data, 0, length);
+    final CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+    setInt(buf, 0, (int) crc.getValue());
+    os.write(buf);
+  }
+
+  private static void setInt(byte[] buf, int ofs, int value) {
+    buf[ofs] = (byte) (value >>> 24);
+    buf[ofs + 1] = (byte) (value >>> 16);
+    buf[ofs + 2] = (byte) (value >>> 8);
+    buf[ofs + 3] = (byte) value;
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** Compressed data of a single band. */
+  private static class Band {
+    private Buffer data;
+    private long adler;
+    private int length;
+  }
+
+  /** Provides direct access to the written bytes. */
+  private static class Buffer extends ByteArrayOutputStream {
+    public Buffer(int size) {
+      super(size);
+    }
+
+    public byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
@@ -21,9 +21,11 @@
 import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,12 +33,14 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import javax.imageio.ImageIO;
 import javax.swing.ProgressMonitor;
 import javax.swing.SwingUtilities;
 
@@ -56,6 +60,7 @@
 import org.infinity.util.DynamicArray;
 import org.infinity.util.IntegerHashMap;
 import org.infinity.util.Logger;
+import org.infinity.util.Threading;
 import org.infinity.util.io.FileEx;
 import org.infinity.util.io.StreamUtils;
 import org.infinity.util.tuples.Couple;
@@ -198,7 +203,8 @@ public static Status exportPNG(List<Image> tiles, int tileCols, Path pngFile) {
   }
 
   /**
-   * Composes an image from a list of tiles and exports it as PNG file.
+   * Composes an image from a list of tiles and exports it as PNG file. The image is written in rows of tiles and
+   * never held in memory as a whole.
    *
    * @param tiles List of tiles, ordered left-to-right, to-to-bottom.
    * @param tileCols Number of tiles per row.
@@ -220,46 +226,46 @@ public static Status exportPNG(List<Image> tiles, int tileCols, Path pngFile, bo
     }
 
     if (tileCols > 0 && tileRows > 0) {
-      BufferedImage image;
-      ProgressMonitor progress = null;
+      final ProgressMonitor progress;
       if (showProgress) {
-        progress = new ProgressMonitor(parent, "Exporting TIS to PNG...", "", 0, 2);
+        progress = new ProgressMonitor(parent, "Exporting TIS to PNG...", "", 0, tileRows);
         progress.setMillisToDecideToPopup(0);
         progress.setMillisToPopup(0);
         progress.setProgress(0);
+      } else {
+        progress = null;
       }
 
-      image = ColorConvert.createCompatibleImage(tileCols * 64, tileRows * 64, Transparency.BITMASK);
-      Graphics2D g = image.createGraphics();
-      for (int idx = 0; idx < tiles.size(); idx++) {
-        if (tiles.get(idx) != null) {
-          int tx = idx % tileCols;
-          int ty = idx / tileCols;
-          g.drawImage(tiles.get(idx), tx * 64, ty * 64, null);
-        }
-      }
-      g.dispose();
-
-      if (showProgress) {
-        progress.setProgress(1);
-      }
-
+      // tile rows are written one by one without composing the whole image
+      final int width = tileCols * 64;
+      final AtomicInteger rowsDone = new AtomicInteger();
       try (OutputStream os = StreamUtils.getOutputStream(pngFile, true)) {
-        if (ImageIO.write(image, "png", os)) {
-          retVal = Status.SUCCESS;
-        }
-      } catch (IOException e) {
+        StreamingPngWriter.write(new BufferedOutputStream(os), width, tileRows * 64, 64, (top, height, buffer) -> {
+          if (progress != null && progress.isCanceled()) {
+            throw new CancellationException();
+          }
+          for (int tx = 0, idx = (top / 64) * tileCols; tx < tileCols && idx < tiles.size(); tx++, idx++) {
+            if (tiles.get(idx) != null) {
+              final BufferedImage tile = ColorConvert.toBufferedImage(tiles.get(idx), true);
+              final int w = Math.min(64, tile.getWidth());
+              final int h = Math.min(64, tile.getHeight());
+              tile.getRGB(0, 0, w, h, buffer, tx * 64, width);
+            }
+          }
+          if (progress != null) {
+            progress.setProgress(rowsDone.incrementAndGet());
+          }
+        });
+        retVal = Status.SUCCESS;
+      } catch (CancellationException e) {
+        retVal = Status.CANCELLED;
+      } catch (Exception e) {
         retVal = Status.ERROR;
         Logger.error(e);
       }
 
-      if (showProgress && progress.isCanceled()) {
-        retVal = Status.CANCELLED;
-      }
-
-      if (showProgress) {
+      if (progress != null) {
         progress.close();
-        progress = null;
       }
     }
 
@@ -556,85 +562,45 @@ public static Status convertToPaletteTis(Config config, boolean showProgress, Co
       DynamicArray.putInt(header, 0x14, 0x40);
       bos.write(header);
 
-      // processing TIS data
-      final int[] palette = new int[255];
-      final byte[] tilePalette = new byte[256 * 4];
-      final byte[] tileData = new byte[Config.TILE_SIZE * Config.TILE_SIZE];
-      BufferedImage tileImageOut =
-          ColorConvert.createCompatibleImage(Config.TILE_SIZE, Config.TILE_SIZE, Transparency.BITMASK);
-      final IntegerHashMap<Byte> colorCache = new IntegerHashMap<>(1800); // caching RGB -> index
-      for (int tileIdx = 0, tileCount = decoder.getTileCount(); tileIdx < tileCount; tileIdx++) {
-        colorCache.clear();
-
-        if (showProgress) {
-          progressIndex++;
-          if ((progressIndex % 100) == 0) {
-            final int curProgressIndex = progressIndex;
-            SwingUtilities.invokeLater(() -> {
-              progress.setProgress(curProgressIndex);
-              progress.setNote(String.format(fmtNote, curProgressIndex, progressMax));
-            });
+      // processing TIS data: tiles are converted independently by the thread pool and written in tile order
+      final int tileCount = decoder.getTileCount();
+      final Threading.Priority priority = config.isMultithreaded() ? Threading.Priority.HIGHEST : Threading.Priority.LOWEST;
+      try (final Threading threadPool = new Threading(priority)) {
+        // limits the number of converted tiles kept in memory
+        final int maxPending = Math.max(1, threadPool.getThreadCount() * 4);
+        final Deque<Future<byte[]>> pending = new ArrayDeque<>(maxPending);
+        int nextTileIdx = 0;
+        while (nextTileIdx < tileCount || !pending.isEmpty()) {
+          while (nextTileIdx < tileCount && pending.size() < maxPending) {
+            final int tileIdx = nextTileIdx++;
+            pending.add(threadPool.submit(
+                () -> convertPaletteTile(tileIdx, tiles.get(tileIdx), decoder, wedInfo, conversionMode)));
           }
-          if (progress.isCanceled()) {
-            return Status.CANCELLED;
-          }
-        }
-
-        final Graphics2D g = tileImageOut.createGraphics();
-        try {
-          g.setComposite(AlphaComposite.Src);
-          g.drawImage(tiles.get(tileIdx), 0, 0, null);
-        } finally {
-          g.dispose();
-        }
 
-        // overlay conversion
-        if (conversionMode.isImplemented()) {
-          final Point tileLocation = wedInfo.getTileLocation(tileIdx);
-          if (tileLocation != null) {
-            final int priTileIdx = tileLocation.y * wedInfo.getWidth() + tileLocation.x;
-            final TileInfo tileInfo = wedInfo.getTile(priTileIdx);
-            tileImageOut = conversionMode.getConverter().convert(tileIdx, tileImageOut, decoder, tileInfo);
-          }
-        }
-
-        int[] pixels = ((DataBufferInt) tileImageOut.getRaster().getDataBuffer()).getData();
-        if (ColorConvert.medianCut(pixels, 255, palette, true)) {
-          // filling palette
-          // first palette entry denotes transparency
-          tilePalette[0] = tilePalette[2] = tilePalette[3] = 0;
-          tilePalette[1] = (byte) 255;
-          for (int i = 1; i < 256; i++) {
-            tilePalette[(i << 2)]     = (byte) (palette[i - 1] & 0xff);
-            tilePalette[(i << 2) + 1] = (byte) ((palette[i - 1] >>> 8) & 0xff);
-            tilePalette[(i << 2) + 2] = (byte) ((palette[i - 1] >>> 16) & 0xff);
-            tilePalette[(i << 2) + 3] = 0;
-            colorCache.put(palette[i - 1], (byte) (i - 1));
+          final byte[] tileData = pending.poll().get();
+          if (tileData == null) {
+            retVal = Status.ERROR;
+            threadPool.shutdownNow();
+            break;
           }
-
-          // filling pixel data
-          for (int i = 0; i < tileData.length; i++) {
-            if ((pixels[i] & 0xff000000) == 0) {
-              tileData[i] = 0;
-            } else {
-              final Byte palIndex = colorCache.get(pixels[i]);
-              if (palIndex != null) {
-                tileData[i] = (byte) (palIndex + 1);
-              } else {
-                byte color = (byte) ColorConvert.getNearestColor(pixels[i], palette, 0.0, null);
-                tileData[i] = (byte) (color + 1);
-                colorCache.put(pixels[i], color);
-              }
+          bos.write(tileData);
+
+          if (showProgress) {
+            progressIndex++;
+            if ((progressIndex % 100) == 0 || progressIndex == progressMax) {
+              final int curProgressIndex = progressIndex;
+              SwingUtilities.invokeLater(() -> {
+                progress.setProgress(curProgressIndex);
+                progress.setNote(String.format(fmtNote, curProgressIndex, progressMax));
+              });
+            }
+            if (progress.isCanceled()) {
+              threadPool.shutdownNow();
+              return Status.CANCELLED;
             }
           }
-        } else {
-          retVal = Status.ERROR;
-          break;
         }
-        bos.write(tilePalette);
-        bos.write(tileData);
       }
-      tileImageOut.flush();
     } catch (Exception e) {
       retVal = Status.ERROR;
       Logger.error(e);
@@ -655,6 +621,82 @@ public static Status convertToPaletteTis(Config config, boolean showProgress, Co
     return retVal;
   }
 
+  /**
+   * Converts a single tile into the palette-based TIS tile format. This method can be safely called from multiple
+   * threads.
+   *
+   * @param tileIdx        Index of the tile.
+   * @param tile           Source tile graphics.
+   * @param decoder        {@link TisDecoder} instance of the source tileset.
+   * @param wedInfo        {@link WedInfo} instance with WED information.
+   * @param conversionMode {@link OverlayConversion} to apply to the tile.
+   * @return Tile palette and pixel data as byte array. Returns {@code null} if the tile could not be converted.
+   * @throws Exception if the overlay conversion failed.
+   */
+  private static byte[] convertPaletteTile(int tileIdx, Image tile, TisDecoder decoder, WedInfo wedInfo,
+      OverlayConversion conversionMode) throws Exception {
+    final int[] palette = new int[255];
+    final byte[] retVal = new byte[256 * 4 + Config.TILE_SIZE * Config.TILE_SIZE];
+    final int dataOfs = 256 * 4;
+    final IntegerHashMap<Byte> colorCache = new IntegerHashMap<>(1800); // caching RGB -> index
+
+    BufferedImage tileImage =
+        ColorConvert.createCompatibleImage(Config.TILE_SIZE, Config.TILE_SIZE, Transparency.BITMASK);
+    final Graphics2D g = tileImage.createGraphics();
+    try {
+      g.setComposite(AlphaComposite.Src);
+      g.drawImage(tile, 0, 0, null);
+    } finally {
+      g.dispose();
+    }
+
+    // overlay conversion
+    if (conversionMode.isImplemented()) {
+      final Point tileLocation = wedInfo.getTileLocation(tileIdx);
+      if (tileLocation != null) {
+        final int priTileIdx = tileLocation.y * wedInfo.getWidth() + tileLocation.x;
+        final TileInfo tileInfo = wedInfo.getTile(priTileIdx);
+        tileImage = conversionMode.getConverter().convert(tileIdx, tileImage, decoder, tileInfo);
+      }
+    }
+
+    final int[] pixels = ((DataBufferInt) tileImage.getRaster().getDataBuffer()).getData();
+    if (!ColorConvert.medianCut(pixels, 255, palette, true)) {
+      return null;
+    }
+
+    // filling palette
+    // first palette entry denotes transparency
+    retVal[0] = retVal[2] = retVal[3] = 0;
+    retVal[1] = (byte) 255;
+    for (int i = 1; i < 256; i++) {
+      retVal[(i << 2)]     = (byte) (palette[i - 1] & 0xff);
+      retVal[(i << 2) + 1] = (byte) ((palette[i - 1] >>> 8) & 0xff);
+      retVal[(i << 2) + 2] = (byte) ((palette[i - 1] >>> 16) & 0xff);
+      retVal[(i << 2) + 3] = 0;
+      colorCache.put(palette[i - 1], (byte) (i - 1));
+    }
+
+    // filling pixel data
+    for (int i = 0, size = Config.TILE_SIZE * Config.TILE_SIZE; i < size; i++) {
+      if ((pixels[i] & 0xff000000) == 0) {
+        retVal[dataOfs + i] = 0;
+      } else {
+        final Byte palIndex = colorCache.get(pixels[i]);
+        if (palIndex != null) {
+          retVal[dataOfs + i] = (byte) (palIndex + 1);
+        } else {
+          byte color = (byte) ColorConvert.getNearestColor(pixels[i], palette, 0.0, null);
+          retVal[dataOfs + i] = (byte) (color + 1);
+          colorCache.put(pixels[i], color);
+        }
+      }
+    }
+    tileImage.flush();
+
+    return retVal;
+  }
+
   /**
    * Converts the given tileset into the pvrz-based variant.
    *
@@ -864,35 +906,54 @@ public static Status convertToPvrzTis(Config config, boolean showProgress, Compo
       }
       mappedTileList.sort(ConvertToTis.TileEntry.CompareByIndex);
 
-      // generating pvrz files
+      // generating pvrz files: texture pages are rendered and encoded independently by the thread pool
       final String fmtPvrzProgress = "Writing PVRZ (%d / %d)";
-      for (int i = 0, size = pageList.size(); i < size; i++) {
-        final int pageIdx = i;
-        final int effectivePageIdx = config.getPvrzBaseIndex() + pageIdx;
-
-        if (showProgress) {
-          SwingUtilities.invokeLater(() -> {
-            progress.setProgress(4);
-            progress.setNote(String.format(fmtPvrzProgress, pageIdx + 1, pageList.size()));
-          });
-          if (progress.isCanceled()) {
-            return Status.CANCELLED;
+      final int pageCount = pageList.size();
+      if (showProgress) {
+        SwingUtilities.invokeLater(() -> {
+          progress.setProgress(4);
+          progress.setNote(String.format(fmtPvrzProgress, 0, pageCount));
+        });
+      }
+
+      // page-level parallelism is preferred over parallel encoding of individual textures
+      final boolean parallelPages = config.isMultithreaded() && pageCount > 1;
+      final Threading.Priority priority = parallelPages ? Threading.Priority.HIGHEST : Threading.Priority.LOWEST;
+      try (final Threading threadPool = new Threading(priority)) {
+        final List<Future<Path>> futures = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+          final int effectivePageIdx = config.getPvrzBaseIndex() + i;
+          final List<TileMap> tileMaps = regions
+              .stream()
+              .filter(tm -> tm.getPage() == effectivePageIdx)
+              .collect(Collectors.toList());
+          final Path pvrzPath = generatePvrzFileName(config.getTisFile(), effectivePageIdx);
+          if (pvrzPath == null) {
+            throw new Exception(getErrorMessage(config, "Could not determine pvrz file name"));
           }
-        }
 
-        final List<TileMap> tileMaps = regions
-            .stream()
-            .filter(tm -> tm.getPage() == effectivePageIdx)
-            .collect(Collectors.toList());
-        final Path pvrzPath = generatePvrzFileName(config.getTisFile(), effectivePageIdx);
-        if (pvrzPath == null) {
-          throw new Exception(getErrorMessage(config, "Could not determine pvrz file name"));
+          final BinPack2D bin = pageList.get(i);
+          bin.shrinkBin(true);
+
+          futures.add(threadPool.submit(() -> {
+            createPvrz(config, pvrzPath, tileMaps, bin.getBinWidth(), bin.getBinHeight(),
+                config.isMultithreaded() && !parallelPages);
+            return pvrzPath;
+          }));
+        }
+
+        // waiting for completion in page order
+        for (int i = 0; i < pageCount; i++) {
+          futures.get(i).get();
+          if (showProgress) {
+            final int pagesDone = i + 1;
+            SwingUtilities.invokeLater(() -> progress.setNote(String.format(fmtPvrzProgress, pagesDone, pageCount)));
+            if (progress.isCanceled()) {
+              threadPool.shutdownNow();
+              return Status.CANCELLED;
+            }
+          }
         }
-
-        final BinPack2D bin = pageList.get(pageIdx);
-        bin.shrinkBin(true);
-
-        createPvrz(config, pvrzPath, tileMaps, bin.getBinWidth(), bin.getBinHeight());
       }
 
       // generating output TIS file
@@ -1212,10 +1273,11 @@ private static List<TileMap> createTileRegions(Config config, TileMap tileMap) {
    * @param tileMaps List of {@link TileMap} instances with tiles for this pvrz texture.
    * @param width    Texture width, in pixels.
    * @param height   Texture height, in pixels.
+   * @param multithreaded Indicates whether to use multithreading to encode the PVRZ texture.
    * @throws Exception if the pvrz file could not be created.
    */
-  private static void createPvrz(Config config, Path pvrzFile, List<TileMap> tileMaps, int width, int height)
-      throws Exception {
+  private static void createPvrz(Config config, Path pvrzFile, List<TileMap> tileMaps, int width, int height,
+      boolean multithreaded) throws Exception {
     Objects.requireNonNull(config, "Configuration instance is null");
     Objects.requireNonNull(pvrzFile, "PVRZ file path is null");
     Objects.requireNonNull(tileMaps, "Tile map list is null");
@@ -1250,8 +1312,7 @@ private static void createPvrz(Config config, Path pvrzFile, List<TileMap> tileM
     try {
       // compressing image data
       final byte[] output = new byte[DxtEncoder.calcImageSize(texture.getWidth(), texture.getHeight(), dxtType)];
-      DxtEncoder.encodeImage(textureData, texture.getWidth(), texture.getHeight(), output, dxtType,
-          config.isMultithreaded());
+      DxtEncoder.encodeImage(textureData, texture.getWidth(), texture.getHeight(), output, dxtType, multithreaded);
       byte[] header = ConvertToPvrz.createPVRHeader(texture.getWidth(), texture.getHeight(), pvrCode);
       byte[] pvrz = new byte[header.length + output.length];
       System.arraycopy(header, 0, pvrz, 0, header.length);
@@ -1638,7 +1699,7 @@ public static Config createConfigPalette(Path tisFile, List<Image> tileList, Tis
       if (!(Objects.requireNonNull(decoder) instanceof TisV2Decoder)) {
         throw new IllegalArgumentException("Unsupported TIS decoder");
       }
-      return new Config(tisFile, tileList, decoder, wedEntry, 1, 0, 0, 0, 0, 0, false, false, overlayConversion);
+      return new Config(tisFile, tileList, decoder, wedEntry, 1, 0, 0, 0, 0, 0, false, true, overlayConversion);
     }
 
     /**
@@ -1707,7 +1768,7 @@ public static Config createConfigPvrz(Path tisFile, TisDecoder decoder, Resource
      * @param borderSize         Size of border tiles, in pixels.
      * @param segmentSize        Max. size of tile segments to be placed on PVRZ textures, in pixels.
      * @param detectBlack        Indicates whether black tiles should be detected and replaced by a default (PVRZ only).
-     * @param multithreaded      Indicates whether to use multithreading to encode PVRZ textures (PVRZ only).
+     * @param multithreaded      Indicates whether to use multithreading to convert tiles and encode PVRZ textures.
      * @param overlayConversion  Specifies how to convert tile overlays. This mode is only considered if the tileset is
      *                             linked to a WED resource.
      * @throws NullPointerException if {@code decoder} is {@code null}.
@@ -1895,12 +1956,12 @@ public Config setDetectBlack(boolean set) {
       return this;
     }
 
-    /** Returns whether to use multithreading to encode PVRZ textures. Only relevant for Palette->PVRZ conversion. */
+    /** Returns whether to use multithreading to convert tiles and encode PVRZ textures. */
     public boolean isMultithreaded() {
       return multithreaded;
     }
 
-    /** Sets whether to use multithreading to encode PVRZ textures. Only relevant for Palette->PVRZ conversion. */
+    /** Sets whether to use multithreading to convert tiles and encode PVRZ textures. */
     public Config setMultithreaded(boolean set) {
       this.multithreaded = set;
       return this;
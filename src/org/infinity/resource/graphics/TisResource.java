@@ -107,9 +107,10 @@
 import org.infinity.resource.wed.WedResource;
 import org.infinity.search.ReferenceSearcher;
 import org.infinity.util.DataString;
-import org.infinity.util.DebugTimer;
 import org.infinity.util.Logger;
 import org.infinity.util.io.FileEx;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 import org.infinity.util.tuples.Couple;
 
 /**
@@ -198,9 +199,10 @@ public void actionPerformed(ActionEvent event) {
         final TisConvert.Config config = ConvertTisDialog.show(panel.getTopLevelAncestor(), this);
         if (config != null) {
           performBackgroundTask(() -> {
-            DebugTimer.getInstance().timerReset();
+            final Span span = Metrics.start("export.TisConvert");
             Status status = TisConvert.convertToPaletteTis(config, true, panel.getTopLevelAncestor());
-            Logger.info(DebugTimer.getInstance().getTimerFormatted("TIS conversion completed"));
+            span.close();
+            Logger.info(span.getTimerFormatted("TIS conversion completed"));
             return status;
           });
         }
@@ -214,9 +216,10 @@ public void actionPerformed(ActionEvent event) {
         final TisConvert.Config config = ConvertTisDialog.show(panel.getTopLevelAncestor(), this);
         if (config != null) {
           performBackgroundTask(() -> {
-            DebugTimer.getInstance().timerReset();
+            final Span span = Metrics.start("export.TisConvert");
             Status status = TisConvert.convertToPvrzTis(config, true, panel.getTopLevelAncestor());
-            Logger.info(DebugTimer.getInstance().getTimerFormatted("TIS conversion completed"));
+            span.close();
+            Logger.info(span.getTimerFormatted("TIS conversion completed"));
             return status;
           });
         }
@@ -101,7 +101,7 @@ public byte[] getRawTileData(int tileIdx) {
    * @param tileIdx The tile index
    * @param buffer  The buffer to write the tile data into.
    */
-  public void getRawTileData(int tileIdx, byte[] buffer) {
+  public synchronized void getRawTileData(int tileIdx, byte[] buffer) {
     if (buffer != null) {
       int ofs = getTileOffset(tileIdx);
       if (ofs > 0) {
@@ -215,7 +215,7 @@ private int getTileOffset(int tileIdx) {
   }
 
   // Paints the specified tile onto the canvas
-  private boolean renderTile(int tileIdx, Image canvas) {
+  private synchronized boolean renderTile(int tileIdx, Image canvas) {
     if (canvas != null && canvas.getWidth(null) >= TILE_DIMENSION && canvas.getHeight(null) >= TILE_DIMENSION) {
       int[] buffer = ((DataBufferInt) workingCanvas.getRaster().getDataBuffer()).getData();
       if (renderTile(tileIdx, buffer)) {
@@ -238,7 +238,7 @@ private boolean renderTile(int tileIdx, Image canvas) {
   }
 
   // Writes the specified tile data into the buffer
-  private boolean renderTile(int tileIdx, int[] buffer) {
+  private synchronized boolean renderTile(int tileIdx, int[] buffer) {
     int size = TILE_DIMENSION * TILE_DIMENSION;
     if (buffer != null && buffer.length >= size) {
       int ofs = getTileOffset(tileIdx);
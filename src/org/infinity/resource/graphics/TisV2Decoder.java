@@ -11,7 +11,11 @@
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.key.ResourceEntry;
@@ -23,6 +27,8 @@
 public class TisV2Decoder extends TisDecoder {
   private static final int HEADER_SIZE = 24; // Size of the TIS header
 
+  private final PvrDecoder.References pvrReferences = new PvrDecoder.References();
+
   private ByteBuffer tisBuffer;
   private int tileCount;
   private int tileSize;
@@ -74,9 +80,32 @@ public String getPvrzFileName(int tileIdx) {
     }
   }
 
+  /**
+   * Starts loading all PVRZ resources referenced by this tileset into the cache in the background. This will ensure
+   * that tiles are decoded at constant speed once they are needed.
+   */
+  public void prefetchPvrz() {
+    final Set<Integer> pages = new TreeSet<>();
+    for (int i = 0; i < tileCount; i++) {
+      final int page = getPvrzPage(i);
+      if (page >= 0) {
+        pages.add(page);
+      }
+    }
+
+    final List<ResourceEntry> entries = new ArrayList<>(pages.size());
+    for (final int page : pages) {
+      final ResourceEntry entry = ResourceFactory.getResourceEntry(String.format("%s%02d.PVRZ", pvrzNameBase, page));
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    PvrDecoder.prefetch(entries);
+  }
+
   @Override
   public void close() {
-    PvrDecoder.flushCache();
+    pvrReferences.releaseAll();
     tisBuffer = null;
     tileCount = 0;
     tileSize = 0;
@@ -176,7 +205,7 @@ private PvrDecoder getPVR(int page) {
       String name = String.format("%s%02d.PVRZ", pvrzNameBase, page);
       ResourceEntry entry = ResourceFactory.getResourceEntry(name);
       if (entry != null) {
-        return PvrDecoder.loadPvr(entry);
+        return pvrReferences.add(PvrDecoder.loadPvr(entry));
       }
     } catch (Exception e) {
       Logger.error(e);
@@ -194,7 +223,7 @@ private int getTileOffset(int tileIdx) {
   }
 
   // Paints the specified tile onto the canvas
-  private boolean renderTile(int tileIdx, Image canvas) {
+  private synchronized boolean renderTile(int tileIdx, Image canvas) {
     if (canvas != null && canvas.getWidth(null) >= TILE_DIMENSION && canvas.getHeight(null) >= TILE_DIMENSION) {
       if (updateWorkingCanvas(tileIdx)) {
         Graphics2D g = (Graphics2D) canvas.getGraphics();
@@ -212,7 +241,7 @@ private boolean renderTile(int tileIdx, Image canvas) {
   }
 
   // Writes the specified tile data into the buffer
-  private boolean renderTile(int tileIdx, int[] buffer) {
+  private synchronized boolean renderTile(int tileIdx, int[] buffer) {
     int size = TILE_DIMENSION * TILE_DIMENSION;
     if (buffer != null && buffer.length >= size) {
       if (updateWorkingCanvas(tileIdx)) {
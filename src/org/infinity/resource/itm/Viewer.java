@@ -204,12 +204,9 @@ private static String getItemDialog(ItmResource itm) {
 
       // fetching item dialog file, if available
       if (resref != null) {
-        for (int row = 0, numRows = table.getRowCount(); row < numRows; row++) {
-          String entry = table.get(row, 0);
-          if (resref.equalsIgnoreCase(entry)) {
-            retVal = table.get(row, 2);
-            break;
-          }
+        final int row = table.findRow(resref);
+        if (row >= 0) {
+          retVal = table.get(row, 2);
         }
       }
     }
@@ -12,7 +12,9 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 import org.infinity.gui.menu.BrowserMenuBar;
@@ -24,8 +26,23 @@
 import org.infinity.util.io.FileEx;
 import org.infinity.util.io.FileManager;
 import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.LatencyTimer;
+import org.infinity.util.metrics.Metrics;
 
 public final class BIFFResourceEntry extends ResourceEntry implements Writeable {
+  /** Load times of resources from override folders. */
+  private static final LatencyTimer METRIC_LOAD_OVERRIDE = Metrics.timer("resource.load.override");
+
+  /** Load times of resources by BIFF archive type. */
+  private static final EnumMap<AbstractBIFFReader.Type, LatencyTimer> METRIC_LOAD_BIFF =
+      new EnumMap<>(AbstractBIFFReader.Type.class);
+
+  static {
+    for (final AbstractBIFFReader.Type type : AbstractBIFFReader.Type.values()) {
+      METRIC_LOAD_BIFF.put(type, Metrics.timer("resource.load." + type.name().toLowerCase(Locale.ENGLISH)));
+    }
+  }
+
   /** Full path to KEY file containing BIFF entry. */
   private final Path keyFile;
 
@@ -203,6 +220,7 @@ public int getLocator() {
 
   @Override
   public ByteBuffer getResourceBuffer(boolean ignoreOverride) throws Exception {
+    final long startTime = System.nanoTime();
     if (!ignoreOverride && hasOverride) {
       List<Path> overrides = Profile.getOverrideFolders(false);
       Path file = FileManager.query(overrides, getResourceName());
@@ -213,12 +231,15 @@ public ByteBuffer getResourceBuffer(boolean ignoreOverride) throws Exception {
             throw new IOException();
           }
           bb.position(0);
+          METRIC_LOAD_OVERRIDE.recordSince(startTime);
           return bb;
         }
       }
     }
     AbstractBIFFReader biff = ResourceFactory.getKeyfile().getBIFFFile(getBIFFEntry());
-    return biff.getResourceBuffer(locator);
+    final ByteBuffer retVal = biff.getResourceBuffer(locator);
+    METRIC_LOAD_BIFF.get(biff.getType()).recordSince(startTime);
+    return retVal;
   }
 
   @Override
@@ -24,8 +24,13 @@
 import org.infinity.util.Logger;
 import org.infinity.util.io.ByteBufferInputStream;
 import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.LatencyTimer;
+import org.infinity.util.metrics.Metrics;
 
 public class FileResourceEntry extends ResourceEntry {
+  /** Load times of resources stored as individual files. */
+  private static final LatencyTimer METRIC_LOAD_FILE = Metrics.timer("resource.load.file");
+
   private final boolean override;
   private Path file;
 
@@ -70,10 +75,12 @@ public String getExtension() {
 
   @Override
   public ByteBuffer getResourceBuffer(boolean ignoreOverride) throws IOException {
+    final long startTime = System.nanoTime();
     try (SeekableByteChannel ch = Files.newByteChannel(file, StandardOpenOption.READ)) {
       ByteBuffer bb = StreamUtils.getByteBuffer((int) ch.size());
       ch.read(bb);
       bb.position(0);
+      METRIC_LOAD_FILE.recordSince(startTime);
       return bb;
     }
   }
@@ -49,16 +49,16 @@ public static void clearCache() {
   // adds an AudioBuffer object to the cache
   private static void addCacheEntry(Path path, String name, AudioBuffer buffer) {
     if (name != null && buffer != null) {
-      while (currentCacheSize + buffer.getAudioData().length > MAX_CACHE_SIZE && !BufferCache.isEmpty()) {
+      while (currentCacheSize + buffer.getAudioDataSize() > MAX_CACHE_SIZE && !BufferCache.isEmpty()) {
         Iterator<Path> iter = BufferCache.keySet().iterator();
         if (iter.hasNext()) {
           AudioBuffer ab = BufferCache.get(iter.next());
           iter.remove();
-          currentCacheSize -= ab.getAudioData().length;
+          currentCacheSize -= ab.getAudioDataSize();
         }
       }
       BufferCache.put(getCacheKey(path, name), buffer);
-      currentCacheSize += buffer.getAudioData().length;
+      currentCacheSize += buffer.getAudioDataSize();
     }
   }
 
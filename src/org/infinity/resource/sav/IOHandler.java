@@ -13,15 +13,22 @@
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 import org.infinity.datatype.TextString;
+import org.infinity.gui.menu.BrowserMenuBar;
 import org.infinity.resource.Profile;
 import org.infinity.resource.Writeable;
 import org.infinity.resource.key.FileResourceEntry;
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.util.FileDeletionHook;
 import org.infinity.util.Logger;
+import org.infinity.util.Threading;
 import org.infinity.util.io.FileEx;
 import org.infinity.util.io.StreamUtils;
 
@@ -30,10 +37,17 @@ public final class IOHandler implements Writeable {
   private final TextString header;
   private final List<SavResourceEntry> fileEntries;
 
+  /** Tracks SAV entries extracted to the temp folder. */
+  private final HashMap<Path, Extract> extracted = new HashMap<>();
+
   private Path tempFolder;
+  private int compressionLevel;
 
   public IOHandler(ResourceEntry entry, boolean sortByName) throws Exception {
     this.entry = entry;
+    this.compressionLevel = BrowserMenuBar.isInstantiated()
+        ? BrowserMenuBar.getInstance().getOptions().getSavCompressionLevel()
+        : Deflater.BEST_COMPRESSION;
     ByteBuffer buffer = entry.getResourceBuffer(true); // ignoreOverride - no real effect
     header = new TextString(buffer, 0, 8, null);
     if (!header.getText().equals("SAV V1.0")) {
@@ -84,16 +98,73 @@ public void close() {
       }
       tempFolder = null;
     }
+    extracted.clear();
   }
 
+  /**
+   * Rebuilds the SAV content from the specified list of resources.
+   * <p>
+   * {@link SavResourceEntry} instances and extracted files that have not been modified retain their compressed data.
+   * Only new or modified resources are compressed, which is performed concurrently.
+   * </p>
+   *
+   * @param entries List of resources to store in the SAV resource.
+   * @throws Exception if a resource could not be read or compressed.
+   */
   public void compress(List<? extends ResourceEntry> entries) throws Exception {
-    fileEntries.clear();
-    for (final ResourceEntry entry : entries) {
-      fileEntries.add(new SavResourceEntry(entry));
+    final SavResourceEntry[] newEntries = new SavResourceEntry[entries.size()];
+    final List<Future<SavResourceEntry>> results = new ArrayList<>();
+    int numCompressed = 0;
+    try (final Threading threadPool = new Threading()) {
+      for (int i = 0; i < newEntries.length; i++) {
+        final ResourceEntry entry = entries.get(i);
+        if (entry instanceof SavResourceEntry) {
+          newEntries[i] = (SavResourceEntry) entry;
+          results.add(null);
+        } else {
+          final byte[] udata = StreamUtils.toArray(entry.getResourceBuffer(true));
+          final Extract extract = (entry.getActualPath() != null) ? extracted.get(entry.getActualPath()) : null;
+          if (extract != null && extract.isUnchanged(udata)) {
+            newEntries[i] = extract.source;
+            results.add(null);
+          } else {
+            final String name = entry.getResourceName();
+            final int level = compressionLevel;
+            results.add(threadPool.submit(() -> new SavResourceEntry(name, udata, level)));
+            numCompressed++;
+          }
+        }
+      }
+
+      for (int i = 0; i < newEntries.length; i++) {
+        final Future<SavResourceEntry> result = results.get(i);
+        if (result != null) {
+          try {
+            newEntries[i] = result.get();
+          } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+          }
+        }
+      }
     }
+    Logger.debug("{}: {} of {} entries compressed", entry, numCompressed, newEntries.length);
+
+    fileEntries.clear();
+    Collections.addAll(fileEntries, newEntries);
     close();
   }
 
+  /**
+   * Prepares the SAV content for editing.
+   * <p>
+   * Entries are not written to disk by this method. They are returned as {@link SavResourceEntry} instances which
+   * provide the resource data directly from memory. Use {@link #extract(ResourceEntry)} to obtain an editable copy of a
+   * specific entry.
+   * </p>
+   *
+   * @return List of resources stored in the SAV resource.
+   * @throws Exception if the temp folder could not be created.
+   */
   public List<ResourceEntry> decompress() throws Exception {
     tempFolder = createTempFolder();
     if (tempFolder == null) {
@@ -101,16 +172,6 @@ public List<ResourceEntry> decompress() throws Exception {
     }
     Files.createDirectory(tempFolder);
 
-    // placing content of .sav resource in the temporary folder
-    final List<ResourceEntry> entries = new ArrayList<>(fileEntries.size());
-    for (final SavResourceEntry entry : fileEntries) {
-      Path file = tempFolder.resolve(entry.getResourceName());
-      try (OutputStream os = StreamUtils.getOutputStream(file, true)) {
-        StreamUtils.writeBytes(os, entry.decompress());
-      }
-      entries.add(new FileResourceEntry(file));
-    }
-
     // placing copy of associated .gam resource in the temporary folder
     String gamFile = Profile.getProperty(Profile.Key.GET_GAM_NAME);
     Path srcFile = entry.getActualPath().getParent().resolve(gamFile);
@@ -119,7 +180,51 @@ public List<ResourceEntry> decompress() throws Exception {
       Files.copy(srcFile, dstFile);
     }
 
-    return entries;
+    return new ArrayList<>(fileEntries);
+  }
+
+  /**
+   * Writes the specified SAV entry to the temp folder, so that it can be edited and saved like a regular file.
+   * Unmodified extracted files are detected by {@link #compress(List)} and retain their original compressed data.
+   *
+   * @param resourceEntry The resource to extract. Must have been returned by {@link #decompress()}.
+   * @return A {@link ResourceEntry} for the extracted file. Returns {@code resourceEntry} if it does not refer to a
+   *         SAV entry.
+   * @throws Exception if the resource could not be extracted.
+   */
+  public ResourceEntry extract(ResourceEntry resourceEntry) throws Exception {
+    if (!(resourceEntry instanceof SavResourceEntry)) {
+      return resourceEntry;
+    }
+    if (tempFolder == null) {
+      throw new IllegalStateException("SAV resource is not decompressed");
+    }
+
+    final SavResourceEntry savEntry = (SavResourceEntry) resourceEntry;
+    final byte[] udata = StreamUtils.toArray(savEntry.decompress());
+    final Path file = tempFolder.resolve(savEntry.getResourceName());
+    try (OutputStream os = StreamUtils.getOutputStream(file, true)) {
+      StreamUtils.writeBytes(os, StreamUtils.getByteBuffer(udata));
+    }
+    extracted.put(file, new Extract(savEntry, udata));
+    return new FileResourceEntry(file);
+  }
+
+  /** Returns the zlib compression level for new or modified entries. */
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Sets the zlib compression level for new or modified entries.
+   *
+   * @param level Compression level in range [0, 9].
+   */
+  public void setCompressionLevel(int level) {
+    if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Compression level out of range: " + level);
+    }
+    compressionLevel = level;
   }
 
   public List<SavResourceEntry> getFileEntries() {
@@ -140,4 +245,30 @@ private Path createTempFolder() {
     }
     return null;
   }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** Associates an extracted file with the SAV entry it was created from. */
+  private static class Extract {
+    private final SavResourceEntry source;
+    private final int size;
+    private final long crc;
+
+    public Extract(SavResourceEntry source, byte[] data) {
+      this.source = source;
+      this.size = data.length;
+      this.crc = getCrc(data);
+    }
+
+    /** Returns whether the specified data matches the data of the source entry. */
+    public boolean isUnchanged(byte[] data) {
+      return data.length == size && getCrc(data) == crc;
+    }
+
+    private static long getCrc(byte[] data) {
+      final CRC32 crc32 = new CRC32();
+      crc32.update(data, 0, data.length);
+      return crc32.getValue();
+    }
+  }
 }
@@ -122,15 +122,7 @@ public void actionPerformed(ActionEvent event) {
     } else if (buttonPanel.getControlByType(CTRL_DECOMPRESS) == event.getSource()) {
       decompressData(true);
     } else if (buttonPanel.getControlByType(CTRL_EDIT) == event.getSource()) {
-      try {
-        ResourceEntry fileentry = entries.get(filelist.getSelectedIndex());
-        Resource res = ResourceFactory.getResource(fileentry);
-        new ViewFrame(panel.getTopLevelAncestor(), res);
-      } catch (Exception e) {
-        Logger.error(e);
-        JOptionPane.showMessageDialog(panel.getTopLevelAncestor(), "Could not open selected resource.", "Error",
-            JOptionPane.ERROR_MESSAGE);
-      }
+      openResource(filelist.getSelectedIndex());
     } else if (buttonPanel.getControlByType(ButtonPanel.Control.EXPORT_BUTTON) == event.getSource()) {
       ResourceFactory.exportResource(entry, panel.getTopLevelAncestor());
     } else if (buttonPanel.getControlByType(CTRL_DELETE) == event.getSource()) {
@@ -217,15 +209,7 @@ public JComponent makeViewer(ViewableContainer container) {
       @Override
       public void mouseClicked(MouseEvent event) {
         if (event.getClickCount() == 2) {
-          try {
-            ResourceEntry fileentry = entries.get(filelist.getSelectedIndex());
-            Resource res = ResourceFactory.getResource(fileentry);
-            new ViewFrame(panel.getTopLevelAncestor(), res);
-          } catch (Exception e) {
-            Logger.error(e);
-            JOptionPane.showMessageDialog(panel.getTopLevelAncestor(), "Could not open selected resource.", "Error",
-                JOptionPane.ERROR_MESSAGE);
-          }
+          openResource(filelist.getSelectedIndex());
         }
       }
     });
@@ -389,6 +373,24 @@ private boolean decompressData(boolean showError) {
     return true;
   }
 
+  /** Opens the specified entry in a new view. SAV entries are extracted to make them editable. */
+  private void openResource(int entryIndex) {
+    try {
+      ResourceEntry fileentry = entries.get(entryIndex);
+      if (fileentry instanceof SavResourceEntry) {
+        fileentry = handler.extract(fileentry);
+        entries.set(entryIndex, fileentry);
+        listModel.setElementAt(fileentry, entryIndex);
+      }
+      Resource res = ResourceFactory.getResource(fileentry);
+      new ViewFrame(panel.getTopLevelAncestor(), res);
+    } catch (Exception e) {
+      Logger.error(e);
+      JOptionPane.showMessageDialog(panel.getTopLevelAncestor(), "Could not open selected resource.", "Error",
+          JOptionPane.ERROR_MESSAGE);
+    }
+  }
+
   private void addResource(String resourceName) {
     addResource(ResourceFactory.getResourceEntry(resourceName));
   }
@@ -397,7 +399,7 @@ private void addResource(ResourceEntry resourceEntry) {
     if (resourceEntry != null) {
       Path output = handler.getTempFolder().resolve(resourceEntry.getResourceName());
       try {
-        if (FileEx.create(output).exists()) {
+        if (entries.stream().anyMatch(e -> e.compareTo(resourceEntry) == 0)) {
           String msg = "File " + resourceEntry.getResourceName() + " already exists. Overwrite?";
           int ret = JOptionPane.showConfirmDialog(panel.getTopLevelAncestor(), msg, "Overwrite file?",
               JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
@@ -412,6 +414,8 @@ private void addResource(ResourceEntry resourceEntry) {
         int idx = 0;
         for (int count = entries.size(); idx < count; idx++) {
           if (newEntry.compareTo(entries.get(idx)) == 0) {
+            entries.set(idx, newEntry);
+            listModel.setElementAt(newEntry, idx);
             filelist.setSelectedIndex(idx);
             idx = -1;
             break;
@@ -442,7 +446,7 @@ private void removeResource(int entryIndex) {
     if (entryIndex >= 0 && entryIndex < entries.size()) {
       ResourceEntry resourceEntry = entries.get(entryIndex);
       Path file = resourceEntry.getActualPath();
-      if (FileEx.create(file).exists()) {
+      if (file != null && FileEx.create(file).exists()) {
         try {
           Files.delete(file);
         } catch (IOException e) {
@@ -44,16 +44,44 @@ public SavResourceEntry(ByteBuffer buffer, int offset) {
     StreamUtils.copyBytes(buffer, offset + 8, cdata, 0, comprLength);
   }
 
+  /**
+   * Creates a new SAV entry from the specified resource, compressed with the highest compression level.
+   *
+   * @param entry The resource to compress.
+   * @throws Exception if the resource data could not be read or compressed.
+   */
   public SavResourceEntry(ResourceEntry entry) throws Exception {
-    comprLength = 0;
-    uncomprLength = 0;
-    fileName = entry.getResourceName();
-    byte[] udata = StreamUtils.toArray(entry.getResourceBuffer(true));
+    this(entry, Deflater.BEST_COMPRESSION);
+  }
+
+  /**
+   * Creates a new SAV entry from the specified resource.
+   *
+   * @param entry            The resource to compress.
+   * @param compressionLevel The zlib compression level in range [0, 9].
+   * @throws Exception if the resource data could not be read or compressed.
+   */
+  public SavResourceEntry(ResourceEntry entry, int compressionLevel) throws Exception {
+    this(entry.getResourceName(), StreamUtils.toArray(entry.getResourceBuffer(true)), compressionLevel);
+  }
+
+  /**
+   * Creates a new SAV entry from the specified uncompressed data.
+   *
+   * @param fileName         Resource name (name dot extension) of the entry.
+   * @param udata            Uncompressed resource data.
+   * @param compressionLevel The zlib compression level in range [0, 9].
+   * @throws IOException if the data could not be compressed.
+   */
+  public SavResourceEntry(String fileName, byte[] udata, int compressionLevel) throws IOException {
+    this.fileName = fileName;
     cdata = StreamUtils.getByteBuffer(udata.length * 2 + 8);
-    try (DeflaterOutputStream dos = new DeflaterOutputStream(new ByteBufferOutputStream(cdata),
-        new Deflater(Deflater.BEST_COMPRESSION))) {
+    final Deflater deflater = new Deflater(compressionLevel);
+    try (DeflaterOutputStream dos = new DeflaterOutputStream(new ByteBufferOutputStream(cdata), deflater)) {
       dos.write(udata);
       dos.finish();
+    } finally {
+      deflater.end();
     }
     cdata.flip();
     uncomprLength = udata.length;
@@ -158,10 +186,14 @@ public long getResourceSize(boolean ignoreOverride) {
 
   public ByteBuffer decompress() throws Exception {
     Inflater inflater = new Inflater();
-    byte[] udata = new byte[uncomprLength];
-    inflater.setInput(cdata.array());
-    inflater.inflate(udata);
-    return StreamUtils.getByteBuffer(udata);
+    try {
+      byte[] udata = new byte[uncomprLength];
+      inflater.setInput(cdata.array(), cdata.arrayOffset(), comprLength);
+      inflater.inflate(udata);
+      return StreamUtils.getByteBuffer(udata);
+    } finally {
+      inflater.end();
+    }
   }
 
   @Override
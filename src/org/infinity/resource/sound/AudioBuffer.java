@@ -4,6 +4,9 @@
 
 package org.infinity.resource.sound;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -48,6 +51,30 @@ public byte[] getAudioData() {
     return data;
   }
 
+  /**
+   * Returns the size of the uncompressed PCM WAV data in bytes, including WAV header.
+   *
+   * @return Size of the PCM WAV data in bytes.
+   */
+  public int getAudioDataSize() {
+    return (data != null) ? data.length : 0;
+  }
+
+  /**
+   * Returns a stream of the uncompressed PCM WAV data, including WAV header. Subclasses may decode audio data on
+   * demand while the stream is read instead of keeping the whole PCM data in memory.
+   *
+   * @return {@link InputStream} providing uncompressed PCM WAV data.
+   * @throws IOException if the audio data could not be provided.
+   */
+  public InputStream getAudioStream() throws IOException {
+    final byte[] buf = getAudioData();
+    if (buf == null) {
+      throw new IOException("No audio data available");
+    }
+    return new ByteArrayInputStream(buf);
+  }
+
   /**
    * Returns the total duration of the audio data in milliseconds.
    *
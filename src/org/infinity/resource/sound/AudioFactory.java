@@ -4,6 +4,11 @@
 
 package org.infinity.resource.sound;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.resource.sound.AudioBuffer.AudioOverride;
 import org.infinity.util.DynamicArray;
@@ -145,6 +150,66 @@ public static byte[] convertAudio(byte[] buffer, int offset, AudioOverride overr
     return null;
   }
 
+  /**
+   * Decodes the specified audio resource and writes the resulting PCM WAV data, including WAV header, to the given
+   * output stream. ACM and WAVC resources are decoded block by block directly from the resource data, which keeps memory
+   * usage independent of the length of the audio clip.
+   *
+   * @param entry The audio resource to decode.
+   * @param os    The {@link OutputStream} for the decoded audio data.
+   * @return Number of bytes written to the output stream. Returns 0 if the audio format is not supported.
+   * @throws Exception if the audio data could not be decoded or written.
+   */
+  public static long writeAudio(ResourceEntry entry, OutputStream os) throws Exception {
+    if (entry == null || os == null) {
+      throw new NullPointerException();
+    }
+
+    try (final InputStream is = new BufferedInputStream(entry.getResourceDataAsStream())) {
+      final byte[] header = new byte[48];
+      is.mark(header.length);
+      int size = 0;
+      while (size < header.length) {
+        int n = is.read(header, size, header.length - size);
+        if (n < 0) {
+          break;
+        }
+        size += n;
+      }
+      is.reset();
+
+      switch (detectFormat(header, 0)) {
+        case FMT_ACM:
+          return new AcmReader(is, null).writeWav(os);
+        case FMT_WAVC: {
+          final int acmOfs = DynamicArray.getInt(header, 16);
+          long skipped = 0L;
+          while (acmOfs >= 0x1c && skipped < acmOfs) {
+            long n = is.skip(acmOfs - skipped);
+            if (n <= 0) {
+              break;
+            }
+            skipped += n;
+          }
+          if (acmOfs < 0x1c || skipped != acmOfs) {
+            throw new IOException("Invalid WAVC header data");
+          }
+          return new AcmReader(is, null).writeWav(os);
+        }
+        default:
+          break;
+      }
+    }
+
+    // other audio formats are decoded as a whole
+    final byte[] data = convertAudio(entry);
+    if (data != null) {
+      os.write(data);
+      return data.length;
+    }
+    return 0L;
+  }
+
   // Detects supported audio formats
   private static AudioFormat detectFormat(byte[] buffer, int offset) {
     AudioFormat af = AudioFormat.FMT_UNKNOWN;
@@ -19,11 +19,11 @@ public interface StreamingAudioPlayback extends AudioPlayback {
   void clearAudioQueue();
 
   /**
-   * Adds more sound data to the audio queue.
+   * Adds more sound data to the audio queue. Audio data is read through {@link AudioBuffer#getAudioStream()} when the
+   * buffer is played back, which allows audio buffers to decode their data on demand.
    *
    * @param audioBuffer {@link AudioBuffer} to add.
-   * @throws NullPointerException     if the {@code audioBuffer} argument or the associated audio data array is
-   *                                    {@code null}.
+   * @throws NullPointerException     if the {@code audioBuffer} argument is {@code null}.
    * @throws IllegalArgumentException if the audio buffer contains no data.
    */
   void addAudioBuffer(AudioBuffer audioBuffer);
@@ -4,7 +4,7 @@
 
 package org.infinity.resource.sound;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -91,10 +91,7 @@ public void addAudioBuffer(AudioBuffer audioBuffer) {
     if (audioBuffer == null) {
       throw new NullPointerException("audioBuffer is null");
     }
-    if (audioBuffer.getAudioData() == null) {
-      throw new NullPointerException("audio data is null");
-    }
-    if (audioBuffer.getAudioData().length == 0) {
+    if (audioBuffer.getAudioDataSize() == 0) {
       throw new IllegalArgumentException("No audio data");
     }
 
@@ -299,7 +296,9 @@ private void resume() {
   private AudioInputStream pollAudioBuffer() throws Exception {
     final AudioBuffer audioBuffer = audioBufferQueue.poll();
     if (audioBuffer != null) {
-      final AudioInputStream sourceStream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(audioBuffer.getAudioData()));
+      // audio data is decoded on demand by streaming-capable audio buffers
+      final AudioInputStream sourceStream =
+          AudioSystem.getAudioInputStream(new BufferedInputStream(audioBuffer.getAudioStream()));
       if (!AudioSystem.isConversionSupported(audioFormat, sourceStream.getFormat())) {
         throw new IllegalArgumentException("Incompatible audio format: " + sourceStream.getFormat());
       }
@@ -704,14 +704,9 @@ private String resolveRandomItem(String itmResref) {
       if (Profile.getGame() == Profile.Game.IWD2) {
         final Table2da table = Table2daCache.get("rt_norm.2da");
         if (table != null) {
-          for (int row = 0, numRows = table.getRowCount(); row < numRows; ++row) {
-            final String s = table.get(row, 0);
-            if (itmResref.equalsIgnoreCase(s)) {
-              if (table.getColCount(row) > 1) {
-                retVal = table.get(row, 1);
-              }
-              break;
-            }
+          final int row = table.findRow(itmResref);
+          if (row >= 0 && table.getColCount(row) > 1) {
+            retVal = table.get(row, 1);
           }
         }
       }
@@ -848,7 +848,7 @@ private MveSegment(InputStream in, int size, int opcode, int version) {
         int numRead = 0;
         while (numRead < size) {
           try {
-            int n = in.read(data);
+            int n = in.read(data, numRead, size - numRead);
             if (n <= 0) {
               break;
             }
@@ -4,20 +4,45 @@
 
 package org.infinity.resource.video;
 
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.SourceDataLine;
 
+import org.infinity.resource.graphics.ColorConvert;
 import org.infinity.util.Logger;
 
+/**
+ * Plays MVE movies on an {@link ImageRenderer}.
+ * <p>
+ * Frames are decoded by a separate decoder thread into a bounded ring of frame buffers. The calling thread presents
+ * decoded frames and audio blocks in the pace given by the movie frame delays.
+ * </p>
+ */
 public class MvePlayer {
+  /** Number of decoded frames the decoder thread may advance ahead of the presented frame. */
+  private static final int FRAME_RING_SIZE = 8;
+
+  /** Max. delay (in ns) of presented frames before the playback clock is resynchronized. */
+  private static final long MAX_FRAME_LATENESS = 100_000_000L;
+
+  /** Interval (in ns) for checking the playback state while paused. */
+  private static final long PAUSE_CHECK_INTERVAL = 10_000_000L;
+
   private final AudioQueue audioQueue;
 
-  private boolean playing;
-  private boolean paused;
-  private boolean stopped;
-  private long startTime;
-  private long delayTime;
+  private volatile boolean playing;
+  private volatile boolean paused;
+  private volatile boolean stopped;
   private SourceDataLine dataLine;
 
   public MvePlayer() {
@@ -37,103 +62,110 @@ public void play(ImageRenderer renderer, MveDecoder decoder) throws Exception {
     setStopped(false);
     setPaused(false);
 
-    // initializing
-    initAudio(decoder);
-    decoder.setDefaultAudioOutput(audioQueue);
+    final VideoBuffer oldVideoOutput = decoder.getVideoOutput();
+    final Image image = renderer.frontBuffer();
+    final FrameRing ring = new FrameRing(FRAME_RING_SIZE, image.getWidth(null), image.getHeight(null));
+    final Thread decoderThread = new Thread(() -> decodeFrames(decoder, ring), "MveDecoder");
+    decoderThread.setDaemon(true);
 
-    // preloading frames
-    for (int i = 0; i < renderer.bufferCount() && decoder.hasNextFrame(); i++) {
-      if (decoder.processNextFrame()) {
-        // attached frame data contains current frame delay as Integer object
-        renderer.attachData(decoder.getFrameDelay());
-        if (decoder.audioInitialized()) {
-          initAudio(decoder);
+    try {
+      // initializing
+      initAudio(decoder.getAudioFormat());
+      decoder.setVideoOutput(ring);
+      decoder.setDefaultAudioOutput(ring.audioQueue);
+      decoderThread.start();
+
+      boolean audioStarted = false;
+      long deadline = 0L;
+      while (isPlaying()) {
+        final Frame frame = ring.nextFilled();
+        if (frame == null) {
+          // waiting for the decoder
+          continue;
+        }
+        if (frame == FrameRing.END) {
+          break;
         }
-      } else {
-        decoder.setDefaultAudioOutput(null);
-        stopPlay();
-        throw new Exception("Error decoding video data");
-      }
-    }
 
-    dataLine.start();
-    outputAudioFrame(true);
-    renderer.updateRenderer();
-    while (isPlaying() && decoder.hasNextFrame()) {
-      Object dataObj = renderer.fetchData();
-      if (dataObj instanceof Integer) {
-        setTimerDelay(((Integer) dataObj).longValue() * 1000L + timeRemaining());
-      } else {
-        // audio-only frames do not contain timing information
-        setTimerDelay(0L);
-      }
+        try {
+          // has audio been re-initialized?
+          if (frame.audioFormat != null) {
+            initAudio(frame.audioFormat);
+            audioStarted = false;
+          }
+          for (final byte[] block : frame.audioBlocks) {
+            audioQueue.addAudioBlock(0, block);
+          }
 
-      if (decoder.processNextFrame()) {
-        renderer.attachData(decoder.getFrameDelay());
-        // has audio been re-initialized?
-        if (decoder.audioInitialized()) {
-          setTimerDelay(0L);
-          initAudio(decoder);
-          dataLine.start();
-          outputAudioFrame(true);
-          // flushing video buffer chain
-          for (int i = 0; i < renderer.bufferCount(); i++) {
-            renderer.flipBuffers();
+          // audio-only frames do not contain timing information
+          if (!frame.hasVideo) {
+            continue;
           }
-        }
-      } else {
-        decoder.setDefaultAudioOutput(null);
-        stopPlay();
-        throw new Exception("Error decoding video data");
-      }
 
-      // skip audio-only frames
-      if (timeRemaining() == 0L) {
-        continue;
-      }
+          if (!audioStarted) {
+            dataLine.start();
+            outputAudioFrame();
+            audioStarted = true;
+            deadline = System.nanoTime();
+          }
+          outputAudioFrame();
+
+          // has playback been paused?
+          if (isPaused()) {
+            dataLine.stop();
+            dataLine.flush();
+            while (isPlaying() && isPaused()) {
+              LockSupport.parkNanos(PAUSE_CHECK_INTERVAL);
+            }
+            dataLine.start();
+            deadline = System.nanoTime();
+          }
 
-      outputAudioFrame(false);
+          // waiting for the frame to be displayed
+          waitUntil(deadline);
+          presentFrame(renderer, frame.image);
 
-      // has playback been paused?
-      if (isPaused()) {
-        dataLine.stop();
-        dataLine.flush();
-        while (isPlaying() && isPaused()) {
-          try {
-            Thread.sleep(1);
-          } catch (InterruptedException e) {
-            Logger.trace(e);
+          deadline += frame.frameDelay * 1000L;
+          if (System.nanoTime() - deadline > MAX_FRAME_LATENESS) {
+            // don't try to catch up after a longer delay
+            deadline = System.nanoTime();
           }
+        } finally {
+          ring.release(frame);
         }
-        dataLine.start();
+      }
+    } finally {
+      // cleanup decoder related objects
+      ring.close();
+      decoderThread.interrupt();
+      try {
+        decoderThread.join();
+      } catch (InterruptedException e) {
+        Logger.trace(e);
+      }
+      decoder.setVideoOutput(oldVideoOutput);
+      decoder.setDefaultAudioOutput(null);
+      renderer.clearBuffers();
+      audioQueue.clear();
+
+      // clean up audio
+      if (dataLine != null) {
         if (isPlaying()) {
-          // reloading last audio block
-          outputAudioFrame(true);
+          dataLine.drain();
         }
-        continue;
+        dataLine.stop();
+        dataLine.close();
+        dataLine = null;
       }
 
-      // waiting for the next frame to be displayed
-      sleepUntil(5_000_000L);
-      renderer.updateRenderer();
-      audioQueue.skipNext();
+      setPlaying(false);
+      setPaused(false);
+      setStopped(true);
     }
 
-    // cleanup decoder related objects
-    renderer.clearBuffers();
-    decoder.setDefaultAudioOutput(null);
-    audioQueue.clear();
-
-    // clean up audio
-    if (!isPlaying()) {
-      dataLine.drain();
+    if (ring.error != null) {
+      throw new Exception("Error decoding video data", ring.error);
     }
-    dataLine.stop();
-    dataLine = null;
-
-    setPlaying(false);
-    setPaused(false);
-    setStopped(true);
   }
 
   public void stopPlay() {
@@ -145,11 +177,6 @@ public void stopPlay() {
         Logger.trace(e);
       }
     }
-    try {
-      Thread.sleep(100L);
-    } catch (InterruptedException e) {
-      Logger.trace(e);
-    }
   }
 
   public void pausePlay() {
@@ -176,98 +203,215 @@ public boolean isStopped() {
     return stopped;
   }
 
-  private synchronized void setStopped(boolean b) {
-    if (b != stopped) {
-      stopped = b;
-    }
+  private void setStopped(boolean b) {
+    stopped = b;
+  }
+
+  private void setPaused(boolean b) {
+    paused = b;
   }
 
-  private synchronized void setPaused(boolean b) {
-    if (b != paused) {
-      paused = b;
+  private void setPlaying(boolean b) {
+    playing = b;
+  }
+
+  // Decoder thread: decodes frames into the ring until the movie ends or playback is stopped
+  private void decodeFrames(MveDecoder decoder, FrameRing ring) {
+    try {
+      while (isPlaying() && decoder.hasNextFrame()) {
+        final Frame frame = ring.nextFree();
+        ring.current = frame;
+        if (!decoder.processNextFrame()) {
+          ring.release(frame);
+          break;
+        }
+        frame.frameDelay = decoder.getFrameDelay();
+        if (decoder.audioInitialized()) {
+          frame.audioFormat = decoder.getAudioFormat();
+        }
+        byte[] block;
+        while ((block = ring.audioQueue.getNextData()) != null) {
+          frame.audioBlocks.add(block);
+        }
+        ring.publish(frame);
+      }
+    } catch (InterruptedException e) {
+      // playback has been stopped
+    } catch (Exception e) {
+      ring.error = e;
+    } finally {
+      ring.finish();
     }
   }
 
-  private synchronized void setPlaying(boolean b) {
-    if (b != playing) {
-      playing = b;
+  // Copies the specified frame into the renderer and displays it
+  private void presentFrame(ImageRenderer renderer, BufferedImage image) {
+    renderer.flipBuffers();
+    final Image dstImage = renderer.frontBuffer();
+    final Graphics2D g = (Graphics2D) dstImage.getGraphics();
+    try {
+      g.drawImage(image, 0, 0, null);
+    } finally {
+      g.dispose();
     }
+    renderer.updateRenderer();
   }
 
-  private void setTimerDelay(long nanoseconds) {
-    if (nanoseconds < 0L) {
-      nanoseconds = 0L;
+  // Parks the current thread until the specified point in time (in ns, as returned by System.nanoTime()).
+  private void waitUntil(long deadline) {
+    long remaining;
+    while (isPlaying() && !isPaused() && (remaining = deadline - System.nanoTime()) > 0L) {
+      LockSupport.parkNanos(remaining);
     }
-    startTime = System.nanoTime() & Long.MAX_VALUE;
-    delayTime = nanoseconds;
   }
 
-  private long timeRemaining() {
-    long res;
-    long curTime = System.nanoTime() & Long.MAX_VALUE;
-    if (curTime < startTime) {
-      res = delayTime - (Long.MAX_VALUE - startTime + curTime);
-    } else {
-      res = delayTime - (curTime - startTime);
+  private void initAudio(AudioFormat audioFormat) throws Exception {
+    // closing old source data line
+    if (dataLine != null) {
+      dataLine.drain();
+      dataLine.stop();
+      dataLine.close();
+      dataLine = null;
     }
-    if (res < 0L) {
-      res = 0L;
+    audioQueue.clear();
+
+    // initializing new source data line
+    try {
+      dataLine = AudioSystem.getSourceDataLine(audioFormat);
+    } catch (Exception e) {
+      Logger.error(e);
+      throw new Exception("Unsupported audio format");
     }
-    return res;
+    dataLine.open(audioFormat, 16384);
   }
 
-  // waits until only 'remaining' time (in ns) of the current timer remains
-  private void sleepUntil(long remaining) {
-    if (timeRemaining() > 2_000_000L) {
-      while (timeRemaining() > remaining) {
-        // sleep as much as possible
-        try {
-          Thread.sleep(1);
-        } catch (InterruptedException e) {
-          Logger.trace(e);
-        }
-      }
+  private void outputAudioFrame() {
+    byte[] audioBlock = audioQueue.getNextData();
+    if (audioBlock != null) {
+      dataLine.write(audioBlock, 0, audioBlock.length);
     }
-    if (timeRemaining() <= 2_000_000L) {
-      while (timeRemaining() > remaining) {
-        // waste remaining nanoseconds
-        try {
-          Thread.sleep(0);
-        } catch (InterruptedException e) {
-          Logger.trace(e);
-        }
-      }
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** A single decoded movie frame. */
+  private static class Frame {
+    private final BufferedImage image;
+    private final List<byte[]> audioBlocks = new ArrayList<>();
+
+    private int frameDelay; // in microseconds
+    private boolean hasVideo;
+    private AudioFormat audioFormat; // only set if audio has been re-initialized by this frame
+
+    public Frame(int width, int height) {
+      this.image = (width > 0 && height > 0) ? ColorConvert.createCompatibleImage(width, height, false) : null;
+    }
+
+    private void reset() {
+      audioBlocks.clear();
+      frameDelay = 0;
+      hasVideo = false;
+      audioFormat = null;
     }
   }
 
-  private void initAudio(MveDecoder decoder) throws Exception {
-    if (decoder != null) {
-      // closing old source data line
-      if (dataLine != null) {
-        dataLine.drain();
-        dataLine.stop();
-        dataLine = null;
+  /**
+   * Bounded ring of frames that are passed from the decoder thread to the presenting thread. It also serves as video
+   * output for the decoder, which draws directly into the frame currently being decoded.
+   */
+  private static class FrameRing implements VideoBuffer {
+    /** Marks the end of the frame sequence. */
+    private static final Frame END = new Frame(0, 0);
+
+    private final BlockingQueue<Frame> freeFrames;
+    private final BlockingQueue<Frame> filledFrames;
+    private final AudioQueue audioQueue = new AudioQueue();
+
+    private volatile Frame current;
+    private volatile Exception error;
+    private volatile boolean closed;
+
+    public FrameRing(int size, int width, int height) {
+      freeFrames = new ArrayBlockingQueue<>(size);
+      filledFrames = new ArrayBlockingQueue<>(size + 1);
+      for (int i = 0; i < size; i++) {
+        freeFrames.add(new Frame(width, height));
       }
-      audioQueue.clear();
+    }
 
-      // initializing new source data line
-      AudioFormat audioFormat = decoder.getAudioFormat();
-      try {
-        dataLine = AudioSystem.getSourceDataLine(audioFormat);
-      } catch (Exception e) {
-        Logger.error(e);
-        throw new Exception("Unsupported audio format");
+    /** Returns an unused frame. Blocks until a frame is available. */
+    public Frame nextFree() throws InterruptedException {
+      final Frame frame = freeFrames.take();
+      frame.reset();
+      return frame;
+    }
+
+    /** Makes the specified decoded frame available for presentation. */
+    public void publish(Frame frame) throws InterruptedException {
+      filledFrames.put(frame);
+    }
+
+    /** Returns the next decoded frame, {@link #END} at the end of the movie or {@code null} after a timeout. */
+    public Frame nextFilled() throws InterruptedException {
+      return filledFrames.poll(PAUSE_CHECK_INTERVAL, TimeUnit.NANOSECONDS);
+    }
+
+    /** Returns the specified frame to the pool of unused frames. */
+    public void release(Frame frame) {
+      if (frame != null && frame != END && !closed) {
+        freeFrames.offer(frame);
       }
-      dataLine.open(audioFormat, 16384);
     }
-  }
 
-  private void outputAudioFrame(boolean autoRemove) {
-    if (audioQueue.hasNext()) {
-      byte[] audioBlock = autoRemove ? audioQueue.getNextData() : audioQueue.peekNextData();
-      if (audioBlock != null) {
-        dataLine.write(audioBlock, 0, audioBlock.length);
+    /** Signals the end of the frame sequence. */
+    public void finish() {
+      // ring has capacity for one additional element
+      filledFrames.offer(END);
+    }
+
+    /** Discards all frames. */
+    public void close() {
+      closed = true;
+      freeFrames.clear();
+      filledFrames.clear();
+    }
+
+    // --------------------- Begin Interface VideoBuffer ---------------------
+
+    @Override
+    public Image frontBuffer() {
+      return backBuffer();
+    }
+
+    @Override
+    public Image backBuffer() {
+      final Frame frame = current;
+      return (frame != null) ? frame.image : null;
+    }
+
+    @Override
+    public void flipBuffers() {
+      final Frame frame = current;
+      if (frame != null) {
+        frame.hasVideo = true;
       }
     }
+
+    @Override
+    public int bufferCount() {
+      return 1;
+    }
+
+    @Override
+    public void attachData(Object data) {
+      // not needed
+    }
+
+    @Override
+    public Object fetchData() {
+      return null;
+    }
+
+    // --------------------- End Interface VideoBuffer ---------------------
   }
 }
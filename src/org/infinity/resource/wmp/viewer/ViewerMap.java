@@ -220,7 +220,11 @@ private BufferedImage loadMap() {
     if (mapInfo.getBackgroundResource() != null) {
       MosDecoder mos = MosDecoder.loadMos(mapInfo.getBackgroundResource());
       if (mos != null) {
-        return (BufferedImage) mos.getImage();
+        try {
+          return (BufferedImage) mos.getImage();
+        } finally {
+          mos.close();
+        }
       }
     }
     return null;
@@ -13,10 +13,12 @@
 
 import org.infinity.NearInfinity;
 import org.infinity.resource.key.ResourceEntry;
-import org.infinity.util.DebugTimer;
 import org.infinity.util.Logger;
 import org.infinity.util.Misc;
 import org.infinity.util.Threading;
+import org.infinity.util.metrics.LatencyTimer;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 
 /**
  * Utility class for performing searching of resources in several threads with ability to cancel search.
@@ -93,8 +95,10 @@ protected boolean runSearch(String operation, List<ResourceEntry> entries) {
       updateProgressNote();
 
       boolean isCancelled = false;
+      final String metricName = "search." + getClass().getSimpleName();
+      final LatencyTimer workerTimer = Metrics.timer(metricName + ".worker");
+      final Span span = Metrics.start(metricName);
       try (final Threading threadPool = new Threading()) {
-        DebugTimer.getInstance().timerReset();
         int i = 0;
         for (final ResourceEntry entry : entries) {
           if (progress.isCanceled()) {
@@ -122,7 +126,11 @@ protected boolean runSearch(String operation, List<ResourceEntry> entries) {
             }
           }
 
-          threadPool.submit(newWorker(entry));
+          final Runnable worker = newWorker(entry);
+          threadPool.submit(() -> {
+            workerTimer.time(worker);
+            span.addItems(1);
+          });
         }
 
         // enforcing thread termination if process has been cancelled
@@ -148,7 +156,8 @@ protected boolean runSearch(String operation, List<ResourceEntry> entries) {
         Logger.trace(e);
       }
 
-      Logger.info(DebugTimer.getInstance().getTimerFormatted(operation + " completed"));
+      span.close();
+      Logger.info(span.getTimerFormatted(operation + " completed"));
 
       if (isCancelled) {
         JOptionPane.showMessageDialog(parent, operation + " cancelled", "Info", JOptionPane.INFORMATION_MESSAGE);
@@ -18,8 +18,9 @@
 import org.infinity.resource.dlg.State;
 import org.infinity.resource.dlg.StateTrigger;
 import org.infinity.resource.dlg.Transition;
-import org.infinity.util.DebugTimer;
 import org.infinity.util.Logger;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 
 public class DialogItemRefSearcher implements Runnable {
   private final DlgResource dlg;
@@ -40,7 +41,7 @@ public void run() {
     final List<StructEntry> searchItems = dlg.getFields();
     ProgressMonitor progress = new ProgressMonitor(parent, "Searching...", null, 0, searchItems.size());
     progress.setMillisToDecideToPopup(100);
-    DebugTimer.getInstance().timerReset();
+    final Span span = Metrics.start("search.DialogItemRefSearcher");
     for (int i = 0; i < searchItems.size(); i++) {
       StructEntry entry = searchItems.get(i);
       if (entry instanceof State || entry instanceof Transition || entry instanceof AbstractCode) {
@@ -48,11 +49,13 @@ public void run() {
       }
       progress.setProgress(i + 1);
       if (progress.isCanceled()) {
+        span.close();
         JOptionPane.showMessageDialog(parent, "Search canceled", "Info", JOptionPane.INFORMATION_MESSAGE);
         return;
       }
     }
-    Logger.info(DebugTimer.getInstance().getTimerFormatted("Search completed"));
+    span.close();
+    Logger.info(span.getTimerFormatted("Search completed"));
     hitFrame.setVisible(true);
   }
 
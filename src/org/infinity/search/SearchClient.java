@@ -19,4 +19,16 @@ public interface SearchClient {
    * @param nr Index of the matched object
    */
   void hitFound(int nr);
+
+  /**
+   * Returns the indices of all objects which may match the specified search term. Objects not contained in the returned
+   * array are skipped by the search. The default implementation returns {@code null}.
+   *
+   * @param term  The search term as entered by the user.
+   * @param regex Whether {@code term} is a regular expression.
+   * @return Sorted array of object indices, or {@code null} if all objects have to be searched.
+   */
+  default int[] getCandidates(String term, boolean regex) {
+    return null;
+  }
 }
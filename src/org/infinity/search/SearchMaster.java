@@ -14,6 +14,7 @@
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -201,12 +202,17 @@ public void run() {
       return;
     }
     blocker.setBlocked(true);
+    final int[] candidates = slave.getCandidates(tfinput.getText(), cbregex.isSelected());
+    if (candidates != null) {
+      // same start position as an unrestricted search
+      index = nextCandidate(candidates, rbdown.isSelected() ? -1 : 1, rbdown.isSelected());
+    }
     bnext.setEnabled(false);
     cbwhole.setEnabled(false);
     cbcase.setEnabled(false);
     tfinput.setEnabled(false);
     while (true) {
-      String s = slave.getText(index);
+      String s = (index >= 0 || candidates == null) ? slave.getText(index) : null;
       if (s == null) {
         break;
       }
@@ -229,7 +235,9 @@ public void run() {
           break;
         }
       }
-      if (rbdown.isSelected()) {
+      if (candidates != null) {
+        index = nextCandidate(candidates, index, rbdown.isSelected());
+      } else if (rbdown.isSelected()) {
         index++;
       } else {
         index--;
@@ -246,4 +254,15 @@ public void run() {
   }
 
   // --------------------- End Interface Runnable ---------------------
+
+  // Returns the candidate index following "current" in the specified direction, or -1 if not available
+  private static int nextCandidate(int[] candidates, int current, boolean down) {
+    int pos = Arrays.binarySearch(candidates, current);
+    if (pos >= 0) {
+      pos = down ? pos + 1 : pos - 1;
+    } else {
+      pos = down ? -pos - 1 : -pos - 2;
+    }
+    return (pos >= 0 && pos < candidates.length) ? candidates[pos] : -1;
+  }
 }
@@ -93,13 +93,14 @@
 import org.infinity.resource.sto.StoResource;
 import org.infinity.resource.ui.ResourceCellRenderer;
 import org.infinity.resource.ui.ResourceListModel;
-import org.infinity.util.DebugTimer;
 import org.infinity.util.IdsMapEntry;
 import org.infinity.util.Logger;
 import org.infinity.util.Misc;
 import org.infinity.util.SimpleListModel;
 import org.infinity.util.Threading;
 import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 import org.infinity.util.tuples.Couple;
 
 public class SearchResource extends ChildFrame implements ActionListener, PropertyChangeListener, Runnable {
@@ -224,8 +225,8 @@ public void run() {
       blocker.setBlocked(true);
 
       // executing search
+      final Span span = Metrics.start("search.SearchResource");
       try {
-        DebugTimer.getInstance().timerReset();
         OptionsBasePanel panel = mapOptionsPanel.get(type);
         if (panel != null) {
           SearchOptions so = panel.getOptions();
@@ -264,7 +265,8 @@ public void run() {
           }
         }
       } finally {
-        Logger.info(DebugTimer.getInstance().getTimerFormatted("Extended Search"));
+        span.close();
+        Logger.info(span.getTimerFormatted("Extended Search"));
         blocker.setBlocked(false);
         bSearch.setEnabled(true);
         clBottomBar.show(pBottomBar, "buttons");
@@ -12,10 +12,11 @@
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -29,12 +30,20 @@
 import org.infinity.gui.Center;
 import org.infinity.gui.ChildFrame;
 import org.infinity.gui.ViewerUtil;
+import org.infinity.gui.menu.BrowserMenuBar;
+import org.infinity.gui.menu.OptionsMenuItem.AutoAlign2da;
 import org.infinity.icon.Icons;
 import org.infinity.resource.Resource;
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.TextResource;
+import org.infinity.resource.bcs.BafResource;
 import org.infinity.resource.key.ResourceEntry;
+import org.infinity.resource.mus.MusResource;
+import org.infinity.resource.text.PlainTextResource;
+import org.infinity.resource.text.QuestsResource;
 import org.infinity.util.Logger;
+import org.infinity.util.Misc;
+import org.infinity.util.StaticSimpleXorDecryptor;
 
 public final class TextResourceSearcher extends AbstractSearcher implements Runnable, ActionListener {
   private final ChildFrame inputFrame;
@@ -47,6 +56,9 @@ public final class TextResourceSearcher extends AbstractSearcher implements Runn
   private final List<ResourceEntry> files;
 
   private Pattern regPattern;
+  private String literal;
+  private boolean matchCase;
+  private boolean wholeWord;
   private TextHitFrame resultFrame;
 
   public TextResourceSearcher(List<ResourceEntry> files, Container parent) {
@@ -134,6 +146,13 @@ public void actionPerformed(ActionEvent event) {
   @Override
   public void run() {
     String term = tfinput.getText();
+    // plain search terms are located without regular expression
+    literal = null;
+    if (!cbregex.isSelected() && !term.isEmpty() && term.indexOf('\n') < 0 && term.indexOf('\r') < 0) {
+      literal = term;
+    }
+    matchCase = cbcase.isSelected();
+    wholeWord = cbwhole.isSelected();
     if (!cbregex.isSelected()) {
       term = Pattern.quote(term);
     }
@@ -165,6 +184,7 @@ public void run() {
       }
     } finally {
       regPattern = null;
+      literal = null;
       resultFrame = null;
     }
   }
@@ -174,28 +194,187 @@ public void run() {
   @Override
   protected Runnable newWorker(ResourceEntry entry) {
     return () -> {
-      final Resource resource = ResourceFactory.getResource(entry);
-      if (resource instanceof TextResource) {
-        try (final BufferedReader br = new BufferedReader(new StringReader(((TextResource) resource).getText()))) {
-          String line;
-          int linenr = 0;
-          while ((line = br.readLine()) != null) {
-            linenr++;
-            if (regPattern.matcher(line).find()) {
-              addHit(entry, line, linenr);
-            }
-          }
-        } catch (IOException e) {
-          Logger.error(e);
+      try {
+        final CharSequence text = getText(entry);
+        if (text != null) {
+          searchText(entry, text);
         }
+      } catch (Exception e) {
+        Logger.error(e, "Error reading {}", entry);
       }
       advanceProgress();
     };
   }
 
+  /**
+   * Returns the text content of the specified resource. Raw resource data is decoded directly if it is presented
+   * unmodified by the associated resource class. Other resources, such as compiled scripts, are fully instantiated.
+   */
+  private CharSequence getText(ResourceEntry entry) throws Exception {
+    final Class<? extends Resource> cls = ResourceFactory.getResourceType(entry);
+    if (cls == PlainTextResource.class || cls == QuestsResource.class || cls == BafResource.class) {
+      // 2DA content may be realigned by the resource class
+      if (!"2DA".equalsIgnoreCase(entry.getExtension())
+          || BrowserMenuBar.getInstance().getOptions().getAutoAlign2da() == AutoAlign2da.DISABLED) {
+        ByteBuffer buffer = entry.getResourceBuffer();
+        if (buffer.limit() > 1 && buffer.getShort(0) == -1) {
+          buffer = StaticSimpleXorDecryptor.decrypt(buffer, 2);
+        }
+        return decode(buffer, Misc.getCharsetFrom(BrowserMenuBar.getInstance().getOptions().getSelectedCharset()));
+      }
+    } else if (cls == MusResource.class) {
+      return decode(entry.getResourceBuffer(), Misc.CHARSET_DEFAULT);
+    }
+
+    final Resource resource = ResourceFactory.getResource(entry);
+    if (resource instanceof TextResource) {
+      return ((TextResource) resource).getText();
+    }
+    return null;
+  }
+
+  /** Matches the search term against each line of the specified text. */
+  private void searchText(ResourceEntry entry, CharSequence text) {
+    final LineIndex lines = new LineIndex(text);
+    final Matcher matcher = regPattern.matcher(text);
+    if (literal != null) {
+      // scanning for the literal search term and checking only lines containing it
+      int pos = 0;
+      while ((pos = indexOf(text, literal, pos, matchCase)) >= 0) {
+        final int line = lines.getLine(pos);
+        final int start = lines.getStart(line);
+        final int end = lines.getEnd(line);
+        if (!wholeWord || matcher.region(start, end).find()) {
+          addHit(entry, text.subSequence(start, end).toString(), line + 1);
+        }
+        pos = lines.getNextStart(line);
+      }
+    } else {
+      for (int line = 0, count = lines.size(); line < count; line++) {
+        final int start = lines.getStart(line);
+        final int end = lines.getEnd(line);
+        if (matcher.region(start, end).find()) {
+          addHit(entry, text.subSequence(start, end).toString(), line + 1);
+        }
+      }
+    }
+  }
+
   private synchronized void addHit(ResourceEntry entry, String line, int lineNr) {
     if (resultFrame != null) {
       resultFrame.addHit(entry, line, lineNr);
     }
   }
+
+  /**
+   * Decodes the specified buffer up to the first null character. Decoded characters are not copied into a string.
+   */
+  private static CharSequence decode(ByteBuffer buffer, Charset cs) {
+    final ByteBuffer bb = buffer.duplicate();
+    for (int i = bb.position(), limit = bb.limit(); i < limit; i++) {
+      if (bb.get(i) == 0) {
+        bb.limit(i);
+        break;
+      }
+    }
+    return cs.decode(bb);
+  }
+
+  /**
+   * Returns the index of the first occurrence of the string {@code s} in {@code text}, starting at the specified
+   * position. Characters are compared like a {@link Pattern} without the {@link Pattern#UNICODE_CASE} flag.
+   */
+  private static int indexOf(CharSequence text, String s, int fromIndex, boolean matchCase) {
+    final int len = s.length();
+    final char first = s.charAt(0);
+    for (int i = fromIndex, max = text.length() - len; i <= max; i++) {
+      if (charEquals(text.charAt(i), first, matchCase)) {
+        int j = 1;
+        while (j < len && charEquals(text.charAt(i + j), s.charAt(j), matchCase)) {
+          j++;
+        }
+        if (j == len) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static boolean charEquals(char c1, char c2, boolean matchCase) {
+    if (c1 == c2) {
+      return true;
+    }
+    if (!matchCase && c1 < 0x80 && c2 < 0x80) {
+      // case-insensitive matching is restricted to the US-ASCII charset
+      return Character.toLowerCase(c1) == Character.toLowerCase(c2);
+    }
+    return false;
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /**
+   * Start and end offsets of the lines of a text. Lines are terminated by a line feed, a carriage return, or a carriage
+   * return followed by a line feed (same as {@link java.io.BufferedReader#readLine()}).
+   */
+  private static class LineIndex {
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int size;
+
+    public LineIndex(CharSequence text) {
+      final int len = text.length();
+      int start = 0;
+      for (int i = 0; i < len; i++) {
+        final char ch = text.charAt(i);
+        if (ch == '\n' || ch == '\r') {
+          add(start, i);
+          if (ch == '\r' && i + 1 < len && text.charAt(i + 1) == '\n') {
+            i++;
+          }
+          start = i + 1;
+        }
+      }
+      if (start < len) {
+        add(start, len);
+      }
+    }
+
+    /** Returns the number of lines. */
+    public int size() {
+      return size;
+    }
+
+    /** Returns the start offset of the specified line. */
+    public int getStart(int line) {
+      return starts[line];
+    }
+
+    /** Returns the end offset of the specified line, excluding line terminators. */
+    public int getEnd(int line) {
+      return ends[line];
+    }
+
+    /** Returns the start offset of the line following the specified line. */
+    public int getNextStart(int line) {
+      return (line + 1 < size) ? starts[line + 1] : Integer.MAX_VALUE;
+    }
+
+    /** Returns the line containing the specified text offset. */
+    public int getLine(int offset) {
+      final int idx = Arrays.binarySearch(starts, 0, size, offset);
+      return (idx >= 0) ? idx : -idx - 2;
+    }
+
+    private void add(int start, int end) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+    }
+  }
 }
@@ -75,11 +75,12 @@
 import org.infinity.resource.dlg.DlgResource;
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.search.ReferenceHitFrame;
-import org.infinity.util.DebugTimer;
 import org.infinity.util.Logger;
 import org.infinity.util.Misc;
 import org.infinity.util.SimpleListModel;
 import org.infinity.util.Threading;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 
 public class AdvancedSearch extends ChildFrame implements Runnable {
   /** Indicates how to evaluate filter matches against a resource. */
@@ -561,8 +562,8 @@ public void run() {
       });
 
       // executing search
+      final Span span = Metrics.start("search.AdvancedSearch");
       try {
-        DebugTimer.getInstance().timerReset();
         List<SearchOptions> searchOptions = getSearchOptions();
 
         // using parallel jobs to speed up search
@@ -604,7 +605,8 @@ public void run() {
               found.size() == 1 ? "" : "es", resourceCount, resourceCount == 1 ? "" : "s"));
         });
       } finally {
-        Logger.info(DebugTimer.getInstance().getTimerFormatted("Advanced Search"));
+        span.close();
+        Logger.info(span.getTimerFormatted("Advanced Search"));
         SwingUtilities.invokeLater(() -> {
           blocker.setBlocked(false);
           bSearch.setEnabled(true);
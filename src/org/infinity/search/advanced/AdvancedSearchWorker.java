@@ -57,66 +57,78 @@ public void run() {
 
     Resource res = ResourceFactory.getResource(entry);
     if (res instanceof AbstractStruct) {
-      AbstractStruct structRoot = (AbstractStruct) res;
-      // storage for evaluated matches
-      List<ReferenceHitFrame.ReferenceHit> entryMatches = new ArrayList<>();
-      // stores number of grouped filters applied per structure level
-      Map<List<String>, Integer> groupFilters = new HashMap<>();
-      // storage for potential grouped matches
-      Map<List<String>, Set<StructEntry>> groupCache = new HashMap<>();
-
-      int matches = 0;
-      for (SearchOptions so : searchOptions) {
-        // keep track of grouped filter count per structure
-        if (so.isStructureGroup()) {
-          Integer count = groupFilters.get(so.getStructure());
-          if (count == null)
-            count = 0;
-          groupFilters.put(so.getStructure(), count + 1);
-        }
+      match((AbstractStruct) res);
+    }
 
-        // list of structures to search
-        boolean isMatch = false;
-        List<AbstractStruct> structs = collectStructures(structRoot, so, 0);
-        for (AbstractStruct struct : structs) {
-          isMatch |= findMatches(entryMatches, groupCache, struct, so);
-        }
-        if (isMatch)
-          matches++;
+    if (progress != null) {
+      synchronized (progress) {
+        progress.setValue(progress.getValue() + 1);
       }
+    }
+  }
 
-      // evaluating grouped matches
-      collapseGroupFilters(groupCache, groupFilters);
-      for (Set<StructEntry> set : groupCache.values()) {
-        // all StructEntry instances found in the map are considered valid matches
-        for (StructEntry ref : set) {
-          entryMatches.add(new ReferenceHitFrame.ReferenceHit(entry, entry.getSearchString(), ref));
-          matches++;
-        }
+  /**
+   * Matches the search options against the specified resource structure and adds the results to the list of matches.
+   * This allows callers to share a parsed resource between several operations.
+   *
+   * @param structRoot The parsed structure of the resource entry associated with this worker.
+   */
+  public void match(AbstractStruct structRoot) {
+    if (matched == null || searchOptions == null || entry == null || structRoot == null)
+      return;
+
+    // storage for evaluated matches
+    List<ReferenceHitFrame.ReferenceHit> entryMatches = new ArrayList<>();
+    // stores number of grouped filters applied per structure level
+    Map<List<String>, Integer> groupFilters = new HashMap<>();
+    // storage for potential grouped matches
+    Map<List<String>, Set<StructEntry>> groupCache = new HashMap<>();
+
+    int matches = 0;
+    for (SearchOptions so : searchOptions) {
+      // keep track of grouped filter count per structure
+      if (so.isStructureGroup()) {
+        Integer count = groupFilters.get(so.getStructure());
+        if (count == null)
+          count = 0;
+        groupFilters.put(so.getStructure(), count + 1);
       }
 
-      // evaluating filter mode
-      switch (filterOp) {
-        case MATCH_ALL:
-          if (matches >= searchOptions.size())
-            matched.addAll(entryMatches);
-          break;
-        case MATCH_ANY:
-          if (matches > 0)
-            matched.addAll(entryMatches);
-          break;
-        case MATCH_ONE:
-          if (matches == 1)
-            matched.addAll(entryMatches);
-          break;
+      // list of structures to search
+      boolean isMatch = false;
+      List<AbstractStruct> structs = collectStructures(structRoot, so, 0);
+      for (AbstractStruct struct : structs) {
+        isMatch |= findMatches(entryMatches, groupCache, struct, so);
       }
+      if (isMatch)
+        matches++;
     }
 
-    if (progress != null) {
-      synchronized (progress) {
-        progress.setValue(progress.getValue() + 1);
+    // evaluating grouped matches
+    collapseGroupFilters(groupCache, groupFilters);
+    for (Set<StructEntry> set : groupCache.values()) {
+      // all StructEntry instances found in the map are considered valid matches
+      for (StructEntry ref : set) {
+        entryMatches.add(new ReferenceHitFrame.ReferenceHit(entry, entry.getSearchString(), ref));
+        matches++;
       }
     }
+
+    // evaluating filter mode
+    switch (filterOp) {
+      case MATCH_ALL:
+        if (matches >= searchOptions.size())
+          matched.addAll(entryMatches);
+        break;
+      case MATCH_ANY:
+        if (matches > 0)
+          matched.addAll(entryMatches);
+        break;
+      case MATCH_ONE:
+        if (matches == 1)
+          matched.addAll(entryMatches);
+        break;
+    }
   }
 
   // Search for matching structures recursively
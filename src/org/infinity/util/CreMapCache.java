@@ -4,12 +4,27 @@
 
 package org.infinity.util;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.infinity.NearInfinity;
@@ -22,12 +37,20 @@
 
 /**
  * Maintains a list of script names to CRE resource mappings.
+ * <p>
+ * Gathered script names are stored in the Near Infinity cache directory together with a fingerprint of the scanned
+ * resources. Subsequent sessions reuse the stored script names as long as the fingerprint does not change.
+ * </p>
  */
 public final class CreMapCache {
-  private static final Map<String, Set<ResourceEntry>> SCRIPT_NAMES_CRE = new HashMap<>();
-  private static final Set<String> SCRIPT_NAMES_ARE = new HashSet<>();
+  /** Identifies the format of the cache file. Must be updated whenever the file layout changes. */
+  private static final String CACHE_FILE_MAGIC = "NI-SCRIPTNAMES V1";
 
-  private static boolean initialized = false;
+  private static final Map<String, Set<ResourceEntry>> SCRIPT_NAMES_CRE = new ConcurrentHashMap<>();
+  private static final Set<String> SCRIPT_NAMES_ARE = ConcurrentHashMap.newKeySet();
+
+  private static volatile boolean initialized = false;
+  private static volatile CountDownLatch initSignal = new CountDownLatch(1);
 
   public static void creInvalid(ResourceEntry entry) {
     if (entry != null) {
@@ -46,6 +69,7 @@ public static void clearCache() {
       SCRIPT_NAMES_CRE.clear();
       SCRIPT_NAMES_ARE.clear();
       initialized = false;
+      initSignal = new CountDownLatch(1);
     }
   }
 
@@ -103,13 +127,16 @@ public static Set<String> getCreScriptNames() {
 
   /** Waits until indexing process has finished or time out occurred. */
   private static boolean ensureInitialized(int timeOutMS) {
-    long timeOut = (timeOutMS >= 0) ? System.nanoTime() + (timeOutMS * 1000000L) : -1L;
-    while (!isInitialized() && (timeOut == -1L || System.nanoTime() < timeOut)) {
-      try {
-        Thread.sleep(1);
-      } catch (InterruptedException e) {
-        Logger.trace(e);
+    final CountDownLatch signal = initSignal;
+    try {
+      if (timeOutMS >= 0) {
+        signal.await(timeOutMS, TimeUnit.MILLISECONDS);
+      } else {
+        signal.await();
       }
+    } catch (InterruptedException e) {
+      Logger.trace(e);
+      Thread.currentThread().interrupt();
     }
 
     return isInitialized();
@@ -125,6 +152,7 @@ private static String normalized(String s) {
 
   private static void initialize() {
     if (!isInitialized()) {
+      final CountDownLatch signal = initSignal;
       Runnable worker = () -> {
         StatusBar statusBar = NearInfinity.getInstance().getStatusBar();
         String message = "Gathering creature and area names ...";
@@ -134,52 +162,284 @@ private static void initialize() {
           statusBar.setMessage(message);
         }
 
-        try (final Threading threadPool = new Threading()) {
-          List<ResourceEntry> files = ResourceFactory.getResources("CRE");
-          // Including CHR resources to reduce number of warnings in IWD/IWD2 if NPC mods are installed
-          files.addAll(ResourceFactory.getResources("CHR", Profile.getProperty(Profile.Key.GET_GAME_EXTRA_FOLDERS)));
-          for (final ResourceEntry entry1 : files) {
-            if (entry1 == null) {
-              continue;
-            }
+        try {
+          gatherScriptNames();
+        } catch (Exception e) {
+          Logger.error(e);
+        }
 
-            threadPool.submit(new CreWorker(entry1));
-          }
+        if (statusBar != null && statusBar.getMessage().startsWith(message)) {
+          statusBar.setMessage(oldMessage);
+        }
 
-          SCRIPT_NAMES_ARE.add("none"); // default script name for many CRE resources
-          for (final ResourceEntry entry2 : ResourceFactory.getResources("ARE")) {
-            if (entry2 == null) {
-              continue;
-            }
+        initialized = true;
+        signal.countDown();
+      };
+      final Thread thread = new Thread(worker, "CreMapCache");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
 
-            threadPool.submit(new AreWorker(entry2));
-          }
+  /**
+   * Populates the script name maps, either from the cache file of a previous session or by scanning the game
+   * resources.
+   */
+  private static void gatherScriptNames() throws Exception {
+    // local timer: gathering runs concurrently with other timed operations
+    final DebugTimer timer = new DebugTimer();
+
+    final List<ResourceEntry> creFiles = ResourceFactory.getResources("CRE");
+    // Including CHR resources to reduce number of warnings in IWD/IWD2 if NPC mods are installed
+    creFiles.addAll(ResourceFactory.getResources("CHR", Profile.getProperty(Profile.Key.GET_GAME_EXTRA_FOLDERS)));
+    creFiles.removeIf(e -> e == null);
+    final List<ResourceEntry> areFiles = ResourceFactory.getResources("ARE");
+    areFiles.removeIf(e -> e == null);
+    final List<ResourceEntry> iniFiles = ResourceFactory.getResources("INI");
+    iniFiles.removeIf(e -> e == null);
+
+    final String fingerprint = getFingerprint(creFiles, areFiles, iniFiles);
+    final Path cacheFile = getCacheFile();
+
+    SCRIPT_NAMES_ARE.add("none"); // default script name for many CRE resources
+    if (fingerprint != null && cacheFile != null && loadCache(cacheFile, fingerprint, creFiles)) {
+      Logger.debug("Script names loaded from cache: {}", timer.getTimerFormatted("CreMapCache"));
+      return;
+    }
 
-          for (final ResourceEntry entry3 : ResourceFactory.getResources("INI")) {
-            if (entry3 == null) {
-              continue;
-            }
+    if (scanResources(creFiles, areFiles, iniFiles)) {
+      Logger.debug("Script names gathered: {}", timer.getTimerFormatted("CreMapCache"));
+      if (fingerprint != null && cacheFile != null) {
+        saveCache(cacheFile, fingerprint, creFiles);
+      }
+    } else {
+      Logger.warn("Script names could not be gathered completely");
+    }
+  }
 
-            threadPool.submit(new IniWorker(entry3));
-          }
+  /**
+   * Extracts script names from the specified resources in parallel.
+   *
+   * @return {@code true} if all resources have been processed, {@code false} otherwise.
+   */
+  private static boolean scanResources(List<ResourceEntry> creFiles, List<ResourceEntry> areFiles,
+      List<ResourceEntry> iniFiles) {
+    boolean retVal = true;
+    try (final Threading threadPool = new Threading()) {
+      final List<Future<?>> futures = new ArrayList<>(creFiles.size() + areFiles.size() + iniFiles.size());
+      for (final ResourceEntry entry : creFiles) {
+        futures.add(threadPool.submit(new CreWorker(entry)));
+      }
+
+      for (final ResourceEntry entry : areFiles) {
+        futures.add(threadPool.submit(new AreWorker(entry)));
+      }
 
-          threadPool.shutdown();
-          try {
-            threadPool.awaitTermination(60, TimeUnit.SECONDS);
-          } catch (InterruptedException e) {
-            Logger.error(e);
+      for (final ResourceEntry entry : iniFiles) {
+        futures.add(threadPool.submit(new IniWorker(entry)));
+      }
+
+      for (final Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          Logger.error(e);
+          retVal = false;
+        }
+      }
+    } catch (InterruptedException e) {
+      Logger.warn(e);
+      Thread.currentThread().interrupt();
+      retVal = false;
+    } catch (Exception e) {
+      Logger.error(e);
+      retVal = false;
+    }
+    return retVal;
+  }
+
+  /** Adds the given CRE or CHR resource to the list of creature script names. */
+  private static void addCreScriptName(ResourceEntry entry, String scriptName) {
+    final String name = normalized(scriptName);
+    // Apparently script name is the only thing that matters
+    if (!name.isEmpty() && !name.equals("none")) {
+      SCRIPT_NAMES_CRE.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet()).add(entry);
+    }
+  }
+
+  /**
+   * Returns the path of the cache file for the current game. Returns {@code null} if the file path could not be
+   * determined.
+   */
+  private static Path getCacheFile() {
+    try {
+      final Path gameRoot = Profile.getGameRoot();
+      if (gameRoot == null) {
+        return null;
+      }
+      final String name = "scriptnames-" + getHash(gameRoot.toAbsolutePath().toString()).substring(0, 16) + ".txt";
+      return Platform.getCacheDirectory("cache").resolve(name);
+    } catch (Exception e) {
+      Logger.debug(e);
+    }
+    return null;
+  }
+
+  /**
+   * Computes a fingerprint of the specified resource lists. The fingerprint considers resource names, order, location,
+   * size and modification time of the containing files. Returns {@code null} if the fingerprint could not be computed.
+   */
+  @SafeVarargs
+  private static String getFingerprint(List<ResourceEntry>... lists) {
+    try {
+      final StringBuilder sb = new StringBuilder(CACHE_FILE_MAGIC).append('\n');
+      sb.append(Profile.getGame()).append('\n');
+      final Map<Path, Long> timeMap = new HashMap<>();
+      for (final List<ResourceEntry> list : lists) {
+        sb.append(list.size()).append('\n');
+        for (final ResourceEntry entry : list) {
+          final Path path = entry.getActualPath();
+          long time = -1L;
+          if (path != null) {
+            Long value = timeMap.get(path);
+            if (value == null) {
+              value = Files.getLastModifiedTime(path).toMillis();
+              timeMap.put(path, value);
+            }
+            time = value;
           }
-        } catch (Exception e) {
-          Logger.trace(e);
+          sb.append(entry.getResourceName()).append('|').append(path).append('|').append(entry.getResourceSize())
+              .append('|').append(time).append('\n');
         }
+      }
+      return getHash(sb.toString());
+    } catch (Exception e) {
+      Logger.debug(e);
+    }
+    return null;
+  }
 
-        if (statusBar != null && statusBar.getMessage().startsWith(message)) {
-          statusBar.setMessage(oldMessage);
+  /** Returns a SHA-1 hash of the given string as hex string. */
+  private static String getHash(String s) throws NoSuchAlgorithmException {
+    final MessageDigest md = MessageDigest.getInstance("SHA-1");
+    final byte[] digest = md.digest(s.getBytes(StandardCharsets.UTF_8));
+    final StringBuilder sb = new StringBuilder(new BigInteger(1, digest).toString(16));
+    while (sb.length() < digest.length * 2) {
+      sb.insert(0, '0');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Loads script names from the specified cache file.
+   *
+   * @param cacheFile   Path of the cache file.
+   * @param fingerprint Fingerprint of the current game resources.
+   * @param creFiles    List of CRE and CHR resources in the same order that was used to create the cache file.
+   * @return {@code true} if the cache file matched the current game resources and was loaded successfully.
+   */
+  private static boolean loadCache(Path cacheFile, String fingerprint, List<ResourceEntry> creFiles) {
+    if (!Files.isRegularFile(cacheFile)) {
+      return false;
+    }
+
+    final Map<String, Set<ResourceEntry>> creMap = new HashMap<>();
+    final Set<String> areSet = new HashSet<>();
+    try (final BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+      if (!CACHE_FILE_MAGIC.equals(reader.readLine()) || !fingerprint.equals(reader.readLine())) {
+        return false;
+      }
+
+      boolean complete = false;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        final int sep = line.indexOf('\t');
+        final String type = (sep > 0) ? line.substring(0, sep) : line;
+        switch (type) {
+          case "C": {
+            // format: C<tab>script name<tab>index into CRE/CHR resource list
+            final int sep2 = line.lastIndexOf('\t');
+            final String name = line.substring(sep + 1, sep2);
+            final int index = Integer.parseInt(line.substring(sep2 + 1));
+            creMap.computeIfAbsent(name, k -> new HashSet<>()).add(creFiles.get(index));
+            break;
+          }
+          case "A":
+            // format: A<tab>script name
+            areSet.add(line.substring(sep + 1));
+            break;
+          case "END":
+            complete = true;
+            break;
+          default:
+            return false;
         }
+      }
 
-        initialized = true;
-      };
-      new Thread(worker).start();
+      if (!complete) {
+        return false;
+      }
+    } catch (Exception e) {
+      Logger.debug(e);
+      return false;
+    }
+
+    for (final Map.Entry<String, Set<ResourceEntry>> entry : creMap.entrySet()) {
+      final Set<ResourceEntry> set = ConcurrentHashMap.newKeySet();
+      set.addAll(entry.getValue());
+      SCRIPT_NAMES_CRE.put(entry.getKey(), set);
+    }
+    SCRIPT_NAMES_ARE.addAll(areSet);
+    return true;
+  }
+
+  /**
+   * Writes the current script names to the specified cache file.
+   *
+   * @param cacheFile   Path of the cache file.
+   * @param fingerprint Fingerprint of the current game resources.
+   * @param creFiles    List of CRE and CHR resources used to gather the script names.
+   */
+  private static void saveCache(Path cacheFile, String fingerprint, List<ResourceEntry> creFiles) {
+    final Map<ResourceEntry, Integer> indexMap = new HashMap<>(creFiles.size() * 2);
+    for (int i = 0, count = creFiles.size(); i < count; i++) {
+      indexMap.put(creFiles.get(i), i);
+    }
+
+    final Path tmpFile = cacheFile.resolveSibling(cacheFile.getFileName().toString() + ".tmp");
+    try {
+      try (final BufferedWriter writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+        writer.write(CACHE_FILE_MAGIC);
+        writer.newLine();
+        writer.write(fingerprint);
+        writer.newLine();
+        for (final Map.Entry<String, Set<ResourceEntry>> entry : SCRIPT_NAMES_CRE.entrySet()) {
+          for (final ResourceEntry resource : entry.getValue()) {
+            final Integer index = indexMap.get(resource);
+            if (index != null) {
+              writer.write("C\t" + entry.getKey() + '\t' + index);
+              writer.newLine();
+            }
+          }
+        }
+        for (final String name : SCRIPT_NAMES_ARE) {
+          writer.write("A\t" + name);
+          writer.newLine();
+        }
+        writer.write("END");
+        writer.newLine();
+      }
+      Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      Logger.warn("Could not write script name cache: {}", e.getMessage());
+      try {
+        Files.deleteIfExists(tmpFile);
+      } catch (IOException e2) {
+        Logger.trace(e2);
+      }
     }
   }
 
@@ -195,7 +455,8 @@ public CreWorker(ResourceEntry entry) {
     @Override
     public void run() {
       try {
-        CreResource.addScriptName(SCRIPT_NAMES_CRE, entry);
+        // only the resource header is needed to determine the script name
+        addCreScriptName(entry, CreResource.readScriptName(entry));
       } catch (Exception e) {
         Logger.error(e);
       }
@@ -238,9 +499,7 @@ public void run() {
               if (mapEntry != null) {
                 final String s = normalized(mapEntry.getValue());
                 if (!s.isEmpty() && s.charAt(0) != '[') {
-                  synchronized (SCRIPT_NAMES_ARE) {
-                    SCRIPT_NAMES_ARE.add(s);
-                  }
+                  SCRIPT_NAMES_ARE.add(s);
                 }
               }
             }
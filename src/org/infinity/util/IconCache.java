@@ -22,6 +22,8 @@
 import org.infinity.resource.graphics.BmpDecoder;
 import org.infinity.resource.graphics.ColorConvert;
 import org.infinity.resource.key.ResourceEntry;
+import org.infinity.util.metrics.CacheMetric;
+import org.infinity.util.metrics.Metrics;
 
 /**
  * Cache for icons associated with ITM or SPL resources.
@@ -40,6 +42,8 @@ public class IconCache {
   // Maps icons of various sizes to a BAM ResourceEntry
   private static final HashMap<ResourceEntry, HashMap<Integer, Icon>> CACHE = new HashMap<>();
 
+  private static final CacheMetric METRIC_CACHE = Metrics.cache("cache.icon");
+
   /** Returns the default icon width and height used in resource selection lists. */
   public static int getDefaultListIconSize() {
     return SIZE_LIST;
@@ -118,6 +122,9 @@ public static synchronized Icon getIcon(ResourceEntry entry, int size, Icon defI
     }
 
     Icon retVal = getCachedIcon(entry, size);
+    if (entry != null) {
+      METRIC_CACHE.record(retVal != null);
+    }
     if (entry != null && retVal == null) {
       Image image = null;
 
@@ -257,31 +264,35 @@ private static synchronized Image getBamFrameImage(ResourceEntry bamEntry) {
     if (bamEntry != null) {
       final BamDecoder decoder = BamDecoder.loadBam(bamEntry);
       if (decoder != null) {
-        final BamControl control = decoder.createControl();
-
-        // selecting suitable frame
-        // PSTEE: cycle 0 contains the non-highlighted icon (which looks better)
-        // other: cycle 1 contains the inventory icon in most cases
-        int cycleIdx = (Profile.getGame() == Profile.Game.PSTEE) ? 0 : 1;
-        cycleIdx = Math.min(cycleIdx, control.cycleCount() - 1);
-        if (cycleIdx >= 0) {
-          // getting first available frame from cycle
-          for (int ci = cycleIdx; ci >= 0; ci--) {
-            control.cycleSet(ci);
-            if (control.cycleFrameCount() > 0) {
-              retVal = control.cycleGetFrame(control.cycleFrameCount() - 1);
-              ci = -1;
+        try {
+          final BamControl control = decoder.createControl();
+
+          // selecting suitable frame
+          // PSTEE: cycle 0 contains the non-highlighted icon (which looks better)
+          // other: cycle 1 contains the inventory icon in most cases
+          int cycleIdx = (Profile.getGame() == Profile.Game.PSTEE) ? 0 : 1;
+          cycleIdx = Math.min(cycleIdx, control.cycleCount() - 1);
+          if (cycleIdx >= 0) {
+            // getting first available frame from cycle
+            for (int ci = cycleIdx; ci >= 0; ci--) {
+              control.cycleSet(ci);
+              if (control.cycleFrameCount() > 0) {
+                retVal = control.cycleGetFrame(control.cycleFrameCount() - 1);
+                ci = -1;
+              }
             }
-          }
-        } else if (decoder.frameCount() > 0) {
-          // otherwise, try using frames directly
-          for (int i = 0, count = decoder.frameCount(); i < count; i++) {
-            final Image tmp = decoder.frameGet(control, 0);
-            if (tmp.getWidth(null) >= MIN_SIZE && tmp.getHeight(null) >= MIN_SIZE) {
-              retVal = tmp;
-              i = count;
+          } else if (decoder.frameCount() > 0) {
+            // otherwise, try using frames directly
+            for (int i = 0, count = decoder.frameCount(); i < count; i++) {
+              final Image tmp = decoder.frameGet(control, 0);
+              if (tmp.getWidth(null) >= MIN_SIZE && tmp.getHeight(null) >= MIN_SIZE) {
+                retVal = tmp;
+                i = count;
+              }
             }
           }
+        } finally {
+          decoder.close();
         }
       }
     }
@@ -5,9 +5,11 @@
 package org.infinity.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
@@ -18,24 +20,60 @@
 import org.infinity.resource.key.ResourceEntry;
 import org.infinity.resource.text.PlainTextResource;
 
+/**
+ * Provides access to the symbols and values of an IDS resource.
+ * <p>
+ * Entries are stored in immutable lookup tables: values are kept in a sorted {@code long} array with a parallel array
+ * of entry structures, symbols in a case-insensitive {@link SymbolTable}. Resolving symbols and values does not
+ * allocate memory.
+ * </p>
+ */
 public class IdsMap {
-  private final TreeMap<Long, IdsMapEntry> idsMap = new TreeMap<>();
-  private final HashMap<String, Long> symbolMap = new HashMap<>();
   private final ResourceEntry entry;
   private final boolean caseSensitive;
 
+  /** Sorted IDS values. */
+  private final long[] keys;
+
+  /** Entry structures associated with {@link #keys}. */
+  private final IdsMapEntry[] entries;
+
+  /** Maps symbols to indices of {@link #keys}. */
+  private final SymbolTable symbols;
+
   public IdsMap(ResourceEntry entry) throws Exception {
     this.entry = entry;
     this.caseSensitive = IdsMapCache.isCaseSensitiveMatch(entry.getResourceName());
+    final TreeMap<Long, IdsMapEntry> idsMap = new TreeMap<>();
+    final HashMap<String, Long> symbolMap = new HashMap<>();
 //    try {
       if (entry.getExtension().equalsIgnoreCase("IDS")) {
-        parseIDS();
+        parseIDS(idsMap, symbolMap);
       } else if (entry.getExtension().equalsIgnoreCase("2DA")) {
-        parse2DA();
+        parse2DA(idsMap);
       }
 //    } catch (Exception e) {
 //      Logger.error(e);
 //    }
+
+    // building lookup tables
+    this.keys = new long[idsMap.size()];
+    this.entries = new IdsMapEntry[idsMap.size()];
+    int idx = 0;
+    for (final Map.Entry<Long, IdsMapEntry> e : idsMap.entrySet()) {
+      keys[idx] = e.getKey();
+      entries[idx] = e.getValue();
+      idx++;
+    }
+
+    final HashMap<String, Integer> symbolIndices = new HashMap<>(symbolMap.size() * 2);
+    for (final Map.Entry<String, Long> e : symbolMap.entrySet()) {
+      // symbol "0" is never resolved
+      if (!e.getKey().equals("0")) {
+        symbolIndices.put(e.getKey(), Arrays.binarySearch(keys, e.getValue()));
+      }
+    }
+    this.symbols = new SymbolTable(symbolIndices, true);
   }
 
   @Override
@@ -49,22 +87,27 @@ public String toString() {
 
   /** Returns the number of entries in the map. */
   public int size() {
-    return idsMap.size();
+    return keys.length;
   }
 
   /** Returns a copy of the values contained in the IDS map. */
   public List<IdsMapEntry> getAllValues() {
-    return new ArrayList<>(idsMap.values());
+    return new ArrayList<>(Arrays.asList(entries));
   }
 
   /** Returns a copy of the keys contained in the IDS map as a sorted set. */
   public SortedSet<Long> getKeys() {
-    return new TreeSet<>(idsMap.keySet());
+    final TreeSet<Long> retVal = new TreeSet<>();
+    for (final long key : keys) {
+      retVal.add(key);
+    }
+    return retVal;
   }
 
   /** Returns the entry structure defined by the specified IDS value, or {@code null} otherwise. */
   public IdsMapEntry get(long value) {
-    return idsMap.get(normalizedKey(value));
+    final int idx = Arrays.binarySearch(keys, normalizedKey(value));
+    return (idx >= 0) ? entries[idx] : null;
   }
 
   /**
@@ -86,27 +129,18 @@ public IdsMapEntry lookup(String symbol) {
    * @return Matching entry structure, or {@code null} otherwise.
    */
   public IdsMapEntry lookup(String symbol, boolean exact) {
-    final String symbolNorm = normalizedString(symbol);
-    if (symbolNorm.isEmpty() || symbolNorm.equals("0")) {
-      return null;
-    }
-    final Long key = symbolMap.get(symbolNorm);
-    if (key == null) {
+    final int idx = symbols.get(symbol, -1);
+    if (idx < 0) {
       return null;
     }
-    final IdsMapEntry e = idsMap.get(key);
-    if (exact && e != null) {
-      for (String s : e) {
-        if (s.equals(symbol)) {
-          return e;
-        }
-      }
+    final IdsMapEntry e = entries[idx];
+    if (exact && !e.containsSymbol(symbol)) {
       return null;
     }
     return e;
   }
 
-  private void parse2DA() throws Exception {
+  private void parse2DA(TreeMap<Long, IdsMapEntry> idsMap) throws Exception {
     StringTokenizer st = new StringTokenizer(new PlainTextResource(entry).getText(), "\r\n");
     // 3 uninteresting lines
     for (int i = 0; i < 3 && st.hasMoreTokens(); i++) {
@@ -115,20 +149,20 @@ private void parse2DA() throws Exception {
     while (st.hasMoreTokens()) {
       String token = st.nextToken();
       try {
-        extract2DA(token);
+        extract2DA(idsMap, token);
       } catch (NumberFormatException e) {
         throw new IllegalArgumentException(String.format("Unexpected token [resource=%s, token=\"%s\"]", entry, token));
       }
     }
   }
 
-  private void parseIDS() throws Exception {
+  private void parseIDS(TreeMap<Long, IdsMapEntry> idsMap, HashMap<String, Long> symbolMap) throws Exception {
     // parsing regular IDS content
     StringTokenizer st = new StringTokenizer(new PlainTextResource(entry).getText(), "\r\n");
     while (st.hasMoreTokens()) {
       String token = st.nextToken();
       try {
-        extractIDS(token);
+        extractIDS(idsMap, symbolMap, token);
       } catch (NumberFormatException e) {
         throw new IllegalArgumentException(String.format("Unexpected token [resource=%s, token=\"%s\"]", entry, token));
       }
@@ -144,7 +178,7 @@ private void parseIDS() throws Exception {
     if (list != null) {
       for (String token : list) {
         try {
-          extractIDS(token);
+          extractIDS(idsMap, symbolMap, token);
         } catch (NumberFormatException e) {
           throw new IllegalArgumentException(String.format("Unexpected token [resource=%s, token=\"%s\"]", entry, token));
         }
@@ -152,7 +186,7 @@ private void parseIDS() throws Exception {
     }
   }
 
-  private void extract2DA(String line) {
+  private void extract2DA(TreeMap<Long, IdsMapEntry> idsMap, String line) {
     StringTokenizer st = new StringTokenizer(line);
     final long key = normalizedKey(Long.parseLong(st.nextToken()));
     String resource = st.nextToken();
@@ -165,7 +199,7 @@ private void extract2DA(String line) {
     }
   }
 
-  private void extractIDS(String line) {
+  private void extractIDS(TreeMap<Long, IdsMapEntry> idsMap, HashMap<String, Long> symbolMap, String line) {
     line = line.trim();
     int p = Math.min(line.indexOf(' ') & Integer.MAX_VALUE, line.indexOf('\t') & Integer.MAX_VALUE);
     if (p == Integer.MAX_VALUE) {
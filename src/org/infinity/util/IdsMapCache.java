@@ -6,20 +6,24 @@
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.infinity.resource.Profile;
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.bcs.ScriptInfo;
 import org.infinity.resource.key.ResourceEntry;
+import org.infinity.util.metrics.CacheMetric;
+import org.infinity.util.metrics.Metrics;
 
 public class IdsMapCache {
   /** Maps upper-cased name of IDS resource to parsed resource. */
-  private static final Map<String, IdsMap> CACHE = new HashMap<>();
+  private static final Map<String, IdsMap> CACHE = new ConcurrentHashMap<>();
+
+  private static final CacheMetric METRIC_CACHE = Metrics.cache("cache.ids");
 
   /** List of IDS resource names that are known to be malformed. */
   private static final Set<String> BLACKLIST = new HashSet<>();
@@ -37,7 +41,21 @@ public static void clearCache() {
     blackListInitialized = false;
   }
 
-  public static synchronized IdsMap get(String name) {
+  public static IdsMap get(String name) {
+    // lock-free lookup of IDS resources that are already loaded
+    if (name != null) {
+      final IdsMap retVal = CACHE.get(name.trim().toUpperCase(Locale.ENGLISH));
+      if (retVal != null) {
+        METRIC_CACHE.hit();
+        return retVal;
+      }
+    }
+    METRIC_CACHE.miss();
+    return load(name);
+  }
+
+  // Loads the specified IDS resource into the cache
+  private static synchronized IdsMap load(String name) {
     IdsMap retVal = null;
 
     if (isBlackListed(name)) {
@@ -72,6 +72,11 @@ public String getSymbol(int index) throws IndexOutOfBoundsException {
     return retVal;
   }
 
+  /** Returns whether the specified symbolic name is available. The comparison is case-sensitive. */
+  public boolean containsSymbol(String symbol) {
+    return symbol != null && symbols.contains(symbol);
+  }
+
   /** Returns an iterator over the whole collection of available symbols. */
   @Override
   public Iterator<String> iterator() {
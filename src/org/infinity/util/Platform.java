@@ -247,6 +247,56 @@ public static Path createTempDirectory(String... folders) throws IOException {
     return retVal;
   }
 
+  /**
+   * Returns the per-user cache directory of Near Infinity. In contrast to {@link #createTempDirectory(String...)} the
+   * directory is not removed when the application terminates and can be used to persist data between sessions.
+   *
+   * @param folders one or more subfolders that are recursively created in the cache directory.
+   * @return Absolute {@link Path} of the cache directory.
+   * @throws IOException if the directory could not be created.
+   */
+  public static Path getCacheDirectory(String... folders) throws IOException {
+    Path retVal = null;
+    try {
+      if (IS_WINDOWS) {
+        final String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData != null && !localAppData.isEmpty()) {
+          retVal = Paths.get(localAppData);
+        }
+      } else if (IS_MACOS) {
+        retVal = Paths.get(System.getProperty("user.home"), "Library", "Caches");
+      } else {
+        final String cacheHome = System.getenv("XDG_CACHE_HOME");
+        if (cacheHome != null && !cacheHome.isEmpty()) {
+          retVal = Paths.get(cacheHome);
+        } else {
+          retVal = Paths.get(System.getProperty("user.home"), ".cache");
+        }
+      }
+    } catch (InvalidPathException e) {
+      Logger.debug(e);
+    }
+
+    if (retVal == null) {
+      retVal = getTempDirectory();
+    }
+
+    retVal = retVal.resolve("NearInfinity");
+    for (final String folder : folders) {
+      if (folder != null && !folder.trim().isEmpty()) {
+        retVal = retVal.resolve(folder);
+      }
+    }
+
+    try {
+      Files.createDirectories(retVal);
+    } catch (UnsupportedOperationException | InvalidPathException e) {
+      throw new IOException(e);
+    }
+
+    return retVal.toAbsolutePath();
+  }
+
   /**
    * Ensures that the specified file path can be executed.
    *
@@ -150,7 +150,7 @@ private static synchronized void ensureIconsLoaded() {
 
     for (int row = 0, count = table.getRowCount(); row < count; row++) {
       // fetching table data
-      final int iconIndex = Misc.toNumber(table.get(row, 0), -1);
+      final int iconIndex = table.getInt(row, 0, -1);
       if (iconIndex >= 0) {
         ResourceEntry entry = null;
         if (table.getColCount(row) > 2) {
@@ -17,8 +17,13 @@
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinity.NearInfinity;
 import org.infinity.datatype.DecNumber;
@@ -33,6 +38,9 @@
 import org.infinity.updater.Utils;
 import org.infinity.util.io.FileEx;
 import org.infinity.util.io.StreamUtils;
+import org.infinity.util.metrics.CacheMetric;
+import org.infinity.util.metrics.Metrics;
+import org.infinity.util.metrics.Span;
 
 /**
  * Provides operations for reading, writing and querying information about string tables.
@@ -88,6 +96,12 @@ public String format(String text, int strRef) {
 
   private static final EnumMap<Type, StringTable> TLK_TABLE = new EnumMap<>(Type.class);
 
+  // Lookups of string entries: hit if the entry is already in memory, miss if it has to be read from disk
+  private static final CacheMetric METRIC_LOOKUP = Metrics.cache("tlk.lookup");
+
+  // Incremented whenever texts returned by the string tables may have changed
+  private static final AtomicInteger REVISION = new AtomicInteger();
+
   private static Charset charset = null;
   private static Format format = Format.NONE;
   private static Boolean hasFemaleTable = null;
@@ -151,6 +165,15 @@ public static boolean setCharset(String cs) {
     return retVal;
   }
 
+  /**
+   * Returns a counter that is incremented whenever texts returned by the string tables may have changed, e.g. by
+   * editing, reloading or changing the display format. It can be used to detect whether data derived from string table
+   * texts is outdated.
+   */
+  public static int getRevision() {
+    return REVISION.get();
+  }
+
   /** Returns the current display format of returned strings. */
   public static Format getDisplayFormat() {
     return format;
@@ -161,7 +184,10 @@ public static void setDisplayFormat(Format newFormat) {
     if (newFormat == null) {
       newFormat = Format.NONE;
     }
-    format = newFormat;
+    if (newFormat != format) {
+      format = newFormat;
+      REVISION.incrementAndGet();
+    }
   }
 
   /**
@@ -173,6 +199,7 @@ public static void resetAll() {
     }
     charset = null;
     hasFemaleTable = null;
+    REVISION.incrementAndGet();
   }
 
   /** Resets a single string table. Call this when refreshing an opened game. */
@@ -654,6 +681,52 @@ public static void ensureFullyLoaded() {
     }
   }
 
+  /**
+   * Builds the full-text search index of the specified string table if needed. Loads all string entries into memory.
+   *
+   * @param type The string table
+   */
+  public static void ensureSearchIndex(Type type) {
+    try {
+      instance(type)._getSearchIndex();
+    } catch (StringTableUnavailableException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Builds the full-text search indices of all available string tables if needed.
+   */
+  public static void ensureSearchIndex() {
+    ensureSearchIndex(Type.MALE);
+    if (hasFemaleTable()) {
+      ensureSearchIndex(Type.FEMALE);
+    }
+  }
+
+  /**
+   * Returns the string references of all entries of the specified string table which may be matched by the given search
+   * term. Returned entries are a superset of the actual matches and have to be confirmed by the caller. Matching is
+   * performed on the unformatted string text.
+   *
+   * @param type  The string table
+   * @param term  The search term.
+   * @param regex Whether {@code term} is a regular expression.
+   * @return Sorted array of string references, or {@code null} if all string entries have to be searched.
+   */
+  public static int[] getSearchCandidates(Type type, String term, boolean regex) {
+    final List<String> literals = StringTableIndex.getRequiredLiterals(term, regex);
+    if (literals.isEmpty()) {
+      return null;
+    }
+    try {
+      return instance(type)._getSearchCandidates(literals);
+    } catch (StringTableUnavailableException e) {
+      // ignore
+    }
+    return null;
+  }
+
   /**
    * Adds a new empty string entry to the male string table and returns its index.
    *
@@ -1109,6 +1182,11 @@ private static StringTable instance(Type type) throws StringTableUnavailableExce
   private boolean initialized;
   private boolean modified;
 
+  // full-text search index and entries with texts modified after the index has been built
+  private volatile StringTableIndex searchIndex;
+  private final Set<StringEntry> searchIndexPending = Collections.newSetFromMap(new IdentityHashMap<>());
+  private int searchIndexRevision;
+
   private StringTable(Type tlkType, Path tlkPath) {
     if (tlkPath == null) {
       throw new NullPointerException();
@@ -1143,12 +1221,12 @@ private int _getTranslatedIndex(int index) {
         final Table2da engineTable = Table2daCache.get("ENGINEST.2DA");
         int row = index - STRREF_VIRTUAL;
         if (engineTable != null && row < engineTable.getRowCount()) {
-          try {
-            int strref = Integer.parseInt(engineTable.get(row, 1));
+          final int strref = engineTable.getInt(row, 1, Integer.MIN_VALUE);
+          if (strref != Integer.MIN_VALUE) {
             entriesVirtual.put(index, strref);
             index = strref;
-          } catch (NumberFormatException e) {
-            Logger.error(e);
+          } else {
+            Logger.error("Invalid strref in ENGINEST.2DA: {}", engineTable.get(row, 1));
           }
         }
       }
@@ -1277,6 +1355,7 @@ private void _reset() {
       ofsStrings = numEntries = entriesPending = -1;
       initialized = false;
       _resetModified();
+      _invalidateSearchIndex();
     }
     _init();
   }
@@ -1344,6 +1423,10 @@ private int _insertEntry(int index, StringEntry newEntry) throws IndexOutOfBound
     _ensureFullyLoaded();
     newEntry.setModified();
     synchronized (entries) {
+      if (index < entries.size()) {
+        // string references of subsequent entries are shifted
+        _invalidateSearchIndex();
+      }
       entries.add(index, newEntry);
     }
 
@@ -1358,6 +1441,7 @@ private void _removeEntry(int index) throws IndexOutOfBoundsException {
     _ensureFullyLoaded();
     synchronized (entries) {
       entries.remove(index);
+      _invalidateSearchIndex();
     }
     _setModified();
   }
@@ -1370,7 +1454,7 @@ private void _ensureFullyLoaded() {
 
     if (entriesPending > 0) {
       synchronized (entries) {
-        try (FileChannel ch = _open()) {
+        try (FileChannel ch = _open(); Span span = Metrics.start("tlk.load")) {
           for (int idx = 0, num = _getNumEntries(); idx < num; idx++) {
             if (entries.get(idx) == null) {
               StringEntry entry = _loadEntry(ch, idx);
@@ -1397,6 +1481,7 @@ private void _ensureIndexIsLoaded(int index) {
 
     index = _getTranslatedIndex(index);
     if (entriesPending > 0 && index >= 0 && index < _getNumEntries() && entries.get(index) == null) {
+      METRIC_LOOKUP.miss();
       synchronized (entries) {
         try (FileChannel ch = _open()) {
           StringEntry entry = _loadEntry(ch, index);
@@ -1410,6 +1495,8 @@ private void _ensureIndexIsLoaded(int index) {
           Logger.error(e);
         }
       }
+    } else {
+      METRIC_LOOKUP.hit();
     }
   }
 
@@ -1423,6 +1510,7 @@ private void _resetEntries() {
           }
         }
         _resetModified();
+        _invalidateSearchIndex();
       }
     }
   }
@@ -1431,12 +1519,104 @@ private boolean _isModified() {
     return modified;
   }
 
+  // Returns the full-text search index, builds it if needed
+  private StringTableIndex _getSearchIndex() {
+    _ensureFullyLoaded();
+    StringTableIndex index = searchIndex;
+    if (index == null) {
+      synchronized (searchIndexPending) {
+        index = searchIndex;
+        if (index == null) {
+          final String[] texts;
+          final int revision;
+          synchronized (entries) {
+            texts = new String[entries.size()];
+            for (int i = 0; i < texts.length; i++) {
+              final StringEntry entry = entries.get(i);
+              texts[i] = (entry != null) ? entry.getText() : null;
+            }
+            searchIndexPending.clear();
+            revision = searchIndexRevision;
+          }
+
+          final long startTime = System.currentTimeMillis();
+          index = StringTableIndex.build(texts);
+          Logger.debug("Search index of {} built: {} strings, {} trigrams, {} ms", _getPath().getFileName(),
+              index.size(), index.getTrigramCount(), System.currentTimeMillis() - startTime);
+
+          synchronized (entries) {
+            // table may have been restructured in the meantime
+            if (revision == searchIndexRevision) {
+              searchIndex = index;
+            }
+          }
+        }
+      }
+    }
+    return index;
+  }
+
+  // Returns sorted indices of string entries which may contain all of the specified literals
+  private int[] _getSearchCandidates(List<String> literals) {
+    final StringTableIndex index = _getSearchIndex();
+    int[] retVal = index.find(literals);
+    if (retVal == null) {
+      return null;
+    }
+
+    synchronized (entries) {
+      // entries modified or added after the index has been built are always included
+      final int numEntries = entries.size();
+      final int numIndexed = Math.min(numEntries, index.size());
+      int[] pending = new int[0];
+      if (!searchIndexPending.isEmpty()) {
+        final int[] indices = new int[searchIndexPending.size()];
+        int count = 0;
+        for (int i = 0; i < numIndexed && count < indices.length; i++) {
+          if (searchIndexPending.contains(entries.get(i))) {
+            indices[count++] = i;
+          }
+        }
+        pending = Arrays.copyOf(indices, count);
+      }
+      if (numEntries > numIndexed) {
+        final int[] added = new int[numEntries - numIndexed];
+        for (int i = 0; i < added.length; i++) {
+          added[i] = numIndexed + i;
+        }
+        pending = StringTableIndex.union(pending, added);
+      }
+      if (pending.length > 0) {
+        retVal = StringTableIndex.union(retVal, pending);
+      }
+    }
+    return retVal;
+  }
+
+  // Called whenever the text of a string entry has been modified
+  private void _textModified(StringEntry entry) {
+    synchronized (entries) {
+      searchIndexPending.add(entry);
+    }
+  }
+
+  // Discards the current search index. Must be called when string references of existing entries change.
+  private void _invalidateSearchIndex() {
+    synchronized (entries) {
+      searchIndex = null;
+      searchIndexPending.clear();
+      searchIndexRevision++;
+    }
+  }
+
   private void _setModified() {
     modified = true;
+    REVISION.incrementAndGet();
   }
 
   private void _resetModified() {
     modified = false;
+    REVISION.incrementAndGet();
   }
 
   // Writes data back to disk only if entries have been modified
@@ -1725,6 +1905,9 @@ public void setText(String newText) {
       if (!normalizedText(newText).equals(normalizedText(text))) {
         text = newText;
         setModified();
+        if (parent != null) {
+          parent._textModified(this);
+        }
       }
     }
 
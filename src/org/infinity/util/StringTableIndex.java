@@ -0,0 +1,402 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Immutable trigram index over the texts of a string table.
+ * <p>
+ * Every sequence of three consecutive (lower-cased) characters is mapped to the sorted list of string references
+ * containing it. A query returns all string references which may contain a given set of literal substrings. Results
+ * are a superset of the actual matches and have to be confirmed by the caller.
+ * </p>
+ */
+public final class StringTableIndex {
+  /** Min. number of texts per worker thread when building the index in parallel. */
+  private static final int MIN_CHUNK_SIZE = 4096;
+
+  /** Escape characters of quotations and escape sequences with a payload, e.g. {@code \x41} or {@code \p{Lu}}. */
+  private static final String PAYLOAD_ESCAPES = "Qxu0cNpPk";
+
+  private static final int[] EMPTY = new int[0];
+
+  /** Maps packed trigrams to sorted string references. */
+  private final HashMap<Long, int[]> postings;
+
+  /** Number of indexed texts. */
+  private final int size;
+
+  private StringTableIndex(HashMap<Long, int[]> postings, int size) {
+    this.postings = postings;
+    this.size = size;
+  }
+
+  /**
+   * Creates an index over the specified texts. Array indices are used as string references. Large text lists are
+   * processed in parallel.
+   *
+   * @param texts Array of texts. {@code null} elements are treated as empty strings.
+   * @return A new {@code StringTableIndex} instance.
+   */
+  public static StringTableIndex build(String[] texts) {
+    final int numChunks = Math.max(1, Math.min(Threading.MAX_THREADS_AVAILABLE, texts.length / MIN_CHUNK_SIZE));
+    final int chunkSize = (texts.length + numChunks - 1) / Math.max(1, numChunks);
+
+    final List<Map<Long, IntList>> chunks = new ArrayList<>(numChunks);
+    if (numChunks == 1) {
+      chunks.add(indexRange(texts, 0, texts.length));
+    } else {
+      try (final Threading threads = new Threading()) {
+        final List<Future<Map<Long, IntList>>> results = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+          final int start = i * chunkSize;
+          final int end = Math.min(texts.length, start + chunkSize);
+          results.add(threads.submit(() -> indexRange(texts, start, end)));
+        }
+        for (final Future<Map<Long, IntList>> result : results) {
+          chunks.add(result.get());
+        }
+      } catch (Exception e) {
+        Logger.warn(e, "Parallel indexing failed");
+        chunks.clear();
+        chunks.add(indexRange(texts, 0, texts.length));
+      }
+    }
+
+    // merging chunks in order keeps posting lists sorted
+    final HashMap<Long, int[]> postings = new HashMap<>(chunks.get(0).size() * 2);
+    if (chunks.size() == 1) {
+      for (final Map.Entry<Long, IntList> e : chunks.get(0).entrySet()) {
+        postings.put(e.getKey(), e.getValue().toArray());
+      }
+    } else {
+      final HashMap<Long, IntList> merged = new HashMap<>(chunks.get(0).size() * 2);
+      for (final Map<Long, IntList> chunk : chunks) {
+        for (final Map.Entry<Long, IntList> e : chunk.entrySet()) {
+          final IntList list = merged.get(e.getKey());
+          if (list == null) {
+            merged.put(e.getKey(), e.getValue());
+          } else {
+            list.addAll(e.getValue());
+          }
+        }
+      }
+      for (final Map.Entry<Long, IntList> e : merged.entrySet()) {
+        postings.put(e.getKey(), e.getValue().toArray());
+      }
+    }
+
+    return new StringTableIndex(postings, texts.length);
+  }
+
+  /**
+   * Returns the literal substrings that must be contained in every text matched by the specified search term.
+   * Literals with less than three characters are omitted.
+   *
+   * @param term  The search term.
+   * @param regex Whether {@code term} is a regular expression.
+   * @return List of required literals. An empty list indicates that the term cannot be used to narrow a search.
+   */
+  public static List<String> getRequiredLiterals(String term, boolean regex) {
+    if (term == null || term.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (!regex) {
+      return (term.length() >= 3) ? Collections.singletonList(term) : Collections.emptyList();
+    }
+
+    final List<String> retVal = new ArrayList<>();
+    final StringBuilder sb = new StringBuilder();
+    final int len = term.length();
+    int i = 0;
+    while (i < len) {
+      final char ch = term.charAt(i);
+      switch (ch) {
+        case '(':
+        case ')':
+        case '|':
+          // groups and alternations are not analyzed
+          return Collections.emptyList();
+        case '\\':
+          if (i + 1 >= len) {
+            return Collections.emptyList();
+          }
+          final char next = term.charAt(i + 1);
+          if (Character.isLetterOrDigit(next)) {
+            // character classes, anchors, back references, quoting, escape sequences
+            if (PAYLOAD_ESCAPES.indexOf(next) >= 0) {
+              // the payload would be mistaken for a literal
+              return Collections.emptyList();
+            }
+            addLiteral(retVal, sb);
+          } else {
+            sb.append(next);
+          }
+          i += 2;
+          break;
+        case '[':
+          i = skipCharClass(term, i);
+          if (i < 0) {
+            return Collections.emptyList();
+          }
+          addLiteral(retVal, sb);
+          break;
+        case '*':
+        case '?':
+        case '{':
+          // preceding character is optional or repeated
+          if (ch == '{' && !isMinOccurrence(term, i)) {
+            // at least one occurrence: preceding character is still required
+            addLiteral(retVal, sb);
+          } else if (sb.length() > 0) {
+            sb.setLength(sb.length() - 1);
+            addLiteral(retVal, sb);
+          }
+          if (ch == '{') {
+            final int end = term.indexOf('}', i);
+            if (end < 0) {
+              return Collections.emptyList();
+            }
+            i = end;
+          }
+          i++;
+          break;
+        case '+':
+        case '.':
+        case '^':
+        case '$':
+          addLiteral(retVal, sb);
+          i++;
+          break;
+        default:
+          sb.append(ch);
+          i++;
+      }
+    }
+    addLiteral(retVal, sb);
+    return retVal;
+  }
+
+  /** Returns the number of indexed texts. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the number of distinct trigrams in the index. */
+  public int getTrigramCount() {
+    return postings.size();
+  }
+
+  /**
+   * Returns the sorted string references of all indexed texts which may contain each of the specified literals.
+   * Literals are matched case-insensitive.
+   *
+   * @param literals List of literals with a min. length of three characters.
+   * @return Sorted array of string references, or {@code null} if the literals cannot be used to narrow the search.
+   */
+  public int[] find(List<String> literals) {
+    final List<int[]> lists = new ArrayList<>();
+    for (final String literal : literals) {
+      if (literal == null || literal.length() < 3) {
+        continue;
+      }
+      final String s = toLowerCase(literal);
+      for (int i = 0, len = s.length() - 2; i < len; i++) {
+        final int[] list = postings.get(trigram(s.charAt(i), s.charAt(i + 1), s.charAt(i + 2)));
+        if (list == null) {
+          return EMPTY;
+        }
+        lists.add(list);
+      }
+    }
+    if (lists.isEmpty()) {
+      return null;
+    }
+
+    // intersecting shortest lists first
+    lists.sort((a, b) -> a.length - b.length);
+    int[] retVal = lists.get(0);
+    for (int i = 1, cnt = lists.size(); i < cnt && retVal.length > 0; i++) {
+      if (lists.get(i) != retVal) {
+        retVal = intersect(retVal, lists.get(i));
+      }
+    }
+    return retVal;
+  }
+
+  /** Returns the union of two sorted arrays of distinct values. */
+  public static int[] union(int[] a, int[] b) {
+    final int[] retVal = new int[a.length + b.length];
+    int i = 0, j = 0, k = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        retVal[k++] = a[i++];
+      } else if (a[i] > b[j]) {
+        retVal[k++] = b[j++];
+      } else {
+        retVal[k++] = a[i++];
+        j++;
+      }
+    }
+    while (i < a.length) {
+      retVal[k++] = a[i++];
+    }
+    while (j < b.length) {
+      retVal[k++] = b[j++];
+    }
+    return (k < retVal.length) ? Arrays.copyOf(retVal, k) : retVal;
+  }
+
+  // Returns the intersection of two sorted arrays of distinct values
+  private static int[] intersect(int[] a, int[] b) {
+    final int[] retVal = new int[Math.min(a.length, b.length)];
+    int i = 0, j = 0, k = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        retVal[k++] = a[i++];
+        j++;
+      }
+    }
+    return Arrays.copyOf(retVal, k);
+  }
+
+  // Creates posting lists for the specified range of texts
+  private static Map<Long, IntList> indexRange(String[] texts, int start, int end) {
+    final HashMap<Long, IntList> retVal = new HashMap<>();
+    long[] keys = new long[256];
+    for (int idx = start; idx < end; idx++) {
+      final String text = texts[idx];
+      if (text == null || text.length() < 3) {
+        continue;
+      }
+
+      // collecting distinct trigrams of the current text
+      final int count = text.length() - 2;
+      if (keys.length < count) {
+        keys = new long[count];
+      }
+      char c0 = Character.toLowerCase(text.charAt(0));
+      char c1 = Character.toLowerCase(text.charAt(1));
+      for (int i = 0; i < count; i++) {
+        final char c2 = Character.toLowerCase(text.charAt(i + 2));
+        keys[i] = trigram(c0, c1, c2);
+        c0 = c1;
+        c1 = c2;
+      }
+      Arrays.sort(keys, 0, count);
+
+      for (int i = 0; i < count; i++) {
+        if (i > 0 && keys[i] == keys[i - 1]) {
+          continue;
+        }
+        final Long key = keys[i];
+        IntList list = retVal.get(key);
+        if (list == null) {
+          list = new IntList();
+          retVal.put(key, list);
+        }
+        list.add(idx);
+      }
+    }
+    return retVal;
+  }
+
+  // Adds the current literal to the list if it is long enough and clears the buffer
+  private static void addLiteral(List<String> list, StringBuilder sb) {
+    if (sb.length() >= 3) {
+      list.add(sb.toString());
+    }
+    sb.setLength(0);
+  }
+
+  // Returns the index after the character class starting at the specified position, or -1 if the class is not closed
+  private static int skipCharClass(String term, int start) {
+    int depth = 0;
+    int i = start;
+    while (i < term.length()) {
+      final char ch = term.charAt(i);
+      if (ch == '\\') {
+        i += 2;
+        continue;
+      }
+      if (ch == '[') {
+        depth++;
+        // a closing bracket at the start of a class is a literal
+        if (i + 1 < term.length() && term.charAt(i + 1) == '^') {
+          i++;
+        }
+        if (i + 1 < term.length() && term.charAt(i + 1) == ']') {
+          i++;
+        }
+      } else if (ch == ']') {
+        depth--;
+        if (depth == 0) {
+          return i + 1;
+        }
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  // Returns whether the quantifier at the specified position allows zero occurrences
+  private static boolean isMinOccurrence(String term, int start) {
+    int i = start + 1;
+    while (i < term.length() && Character.isWhitespace(term.charAt(i))) {
+      i++;
+    }
+    return i >= term.length() || term.charAt(i) == '0' || term.charAt(i) == ',';
+  }
+
+  private static String toLowerCase(String s) {
+    final char[] buf = s.toCharArray();
+    for (int i = 0; i < buf.length; i++) {
+      buf[i] = Character.toLowerCase(buf[i]);
+    }
+    return new String(buf);
+  }
+
+  private static long trigram(char c0, char c1, char c2) {
+    return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+  }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /** A growable list of {@code int} values. */
+  private static class IntList {
+    private int[] data = new int[4];
+    private int size;
+
+    public void add(int value) {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = value;
+    }
+
+    public void addAll(IntList list) {
+      if (size + list.size > data.length) {
+        data = Arrays.copyOf(data, Math.max(size + list.size, size * 2));
+      }
+      System.arraycopy(list.data, 0, data, size, list.size);
+      size += list.size;
+    }
+
+    public int[] toArray() {
+      return Arrays.copyOf(data, size);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable hash table that maps symbolic names to {@code int} values. Names are matched case-insensitive and
+ * optionally without surrounding whitespace.
+ * <p>
+ * Names are stored in normalized (upper-cased and optionally trimmed) form in an open-addressing table. Lookups of names
+ * consisting of ASCII characters are performed on the original character sequence and don't allocate memory. Other
+ * names are normalized by {@link String#toUpperCase(Locale)} before the lookup.
+ * </p>
+ */
+public final class SymbolTable {
+  private final String[] keys;
+  private final int[] hashes;
+  private final int[] values;
+  private final int mask;
+  private final boolean trim;
+  private final int size;
+
+  /**
+   * Creates a new symbol table from the specified map. Names that are identical after normalization are mapped to the
+   * value of the last name returned by the map iterator.
+   *
+   * @param map  Map of symbolic names and associated values.
+   * @param trim Whether whitespace around names should be ignored.
+   */
+  public SymbolTable(Map<String, Integer> map, boolean trim) {
+    this.trim = trim;
+    int capacity = 4;
+    while (capacity < map.size() * 2) {
+      capacity <<= 1;
+    }
+    this.keys = new String[capacity];
+    this.hashes = new int[capacity];
+    this.values = new int[capacity];
+    this.mask = capacity - 1;
+
+    int count = 0;
+    for (final Map.Entry<String, Integer> entry : map.entrySet()) {
+      final String key = normalized(entry.getKey());
+      final int hash = hash(key, 0, key.length());
+      int idx = mix(hash) & mask;
+      while (keys[idx] != null && !keys[idx].equals(key)) {
+        idx = (idx + 1) & mask;
+      }
+      if (keys[idx] == null) {
+        keys[idx] = key;
+        hashes[idx] = hash;
+        count++;
+      }
+      values[idx] = entry.getValue();
+    }
+    this.size = count;
+  }
+
+  /** Returns the number of symbolic names in the table. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value associated with the specified symbolic name.
+   *
+   * @param name     The symbolic name.
+   * @param defValue Value to return if the name is not available.
+   * @return Value associated with the name, {@code defValue} otherwise.
+   */
+  public int get(CharSequence name, int defValue) {
+    if (name == null) {
+      return defValue;
+    }
+
+    int start = 0;
+    int end = name.length();
+    if (trim) {
+      while (start < end && name.charAt(start) <= ' ') {
+        start++;
+      }
+      while (end > start && name.charAt(end - 1) <= ' ') {
+        end--;
+      }
+    }
+
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      final char ch = name.charAt(i);
+      if (ch >= 0x80) {
+        // non-ASCII characters may need special case mapping
+        final String key = normalized(name.toString());
+        return find(key, hash(key, 0, key.length()), key, 0, key.length(), defValue);
+      }
+      hash = 31 * hash + toUpper(ch);
+    }
+    return find(null, hash, name, start, end, defValue);
+  }
+
+  // Looks up the specified character range. Compares against "key" instead if available.
+  private int find(String key, int hash, CharSequence name, int start, int end, int defValue) {
+    for (int idx = mix(hash) & mask; keys[idx] != null; idx = (idx + 1) & mask) {
+      if (hashes[idx] == hash) {
+        if (key != null ? keys[idx].equals(key) : regionMatches(keys[idx], name, start, end)) {
+          return values[idx];
+        }
+      }
+    }
+    return defValue;
+  }
+
+  // Returns the normalized form of the specified name
+  private String normalized(String name) {
+    if (name == null) {
+      return "";
+    }
+    return (trim ? name.trim() : name).toUpperCase(Locale.ENGLISH);
+  }
+
+  // Compares a normalized key with the specified range of ASCII characters
+  private static boolean regionMatches(String key, CharSequence name, int start, int end) {
+    if (key.length() != end - start) {
+      return false;
+    }
+    for (int i = 0, len = key.length(); i < len; i++) {
+      if (key.charAt(i) != toUpper(name.charAt(start + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Calculates a hash code from the upper-cased characters of the specified range
+  private static int hash(CharSequence s, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + toUpper(s.charAt(i));
+    }
+    return hash;
+  }
+
+  // Spreads hash bits for better distribution in power-of-two sized tables
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static char toUpper(char ch) {
+    return (ch >= 'a' && ch <= 'z') ? (char) (ch - 32) : ch;
+  }
+}
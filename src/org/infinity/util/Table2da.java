@@ -4,8 +4,9 @@
 
 package org.infinity.util;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
 
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.key.ResourceEntry;
@@ -13,6 +14,11 @@
 
 /**
  * Stores content of a 2DA resource as table.
+ * <p>
+ * The source text of the table is kept once. Table cells are stored column-less as start and end offsets into the
+ * source text. String values are created on first access, numeric values of whole columns are parsed and cached on
+ * demand by {@link #getInt(int, int, int)}. Rows can be looked up by label via a case-insensitive row header index.
+ * </p>
  */
 public class Table2da {
   /** Column index pointing to column labels. */
@@ -21,12 +27,46 @@ public class Table2da {
   /** Row index pointing to row labels. */
   public static final int ROW_HEADER = 0;
 
-  private final List<Entry> header = new ArrayList<>();
-  private final List<List<Entry>> table = new ArrayList<>();
+  /** Content of empty tables. */
+  private static final int[] EMPTY = new int[0];
+
   private final ResourceEntry entry;
 
   private final boolean strict;
 
+  /** Source text of the table. */
+  private String text;
+
+  /** Start offsets of all cells in {@link #text}. Header cells are stored after the regular table cells. */
+  private int[] cellStarts;
+
+  /** End offsets (exclusive) of all cells in {@link #text}. */
+  private int[] cellEnds;
+
+  /** Lazily created string values of all cells. */
+  private String[] cellValues;
+
+  /** Index of the first cell of each table row. Contains an additional element for the end of the last row. */
+  private int[] rowCells;
+
+  /** Line numbers of table rows. */
+  private int[] rowLines;
+
+  /** Start offsets of table row lines in {@link #text}. */
+  private int[] rowLineStarts;
+
+  /** Index of the first header cell, or -1 if table has no header line. Column 0 is not stored. */
+  private int headerCells;
+
+  /** Start offset of the header line in {@link #text}. */
+  private int headerLineStart;
+
+  /** Lazily created cache of parsed numeric column values. */
+  private IntColumn[] intColumns;
+
+  /** Lazily created index of row labels. */
+  private SymbolTable rowIndex;
+
   private int columnCount;
   private Entry defaultValue;
 
@@ -55,20 +95,20 @@ public void reload() {
 
   /** Returns total number of data columns. */
   public int getColCount() {
-    return table.isEmpty() ? header.size() : columnCount;
+    return (getRowCount() == 0) ? getHeaderCount() : columnCount;
   }
 
   /** Returns the number of columns for the specified table row. */
   public int getColCount(int row) {
-    if (row >= 0 && row < table.size()) {
-      return table.get(row).size();
+    if (row >= 0 && row < getRowCount()) {
+      return rowCells[row + 1] - rowCells[row];
     }
     return 0;
   }
 
   /** Returns number of data rows. */
   public int getRowCount() {
-    return table.size();
+    return rowLines.length;
   }
 
   /**
@@ -79,7 +119,31 @@ public int getRowCount() {
    * @return Table value as {@code String}.
    */
   public String get(int row, int col) {
-    return getEntry(row, col).getValue();
+    final int cell = getCell(row, col);
+    return (cell >= 0) ? getCellValue(cell) : defaultValue.getValue();
+  }
+
+  /**
+   * Returns the numeric value of the element at the specified location. Numeric values of the whole column are parsed
+   * on first access and cached for subsequent calls.
+   *
+   * @param row      Row of table content. First row starts at 0.
+   * @param col      Column of table content. First column starts at 0.
+   * @param defValue Value to return if arguments are out of range or the element does not contain a decimal number.
+   * @return Table value as {@code int}.
+   */
+  public int getInt(int row, int col, int defValue) {
+    if (row < 0 || row >= getRowCount() || col < 0 || col >= intColumns.length) {
+      return defValue;
+    }
+
+    IntColumn column = intColumns[col];
+    if (column == null) {
+      // concurrent initialization results in equal column content
+      column = new IntColumn(col);
+      intColumns[col] = column;
+    }
+    return column.valid[row] ? column.values[row] : defValue;
   }
 
   /**
@@ -91,14 +155,32 @@ public String get(int row, int col) {
    * @return Table value as {@link Entry} object.
    */
   public Entry getEntry(int row, int col) {
-    if (row >= 0 && row < getRowCount()) {
-      if (col >= 0 && col < table.get(row).size()) {
-        return table.get(row).get(col);
-      }
+    final int cell = getCell(row, col);
+    if (cell >= 0) {
+      return new Entry(this, getCellValue(cell), rowLines[row], cellStarts[cell] - rowLineStarts[row]);
     }
     return defaultValue;
   }
 
+  /**
+   * Returns the index of the first row with the specified label. Labels are compared case-insensitive.
+   *
+   * @param label Label in the first column of the table.
+   * @return Table row index, -1 if not found.
+   */
+  public int findRow(String label) {
+    SymbolTable index = rowIndex;
+    if (index == null) {
+      final HashMap<String, Integer> map = new HashMap<>(getRowCount() * 2);
+      for (int row = 0, count = getRowCount(); row < count; row++) {
+        map.putIfAbsent(getCellValue(rowCells[row]).toUpperCase(Locale.ENGLISH), row);
+      }
+      index = new SymbolTable(map, false);
+      rowIndex = index;
+    }
+    return index.get(label, -1);
+  }
+
   /**
    * Returns header label of specified column. <b>Note:</b> Column 0 always contains empty label. Returns {@code null}
    * on error.
@@ -114,12 +196,20 @@ public String getHeader(int col) {
    * Column 0 always contains an empty label. Returns {@code null} if the specified column contains no data.
    */
   public Entry getHeaderEntry(int col) {
-    return (col >= 0 && col < header.size()) ? header.get(col) : null;
+    if (col < 0 || col >= getHeaderCount()) {
+      return null;
+    }
+    if (col == 0) {
+      // first column does not contain label
+      return new Entry(this, "", 2, 0);
+    }
+    final int cell = headerCells + col - 1;
+    return new Entry(this, getCellValue(cell), 2, cellStarts[cell] - headerLineStart);
   }
 
   /** Returns whether table contains any data. */
   public boolean isEmpty() {
-    return table.isEmpty() && header.isEmpty();
+    return getRowCount() == 0 && getHeaderCount() == 0;
   }
 
   /** Returns the default value of the table. */
@@ -142,7 +232,7 @@ public Entry getDefaultEntry() {
   public String assemble() {
     final String nl = "\r\n";
     final String space = Misc.generate(4, ' ');
-    final StringBuilder sb = new StringBuilder(256);
+    final StringBuilder sb = new StringBuilder(Math.max(256, text.length() + text.length() / 2));
 
     // signature
     sb.append("2DA V1.0").append(nl);
@@ -151,18 +241,21 @@ public String assemble() {
     sb.append(defaultValue.getValue()).append(nl);
 
     // table header
-    for (final Entry entry : header) {
-      sb.append(space).append(entry.getValue());
+    for (int col = 0, count = getHeaderCount(); col < count; col++) {
+      sb.append(space);
+      if (col > 0) {
+        appendCell(sb, headerCells + col - 1);
+      }
     }
     sb.append(nl);
 
     // table data
-    for (final List<Entry> rowList : table) {
-      for (int col = 0, colCount = rowList.size(); col < colCount; col++) {
-        if (col > 0) {
+    for (int row = 0, rowCount = getRowCount(); row < rowCount; row++) {
+      for (int cell = rowCells[row], end = rowCells[row + 1]; cell < end; cell++) {
+        if (cell > rowCells[row]) {
           sb.append(space);
         }
-        sb.append(rowList.get(col).getValue());
+        appendCell(sb, cell);
       }
       sb.append(nl);
     }
@@ -177,28 +270,71 @@ public String toString() {
         + defaultValue.getValue() + "]";
   }
 
+  // Returns the number of header labels, including the empty label of column 0
+  private int getHeaderCount() {
+    return (headerCells >= 0) ? cellStarts.length - headerCells + 1 : 0;
+  }
+
+  // Returns the cell index of the specified table location, -1 if out of range
+  private int getCell(int row, int col) {
+    if (row >= 0 && row < getRowCount() && col >= 0) {
+      final int cell = rowCells[row] + col;
+      if (cell < rowCells[row + 1]) {
+        return cell;
+      }
+    }
+    return -1;
+  }
+
+  // Returns the string value of the specified cell
+  private String getCellValue(int cell) {
+    String retVal = cellValues[cell];
+    if (retVal == null) {
+      retVal = text.substring(cellStarts[cell], cellEnds[cell]);
+      cellValues[cell] = retVal;
+    }
+    return retVal;
+  }
+
+  // Appends the content of the specified cell without creating intermediate strings
+  private void appendCell(StringBuilder sb, int cell) {
+    sb.append(text, cellStarts[cell], cellEnds[cell]);
+  }
+
   private void init(ResourceEntry entry) {
-    table.clear();
+    text = "";
+    cellStarts = EMPTY;
+    cellEnds = EMPTY;
+    cellValues = new String[0];
+    rowCells = new int[] { 0 };
+    rowLines = EMPTY;
+    rowLineStarts = EMPTY;
+    headerCells = -1;
+    headerLineStart = 0;
+    intColumns = new IntColumn[0];
+    rowIndex = null;
+    columnCount = 0;
+    defaultValue = null;
 
     if (entry == null) {
       return;
     }
 
     try {
-      PlainTextResource text = new PlainTextResource(entry);
-      String[] lines = text.getText().split("\r?\n");
-      if (lines.length >= 2) {
-        int minSize = 0;
-
+      final String source = new PlainTextResource(entry).getText();
+      final Parser parser = new Parser(source);
+      if (parser.lineCount >= 2) {
         if (strict) {
           // checking signature
-          String[] sig = lines[0].trim().split("\\s+");
-          if (sig.length > 1) {
-            if (!sig[0].equalsIgnoreCase("2DA")) {
-              throw new Exception("Invalid signature: " + sig[0]);
+          parser.tokenize(0);
+          if (parser.tokenCount > 1) {
+            final String sig = parser.token(0);
+            if (!sig.equalsIgnoreCase("2DA")) {
+              throw new Exception("Invalid signature: " + sig);
             }
-            if (!sig[1].equalsIgnoreCase("V1.0")) {
-              throw new Exception("Invalid version: " + sig[1]);
+            final String ver = parser.token(1);
+            if (!ver.equalsIgnoreCase("V1.0")) {
+              throw new Exception("Invalid version: " + ver);
             }
           } else {
             return;
@@ -206,26 +342,52 @@ private void init(ResourceEntry entry) {
         }
 
         // storing default value
-        List<Entry> entries = getSplitEntries(lines[1], 1);
-        defaultValue = entries.isEmpty() ? new Entry(this, lines[1].trim(), 1, 0) : entries.get(0);
+        parser.tokenize(1);
+        defaultValue = new Entry(this, parser.token(0), 1, parser.tokenStarts[0] - parser.lineStarts[1]);
 
-        // setting table header
-        if (lines.length > 2) {
-          entries = getSplitEntries(lines[2], 2);
-          header.add(new Entry(this, "", 2, 0));  // first column does not contain label
-          header.addAll(entries);
+        // adding actual table entries
+        final int capacity = Math.max(16, source.length() / 4);
+        final IntList starts = new IntList(capacity);
+        final IntList ends = new IntList(capacity);
+        final IntList cells = new IntList(parser.lineCount);
+        final IntList lines = new IntList(parser.lineCount);
+        final IntList lineStarts = new IntList(parser.lineCount);
+        cells.add(0);
+        int minSize = 0;
+        for (int idx = 3; idx < parser.lineCount; idx++) {
+          parser.tokenize(idx);
+          for (int i = 0; i < parser.tokenCount; i++) {
+            starts.add(parser.tokenStarts[i]);
+            ends.add(parser.tokenEnds[i]);
+          }
+          cells.add(starts.size());
+          lines.add(idx);
+          lineStarts.add(parser.lineStarts[idx]);
+          minSize = Math.max(minSize, parser.tokenCount);
         }
 
-        // adding actual table entries
-        for (int idx = 3; idx < lines.length; idx++) {
-          entries = getSplitEntries(lines[idx], idx);
-          if (!entries.isEmpty()) {
-            table.add(entries);
-            minSize = Math.max(minSize, entries.size());
+        // setting table header
+        int header = -1;
+        if (parser.lineCount > 2) {
+          header = starts.size();
+          parser.tokenize(2);
+          for (int i = 0; i < parser.tokenCount; i++) {
+            starts.add(parser.tokenStarts[i]);
+            ends.add(parser.tokenEnds[i]);
           }
         }
 
-        columnCount = minSize;
+        this.text = source;
+        this.cellStarts = starts.toArray();
+        this.cellEnds = ends.toArray();
+        this.cellValues = new String[cellStarts.length];
+        this.rowCells = cells.toArray();
+        this.rowLines = lines.toArray();
+        this.rowLineStarts = lineStarts.toArray();
+        this.headerCells = header;
+        this.headerLineStart = (header >= 0) ? parser.lineStarts[2] : 0;
+        this.intColumns = new IntColumn[minSize];
+        this.columnCount = minSize;
       }
 
       if (defaultValue == null) {
@@ -237,29 +399,39 @@ private void init(ResourceEntry entry) {
   }
 
   /**
-   * Extracts all table entries from the specified string.
-   * @param line String of a single table row.
-   * @param lineIndex Row number of the line.
-   * @return List of all extracted table entries.
+   * Parses the specified range of characters as decimal number.
+   *
+   * @return Parsed number. Returns {@link Long#MIN_VALUE} if the range does not contain a valid {@code int} value.
    */
-  private List<Entry> getSplitEntries(String line, int lineIndex) {
-    List<Entry> retVal = new ArrayList<>();
-
-    if (line != null) {
-      String[] tokens = line.trim().split("\\s+");
-      int fromIndex = 0;
-      for (final String token : tokens) {
-        fromIndex = line.indexOf(token, fromIndex);
-        if (fromIndex >= 0) {
-          retVal.add(new Entry(this, token, lineIndex, fromIndex));
-          fromIndex += token.length();
-        } else {
-          break;
-        }
+  private static long parseInt(String s, int start, int end) {
+    if (start >= end) {
+      return Long.MIN_VALUE;
+    }
+
+    boolean negative = false;
+    final char first = s.charAt(start);
+    if (first == '-' || first == '+') {
+      negative = (first == '-');
+      start++;
+      if (start == end) {
+        return Long.MIN_VALUE;
       }
     }
 
-    return retVal;
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      final int digit = Character.digit(s.charAt(i), 10);
+      if (digit < 0) {
+        return Long.MIN_VALUE;
+      }
+      value = value * 10 + digit;
+      if (value > 0x80000000L) {
+        return Long.MIN_VALUE;
+      }
+    }
+
+    value = negative ? -value : value;
+    return (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) ? value : Long.MIN_VALUE;
   }
 
   // -------------------------- INNER CLASSES --------------------------
@@ -298,4 +470,138 @@ public int getPosition() {
       return pos;
     }
   }
+
+  /** Parsed numeric values of a single table column. */
+  private class IntColumn {
+    private final int[] values;
+    private final boolean[] valid;
+
+    public IntColumn(int col) {
+      final int rowCount = getRowCount();
+      values = new int[rowCount];
+      valid = new boolean[rowCount];
+      for (int row = 0; row < rowCount; row++) {
+        final int cell = getCell(row, col);
+        if (cell >= 0) {
+          final long value = parseInt(text, cellStarts[cell], cellEnds[cell]);
+          if (value != Long.MIN_VALUE) {
+            values[row] = (int) value;
+            valid[row] = true;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Splits 2DA source text into lines and whitespace-separated tokens. Token boundaries of the most recently
+   * tokenized line are stored as absolute text offsets.
+   */
+  private static class Parser {
+    private final String text;
+
+    /** Start offsets of all lines. */
+    private final int[] lineStarts;
+
+    /** End offsets (exclusive, without line break) of all lines. */
+    private final int[] lineEnds;
+
+    /** Number of lines, excluding trailing empty lines. */
+    private final int lineCount;
+
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
+
+    public Parser(String text) {
+      this.text = text;
+
+      int count = 1;
+      for (int i = 0, len = text.length(); i < len; i++) {
+        if (text.charAt(i) == '\n') {
+          count++;
+        }
+      }
+
+      lineStarts = new int[count];
+      lineEnds = new int[count];
+      int line = 0;
+      int start = 0;
+      for (int i = 0, len = text.length(); i <= len; i++) {
+        if (i == len || text.charAt(i) == '\n') {
+          lineStarts[line] = start;
+          lineEnds[line] = (i > start && text.charAt(i - 1) == '\r') ? i - 1 : i;
+          line++;
+          start = i + 1;
+        }
+      }
+
+      // trailing empty lines are ignored
+      while (count > 0 && lineEnds[count - 1] == lineStarts[count - 1]) {
+        count--;
+      }
+      lineCount = count;
+    }
+
+    /** Determines the token boundaries of the specified line. Blank lines result in a single empty token. */
+    public void tokenize(int line) {
+      tokenCount = 0;
+      final int end = lineEnds[line];
+      int pos = lineStarts[line];
+      while (pos < end) {
+        while (pos < end && text.charAt(pos) <= ' ') {
+          pos++;
+        }
+        if (pos < end) {
+          final int start = pos;
+          while (pos < end && text.charAt(pos) > ' ') {
+            pos++;
+          }
+          if (tokenCount == tokenStarts.length) {
+            tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+          }
+          tokenStarts[tokenCount] = start;
+          tokenEnds[tokenCount] = pos;
+          tokenCount++;
+        }
+      }
+
+      if (tokenCount == 0) {
+        // blank lines consist of a single empty token
+        tokenStarts[0] = tokenEnds[0] = lineStarts[line];
+        tokenCount = 1;
+      }
+    }
+
+    /** Returns the string value of the specified token of the most recently tokenized line. */
+    public String token(int index) {
+      return text.substring(tokenStarts[index], tokenEnds[index]);
+    }
+  }
+
+  /** Growable list of {@code int} values. */
+  private static class IntList {
+    private int[] data;
+    private int size;
+
+    public IntList(int capacity) {
+      data = new int[Math.max(1, capacity)];
+    }
+
+    public void add(int value) {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = value;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public int[] toArray() {
+      return Arrays.copyOf(data, size);
+    }
+  }
 }
@@ -8,10 +8,14 @@
 
 import org.infinity.resource.ResourceFactory;
 import org.infinity.resource.key.ResourceEntry;
+import org.infinity.util.metrics.CacheMetric;
+import org.infinity.util.metrics.Metrics;
 
 public class Table2daCache {
   private static final HashMap<ResourceEntry, Table2da> MAP = new HashMap<>();
 
+  private static final CacheMetric METRIC_CACHE = Metrics.cache("cache.2da");
+
   /** Removes the specified 2DA resource from the cache. */
   public static synchronized void cacheInvalid(ResourceEntry entry) {
     if (entry != null) {
@@ -74,6 +78,7 @@ public static synchronized Table2da get(ResourceEntry entry) {
   public static synchronized Table2da get(ResourceEntry entry, boolean strict) {
     Table2da table = null;
     if (entry != null) {
+      METRIC_CACHE.record(MAP.containsKey(entry));
       table = MAP.computeIfAbsent(entry, e -> {
         final Table2da t = new Table2da(e, strict);
         return !t.isEmpty() ? t : null;
@@ -10,6 +10,7 @@
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.FileLock;
@@ -35,9 +36,11 @@
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -82,6 +85,10 @@ public class DlcFileSystem extends FileSystem {
   private final FileChannel ch;
   private final ZipNode root;
 
+  // sorted path hashes of all file entries for fast lookup, with associated nodes at the same array index
+  private long[] indexKeys;
+  private ZipNode[] indexNodes;
+
   private volatile boolean isOpen = true;
 
   protected DlcFileSystem(DlcFileSystemProvider provider, Path dfpath, Map<String, ?> env) throws IOException {
@@ -103,6 +110,7 @@ protected DlcFileSystem(DlcFileSystemProvider provider, Path dfpath, Map<String,
     this.defaultDir = new DlcPath(this, getBytes("/"));
     this.ch = FileChannel.open(this.dfpath, StandardOpenOption.READ);
     this.root = ZipNode.createRoot(ch);
+    buildIndex();
   }
 
   @Override
@@ -241,7 +249,7 @@ protected DlcFileAttributes getFileAttributes(byte[] path) {
     beginRead();
     try {
       ensureOpen();
-      folder = root.getNode(path);
+      folder = findNode(path);
     } finally {
       endRead();
     }
@@ -256,7 +264,7 @@ protected boolean exists(byte[] path) {
     beginRead();
     try {
       ensureOpen();
-      return (root.getNode(path) != null);
+      return (findNode(path) != null);
     } finally {
       endRead();
     }
@@ -265,7 +273,7 @@ protected boolean exists(byte[] path) {
   protected boolean isDirectory(byte[] path) {
     beginRead();
     try {
-      ZipNode folder = root.getNode(path);
+      ZipNode folder = findNode(path);
       return (folder != null && folder.isDirectory());
     } finally {
       endRead();
@@ -320,7 +328,7 @@ protected InputStream newInputStream(byte[] path) throws IOException {
     beginRead();
     try {
       ensureOpen();
-      ZipNode folder = root.getNode(path);
+      ZipNode folder = findNode(path);
       if (folder == null) {
         throw new NoSuchFileException(getString(path));
       }
@@ -336,6 +344,11 @@ protected InputStream newInputStream(byte[] path) throws IOException {
 
   protected SeekableByteChannel newByteChannel(byte[] path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
       throws IOException {
+    return newFileChannel(path, options, attrs);
+  }
+
+  protected FileChannel newFileChannel(byte[] path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+      throws IOException {
     checkOptions(options);
     if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)) {
       checkWritable();
@@ -344,7 +357,7 @@ protected SeekableByteChannel newByteChannel(byte[] path, Set<? extends OpenOpti
     beginRead();
     try {
       ensureOpen();
-      ZipNode folder = root.getNode(path);
+      ZipNode folder = findNode(path);
       if (folder == null) {
         throw new NoSuchFileException(getString(path));
       }
@@ -354,276 +367,83 @@ protected SeekableByteChannel newByteChannel(byte[] path, Set<? extends OpenOpti
 
       final long basePos = folder.getCentral().getDataOffset(ch);
       final long baseSize = folder.getCentral().sizeUncompressed;
-      final SeekableByteChannel sbc = Files.newByteChannel(getDlcFile(), options, attrs);
-      sbc.position(basePos);
-      return new SeekableByteChannel() {
-        @Override
-        public boolean isOpen() {
-          return sbc.isOpen();
-        }
-
-        @Override
-        public void close() throws IOException {
-          sbc.close();
-        }
-
-        @Override
-        public int write(ByteBuffer src) throws IOException {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public SeekableByteChannel truncate(long size) throws IOException {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public long size() throws IOException {
-          return baseSize;
-        }
-
-        @Override
-        public int read(ByteBuffer dst) throws IOException {
-          checkOpen();
-          if (sbc.position() >= basePos + baseSize) {
-            return -1;
-          }
-          ByteBuffer buffer = ByteBuffer.allocate(65536);
-          int remaining = (int) (baseSize - position());
-          remaining = Math.min(dst.remaining(), remaining);
-          int processed = 0;
-          while (remaining > 0) {
-            buffer.compact().position(0);
-            buffer.limit(Math.min(remaining, buffer.remaining()));
-            int nread = sbc.read(buffer);
-            if (nread < 0) {
-              break;
-            }
-            buffer.flip();
-            dst.put(buffer);
-            remaining -= nread;
-            processed += nread;
-          }
-          return processed;
-        }
-
-        @Override
-        public SeekableByteChannel position(long newPosition) throws IOException {
-          checkOpen();
-          if (newPosition < 0) {
-            throw new IOException("Negative position");
-          }
-          sbc.position(basePos + newPosition);
-          return this;
-        }
-
-        @Override
-        public long position() throws IOException {
-          checkOpen();
-          return sbc.position() - basePos;
-        }
-
-        private void checkOpen() throws IOException {
-          if (sbc == null || !sbc.isOpen()) {
-            throw new IOException("Channel not open");
-          }
-        }
-      };
+      return new DlcEntryChannel(basePos, baseSize);
     } finally {
       endRead();
     }
   }
 
-  protected FileChannel newFileChannel(byte[] path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
-      throws IOException {
-    checkOptions(options);
-    if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)) {
-      checkWritable();
-    }
-    beginRead();
-
-    try {
-      ensureOpen();
-      ZipNode folder = root.getNode(path);
-      if (folder == null) {
-        throw new NoSuchFileException(getString(path));
-      }
-      if (folder.isDirectory()) {
-        throw new FileSystemException(getString(path), "is a directory", null);
-      }
-
-      final long basePos = folder.getCentral().getDataOffset(ch);
-      final long baseSize = folder.getCentral().sizeUncompressed;
-      final FileChannel fch = FileChannel.open(getDlcFile(), options, attrs);
-      fch.position(basePos);
-      return new FileChannel() {
-        @Override
-        protected void implCloseChannel() throws IOException {
-          fch.close();
-        }
-
-        @Override
-        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public int write(ByteBuffer src, long position) throws IOException {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public int write(ByteBuffer src) throws IOException {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
-          checkOpen();
-          if (position < 0) {
-            throw new IOException("Position is negative");
-          } else if (size < 0) {
-            throw new IOException("Size is negative");
-          }
-          return fch.tryLock(basePos + position, Math.min(size, baseSize - position), shared);
-        }
-
-        @Override
-        public FileChannel truncate(long size) throws IOException {
-          throw new UnsupportedOperationException();
+  // Returns the node of the specified path. File entries are resolved by the path index, directories by the node tree.
+  private ZipNode findNode(byte[] path) {
+    if (indexKeys != null && path.length > 0 && path[path.length - 1] != (byte) '/') {
+      final int offset = (path[0] == (byte) '/') ? 1 : 0;
+      final long key = getPathHash(path, offset);
+      int idx = Arrays.binarySearch(indexKeys, key);
+      if (idx >= 0) {
+        // resolving (unlikely) hash collisions
+        while (idx > 0 && indexKeys[idx - 1] == key) {
+          idx--;
         }
-
-        @Override
-        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
-          checkOpen();
-          return fch.transferTo(basePos + position, Math.min(count, baseSize - position), target);
-        }
-
-        @Override
-        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public long size() throws IOException {
-          checkOpen();
-          return baseSize;
-        }
-
-        @Override
-        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
-          checkOpen();
-          if (fch.position() >= basePos + baseSize) {
-            return -1L;
-          }
-
-          ByteBuffer buffer = ByteBuffer.allocate(65536);
-          long remaining = baseSize - position();
-          long processed = 0;
-          int idx = offset;
-          int maxIdx = Math.min(dsts.length - offset, idx + length);
-          while (idx < maxIdx) {
-            long toRead = Math.min(dsts[idx].remaining(), remaining);
-            while (toRead > 0) {
-              buffer.compact().position(0);
-              buffer.limit(Math.min((int) toRead, buffer.remaining()));
-              int nread = fch.read(buffer);
-              if (nread < 0) {
-                idx = maxIdx;
-                break;
-              }
-              buffer.flip();
-              dsts[idx].put(buffer);
-              toRead -= nread;
-              remaining -= nread;
-              processed += nread;
-            }
-            idx++;
-          }
-          return processed;
-        }
-
-        @Override
-        public int read(ByteBuffer dst, long position) throws IOException {
-          checkOpen();
-          if (position >= basePos + baseSize) {
-            return -1;
-          } else if (position < 0) {
-            throw new IOException("Negative position");
-          }
-
-          long curPosition = fch.position();
-          try {
-            fch.position(basePos + position);
-            long retVal = read(new ByteBuffer[] { dst }, 0, 1);
-            return (int) retVal;
-          } finally {
-            fch.position(curPosition);
-          }
-        }
-
-        @Override
-        public int read(ByteBuffer dst) throws IOException {
-          return (int) read(new ByteBuffer[] { dst }, 0, 1);
-        }
-
-        @Override
-        public FileChannel position(long newPosition) throws IOException {
-          checkOpen();
-          if (newPosition < 0) {
-            throw new IOException("Negative position");
+        for (; idx < indexKeys.length && indexKeys[idx] == key; idx++) {
+          final byte[] name = indexNodes[idx].getCentral().fileName;
+          if (name.length == path.length - offset && regionEquals(name, path, offset)) {
+            return indexNodes[idx];
           }
-          fch.position(basePos + newPosition);
-          return this;
         }
-
-        @Override
-        public long position() throws IOException {
-          checkOpen();
-          return fch.position() - basePos;
+      }
+    }
+    return root.getNode(path);
+  }
+
+  // Creates a sorted index of path hashes for all file entries in the archive.
+  private void buildIndex() {
+    final List<ZipNode> files = new ArrayList<>();
+    final Deque<ZipNode> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      final ZipNode node = stack.pop();
+      for (final ZipNode child : node.getChildren()) {
+        if (child.isDirectory()) {
+          stack.push(child);
+        } else {
+          files.add(child);
         }
+      }
+    }
 
-        @Override
-        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
-          checkOpen();
-          if (position < 0) {
-            throw new IOException("Negative position");
-          } else if (size < 0) {
-            throw new IOException("Negative size");
-          } else if (position > baseSize) {
-            throw new IOException("Position exceeds file size");
-          }
-          long absPos = basePos + position;
-          long absSize = Math.min(size, baseSize - position);
-          return fch.map(mode, absPos, absSize);
-        }
+    final long[] keys = new long[files.size()];
+    final Integer[] order = new Integer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = getPathHash(files.get(i).getCentral().fileName, 0);
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
 
-        @Override
-        public FileLock lock(long position, long size, boolean shared) throws IOException {
-          checkOpen();
-          if (position < 0) {
-            throw new IOException("Position is negative");
-          } else if (size < 0) {
-            throw new IOException("Size is negative");
-          }
-          return fch.lock(basePos + position, Math.min(size, baseSize - position), shared);
-        }
+    indexKeys = new long[keys.length];
+    indexNodes = new ZipNode[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      indexKeys[i] = keys[order[i]];
+      indexNodes[i] = files.get(order[i]);
+    }
+  }
 
-        @Override
-        public void force(boolean metaData) throws IOException {
-          checkOpen();
-          // do nothing
-        }
+  // Returns whether "name" matches "path" starting at the given path offset.
+  private static boolean regionEquals(byte[] name, byte[] path, int offset) {
+    for (int i = 0; i < name.length; i++) {
+      if (name[i] != path[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
 
-        private void checkOpen() throws IOException {
-          if (!fch.isOpen()) {
-            throw new IOException("Channel not open");
-          }
-        }
-      };
-    } finally {
-      endRead();
+  // Returns a 64-bit FNV-1a hash of the specified path, starting at the given offset.
+  private static long getPathHash(byte[] path, int offset) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = offset; i < path.length; i++) {
+      hash = (hash ^ (path[i] & 0xff)) * 0x100000001b3L;
     }
+    return hash;
   }
 
   private void checkWritable() {
@@ -682,4 +502,195 @@ private InputStream getInputStream(ZipNode folder) throws IOException {
       endRead();
     }
   }
+
+  // -------------------------- INNER CLASSES --------------------------
+
+  /**
+   * Read-only channel for a single file entry in the DLC archive. All read operations are performed as positional reads
+   * on the shared channel of the file system, which allows concurrent access to entries without synchronization.
+   */
+  private class DlcEntryChannel extends FileChannel {
+    private final long basePos;
+    private final long baseSize;
+
+    private volatile long position;
+
+    public DlcEntryChannel(long basePos, long baseSize) {
+      this.basePos = basePos;
+      this.baseSize = baseSize;
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      // shared channel is closed together with the file system
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      checkOpen();
+      if (position < 0) {
+        throw new IOException("Position is negative");
+      } else if (size < 0) {
+        throw new IOException("Size is negative");
+      }
+      return ch.tryLock(basePos + position, Math.min(size, baseSize - position), shared);
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+      checkOpen();
+      if (position < 0) {
+        throw new IOException("Negative position");
+      } else if (position >= baseSize) {
+        return 0L;
+      }
+      return ch.transferTo(basePos + position, Math.min(count, baseSize - position), target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long size() throws IOException {
+      checkOpen();
+      return baseSize;
+    }
+
+    @Override
+    public synchronized long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      checkOpen();
+      if (position >= baseSize) {
+        return -1L;
+      }
+
+      long processed = 0L;
+      for (int idx = offset, maxIdx = offset + length; idx < maxIdx && position < baseSize; idx++) {
+        while (dsts[idx].hasRemaining() && position < baseSize) {
+          int nread = readAt(dsts[idx], position);
+          if (nread <= 0) {
+            return (processed > 0L) ? processed : -1L;
+          }
+          position += nread;
+          processed += nread;
+        }
+      }
+      return processed;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      checkOpen();
+      if (position < 0) {
+        throw new IllegalArgumentException("Negative position");
+      } else if (position >= baseSize) {
+        return -1;
+      }
+
+      int processed = 0;
+      while (dst.hasRemaining() && position + processed < baseSize) {
+        int nread = readAt(dst, position + processed);
+        if (nread <= 0) {
+          break;
+        }
+        processed += nread;
+      }
+      return (processed > 0 || !dst.hasRemaining()) ? processed : -1;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return (int) read(new ByteBuffer[] { dst }, 0, 1);
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      checkOpen();
+      if (newPosition < 0) {
+        throw new IllegalArgumentException("Negative position");
+      }
+      position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long position() throws IOException {
+      checkOpen();
+      return position;
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      checkOpen();
+      if (position < 0) {
+        throw new IOException("Negative position");
+      } else if (size < 0) {
+        throw new IOException("Negative size");
+      } else if (position > baseSize) {
+        throw new IOException("Position exceeds file size");
+      }
+      long absPos = basePos + position;
+      long absSize = Math.min(size, baseSize - position);
+      return ch.map(mode, absPos, absSize);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      checkOpen();
+      if (position < 0) {
+        throw new IOException("Position is negative");
+      } else if (size < 0) {
+        throw new IOException("Size is negative");
+      }
+      return ch.lock(basePos + position, Math.min(size, baseSize - position), shared);
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      checkOpen();
+      // do nothing
+    }
+
+    // Reads as many bytes as possible from the given relative position without exceeding the entry size.
+    private int readAt(ByteBuffer dst, long position) throws IOException {
+      final int remaining = (int) Math.min(dst.remaining(), baseSize - position);
+      if (remaining < dst.remaining()) {
+        final ByteBuffer slice = dst.duplicate();
+        slice.limit(slice.position() + remaining);
+        final int nread = ch.read(slice, basePos + position);
+        if (nread > 0) {
+          dst.position(dst.position() + nread);
+        }
+        return nread;
+      }
+      return ch.read(dst, basePos + position);
+    }
+
+    private void checkOpen() throws IOException {
+      if (!isOpen() || !ch.isOpen()) {
+        throw new ClosedChannelException();
+      }
+    }
+  }
 }
@@ -6,6 +6,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.zip.ZipError;
 
@@ -70,6 +71,20 @@ protected static long readFullyAt(SeekableByteChannel ch, byte[] buf, int ofs, l
   }
 
   protected static long readFullyAt(SeekableByteChannel ch, ByteBuffer bb, long pos) throws IOException {
+    if (ch instanceof FileChannel) {
+      // positional reads don't modify the channel position and can be performed concurrently
+      final FileChannel fch = (FileChannel) ch;
+      long total = 0L;
+      while (bb.hasRemaining()) {
+        int n = fch.read(bb, pos + total);
+        if (n < 0) {
+          return (total > 0L) ? total : -1L;
+        }
+        total += n;
+      }
+      return total;
+    }
+
     synchronized (ch) {
       return ch.position(pos).read(bb);
     }
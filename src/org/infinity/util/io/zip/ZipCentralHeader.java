@@ -38,8 +38,8 @@ public class ZipCentralHeader extends ZipLocalHeader {
   /** Optional file comment as ascii string. (Is never {@code null}) */
   public byte[] comment;
 
-  // Cached local header
-  private ZipLocalHeader localHeader;
+  // Cached local header (may be initialized concurrently with identical results)
+  private volatile ZipLocalHeader localHeader;
 
   public ZipCentralHeader(ByteBuffer buffer, long absOffset) {
     super(absOffset, buffer.getInt() & 0xffffffffL);
@@ -94,9 +94,7 @@ public ZipCentralHeader(ByteBuffer buffer, long absOffset) {
    * @return Absolute offset to data start from beginning of zip archive.
    */
   public long getDataOffset(SeekableByteChannel ch) throws IOException {
-    synchronized (ch) {
-      return getLocalHeader(ch).getDataOffset();
-    }
+    return getLocalHeader(ch).getDataOffset();
   }
 
   @Override
@@ -141,7 +139,7 @@ private ZipLocalHeader getLocalHeader(SeekableByteChannel ch) throws IOException
       // reading base LOC header
       int locSize = LOCHDR;
       ByteBuffer locBuf = StreamUtils.getByteBuffer(locSize);
-      if (ch.position(ofsLocalHeader).read(locBuf) != locSize) {
+      if (readFullyAt(ch, locBuf, ofsLocalHeader) != locSize) {
         zerror("read LOC header failed");
       }
       locBuf.flip();
@@ -151,7 +149,7 @@ private ZipLocalHeader getLocalHeader(SeekableByteChannel ch) throws IOException
 
       // reading LOC header, including filename and extra data
       locBuf = StreamUtils.getByteBuffer(locSize);
-      if (ch.position(ofsLocalHeader).read(locBuf) != locSize) {
+      if (readFullyAt(ch, locBuf, ofsLocalHeader) != locSize) {
         zerror("read LOC header failed");
       }
       locBuf.flip();
@@ -0,0 +1,89 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that counts hits and misses of cache lookups.
+ */
+public class CacheMetric extends Metric {
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  CacheMetric(String name) {
+    super(name);
+  }
+
+  /** Records a successful cache lookup. */
+  public void hit() {
+    hits.increment();
+  }
+
+  /** Records a failed cache lookup. */
+  public void miss() {
+    misses.increment();
+  }
+
+  /**
+   * Records a cache lookup.
+   *
+   * @param hit Whether the requested object was found in the cache.
+   */
+  public void record(boolean hit) {
+    if (hit) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+  }
+
+  /** Returns the number of successful cache lookups. */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /** Returns the number of failed cache lookups. */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /** Returns the ratio of successful cache lookups in range [0.0, 1.0]. Returns 0 if no lookups have been recorded. */
+  public double getHitRate() {
+    final long h = getHits();
+    final long total = h + getMisses();
+    return (total > 0) ? (double) h / total : 0.0;
+  }
+
+  @Override
+  public String getType() {
+    return "cache";
+  }
+
+  @Override
+  public long getCount() {
+    return getHits() + getMisses();
+  }
+
+  @Override
+  public Map<String, Number> getValues() {
+    final long h = getHits();
+    final long m = getMisses();
+    final Map<String, Number> retVal = new LinkedHashMap<>();
+    retVal.put(Metrics.VALUE_COUNT, h + m);
+    retVal.put(Metrics.VALUE_HITS, h);
+    retVal.put(Metrics.VALUE_MISSES, m);
+    retVal.put(Metrics.VALUE_HIT_RATE, (h + m > 0) ? (double) h / (h + m) : 0.0);
+    return retVal;
+  }
+
+  @Override
+  public void reset() {
+    hits.reset();
+    misses.reset();
+  }
+}
@@ -0,0 +1,52 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that counts events.
+ */
+public class Counter extends Metric {
+  private final LongAdder count = new LongAdder();
+
+  Counter(String name) {
+    super(name);
+  }
+
+  /** Increments the counter by one. */
+  public void increment() {
+    count.increment();
+  }
+
+  /** Increments the counter by the specified amount. */
+  public void add(long value) {
+    count.add(value);
+  }
+
+  @Override
+  public String getType() {
+    return "counter";
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public Map<String, Number> getValues() {
+    final Map<String, Number> retVal = new LinkedHashMap<>();
+    retVal.put(Metrics.VALUE_COUNT, getCount());
+    return retVal;
+  }
+
+  @Override
+  public void reset() {
+    count.reset();
+  }
+}
@@ -0,0 +1,174 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that records durations in a latency histogram.
+ * <p>
+ * Durations are counted in buckets of exponentially increasing size. Each power of two is split into four buckets,
+ * which limits the error of reported percentiles to 25 percent. Min., max. and total durations are exact.
+ * </p>
+ */
+public class LatencyTimer extends Metric {
+  /** Number of buckets per power of two, as number of bits. */
+  private static final int SUB_BITS = 2;
+  private static final int NUM_BUCKETS = 64 << SUB_BITS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+  LatencyTimer(String name) {
+    super(name);
+  }
+
+  /**
+   * Records the specified duration.
+   *
+   * @param nanos Duration in nanoseconds. Negative values are treated as zero.
+   */
+  public void record(long nanos) {
+    nanos = Math.max(0L, nanos);
+    buckets.incrementAndGet(getBucket(nanos));
+    count.increment();
+    total.add(nanos);
+    min.accumulateAndGet(nanos, Math::min);
+    max.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * Records the time elapsed since the specified start time.
+   *
+   * @param startNanos Start time as returned by {@link System#nanoTime()}.
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  /** Executes the specified operation and records its duration. */
+  public void time(Runnable operation) {
+    final long startTime = System.nanoTime();
+    try {
+      operation.run();
+    } finally {
+      recordSince(startTime);
+    }
+  }
+
+  /** Returns the sum of all recorded durations, in nanoseconds. */
+  public long getTotal() {
+    return total.sum();
+  }
+
+  /** Returns the shortest recorded duration, in nanoseconds. Returns 0 if no durations have been recorded. */
+  public long getMin() {
+    final long value = min.get();
+    return (value != Long.MAX_VALUE) ? value : 0L;
+  }
+
+  /** Returns the longest recorded duration, in nanoseconds. Returns 0 if no durations have been recorded. */
+  public long getMax() {
+    final long value = max.get();
+    return (value != Long.MIN_VALUE) ? value : 0L;
+  }
+
+  /** Returns the mean duration, in nanoseconds. Returns 0 if no durations have been recorded. */
+  public long getMean() {
+    final long n = getCount();
+    return (n > 0) ? getTotal() / n : 0L;
+  }
+
+  /**
+   * Returns an estimate of the specified percentile of all recorded durations.
+   *
+   * @param percentile Percentile in range [0.0, 1.0].
+   * @return Estimated duration in nanoseconds. Returns 0 if no durations have been recorded.
+   */
+  public long getPercentile(double percentile) {
+    long n = 0;
+    final long[] counts = new long[NUM_BUCKETS];
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      n += counts[i];
+    }
+    if (n == 0) {
+      return 0L;
+    }
+
+    final long rank = Math.max(1L, (long) Math.ceil(Math.min(1.0, Math.max(0.0, percentile)) * n));
+    long cumulative = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      cumulative += counts[i];
+      if (cumulative >= rank) {
+        return Math.max(getMin(), Math.min(getMax(), getBucketLimit(i)));
+      }
+    }
+    return getMax();
+  }
+
+  @Override
+  public String getType() {
+    return "timer";
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public Map<String, Number> getValues() {
+    final Map<String, Number> retVal = new LinkedHashMap<>();
+    retVal.put(Metrics.VALUE_COUNT, getCount());
+    retVal.put(Metrics.VALUE_TOTAL_MS, getTotal() / 1_000_000.0);
+    retVal.put(Metrics.VALUE_MEAN_US, getMean() / 1_000.0);
+    retVal.put(Metrics.VALUE_MIN_US, getMin() / 1_000.0);
+    retVal.put(Metrics.VALUE_MAX_US, getMax() / 1_000.0);
+    retVal.put(Metrics.VALUE_P50_US, getPercentile(0.5) / 1_000.0);
+    retVal.put(Metrics.VALUE_P95_US, getPercentile(0.95) / 1_000.0);
+    retVal.put(Metrics.VALUE_P99_US, getPercentile(0.99) / 1_000.0);
+    return retVal;
+  }
+
+  @Override
+  public void reset() {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      buckets.set(i, 0L);
+    }
+    count.reset();
+    total.reset();
+    min.set(Long.MAX_VALUE);
+    max.set(Long.MIN_VALUE);
+  }
+
+  // Returns the histogram bucket for the specified duration
+  private static int getBucket(long nanos) {
+    if (nanos < (1L << SUB_BITS)) {
+      return (int) nanos;
+    }
+    final int exp = 63 - Long.numberOfLeadingZeros(nanos);
+    final int sub = (int) (nanos >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+    return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+  }
+
+  // Returns the largest duration counted by the specified histogram bucket
+  private static long getBucketLimit(int bucket) {
+    if (bucket < (1 << SUB_BITS)) {
+      return bucket;
+    }
+    final int exp = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+    final long sub = bucket & ((1 << SUB_BITS) - 1);
+    final long base = ((1L << SUB_BITS) + sub) << (exp - SUB_BITS);
+    return base + (1L << (exp - SUB_BITS)) - 1;
+  }
+}
@@ -0,0 +1,44 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util.metrics;
+
+import java.util.Map;
+
+/**
+ * Common base class for named metrics managed by {@link Metrics}. Metrics can be updated concurrently by multiple
+ * threads.
+ */
+public abstract class Metric {
+  private final String name;
+
+  protected Metric(String name) {
+    this.name = name;
+  }
+
+  /** Returns the unique name of the metric. */
+  public String getName() {
+    return name;
+  }
+
+  /** Returns a short name of the metric type, such as "counter". */
+  public abstract String getType();
+
+  /** Returns the number of recorded events. */
+  public abstract long getCount();
+
+  /**
+   * Returns the current values of the metric as a map of value names and numbers. Value names are taken from the
+   * {@code VALUE_xxx} constants of the {@link Metrics} class.
+   */
+  public abstract Map<String, Number> getValues();
+
+  /** Discards all recorded data. */
+  public abstract void reset();
+
+  @Override
+  public String toString() {
+    return getName() + " " + getValues();
+  }
+}
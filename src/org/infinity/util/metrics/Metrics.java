@@ -0,0 +1,170 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.infinity.NearInfinity;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Global registry of performance metrics.
+ * <p>
+ * Metrics are identified by hierarchical names separated by dots (e.g. {@code "cache.ids"}) and are created on first
+ * access. Components usually keep references to their metrics in static fields:
+ * </p>
+ *
+ * <pre>
+ * private static final CacheMetric METRIC_CACHE = Metrics.cache("cache.ids");
+ * </pre>
+ * <p>
+ * Recorded data can be exported in JSON or CSV format.
+ * </p>
+ */
+public final class Metrics {
+  /** Number of recorded events. */
+  public static final String VALUE_COUNT = "count";
+  /** Total duration, in milliseconds. */
+  public static final String VALUE_TOTAL_MS = "total_ms";
+  /** Mean duration, in microseconds. */
+  public static final String VALUE_MEAN_US = "mean_us";
+  /** Min. duration, in microseconds. */
+  public static final String VALUE_MIN_US = "min_us";
+  /** Max. duration, in microseconds. */
+  public static final String VALUE_MAX_US = "max_us";
+  /** Median duration, in microseconds. */
+  public static final String VALUE_P50_US = "p50_us";
+  /** 95th percentile of durations, in microseconds. */
+  public static final String VALUE_P95_US = "p95_us";
+  /** 99th percentile of durations, in microseconds. */
+  public static final String VALUE_P99_US = "p99_us";
+  /** Number of cache hits. */
+  public static final String VALUE_HITS = "hits";
+  /** Number of cache misses. */
+  public static final String VALUE_MISSES = "misses";
+  /** Ratio of cache hits in range [0.0, 1.0]. */
+  public static final String VALUE_HIT_RATE = "hit_rate";
+
+  /** All value names in export order. */
+  public static final List<String> VALUE_NAMES = Collections.unmodifiableList(Arrays.asList(VALUE_COUNT,
+      VALUE_TOTAL_MS, VALUE_MEAN_US, VALUE_MIN_US, VALUE_MAX_US, VALUE_P50_US, VALUE_P95_US, VALUE_P99_US, VALUE_HITS,
+      VALUE_MISSES, VALUE_HIT_RATE));
+
+  private static final ConcurrentHashMap<String, Metric> REGISTRY = new ConcurrentHashMap<>();
+
+  /** Returns the counter of the specified name. Creates a new counter if needed. */
+  public static Counter counter(String name) {
+    return get(name, Counter.class, Counter::new);
+  }
+
+  /** Returns the latency timer of the specified name. Creates a new timer if needed. */
+  public static LatencyTimer timer(String name) {
+    return get(name, LatencyTimer.class, LatencyTimer::new);
+  }
+
+  /** Returns the cache metric of the specified name. Creates a new metric if needed. */
+  public static CacheMetric cache(String name) {
+    return get(name, CacheMetric.class, CacheMetric::new);
+  }
+
+  /**
+   * Starts measuring an operation. The duration is recorded by the latency timer of the specified name when the
+   * returned span is closed.
+   *
+   * @param name Name of the latency timer.
+   * @return A new {@link Span} instance.
+   */
+  public static Span start(String name) {
+    return new Span(timer(name));
+  }
+
+  /** Returns all available metrics sorted by name. */
+  public static List<Metric> getMetrics() {
+    final List<Metric> retVal = new ArrayList<>(REGISTRY.values());
+    retVal.sort(Comparator.comparing(Metric::getName));
+    return retVal;
+  }
+
+  /** Discards the recorded data of all metrics. */
+  public static void resetAll() {
+    for (final Metric metric : REGISTRY.values()) {
+      metric.reset();
+    }
+  }
+
+  /** Returns the current state of all metrics as JSON object. */
+  public static JSONObject toJson() {
+    final JSONArray list = new JSONArray();
+    for (final Metric metric : getMetrics()) {
+      final JSONObject obj = new JSONObject();
+      obj.put("name", metric.getName());
+      obj.put("type", metric.getType());
+      for (final Map.Entry<String, Number> e : metric.getValues().entrySet()) {
+        obj.put(e.getKey(), e.getValue());
+      }
+      list.put(obj);
+    }
+
+    final JSONObject root = new JSONObject();
+    root.put("version", NearInfinity.getVersion());
+    root.put("timestamp", Instant.now().toString());
+    root.put("metrics", list);
+    return root;
+  }
+
+  /**
+   * Returns the current state of all metrics in CSV format. The first line contains column names. Values which are not
+   * available for a metric type are left empty.
+   */
+  public static String toCsv() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("name,type");
+    for (final String valueName : VALUE_NAMES) {
+      sb.append(',').append(valueName);
+    }
+    sb.append(System.lineSeparator());
+
+    for (final Metric metric : getMetrics()) {
+      sb.append(metric.getName()).append(',').append(metric.getType());
+      final Map<String, Number> values = metric.getValues();
+      for (final String valueName : VALUE_NAMES) {
+        sb.append(',');
+        final Number value = values.get(valueName);
+        if (value instanceof Double || value instanceof Float) {
+          sb.append(String.format(Locale.ENGLISH, "%.3f", value.doubleValue()));
+        } else if (value != null) {
+          sb.append(value);
+        }
+      }
+      sb.append(System.lineSeparator());
+    }
+    return sb.toString();
+  }
+
+  // Returns the metric of the specified name and type, creates it if needed
+  private static <T extends Metric> T get(String name, Class<T> type, Function<String, T> factory) {
+    if (name == null) {
+      throw new NullPointerException("name is null");
+    }
+    final Metric metric = REGISTRY.computeIfAbsent(name, factory);
+    if (!type.isInstance(metric)) {
+      throw new IllegalArgumentException("Metric \"" + name + "\" is not a " + type.getSimpleName());
+    }
+    return type.cast(metric);
+  }
+
+  private Metrics() {
+  }
+}
@@ -0,0 +1,104 @@
+// Near Infinity - An Infinity Engine Browser and Editor
+// Copyright (C) 2001 Jon Olav Hauglid
+// See LICENSE.txt for license information
+
+package org.infinity.util.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinity.util.DebugTimer;
+
+/**
+ * Measures the duration of a single operation. The duration is recorded by the associated {@link LatencyTimer} when
+ * the span is closed.
+ * <p>
+ * Each span maintains its own start time, which allows measuring overlapping operations independently of each other.
+ * Optionally, the number of processed items can be tracked to report the throughput of the operation.
+ * </p>
+ *
+ * <pre>
+ * try (final Span span = Metrics.start("search.text")) {
+ *   ...
+ *   span.addItems(1);
+ *   ...
+ *   Logger.info(span.getTimerFormatted("Search completed"));
+ * }
+ * </pre>
+ */
+public class Span implements AutoCloseable {
+  /** End time of spans that have not been closed yet. */
+  private static final long OPEN = Long.MIN_VALUE;
+
+  private final LatencyTimer timer;
+  private final long startTime;
+  private final LongAdder items = new LongAdder();
+  private final AtomicLong endTime = new AtomicLong(OPEN);
+
+  Span(LatencyTimer timer) {
+    this.timer = timer;
+    this.startTime = System.nanoTime();
+  }
+
+  /** Returns the timer that records the duration of this span. */
+  public LatencyTimer getTimer() {
+    return timer;
+  }
+
+  /** Adds the specified number of items to the processed item count. Can be called concurrently. */
+  public void addItems(long count) {
+    items.add(count);
+  }
+
+  /** Returns the number of processed items. */
+  public long getItems() {
+    return items.sum();
+  }
+
+  /** Returns the elapsed time of the span in nanoseconds. The time is fixed when the span is closed. */
+  public long getElapsed() {
+    final long end = endTime.get();
+    return ((end != OPEN) ? end : System.nanoTime()) - startTime;
+  }
+
+  /** Returns whether the span has been closed. */
+  public boolean isClosed() {
+    return endTime.get() != OPEN;
+  }
+
+  /**
+   * Returns the elapsed time in milliseconds with an optional message, in the same format as
+   * {@link DebugTimer#getTimerFormatted(String)}. Includes the throughput if items have been processed.
+   *
+   * @param message Optional message to show. Specify {@code null} or an empty string to omit this message.
+   * @return A formatted string with optional message, elapsed time and throughput.
+   */
+  public String getTimerFormatted(String message) {
+    final long elapsed = getElapsed();
+    final StringBuilder sb = new StringBuilder();
+    if (message != null && !message.isEmpty()) {
+      sb.append('[').append(message).append("] ");
+    }
+    sb.append(DebugTimer.TimeFormat.MILLISECONDS.toString(elapsed));
+    final long count = getItems();
+    if (count > 0) {
+      sb.append(" (").append(count).append(" items");
+      if (elapsed > 0) {
+        sb.append(", ").append(String.format(Locale.ENGLISH, "%.1f", count * 1_000_000_000.0 / elapsed)).append("/s");
+      }
+      sb.append(')');
+    }
+    return sb.toString();
+  }
+
+  /** Stops the span and records the elapsed time. Subsequent calls have no effect. */
+  @Override
+  public void close() {
+    // end time is published atomically, together with the closed state
+    final long end = Math.max(System.nanoTime(), OPEN + 1);
+    if (endTime.compareAndSet(OPEN, end)) {
+      timer.record(end - startTime);
+    }
+  }
+}